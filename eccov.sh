@@ -88,19 +88,12 @@ if [ ! "$ontbase" ]; then
     exit 1
 fi
 #
-# The input parameters beyond this script will go on to ecco. Note that -ont1 and -ont2
-# are established here. So pass onto ecco only optional commands (like -v for verbose)
+# The input parameters beyond this script will go on to ecco. Note that the series of versions
+# is established here. So pass onto ecco only optional commands (like -v for verbose). All
+# consecutive pairs are diffed in a single JVM, so each version is loaded and classified once
 # 
-versions=( $ontbase/* )
-for (( i = 0 ; i < ${#versions[@]}-1 ; i++ ))
-do
-	if [ ! "$ontname" ]; then
-		ont1=${versions[$i]}
-		ont2=${versions[$i+1]}
-	else
-		ont1=${versions[$i]}/"$ontname"
-		ont2=${versions[$i+1]}/"$ontname"
-	fi
-	# Run ecco with the specified arguments
-	java -Xmx"$maxmem" -Djava.library.path="$lib" -DentityExpansionLimit=100000000 -jar target/ecco.jar -ont1 "$ont1" -ont2 "$ont2" "$@"
-done
\ No newline at end of file
+if [ ! "$ontname" ]; then
+	java -Xmx"$maxmem" -Djava.library.path="$lib" -DentityExpansionLimit=100000000 -jar target/ecco.jar -series "$ontbase" "$@"
+else
+	java -Xmx"$maxmem" -Djava.library.path="$lib" -DentityExpansionLimit=100000000 -jar target/ecco.jar -series "$ontbase" -sname "$ontname" "$@"
+fi
\ No newline at end of file
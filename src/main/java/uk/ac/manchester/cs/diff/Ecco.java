@@ -1,29 +1,34 @@
 package uk.ac.manchester.cs.diff;
 
 import java.io.File;
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.semanticweb.owl.explanation.api.Explanation;
 import org.semanticweb.owlapi.model.AxiomType;
-import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLAxiom;
-import org.semanticweb.owlapi.model.OWLDisjointClassesAxiom;
 import org.semanticweb.owlapi.model.OWLEntity;
-import org.semanticweb.owlapi.model.OWLImportsDeclaration;
 import org.semanticweb.owlapi.model.OWLOntology;
-import org.semanticweb.owlapi.model.RemoveAxiom;
-import org.semanticweb.owlapi.model.RemoveImport;
-import org.semanticweb.owlapi.util.OWLEntityURIConverter;
-import org.semanticweb.owlapi.util.OWLEntityURIConverterStrategy;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import com.google.common.collect.Sets;
 
 import uk.ac.manchester.cs.diff.EccoSettings.Transformer;
 import uk.ac.manchester.cs.diff.axiom.CategoricalDiff;
+import uk.ac.manchester.cs.diff.axiom.DiffBaseline;
+import uk.ac.manchester.cs.diff.axiom.IncrementalDiff;
 import uk.ac.manchester.cs.diff.axiom.LogicalDiffConcurrent;
-import uk.ac.manchester.cs.diff.axiom.StructuralDiff;
+import uk.ac.manchester.cs.diff.axiom.StructuralDiffConcurrent;
+import uk.ac.manchester.cs.diff.axiom.FingerprintStructuralDiff;
 import uk.ac.manchester.cs.diff.axiom.changeset.AxiomChangeSet;
 import uk.ac.manchester.cs.diff.axiom.changeset.CategorisedChangeSet;
 import uk.ac.manchester.cs.diff.axiom.changeset.LogicalChangeSet;
@@ -42,6 +47,11 @@ import uk.ac.manchester.cs.diff.unity.WitnessJustifier;
 import uk.ac.manchester.cs.diff.unity.changeset.AlignedChangeSet;
 import uk.ac.manchester.cs.diff.unity.changeset.AlignedDirectChangeSet;
 import uk.ac.manchester.cs.diff.unity.changeset.AlignedIndirectChangeSet;
+import uk.ac.manchester.cs.diff.utils.EntailmentCache;
+import uk.ac.manchester.cs.diff.utils.ImportDigest;
+import uk.ac.manchester.cs.diff.utils.InputPreprocessor;
+import uk.ac.manchester.cs.diff.utils.OntologyDigest;
+import uk.ac.manchester.cs.diff.utils.ReasonerSession;
 
 /**
  * @author Rafael S. Goncalves <br>
@@ -50,8 +60,14 @@ import uk.ac.manchester.cs.diff.unity.changeset.AlignedIndirectChangeSet;
  */
 public class Ecco {
 	public static final String outputDir = "ecco-output" + File.separator;
-	private boolean inputChecked;
-	private OWLOntology ont1, ont2;
+	private boolean inputChecked, ont1Checked, retainReasoners;
+	private OWLOntology ont1, ont2, ont1changed, ont2changed;
+	private Set<OWLAxiom> sharedImportAxioms;
+	private ReasonerSession session;
+	private EntailmentCache entailmentCache;
+	private DiffBaseline baseline;
+	private IncrementalDiff incrementalDiff;
+	private OntologyDigest ont1digest, ont2digest;
 	private EccoSettings settings;
 	private AxiomChangeSet axiomChangeSet; 
 	private ConceptChangeSet conceptChangeSet;
@@ -74,9 +90,53 @@ public class Ecco {
 	 * @param settings	ecco settings
 	 */
 	public Ecco(OWLOntology ont1, OWLOntology ont2, EccoSettings settings) {
+		this(ont1, ont2, settings, new ReasonerSession(settings.getReasonerType(), settings.isVerbose()), 
+				(settings.getEntailmentCacheDirectory() != null ? 
+						new EntailmentCache(settings.getEntailmentCacheDirectory(), settings.getEntailmentCacheSize()) : null));
+	}
+	
+	
+	/**
+	 * Constructor
+	 * @param ont1	Ontology 1
+	 * @param ont2	Ontology 2
+	 * @param settings	ecco settings
+	 * @param session	Reasoner session
+	 * @param entailmentCache	Entailment cache, or null if results should not be cached
+	 */
+	private Ecco(OWLOntology ont1, OWLOntology ont2, EccoSettings settings, ReasonerSession session, EntailmentCache entailmentCache) {
 		this.ont1 = ont1;
 		this.ont2 = ont2;
 		this.settings = settings;
+		this.session = session;
+		this.entailmentCache = entailmentCache;
+	}
+	
+	
+	/**
+	 * Constructor for the next diff in a series of versions, where ontology 1 is ontology 2 of the given (previous)
+	 * diff. That ontology is not preprocessed again, and its reasoner is reused as the reasoner for ontology 1
+	 * @param previous	Diff between the previous pair of versions
+	 * @param ont2	Ontology 2
+	 */
+	public Ecco(Ecco previous, OWLOntology ont2) {
+		this(previous.ont2, ont2, previous.settings, previous.session, previous.entailmentCache);
+		ont1Checked = previous.inputChecked;
+		retainReasoners = true;
+	}
+	
+	
+	/**
+	 * Constructor for an incremental diff of ontology 2 against a persisted baseline, which plays the role of
+	 * ontology 1. The baseline was preprocessed when it was created, so it is not preprocessed again
+	 * @param baseline	Diff baseline
+	 * @param ont2	Ontology 2
+	 * @param settings	ecco settings
+	 */
+	public Ecco(DiffBaseline baseline, OWLOntology ont2, EccoSettings settings) {
+		this(baseline.getOntology(), ont2, settings);
+		this.baseline = baseline;
+		ont1Checked = true;
 	}
 
 	
@@ -87,6 +147,14 @@ public class Ecco {
 		verifyInput();
 		OutputHandler outputHandler = new OutputHandler(settings);
 		XMLDiffReport diffReport = compute();
+		if(settings.isVerbose()) System.out.println("Reasoner session: " + session.getCreatedCount() + " reasoners created, " + 
+				session.getReusedCount() + " requests answered with a cached reasoner");
+		if(!retainReasoners) disposeReasoners(false);
+		if(entailmentCache != null) {
+			if(settings.isVerbose()) System.out.println("Entailment cache: " + entailmentCache.getHits() + " hits, " + 
+					entailmentCache.getMisses() + " misses, " + entailmentCache.size() + " results stored");
+			entailmentCache.save();
+		}
 		if(settings.isSavingDocuments()) {
 			outputHandler.saveXMLDocuments(diffReport, false);
 			outputHandler.copySupportingDocuments();
@@ -95,6 +163,20 @@ public class Ecco {
 	}
 	
 	
+	/**
+	 * Check whether the ontologies are logically equivalent, stopping at the first effectual change found, without
+	 * computing or saving a diff report
+	 * @return true if the ontologies are logically equivalent, false if they are not, or null if undetermined
+	 */
+	public Boolean checkEquivalence() {
+		Boolean equivalent = checkLogicalEquivalence();
+		if(!retainReasoners) disposeReasoners(false);
+		if(entailmentCache != null) entailmentCache.save();
+		System.out.println("Logically equivalent: " + (equivalent == null ? "undetermined" : (equivalent ? "yes" : "no")));
+		return equivalent;
+	}
+	
+	
 	/**
 	 * Compute diff as specified in ecco settings between given ontologies
 	 * @return XML diff report
@@ -130,24 +212,127 @@ public class Ecco {
 	 */
 	public boolean areStructurallyEquivalent() {
 		if(!inputChecked) verifyInput();
-		if(axiomChangeSet == null) axiomChangeSet = getStructuralAxiomChanges();
-		return axiomChangeSet.isEmpty();
+		if(axiomChangeSet != null) return axiomChangeSet.isEmpty();
+		computeDigests(false);
+		return ont1digest.isEquivalent(ont2digest);
 	}
 	
 	
 	/**
-	 * Check whether the given ontologies are logically equivalent 
-	 * @return true if ontologies are logically equivalent, false otherwise
+	 * Get the axiom types that contain structural changes, according to the ontology digests
+	 * @return Set of changed axiom types
+	 */
+	public Set<AxiomType<?>> getChangedAxiomTypes() {
+		if(!inputChecked) verifyInput();
+		computeDigests(false);
+		return ont1digest.getChangedAxiomTypes(ont2digest);
+	}
+	
+	
+	/**
+	 * Get the entities that appear in structurally added or removed axioms, according to the ontology digests
+	 * @return Set of changed entities
+	 */
+	public Set<OWLEntity> getChangedEntities() {
+		if(!inputChecked) verifyInput();
+		computeDigests(true);
+		return ont1digest.getChangedEntities(ont2digest);
+	}
+	
+	
+	/**
+	 * Compute the digests of both ontologies concurrently, unless already computed. A failure to compute either
+	 * digest is propagated, and neither digest is kept
+	 * @param perEntity	true if digests should be rolled up per entity, false if only per axiom type
+	 */
+	private void computeDigests(final boolean perEntity) {
+		if(ont1digest != null && (!perEntity || ont1digest.hasEntityDigests())) return;
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		Future<OntologyDigest> d1 = executor.submit(new Callable<OntologyDigest>() {
+			@Override
+			public OntologyDigest call() {
+				return new OntologyDigest(ont1, perEntity);
+			}
+		});
+		Future<OntologyDigest> d2 = executor.submit(new Callable<OntologyDigest>() {
+			@Override
+			public OntologyDigest call() {
+				return new OntologyDigest(ont2, perEntity);
+			}
+		});
+		try {
+			OntologyDigest digest1 = get(d1), digest2 = get(d2);
+			ont1digest = digest1; ont2digest = digest2;
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	
+	/**
+	 * Wait for the result of the given task, rethrowing any exception thrown by the task
+	 * @param future	Future result of a task
+	 * @return Result of the task
+	 */
+	private static <T> T get(Future<T> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			if(e.getCause() instanceof Error) throw (Error) e.getCause();
+			throw new RuntimeException(e.getCause());
+		}
+	}
+	
+	
+	/**
+	 * Check whether the given ontologies are logically equivalent. If no logical diff was computed, this stops at the
+	 * first effectual change found (see {@link LogicalDiffConcurrent#findEffectualChange()}), rather than computing 
+	 * the whole diff
+	 * @return true if ontologies are logically equivalent, false otherwise (including when undetermined)
 	 */
 	public boolean areLogicallyEquivalent() {
+		return Boolean.TRUE.equals(checkLogicalEquivalence());
+	}
+	
+	
+	/**
+	 * Check whether the given ontologies are logically equivalent, distinguishing the case where this could not be
+	 * determined, i.e., no change is effectual but the entailment check of some change reached the time limit
+	 * @return true if ontologies are logically equivalent, false if they are not, or null if undetermined
+	 */
+	public Boolean checkLogicalEquivalence() {
 		if(!inputChecked) verifyInput();
-		if(axiomChangeSet == null) 
-			axiomChangeSet = getLogicalAxiomChanges();
-		else if(axiomChangeSet instanceof StructuralChangeSet) 
+		if(axiomChangeSet instanceof CategorisedChangeSet) {
+			CategorisedChangeSet categorisedChanges = (CategorisedChangeSet)axiomChangeSet;
+			return getEquivalence(categorisedChanges.getEffectualAdditionAxioms().isEmpty() && categorisedChanges.getEffectualRemovalAxioms().isEmpty(),
+					categorisedChanges.getUndeterminedAdditionAxioms().isEmpty() && categorisedChanges.getUndeterminedRemovalAxioms().isEmpty());
+		}
+		if(axiomChangeSet instanceof LogicalChangeSet) {
+			LogicalChangeSet logicalChanges = (LogicalChangeSet)axiomChangeSet;
+			return getEquivalence(logicalChanges.getEffectualAdditionAxioms().isEmpty() && logicalChanges.getEffectualRemovalAxioms().isEmpty(),
+					logicalChanges.getUndeterminedAdditionAxioms().isEmpty() && logicalChanges.getUndeterminedRemovalAxioms().isEmpty());
+		}
+		if(baseline != null) {
 			axiomChangeSet = getLogicalAxiomChanges();
-		else if(axiomChangeSet instanceof CategorisedChangeSet) 
-			return ((CategorisedChangeSet)axiomChangeSet).isFreeOfEffectualChanges();
-		return axiomChangeSet.isEmpty();
+			return checkLogicalEquivalence();
+		}
+		return createLogicalDiff().checkEquivalence(getOntology1Reasoner(), getOntology2Reasoner());
+	}
+	
+	
+	/**
+	 * Get the equivalence outcome of a computed change set
+	 * @param noEffectual	true if there are no effectual changes
+	 * @param noUndetermined	true if there are no undetermined changes
+	 * @return true if ontologies are logically equivalent, false if they are not, or null if undetermined
+	 */
+	private Boolean getEquivalence(boolean noEffectual, boolean noUndetermined) {
+		if(!noEffectual) return false;
+		return (noUndetermined ? true : null);
 	}
 	
 	
@@ -249,6 +434,7 @@ public class Ecco {
 		if(!inputChecked) verifyInput();
 		SubconceptDiff atomic_diff = new SubconceptDiff(ont1, ont2, settings.isVerbose());
 		atomic_diff.setAtomicConceptDiff(true);
+		atomic_diff.setReasonerSession(session);
 		return atomic_diff.getDiff();
 	}
 
@@ -261,6 +447,7 @@ public class Ecco {
 	private ConceptChangeSet getSubconceptChanges() {
 		if(!inputChecked) verifyInput();
 		SubconceptDiff subconcept_diff = new SubconceptDiff(ont1, ont2, settings.isVerbose());
+		subconcept_diff.setReasonerSession(session);
 		return subconcept_diff.getDiff();
 	}
 
@@ -275,6 +462,7 @@ public class Ecco {
 	private ConceptChangeSet getGrammarBasedChanges() {
 		if(!inputChecked) verifyInput();
 		GrammarDiff grammar_diff = new GrammarDiff(ont1, ont2, settings.isVerbose());
+		grammar_diff.setReasonerSession(session);
 		return grammar_diff.getDiff();
 	}
 
@@ -287,6 +475,7 @@ public class Ecco {
 	private ConceptChangeSet getContentCvsBasedChanges() {
 		if(!inputChecked) verifyInput();
 		ContentCVSDiff contentcvs_diff = new ContentCVSDiff(ont1, ont2, settings.isVerbose());
+		contentcvs_diff.setReasonerSession(session);
 		return contentcvs_diff.getDiff();
 	}
 
@@ -315,12 +504,34 @@ public class Ecco {
 	 * equivalent according to OWL 2's notion of structural equivalence
 	 * @return Structural change set
 	 */
+	@SuppressWarnings("deprecation")
 	public StructuralChangeSet getStructuralAxiomChanges() {
 		if(axiomChangeSet != null && axiomChangeSet instanceof StructuralChangeSet) 
 			return (StructuralChangeSet)axiomChangeSet;
 		if(!inputChecked) verifyInput();
-		StructuralDiff structural_diff = new StructuralDiff(ont1, ont2, settings.isVerbose());
-		return structural_diff.getDiff();
+		if(baseline != null) return getIncrementalDiff().getStructuralChangeSet();
+		// Identical imports are shared in bulk, so only the root ontologies and changed imports are diffed
+		OWLOntology o1 = (sharedImportAxioms != null ? ont1changed : ont1), o2 = (sharedImportAxioms != null ? ont2changed : ont2);
+		StructuralChangeSet changeSet;
+		if(settings.isComputingConcurrentStructuralDiff() || ont1digest != null) {
+			StructuralDiffConcurrent structural_diff = new StructuralDiffConcurrent(o1, o2, settings.isVerbose());
+			if(ont1digest != null) {
+				// Limit the diff to the axiom types whose digests differ
+				Set<AxiomType<?>> unchanged = new HashSet<AxiomType<?>>(AxiomType.AXIOM_TYPES);
+				unchanged.removeAll(ont1digest.getChangedAxiomTypes(ont2digest));
+				structural_diff.setUnchangedAxiomTypes(unchanged);
+			}
+			changeSet = structural_diff.getDiff();
+		}
+		else
+			changeSet = new FingerprintStructuralDiff(o1, o2, settings.isVerbose()).getDiff();
+		if(sharedImportAxioms == null) return changeSet;
+		
+		StructuralChangeSet result = new StructuralChangeSet(changeSet.getAddedAxioms(), changeSet.getRemovedAxioms(), 
+				Sets.union(changeSet.getShared(), sharedImportAxioms));
+		result.setOntologyName(1, changeSet.getOntology1FileName()); result.setOntologyName(2, changeSet.getOntology2FileName());
+		result.setDiffTime(changeSet.getOperationTime());
+		return result;
 	}
 	
 	
@@ -333,8 +544,26 @@ public class Ecco {
 		if(axiomChangeSet != null && axiomChangeSet instanceof LogicalChangeSet) 
 			return (LogicalChangeSet)axiomChangeSet;
 		if(!inputChecked) verifyInput();
-		LogicalDiffConcurrent logical_diff = new LogicalDiffConcurrent(ont1, ont2, settings.isVerbose());
-		return logical_diff.getDiff();
+		if(baseline != null) return getIncrementalDiff().getDiff(getOntology2Reasoner());
+		return createLogicalDiff().getDiff(getOntology1Reasoner(), getOntology2Reasoner());
+	}
+	
+	
+	/**
+	 * Create a logical diff over the structural diff between ontologies, configured by the settings
+	 * @return Logical diff
+	 */
+	private LogicalDiffConcurrent createLogicalDiff() {
+		LogicalDiffConcurrent logical_diff = new LogicalDiffConcurrent(ont1, ont2, getStructuralAxiomChanges(), settings.isVerbose());
+		logical_diff.setReasonerReplicas(settings.getNumberOfReasoners());
+		logical_diff.setBulkEntailmentChecking(settings.isCheckingEntailmentsInBulk());
+		logical_diff.setModularEntailmentChecking(settings.isCheckingEntailmentsAgainstModules());
+		logical_diff.setPreReasoning(settings.isPreReasoning());
+		logical_diff.setEntailmentTimeout(settings.getEntailmentTimeout());
+		logical_diff.setPortfolioThreshold(settings.getPortfolioThreshold());
+		logical_diff.setEntailmentCache(entailmentCache);
+		logical_diff.setReasonerType(settings.getReasonerType());
+		return logical_diff;
 	}
 	
 	
@@ -346,122 +575,210 @@ public class Ecco {
 		if(axiomChangeSet != null && axiomChangeSet instanceof CategorisedChangeSet) 
 			return (CategorisedChangeSet)axiomChangeSet;
 		if(!inputChecked) verifyInput();
-		CategoricalDiff categorical_diff = new CategoricalDiff(ont1, ont2, settings.getNumberOfJustifications(), settings.isVerbose());
+		if(baseline != null) {
+			// The categorisation of a given logical change set needs no reasoner over the whole baseline ontology
+			return createCategoricalDiff(getLogicalAxiomChanges()).getDiff();
+		}
+		// With shared imports, the logical diff is computed here over the restricted structural diff, with the same
+		// reasoners as the categorisation
+		LogicalChangeSet logicalChanges = null;
+		if(sharedImportAxioms != null)
+			logicalChanges = createLogicalDiff().getDiff(getOntology1Reasoner(), getOntology2Reasoner());
+		CategoricalDiff categorical_diff = createCategoricalDiff(logicalChanges);
+		categorical_diff.setReasoners(getOntology1Reasoner(), getOntology2Reasoner());
 		return categorical_diff.getDiff();
 	}
 	
 	
 	/**
-	 * Get CSV log of changes found
-	 * @param diffReport	XML diff report
-	 * @return CSV log of change types and number
+	 * Create a categorical diff between ontologies, configured by the settings
+	 * @param logicalChanges	Logical change set to be categorised, or null if the diff should compute it
+	 * @return Categorical diff
 	 */
-	public String getCSVLog(XMLDiffReport diffReport) {
-		CSVDiffReport csvReport = new CSVDiffReport(diffReport);
-		return csvReport.getCSV();
+	private CategoricalDiff createCategoricalDiff(LogicalChangeSet logicalChanges) {
+		CategoricalDiff categorical_diff = (logicalChanges != null ? 
+				new CategoricalDiff(ont1, ont2, logicalChanges, settings.getNumberOfJustifications(), settings.isVerbose()) :
+				new CategoricalDiff(ont1, ont2, settings.getNumberOfJustifications(), settings.isVerbose()));
+		categorical_diff.setReasonerReplicas(settings.getNumberOfReasoners());
+		categorical_diff.setCategorisationThreads(settings.getNumberOfCategorisationThreads());
+		categorical_diff.setBulkEntailmentChecking(settings.isCheckingEntailmentsInBulk());
+		categorical_diff.setModularEntailmentChecking(settings.isCheckingEntailmentsAgainstModules());
+		categorical_diff.setPreReasoning(settings.isPreReasoning());
+		categorical_diff.setEntailmentTimeout(settings.getEntailmentTimeout());
+		categorical_diff.setPortfolioThreshold(settings.getPortfolioThreshold());
+		categorical_diff.setEntailmentCache(entailmentCache);
+		categorical_diff.setReasonerType(settings.getReasonerType());
+		return categorical_diff;
 	}
 	
 	
 	/**
-	 * Check whether input to ecco needs alterations. By default, ecco removes
-	 * unary disjointness axioms, since dependent tools do not like these
+	 * Get the incremental diff of ontology 2 against the baseline
+	 * @return Incremental diff
 	 */
-	private void verifyInput() {
-		removeUnaryDisjointnessAxioms(ont1); removeUnaryDisjointnessAxioms(ont2);
-		if(settings.isIgnoringAbox()) {
-			removeAbox(ont1); removeAbox(ont2);
+	private IncrementalDiff getIncrementalDiff() {
+		if(incrementalDiff == null) {
+			incrementalDiff = new IncrementalDiff(baseline, ont2, settings.isVerbose());
+			incrementalDiff.setReasonerType(settings.getReasonerType());
 		}
-		if(!settings.isProcessingImports()) {
-			removeImports(ont1); removeImports(ont2);
-		}
-		else {
-			inflateOntologyWithImports(ont1); inflateOntologyWithImports(ont2);
-		}
-		if(settings.isNormalizingURIs()) {
-			normalizeEntityURIs(ont1); normalizeEntityURIs(ont2);
+		return incrementalDiff;
+	}
+	
+	
+	/**
+	 * Save ontology 2 as a baseline for later incremental diffs, along with its class hierarchy
+	 * @param filepath	Baseline file path
+	 */
+	public void saveBaseline(String filepath) {
+		if(!inputChecked) verifyInput();
+		if(settings.isVerbose()) System.out.print("Saving baseline... ");
+		long start = System.currentTimeMillis();
+		try {
+			DiffBaseline.create(ont2, getOntology2Reasoner()).save(filepath);
+			if(settings.isVerbose()) System.out.println("done (" + (System.currentTimeMillis()-start)/1000.0 + " secs)");
+		} catch (IOException e) {
+			System.err.println("[Baseline error] Unable to save baseline to " + filepath + ": " + e.getMessage());
 		}
-		inputChecked = true;
 	}
 	
 	
 	/**
-	 * Normalize entity URIs, e.g.: if there exists an entity named "A" in sig(O1) and sig(O2) but in different namespaces,
-	 * the diff would normally report changes involving "A", which is not always desirable. This method will rename all entities
-	 * in the given ontology to a common namespace
-	 * @param ont	OWL ontology
+	 * Get the reasoner for ontology 1 from the reasoner session, creating it if necessary
+	 * @return Reasoner instance for ontology 1
 	 */
-	private void normalizeEntityURIs(OWLOntology ont) {
-		if(settings.isVerbose()) System.out.print("  Normalizing entity URIs... ");
-		Set<OWLOntology> ontSet = new HashSet<OWLOntology>(); ontSet.add(ont);
-
-		OWLEntityURIConverter converter = new OWLEntityURIConverter(ont.getOWLOntologyManager(), ontSet, new OWLEntityURIConverterStrategy() {
-			@Override
-			public IRI getConvertedIRI(OWLEntity e) {
-				String entityName = getShortForm(e.getIRI());
-				IRI iri = IRI.create("http://owl.cs.manchester.ac.uk/ecco#" + entityName);
-				return iri;
-			}
-		});
-		ont.getOWLOntologyManager().applyChanges(converter.getChanges());
-		if(settings.isVerbose()) System.out.println("done");
+	private OWLReasoner getOntology1Reasoner() {
+		return session.getReasoner(ont1);
 	}
 	
 	
 	/**
-	 * Get the short form an IRI
-	 * @param iri	IRI
-	 * @return Short form of the IRI, i.e., only entity name
+	 * Get the reasoner for ontology 2 from the reasoner session, creating it if necessary
+	 * @return Reasoner instance for ontology 2
 	 */
-	private String getShortForm(IRI iri) {
-		return iri.toString().substring(iri.toString().lastIndexOf("#")+1);
+	private OWLReasoner getOntology2Reasoner() {
+		return session.getReasoner(ont2);
 	}
-
-
+	
+	
 	/**
-	 * Remove unary disjointness axioms from the given ontology
-	 * @param ont	OWL ontology
+	 * Set whether the reasoners of the session shared by all diff stages should be kept alive after {@link #computeDiff()}, 
+	 * rather than disposed of when it ends, so that they can be reused by subsequent diffs (see {@link #Ecco(Ecco, OWLOntology)})
+	 * or to save a baseline
+	 * @param retainReasoners	true if reasoners should be retained, false otherwise
+	 */
+	public void setRetainReasoners(boolean retainReasoners) {
+		this.retainReasoners = retainReasoners;
+	}
+	
+	
+	/**
+	 * Dispose of the retained reasoners
+	 * @param keepOntology2Reasoner	true if the reasoner of ontology 2 should be kept alive (to be reused 
+	 * by the next diff in a series of versions), false otherwise
+	 */
+	public void disposeReasoners(boolean keepOntology2Reasoner) {
+		session.dispose(keepOntology2Reasoner ? ont2 : null);
+	}
+	
+	
+	/**
+	 * Get CSV log of changes found
+	 * @param diffReport	XML diff report
+	 * @return CSV log of change types and number
 	 */
-	private void removeUnaryDisjointnessAxioms(OWLOntology ont) {
-		List<RemoveAxiom> toRemove = new ArrayList<RemoveAxiom>();
-		for(OWLAxiom ax : ont.getAxioms(AxiomType.DISJOINT_CLASSES)) {
-			OWLDisjointClassesAxiom dis = (OWLDisjointClassesAxiom)ax;
-			if(dis.getClassesInSignature().size() < 2)
-				toRemove.add(new RemoveAxiom(ont, ax));
+	public String getCSVLog(XMLDiffReport diffReport) {
+		CSVDiffReport csvReport = new CSVDiffReport(diffReport);
+		return csvReport.getCSV();
+	}
+	
+	
+	/**
+	 * Preprocess the input as specified in the settings, replacing the given ontologies with working ontologies that 
+	 * contain the preprocessed axioms. By default, ecco removes unary disjointness axioms, since dependent tools do not 
+	 * like these. Both ontologies are preprocessed concurrently, each in a single pass (see {@link InputPreprocessor}).
+	 * If identical imports are shared in bulk, the imports of both ontologies are first compared by digest. The given
+	 * ontologies, and their imports, are then removed from their managers, so that only the working ontologies are kept
+	 */
+	private void verifyInput() {
+		long start = System.currentTimeMillis();
+		ForkJoinPool fjPool = new ForkJoinPool(2);
+		InputPreprocessor prep1 = null, prep2 = createPreprocessor(ont2);
+		if(!ont1Checked) {
+			prep1 = createPreprocessor(ont1);
+			if(settings.isSharingIdenticalImports() && settings.isProcessingImports() && baseline == null) 
+				setSharedImports(prep1, prep2);
+			fjPool.execute(prep1);
 		}
-		ont.getOWLOntologyManager().applyChanges(toRemove);
+		fjPool.execute(prep2);
+		OWLOntology input1 = ont1, input2 = ont2;
+		if(prep1 != null) ont1 = prep1.join();
+		ont2 = prep2.join();
+		fjPool.shutdown();
+		if(prep1 != null && ont1 != null) removeOntology(input1);
+		if(ont2 != null && input2 != input1) removeOntology(input2);
+		if(prep1 != null && prep1.getSharedImportAxioms() != null) {
+			sharedImportAxioms = prep1.getSharedImportAxioms();
+			ont1changed = prep1.getChangedModules(); 
+			ont2changed = prep2.getChangedModules();
+			if(settings.isVerbose()) System.out.println("  Sharing " + sharedImportAxioms.size() + " logical axioms of identical imports in bulk");
+		}
+		if(settings.isVerbose()) System.out.println("  Preprocessed input (" + (System.currentTimeMillis()-start)/1000.0 + " secs)");
+		ont1Checked = true;
+		inputChecked = true;
 	}
 	
 	
 	/**
-	 * Remove Abox axioms from given ontology
-	 * @param ont	Ontology to remove Abox axioms from
+	 * Compare the imports of both ontologies by digest (concurrently), and set the identical imports, if any, 
+	 * as shared imports of the given preprocessors. Any exception thrown while digesting the imports is rethrown
+	 * @param prep1	Preprocessor of ontology 1
+	 * @param prep2	Preprocessor of ontology 2
 	 */
-	private void removeAbox(OWLOntology ont) {
-		Set<OWLAxiom> aboxAxs = ont.getABoxAxioms(true);
-		List<RemoveAxiom> toRemove = new ArrayList<RemoveAxiom>();
-		for(OWLAxiom ax : aboxAxs)
-			toRemove.add(new RemoveAxiom(ont, ax));
-		ont.getOWLOntologyManager().applyChanges(toRemove);
+	private void setSharedImports(InputPreprocessor prep1, InputPreprocessor prep2) {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		Future<ImportDigest> d1 = executor.submit(new Callable<ImportDigest>() {
+			@Override
+			public ImportDigest call() {
+				return new ImportDigest(ont1);
+			}
+		});
+		Future<ImportDigest> d2 = executor.submit(new Callable<ImportDigest>() {
+			@Override
+			public ImportDigest call() {
+				return new ImportDigest(ont2);
+			}
+		});
+		try {
+			ImportDigest digest1 = get(d1), digest2 = get(d2);
+			Set<OWLOntology> shared1 = digest1.getIdenticalImports(digest2);
+			if(!shared1.isEmpty()) {
+				prep1.setSharedImports(shared1);
+				prep2.setSharedImports(digest2.getIdenticalImports(digest1));
+			}
+			if(settings.isVerbose()) System.out.println("  Found " + shared1.size() + " identical imports");
+		} finally {
+			executor.shutdown();
+		}
 	}
 	
 	
 	/**
-	 * Remove all imports from the given ontology
+	 * Remove the given ontology and its imports closure from their manager
 	 * @param ont	OWL ontology
 	 */
-	private void removeImports(OWLOntology ont) {
-		for(OWLImportsDeclaration importDecl : ont.getImportsDeclarations())
-			ont.getOWLOntologyManager().applyChange(new RemoveImport(ont.getOWLOntologyManager().getImportedOntology(importDecl), importDecl));
+	private void removeOntology(OWLOntology ont) {
+		OWLOntologyManager man = ont.getOWLOntologyManager();
+		for(OWLOntology o : ont.getImportsClosure())
+			man.removeOntology(o);
 	}
 	
 	
 	/**
-	 * Add all axioms of imported ontologies to the parent ontology, and remove the imports pointers
+	 * Create a preprocessor for the given ontology according to the settings
 	 * @param ont	OWL ontology
+	 * @return Input preprocessor
 	 */
-	private void inflateOntologyWithImports(OWLOntology ont) {
-		for(OWLOntology imported : ont.getImports())
-			ont.getOWLOntologyManager().applyChanges(ont.getOWLOntologyManager().addAxioms(ont, imported.getAxioms()));
-		removeImports(ont);
+	private InputPreprocessor createPreprocessor(OWLOntology ont) {
+		return new InputPreprocessor(ont, settings.isProcessingImports(), settings.isIgnoringAbox(), settings.isNormalizingURIs());
 	}
 }
\ No newline at end of file
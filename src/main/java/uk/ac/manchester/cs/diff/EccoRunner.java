@@ -19,22 +19,30 @@
 package uk.ac.manchester.cs.diff;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import org.semanticweb.owlapi.apibinding.OWLManager;
-import org.semanticweb.owlapi.io.IRIDocumentSource;
 import org.semanticweb.owlapi.io.StreamDocumentSource;
-import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.MissingImportHandlingStrategy;
 import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
 import org.semanticweb.owlapi.util.VersionInfo;
 
+import uk.ac.manchester.cs.diff.axiom.DiffBaseline;
 import uk.ac.manchester.cs.diff.exception.DuplicateArgumentException;
 import uk.ac.manchester.cs.diff.exception.InsufficientArgumentsException;
 import uk.ac.manchester.cs.diff.exception.MissingArgumentException;
 import uk.ac.manchester.cs.diff.exception.UnrecognizedArgumentException;
+import uk.ac.manchester.cs.diff.utils.OntologyLoader;
+import uk.ac.manchester.cs.diff.utils.ImportClosureCache;
+import uk.ac.manchester.cs.diff.utils.EntailmentCache;
+import uk.ac.manchester.cs.diff.utils.OntologySnapshotCache;
 
 /**
  * @author Rafael S. Goncalves <br>
@@ -45,6 +53,9 @@ import uk.ac.manchester.cs.diff.exception.UnrecognizedArgumentException;
 public class EccoRunner {
 	private OWLOntologyLoaderConfiguration config;
 	private EccoSettings settings;
+	private OntologySnapshotCache snapshotCache;
+	private ImportClosureCache importCache;
+	private Boolean equivalent = false;
 	private static final String
 			versionInfo = "2.7",
 			releaseDate = "16-Feb-2015",
@@ -69,6 +80,11 @@ public class EccoRunner {
 			config = config.setMissingImportHandlingStrategy(MissingImportHandlingStrategy.SILENT);
 			config = config.setFollowRedirects(false);
 		}
+		if(settings.getSnapshotDirectory() != null)
+			snapshotCache = new OntologySnapshotCache(settings.getSnapshotDirectory(), settings.isProcessingImports(), 
+					settings.isIgnoringAbox(), config.isLoadAnnotationAxioms());
+		if(settings.getImportCatalogDirectory() != null && settings.isProcessingImports())
+			importCache = new ImportClosureCache(settings.getImportCatalogDirectory(), config.isLoadAnnotationAxioms());
 	}
 	
 	
@@ -80,13 +96,194 @@ public class EccoRunner {
 	 * @param localOnt2	true if ontology 2 is a file in the local file system, false otherwise
 	 */
 	public void start(String ont1filePath, boolean localOnt1, String ont2filePath, boolean localOnt2) {
-		OWLOntology ont1 = loadOntology(1, ont1filePath, localOnt1);
-		OWLOntology ont2 = loadOntology(2, ont2filePath, localOnt2);
+		OWLOntology[] onts = loadOntologies(ont1filePath, localOnt1, ont2filePath, localOnt2);
+		OWLOntology ont1 = onts[0], ont2 = onts[1];
 	
 		if(ont1 != null && ont2 != null) {
 			Ecco ecco = new Ecco(ont1, ont2, settings);
+			if(settings.isEquivalenceOnly()) 
+				equivalent = ecco.checkEquivalence();
+			else if(settings.getSaveBaselineFile() != null) {
+				ecco.setRetainReasoners(true);
+				ecco.computeDiff();
+				ecco.saveBaseline(settings.getSaveBaselineFile());
+				ecco.disposeReasoners(false);
+			}
+			else ecco.computeDiff();
+		}
+	}
+	
+	
+	/**
+	 * Start ecco diff of an ontology against the baseline given in the settings, which plays the role of ontology 1.
+	 * The baseline is read while the ontology is loaded
+	 * @param ont2filePath	Ontology 2 file path
+	 * @param localOnt2	true if ontology 2 is a file in the local file system, false otherwise
+	 */
+	public void startIncremental(String ont2filePath, boolean localOnt2) {
+		OntologyLoader loader = createLoader(2, ont2filePath, localOnt2);
+		System.out.println("Baseline: " + settings.getBaselineFile());
+		System.out.println("Input 2: " + loader.getFileName() + " (" + ont2filePath + ")");
+		ForkJoinPool fjPool = new ForkJoinPool(1);
+		fjPool.execute(loader);
+		
+		DiffBaseline baseline = null;
+		long start = System.currentTimeMillis();
+		try {
+			baseline = DiffBaseline.load(settings.getBaselineFile());
+			System.out.println("\tLoaded baseline (" + baseline.getLogicalAxiomCount() + " logical axioms, " + 
+					(System.currentTimeMillis()-start)/1000.0 + " secs)");
+		} catch (IOException e) {
+			System.err.println("[Baseline error] Unable to load baseline " + settings.getBaselineFile() + ": " + e.getMessage());
+		}
+		OWLOntology ont2 = loader.join();
+		fjPool.shutdown();
+		loader.printReport(ont2);
+		
+		if(baseline != null && ont2 != null) {
+			Ecco ecco = new Ecco(baseline, ont2, settings);
+			if(settings.isEquivalenceOnly()) 
+				equivalent = ecco.checkEquivalence();
+			else if(settings.getSaveBaselineFile() != null) {
+				ecco.setRetainReasoners(true);
+				ecco.computeDiff();
+				ecco.saveBaseline(settings.getSaveBaselineFile());
+				ecco.disposeReasoners(false);
+			}
+			else ecco.computeDiff();
+		}
+	}
+	
+	
+	/**
+	 * Start ecco diff over a series of versions, diffing each consecutive pair of versions in one run. Each version is
+	 * loaded, preprocessed and reasoned over once: version i+1 (ontology 2 of one pair) and its reasoner are reused as
+	 * ontology 1 of the next pair, while the following version is loaded in the background. The output of each pair is
+	 * saved into its own subfolder of the output directory
+	 * @param baseDir	Folder containing the versions, either as (alphabetically sorted) ontology files or as folders
+	 * @param ontName	Ontology file name within each version folder, or null if the versions are files in the base folder
+	 */
+	public void startSeries(String baseDir, String ontName) {
+		List<File> versions = getVersions(baseDir, ontName);
+		if(versions.size() < 2) {
+			System.err.println("[Series error] Found " + versions.size() + " version(s) in " + baseDir + ". At least 2 are required.");
+			return;
+		}
+		System.out.println("Found " + versions.size() + " versions in " + baseDir);
+		String outputDir = settings.getOutputDirectory();
+		long start = System.currentTimeMillis();
+		
+		ForkJoinPool fjPool = new ForkJoinPool(1);
+		OntologyLoader loader = createLoader(1, versions.get(0).getAbsolutePath(), true);
+		OWLOntology ont1 = fjPool.invoke(loader);
+		loader.printReport(ont1);
+		
+		OntologyLoader nextLoader = createLoader(2, versions.get(1).getAbsolutePath(), true);
+		fjPool.execute(nextLoader);
+		Ecco ecco = null;
+		for(int i = 1; i < versions.size() && ont1 != null; i++) {
+			OWLOntology ont2 = nextLoader.join();
+			nextLoader.printReport(ont2);
+			if(ont2 == null) break;
+			
+			// Load the next version while this pair is diffed
+			if(i+1 < versions.size()) {
+				nextLoader = createLoader(i+2, versions.get(i+1).getAbsolutePath(), true);
+				fjPool.execute(nextLoader);
+			}
+			
+			System.out.println("\nDiff " + i + " of " + (versions.size()-1) + ": " + getVersionName(versions.get(i-1), ontName) + 
+					" -> " + getVersionName(versions.get(i), ontName));
+			settings.setOutputDirectory(outputDir + String.format("%03d", i) + "_" + getVersionName(versions.get(i-1), ontName) + 
+					"_" + getVersionName(versions.get(i), ontName));
+			if(ecco == null) {
+				ecco = new Ecco(ont1, ont2, settings);
+				ecco.setRetainReasoners(true);
+			}
+			else {
+				Ecco previous = ecco;
+				ecco = new Ecco(previous, ont2);
+				previous.disposeReasoners(true);
+			}
 			ecco.computeDiff();
 		}
+		if(ecco != null) ecco.disposeReasoners(false);
+		fjPool.shutdown();
+		settings.setOutputDirectory(outputDir);
+		System.out.println("finished series diff (total time: " + (System.currentTimeMillis()-start)/1000.0 + " seconds)");
+	}
+	
+	
+	/**
+	 * Get the versions in the given folder, sorted by file name
+	 * @param baseDir	Folder containing the versions
+	 * @param ontName	Ontology file name within each version folder, or null if the versions are files in the base folder
+	 * @return List of version ontology files
+	 */
+	private List<File> getVersions(String baseDir, String ontName) {
+		List<File> versions = new ArrayList<File>();
+		File[] files = new File(baseDir).listFiles();
+		if(files == null) return versions;
+		Arrays.sort(files);
+		for(File f : files) {
+			if(f.isHidden()) continue;
+			if(ontName == null && f.isFile()) versions.add(f);
+			else if(ontName != null && f.isDirectory() && new File(f, ontName).isFile()) versions.add(new File(f, ontName));
+		}
+		return versions;
+	}
+	
+	
+	/**
+	 * Get the name of a version, i.e., its file name or, if versions are folders, its folder name
+	 * @param version	Version ontology file
+	 * @param ontName	Ontology file name within each version folder, or null if the versions are files in the base folder
+	 * @return Version name
+	 */
+	private String getVersionName(File version, String ontName) {
+		return (ontName == null ? version.getName() : version.getParentFile().getName());
+	}
+	
+	
+	/**
+	 * Create an ontology loader that uses the snapshot and import caches, if any
+	 * @param ontNr	Ontology number
+	 * @param filepath	Ontology file path or URL
+	 * @param localFile	true if the ontology is a file in the local file system, false otherwise
+	 * @return Ontology loader
+	 */
+	private OntologyLoader createLoader(int ontNr, String filepath, boolean localFile) {
+		OntologyLoader loader = new OntologyLoader(config, ontNr, filepath, localFile);
+		loader.setSnapshotCache(snapshotCache);
+		loader.setImportCache(importCache);
+		return loader;
+	}
+	
+	
+	/**
+	 * Load both ontologies (and their imports closures) concurrently, each into its own ontology manager
+	 * @param ont1filePath	Ontology 1 file path
+	 * @param localOnt1	true if ontology 1 is a file in the local file system, false otherwise
+	 * @param ont2filePath	Ontology 2 file path
+	 * @param localOnt2	true if ontology 2 is a file in the local file system, false otherwise
+	 * @return Array containing the loaded ontologies 1 and 2, where an ontology is null if it could not be loaded
+	 */
+	public OWLOntology[] loadOntologies(String ont1filePath, boolean localOnt1, String ont2filePath, boolean localOnt2) {
+		OntologyLoader loader1 = createLoader(1, ont1filePath, localOnt1);
+		OntologyLoader loader2 = createLoader(2, ont2filePath, localOnt2);
+		System.out.println("Input 1: " + loader1.getFileName() + " (" + ont1filePath + ")");
+		System.out.println("Input 2: " + loader2.getFileName() + " (" + ont2filePath + ")");
+		
+		long start = System.currentTimeMillis();
+		ForkJoinPool fjPool = new ForkJoinPool(2);
+		fjPool.execute(loader1); fjPool.execute(loader2);
+		OWLOntology ont1 = loader1.join(), ont2 = loader2.join();
+		fjPool.shutdown();
+		
+		loader1.printReport(ont1); loader2.printReport(ont2);
+		if(settings.isVerbose()) System.out.println("\tLoaded both inputs in " + (System.currentTimeMillis()-start)/1000.0 + " secs" + 
+				(importCache != null ? " (" + importCache.getParsedModuleCount() + " distinct imports parsed from catalog)" : ""));
+		return new OWLOntology[] { ont1, ont2 };
 	}
 	
 	
@@ -98,18 +295,10 @@ public class EccoRunner {
 	 * @return Loaded ontology
 	 */
 	public OWLOntology loadOntology(int ontNr, String filepath, boolean localFile) {
-		String filename = filepath.substring(filepath.lastIndexOf(File.separator)+1, filepath.length());
-		System.out.println("Input " + ontNr + ": " + filename + " (" + filepath + ")");
-		if(filepath.contains("\\")) filepath = filepath.replace("\\", "/");
-		
-		// Load ontology
-		OWLOntology ont = null;
-		try {
-			if(localFile) ont = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(new IRIDocumentSource(IRI.create("file:///" + filepath)), config);
-			else ont = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(new IRIDocumentSource(IRI.create(filepath)), config);
-		} catch (OWLOntologyCreationException e) {
-			e.printStackTrace();
-		}
+		OntologyLoader loader = createLoader(ontNr, filepath, localFile);
+		System.out.println("Input " + ontNr + ": " + loader.getFileName() + " (" + filepath + ")");
+		OWLOntology ont = loader.invoke();
+		loader.printReport(ont);
 		return ont;
 	}
 	
@@ -131,13 +320,27 @@ public class EccoRunner {
 	}
 	
 	
+	/**
+	 * Get the exit status of an equivalence check (see {@link Ecco#checkEquivalence()})
+	 * @return 0 if the ontologies are logically equivalent, 1 if they are not (or were not checked), and 2 if undetermined
+	 */
+	private int getEquivalenceStatus() {
+		if(equivalent == null) return 2;
+		return (equivalent ? 0 : 1);
+	}
+	
+	
 	/**
 	 * Print usage message 
 	 */
 	private static void printUsage() {
 		System.out.println(" Usage:\n\t-ont1 [ONTOLOGY] -ont2 [ONTOLOGY] [OPTIONS]");
+		System.out.println("\t-series [DIRECTORY] [OPTIONS]");
+		System.out.println("\t-baseline [FILE] -ont2 [ONTOLOGY] [OPTIONS]");
 		System.out.println();
 		System.out.println("	[ONTOLOGY]	An input ontology file path or URL");
+		System.out.println("	[DIRECTORY]	A folder of versions, diffed pairwise in one run. The versions are either");
+		System.out.println("			ontology files, or folders each containing an ontology named as given by -sname");
 		System.out.println();
 		System.out.println("	[OPTIONS]");
 		System.out.println("	-o		absolute output directory [default: ECCO-JAR-FOLDER" + File.separator + Ecco.outputDir + "]");
@@ -149,6 +352,38 @@ public class EccoRunner {
 		System.out.println("	-i		ignore Abox axioms");
 		System.out.println("	-j		maximum number of justifications computed per ineffectual change. Reducing");
 		System.out.println("			this can significantly speed up computation [default: 10]");
+		System.out.println("	-reasoner	reasoner used by all diff stages, one of [ hermit | jfact ] [default: hermit]");
+		System.out.println("	-reasoners	number of reasoner replicas per ontology used to check entailments in");
+		System.out.println("			parallel. Each replica holds a copy of the ontology [default: 1]");
+		System.out.println("	-cthreads	number of threads used to categorise changes in parallel, each with its own");
+		System.out.println("			ontology manager and reasoners [default: number of processors]");
+		System.out.println("	-bulk		check entailment of SubClassOf and EquivalentClasses changes in bulk, by");
+		System.out.println("			classifying each ontology once with fresh names for complex concepts");
+		System.out.println("	-modular	check entailment of each change against the locality-based module for its");
+		System.out.println("			signature, sharing one module reasoner between changes over the same terms");
+		System.out.println("	-prereason	settle entailment checks by told axioms and EL saturation where possible,");
+		System.out.println("			calling the reasoner only for the checks that remain");
+		System.out.println("	-timeout	maximum time (in seconds) per entailment check, after which the change is");
+		System.out.println("			reported as undetermined rather than effectual or ineffectual [default: none]");
+		System.out.println("	-portfolio	time (in seconds) after which an entailment check is raced on the other");
+		System.out.println("			reasoner engine (HermiT or JFact), the first answer winning [default: none]");
+		System.out.println("	-equiv		only check whether the ontologies are logically equivalent, stopping at the");
+		System.out.println("			first effectual change found. Exits with status 0 if so, 1 if not, and 2 if");
+		System.out.println("			undetermined, i.e., no change is effectual but some check reached -timeout");
+		System.out.println("	-baseline	diff -ont2 incrementally against the given baseline file, in place of -ont1");
+		System.out.println("	-savebaseline	save -ont2 (preprocessed, with its class hierarchy) as a baseline file");
+		System.out.println("	-sname		file name of the ontology within each version folder, when using -series");
+		System.out.println("	-s		directory in which to cache binary snapshots of parsed input ontologies, so");
+		System.out.println("			that unchanged inputs are not re-parsed in later runs");
+		System.out.println("	-ecache		directory in which to cache entailment check results, keyed by ontology digest");
+		System.out.println("			and axiom fingerprint, so that later runs skip checks already made");
+		System.out.println("	-ecachesize	maximum number of cached entailment results, least recently used ones being");
+		System.out.println("			evicted first [default: " + EntailmentCache.DEFAULT_SIZE + "]");
+		System.out.println("	-catalog	local directory from which imports are resolved (without network access),");
+		System.out.println("			parsing each distinct import once and sharing it between the inputs");
+		System.out.println("	-sharedimports	mark imports that are identical in both ontologies as shared in bulk, and");
+		System.out.println("			only diff the root ontologies and changed imports axiom by axiom");
+		System.out.println("	-p		compute the structural diff concurrently, partitioned by axiom type");
 		System.out.println("	-v		verbose mode");
 		System.out.println("	-h -help	print help message\n");
 	}
@@ -160,7 +395,7 @@ public class EccoRunner {
 	 */
 	public static void main(String[] args) {
 		boolean isOnt1Set = false, isOnt2Set = false, localOnt1 = true, localOnt2 = true;
-		String ont1filePath = null, ont2filePath = null;
+		String ont1filePath = null, ont2filePath = null, seriesDir = null, seriesOntName = null;
 		EccoSettings settings = new EccoSettings();
 		System.out.println("\n" + programTitle);
 		
@@ -178,6 +413,22 @@ public class EccoRunner {
 				ont2filePath = args[i].trim(); isOnt2Set = true; 
 				if(ont2filePath.contains("http") || ont2filePath.contains("ftp")) localOnt2 = false;
 			}
+			else if(arg.equalsIgnoreCase("-series")) {	// Folder of versions
+				if(++i == args.length) throw new MissingArgumentException("\n-series must be followed by a folder of versions.\n");
+				seriesDir = args[i].trim();
+			}
+			else if(arg.equalsIgnoreCase("-baseline")) {	// Baseline to diff against
+				if(++i == args.length) throw new MissingArgumentException("\n-baseline must be followed by a baseline file path.\n");
+				settings.setBaselineFile(args[i].trim());
+			}
+			else if(arg.equalsIgnoreCase("-savebaseline")) {	// Save ontology 2 as a baseline
+				if(++i == args.length) throw new MissingArgumentException("\n-savebaseline must be followed by a baseline file path.\n");
+				settings.setSaveBaselineFile(args[i].trim());
+			}
+			else if(arg.equalsIgnoreCase("-sname")) {	// Ontology file name within each version folder
+				if(++i == args.length) throw new MissingArgumentException("\n-sname must be followed by an ontology file name.\n");
+				seriesOntName = args[i].trim();
+			}
 			else if(arg.equalsIgnoreCase("-o")) {	// Output directory
 				if(++i == args.length) throw new MissingArgumentException("\n-o must be followed by an output directory.\n");
 				arg = args[i].trim(); settings.setOutputDirectory(arg);
@@ -186,16 +437,63 @@ public class EccoRunner {
 				if(++i == args.length) throw new MissingArgumentException("\n-c must be followed by one of [ atomic | subconcept | grammar | contentcvs ].\n");
 				arg = args[i].trim(); settings.setConceptDiffType(arg);
 			}
+			else if(arg.equalsIgnoreCase("-s")) {	// Ontology snapshot cache directory
+				if(++i == args.length) throw new MissingArgumentException("\n-s must be followed by a snapshot cache directory.\n");
+				arg = args[i].trim(); settings.setSnapshotDirectory(arg);
+			}
+			else if(arg.equalsIgnoreCase("-ecache")) {	// Entailment cache directory
+				if(++i == args.length) throw new MissingArgumentException("\n-ecache must be followed by an entailment cache directory.\n");
+				arg = args[i].trim(); settings.setEntailmentCacheDirectory(arg);
+			}
+			else if(arg.equalsIgnoreCase("-ecachesize")) {	// Maximum number of cached entailment results
+				if(++i == args.length) throw new MissingArgumentException("\n-ecachesize must be followed by a positive integer.");
+				int size = Integer.parseInt(args[i].trim());
+				if(size > 0) settings.setEntailmentCacheSize(size);
+			}
+			else if(arg.equalsIgnoreCase("-catalog")) {	// Import catalog directory
+				if(++i == args.length) throw new MissingArgumentException("\n-catalog must be followed by an import catalog directory.\n");
+				arg = args[i].trim(); settings.setImportCatalogDirectory(arg);
+			}
 			else if(arg.equalsIgnoreCase("-n")) settings.setNormalizeURIs(true); 		// Normalize entity namespaces
 			else if(arg.equalsIgnoreCase("-t")) settings.setTransformToHTML(true);		// Transform XML into HTML
 			else if(arg.equalsIgnoreCase("-r")) settings.setProcessImports(false);		// Process root ontologies only
 			else if(arg.equalsIgnoreCase("-i"))	settings.setIgnoreAbox(true);			// Ignore Abox axioms
+			else if(arg.equalsIgnoreCase("-p")) settings.setConcurrentStructuralDiff(true);	// Concurrent structural diff
+			else if(arg.equalsIgnoreCase("-bulk")) settings.setBulkEntailmentChecking(true);	// Bulk entailment checking
+			else if(arg.equalsIgnoreCase("-modular")) settings.setModularEntailmentChecking(true);	// Module-based entailment checking
+			else if(arg.equalsIgnoreCase("-prereason")) settings.setPreReasoning(true);	// Pre-reasoning of entailment checks
+			else if(arg.equalsIgnoreCase("-equiv")) settings.setEquivalenceOnly(true);	// Logical equivalence check only
+			else if(arg.equalsIgnoreCase("-sharedimports")) settings.setSharedImports(true);	// Share identical imports in bulk
 			else if(arg.equalsIgnoreCase("-v")) settings.setVerbose(true);				// Verbose mode
 			else if(arg.equalsIgnoreCase("-j"))	{	// Number of justifications per ineffectual change
 				if(++i == args.length) throw new MissingArgumentException("\n-j must be followed by a positive integer.");
 				int nrJusts = Integer.parseInt(args[i].trim());
 				if(nrJusts > 0) settings.setNumberOfJustifications(nrJusts);
 			}
+			else if(arg.equalsIgnoreCase("-reasoner")) {	// Reasoner type
+				if(++i == args.length) throw new MissingArgumentException("\n-reasoner must be followed by one of [ hermit | jfact ].\n");
+				arg = args[i].trim(); settings.setReasonerType(arg);
+			}
+			else if(arg.equalsIgnoreCase("-timeout")) {	// Entailment check deadline
+				if(++i == args.length) throw new MissingArgumentException("\n-timeout must be followed by a positive number of seconds.");
+				double timeout = Double.parseDouble(args[i].trim());
+				if(timeout > 0) settings.setEntailmentTimeout((long)(timeout*1000));
+			}
+			else if(arg.equalsIgnoreCase("-portfolio")) {	// Portfolio reasoning threshold
+				if(++i == args.length) throw new MissingArgumentException("\n-portfolio must be followed by a positive number of seconds.");
+				double threshold = Double.parseDouble(args[i].trim());
+				if(threshold > 0) settings.setPortfolioThreshold(Math.max(1, (long)(threshold*1000)));
+			}
+			else if(arg.equalsIgnoreCase("-cthreads")) {	// Number of categorisation threads
+				if(++i == args.length) throw new MissingArgumentException("\n-cthreads must be followed by a positive integer.");
+				int nrThreads = Integer.parseInt(args[i].trim());
+				if(nrThreads > 0) settings.setNumberOfCategorisationThreads(nrThreads);
+			}
+			else if(arg.equalsIgnoreCase("-reasoners")) {	// Number of reasoner replicas per ontology
+				if(++i == args.length) throw new MissingArgumentException("\n-reasoners must be followed by a positive integer.");
+				int nrReasoners = Integer.parseInt(args[i].trim());
+				if(nrReasoners > 0) settings.setNumberOfReasoners(nrReasoners);
+			}
 			else if(arg.equalsIgnoreCase("-h") || arg.equalsIgnoreCase("-help")) {		// Print help message
 				printUsage(); System.exit(0);
 			}
@@ -210,6 +508,24 @@ public class EccoRunner {
 			}
 		}
 		System.out.println();
+		if(seriesDir != null) {
+			if(settings.isEquivalenceOnly())
+				throw new DuplicateArgumentException("\n-equiv cannot be used together with -series.\n");
+			new EccoRunner(settings).startSeries(seriesDir, seriesOntName);
+			return;
+		}
+		if(settings.getBaselineFile() != null) {
+			if(ont1filePath != null) 
+				throw new DuplicateArgumentException("\n-ont1 cannot be used together with -baseline, which takes its place.\n");
+			if(ont2filePath == null) {
+				printUsage();
+				throw new MissingArgumentException("\nMissing -ont2 argument, which should be followed by a file path or URL.\n");
+			}
+			EccoRunner runner = new EccoRunner(settings);
+			runner.startIncremental(ont2filePath, localOnt2);
+			if(settings.isEquivalenceOnly()) System.exit(runner.getEquivalenceStatus());
+			return;
+		}
 		if(ont1filePath == null) {
 			printUsage();
 			throw new MissingArgumentException("\nMissing -ont1 argument, which should be followed by a file path or URL.\n");
@@ -221,6 +537,7 @@ public class EccoRunner {
 		if(ont1filePath != null && ont2filePath != null) {
 			EccoRunner runner = new EccoRunner(settings);
 			runner.start(ont1filePath, localOnt1, ont2filePath, localOnt2);
+			if(settings.isEquivalenceOnly()) System.exit(runner.getEquivalenceStatus());
 		}
 	}
 }
\ No newline at end of file
@@ -2,18 +2,23 @@ package uk.ac.manchester.cs.diff;
 
 import java.io.File;
 
+import uk.ac.manchester.cs.diff.utils.EntailmentCache;
+import uk.ac.manchester.cs.diff.utils.ReasonerLoader.ReasonerType;
+
 /**
  * @author Rafael S. Goncalves <br>
  * Stanford Center for Biomedical Informatics Research (BMIR) <br>
  * School of Medicine, Stanford University <br>
  */
 public class EccoSettings {
-	private boolean saveDocuments, ignoreAbox, processImports, normalizeURIs, transform, verbose;
+	private boolean saveDocuments, ignoreAbox, processImports, normalizeURIs, transform, verbose, concurrentStructuralDiff, sharedImports, bulkEntailment, modularEntailment, preReasoning, equivalenceOnly;
 	private AxiomDiffType axiomDiffType;
 	private ConceptDiffType conceptDiffType;
 	private Transformer transformer;
-	private String outputDir, xsltPath;
-	private int nrJusts;
+	private ReasonerType reasonerType;
+	private String outputDir, xsltPath, snapshotDir, importCatalogDir, baselineFile, saveBaselineFile, entailmentCacheDir;
+	private int nrJusts, nrReasoners, nrCategorisationThreads, entailmentCacheSize;
+	private long entailmentTimeout, portfolioThreshold;
 	
 	
 	/**
@@ -23,14 +28,19 @@ public class EccoSettings {
 		axiomDiffType = AxiomDiffType.CATEGORICAL;
 		conceptDiffType = ConceptDiffType.ATOMIC;
 		transformer = Transformer.UNITY;
+		reasonerType = ReasonerType.HERMIT;
 		outputDir = Ecco.outputDir;
 		nrJusts = 10;
+		nrReasoners = 1;
+		nrCategorisationThreads = Runtime.getRuntime().availableProcessors();
+		entailmentCacheSize = EntailmentCache.DEFAULT_SIZE;
 		saveDocuments = true;
 		ignoreAbox = false;
 		processImports = true;
 		normalizeURIs = false;
 		transform = false;
 		verbose = false;
+		concurrentStructuralDiff = false;
 	}
 	
 	
@@ -97,6 +107,43 @@ public class EccoSettings {
 	}
 	
 	
+	/**
+	 * Set the number of reasoner replicas per ontology used to check entailments in parallel
+	 * @param nrReasoners	Number of reasoner replicas per ontology
+	 */
+	public void setNumberOfReasoners(int nrReasoners) {
+		this.nrReasoners = nrReasoners;
+	}
+	
+	
+	/**
+	 * Set the number of threads used to categorise changes in parallel
+	 * @param nrCategorisationThreads	Number of categorisation threads
+	 */
+	public void setNumberOfCategorisationThreads(int nrCategorisationThreads) {
+		this.nrCategorisationThreads = nrCategorisationThreads;
+	}
+	
+	
+	/**
+	 * Set the maximum time for each entailment check in the logical diff, after which the change is undetermined
+	 * @param entailmentTimeout	Maximum time (in milliseconds) per entailment check, or 0 if checks are not bounded
+	 */
+	public void setEntailmentTimeout(long entailmentTimeout) {
+		this.entailmentTimeout = entailmentTimeout;
+	}
+	
+	
+	/**
+	 * Set the time after which an entailment check in the logical diff is raced on the other reasoner engine (HermiT
+	 * or JFact), the first answer winning
+	 * @param portfolioThreshold	Time (in milliseconds) after which checks are raced, or 0 if checks are not raced
+	 */
+	public void setPortfolioThreshold(long portfolioThreshold) {
+		this.portfolioThreshold = portfolioThreshold;
+	}
+	
+	
 	/**
 	 * Set whether output XML documents should be serialised 
 	 * @param saveDocuments	true if documents should be saved, false otherwise
@@ -160,6 +207,135 @@ public class EccoSettings {
 	}
 	
 	
+	/**
+	 * Set whether the structural diff should partition axioms by type and diff partitions concurrently
+	 * @param concurrentStructuralDiff	true if structural diff should run concurrently, false otherwise
+	 */
+	public void setConcurrentStructuralDiff(boolean concurrentStructuralDiff) {
+		this.concurrentStructuralDiff = concurrentStructuralDiff;
+	}
+	
+	
+	/**
+	 * Set whether imports that are identical in both ontologies should be marked as shared in bulk, so that only
+	 * the root ontologies and changed imports are diffed axiom by axiom
+	 * @param sharedImports	true if identical imports should be shared in bulk, false otherwise
+	 */
+	public void setSharedImports(boolean sharedImports) {
+		this.sharedImports = sharedImports;
+	}
+	
+	
+	/**
+	 * Set whether SubClassOf and EquivalentClasses changes should be checked for entailment in bulk, by classification
+	 * @param bulkEntailment	true if entailments should be checked in bulk, false if one by one
+	 */
+	public void setBulkEntailmentChecking(boolean bulkEntailment) {
+		this.bulkEntailment = bulkEntailment;
+	}
+	
+	
+	/**
+	 * Set whether changes should be checked for entailment against the locality-based module for their signature
+	 * @param modularEntailment	true if entailments should be checked against modules, false if against whole ontologies
+	 */
+	public void setModularEntailmentChecking(boolean modularEntailment) {
+		this.modularEntailment = modularEntailment;
+	}
+	
+	
+	/**
+	 * Set whether entailment checks should first be settled, where possible, by a sound but incomplete pre-reasoner
+	 * (told axioms and EL saturation), before the reasoners are called
+	 * @param preReasoning	true if checks should be pre-reasoned, false otherwise
+	 */
+	public void setPreReasoning(boolean preReasoning) {
+		this.preReasoning = preReasoning;
+	}
+	
+	
+	/**
+	 * Set whether only the logical equivalence of the ontologies should be checked, stopping at the first effectual
+	 * change found, rather than computing and saving a diff
+	 * @param equivalenceOnly	true if only logical equivalence should be checked, false otherwise
+	 */
+	public void setEquivalenceOnly(boolean equivalenceOnly) {
+		this.equivalenceOnly = equivalenceOnly;
+	}
+	
+	
+	/**
+	 * Set the reasoner used by all diff stages
+	 * @param reasonerType	Reasoner type
+	 */
+	public void setReasonerType(ReasonerType reasonerType) {
+		this.reasonerType = reasonerType;
+	}
+	
+	
+	/**
+	 * Set the reasoner used by all diff stages
+	 * @param type	String representing reasoner type: one of hermit or jfact
+	 */
+	public void setReasonerType(String type) {
+		reasonerType = ReasonerType.valueOf(type.toUpperCase());
+	}
+	
+	
+	/**
+	 * Set the directory where binary snapshots of parsed input ontologies are cached
+	 * @param snapshotDir	Snapshot cache directory, or null if snapshots should not be used
+	 */
+	public void setSnapshotDirectory(String snapshotDir) {
+		this.snapshotDir = snapshotDir;
+	}
+	
+	
+	/**
+	 * Set the directory where entailment check results are cached across runs
+	 * @param entailmentCacheDir	Entailment cache directory, or null if results should not be cached
+	 */
+	public void setEntailmentCacheDirectory(String entailmentCacheDir) {
+		this.entailmentCacheDir = entailmentCacheDir;
+	}
+	
+	
+	/**
+	 * Set the maximum number of entailment check results kept in the cache, least recently used ones being evicted
+	 * @param entailmentCacheSize	Maximum number of cached results
+	 */
+	public void setEntailmentCacheSize(int entailmentCacheSize) {
+		this.entailmentCacheSize = entailmentCacheSize;
+	}
+	
+	
+	/**
+	 * Set the local catalog directory from which imports are resolved, instead of following them over the network
+	 * @param importCatalogDir	Import catalog directory, or null if imports should be followed
+	 */
+	public void setImportCatalogDirectory(String importCatalogDir) {
+		this.importCatalogDir = importCatalogDir;
+	}
+	
+	
+	/**
+	 * Set the baseline file against which ontology 2 is diffed incrementally, in place of ontology 1
+	 * @param baselineFile	Baseline file path, or null if no baseline should be used
+	 */
+	public void setBaselineFile(String baselineFile) {
+		this.baselineFile = baselineFile;
+	}
+	
+	
+	/**
+	 * Set the file where ontology 2 is saved as a baseline for later incremental diffs
+	 * @param saveBaselineFile	Baseline file path, or null if no baseline should be saved
+	 */
+	public void setSaveBaselineFile(String saveBaselineFile) {
+		this.saveBaselineFile = saveBaselineFile;
+	}
+	
+	
 	/* Getters */
 	
 	
@@ -199,6 +375,42 @@ public class EccoSettings {
 	}
 	
 	
+	/**
+	 * Get the number of reasoner replicas per ontology used to check entailments in parallel
+	 * @return Number of reasoner replicas per ontology
+	 */
+	public int getNumberOfReasoners() {
+		return nrReasoners;
+	}
+	
+	
+	/**
+	 * Get the number of threads used to categorise changes in parallel
+	 * @return Number of categorisation threads
+	 */
+	public int getNumberOfCategorisationThreads() {
+		return nrCategorisationThreads;
+	}
+	
+	
+	/**
+	 * Get the maximum time for each entailment check in the logical diff
+	 * @return Maximum time (in milliseconds) per entailment check, or 0 if checks are not bounded
+	 */
+	public long getEntailmentTimeout() {
+		return entailmentTimeout;
+	}
+	
+	
+	/**
+	 * Get the time after which an entailment check in the logical diff is raced on the other reasoner engine
+	 * @return Time (in milliseconds) after which checks are raced, or 0 if checks are not raced
+	 */
+	public long getPortfolioThreshold() {
+		return portfolioThreshold;
+	}
+	
+	
 	/**
 	 * Get output directory
 	 * @return Output directory
@@ -217,6 +429,60 @@ public class EccoSettings {
 	}
 	
 	
+	/**
+	 * Get the directory where binary snapshots of parsed input ontologies are cached
+	 * @return Snapshot cache directory, or null if snapshots are not used
+	 */
+	public String getSnapshotDirectory() {
+		return snapshotDir;
+	}
+	
+	
+	/**
+	 * Get the directory where entailment check results are cached across runs
+	 * @return Entailment cache directory, or null if results are not cached
+	 */
+	public String getEntailmentCacheDirectory() {
+		return entailmentCacheDir;
+	}
+	
+	
+	/**
+	 * Get the maximum number of entailment check results kept in the cache
+	 * @return Maximum number of cached results
+	 */
+	public int getEntailmentCacheSize() {
+		return entailmentCacheSize;
+	}
+	
+	
+	/**
+	 * Get the local catalog directory from which imports are resolved
+	 * @return Import catalog directory, or null if imports are followed
+	 */
+	public String getImportCatalogDirectory() {
+		return importCatalogDir;
+	}
+	
+	
+	/**
+	 * Get the baseline file against which ontology 2 is diffed incrementally
+	 * @return Baseline file path, or null if no baseline is used
+	 */
+	public String getBaselineFile() {
+		return baselineFile;
+	}
+	
+	
+	/**
+	 * Get the file where ontology 2 is saved as a baseline for later incremental diffs
+	 * @return Baseline file path, or null if no baseline is saved
+	 */
+	public String getSaveBaselineFile() {
+		return saveBaselineFile;
+	}
+	
+	
 	/**
 	 * Check whether documents are set to be saved
 	 * @return true if documents are set to be saved, false otherwise
@@ -270,6 +536,69 @@ public class EccoSettings {
 		return verbose;
 	}
 	
+	
+	/**
+	 * Check whether the structural diff is set to run concurrently
+	 * @return true if structural diff runs concurrently, false otherwise
+	 */
+	public boolean isComputingConcurrentStructuralDiff() {
+		return concurrentStructuralDiff;
+	}
+
+
+	/**
+	 * Check whether imports that are identical in both ontologies are marked as shared in bulk
+	 * @return true if identical imports are shared in bulk, false otherwise
+	 */
+	public boolean isSharingIdenticalImports() {
+		return sharedImports;
+	}
+
+
+	/**
+	 * Check whether SubClassOf and EquivalentClasses changes are checked for entailment in bulk
+	 * @return true if entailments are checked in bulk, false if one by one
+	 */
+	public boolean isCheckingEntailmentsInBulk() {
+		return bulkEntailment;
+	}
+
+
+	/**
+	 * Check whether changes are checked for entailment against the locality-based module for their signature
+	 * @return true if entailments are checked against modules, false if against whole ontologies
+	 */
+	public boolean isCheckingEntailmentsAgainstModules() {
+		return modularEntailment;
+	}
+	
+	
+	/**
+	 * Check whether entailment checks are first settled, where possible, by a sound but incomplete pre-reasoner
+	 * @return true if checks are pre-reasoned, false otherwise
+	 */
+	public boolean isPreReasoning() {
+		return preReasoning;
+	}
+	
+	
+	/**
+	 * Check whether only the logical equivalence of the ontologies is checked, rather than computing a diff
+	 * @return true if only logical equivalence is checked, false otherwise
+	 */
+	public boolean isEquivalenceOnly() {
+		return equivalenceOnly;
+	}
+
+
+	/**
+	 * Get the reasoner used by all diff stages
+	 * @return Reasoner type
+	 */
+	public ReasonerType getReasonerType() {
+		return reasonerType;
+	}
+
 
 	/**
 	 * @author Rafael S. Goncalves <br>
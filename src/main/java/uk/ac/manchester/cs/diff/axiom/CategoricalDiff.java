@@ -19,11 +19,23 @@
 package uk.ac.manchester.cs.diff.axiom;
 
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.semanticweb.owl.explanation.api.Explanation;
 import org.semanticweb.owlapi.apibinding.OWLManager;
@@ -58,11 +70,16 @@ import uk.ac.manchester.cs.diff.axiom.changeset.StructuralChangeSet;
 import uk.ac.manchester.cs.diff.justifications.JustificationFinder;
 import uk.ac.manchester.cs.diff.output.csv.CSVAxiomDiffReport;
 import uk.ac.manchester.cs.diff.output.xml.XMLAxiomDiffReport;
+import uk.ac.manchester.cs.diff.utils.AtomicDecomposition;
+import uk.ac.manchester.cs.diff.utils.AxiomEntailmentChecker;
+import uk.ac.manchester.cs.diff.utils.EntailmentCache;
 import uk.ac.manchester.cs.diff.utils.ProgressMonitor;
 import uk.ac.manchester.cs.diff.utils.ReasonerLoader;
+import uk.ac.manchester.cs.diff.utils.ReasonerLoader.ReasonerType;
+import uk.ac.manchester.cs.diff.utils.SaturationEntailmentChecker;
+import uk.ac.manchester.cs.diff.utils.SignatureIndex;
+import uk.ac.manchester.cs.diff.utils.TautologyChecker;
 import uk.ac.manchester.cs.owl.owlapi.mansyntaxrenderer.ManchesterOWLSyntaxObjectRenderer;
-import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
-import uk.ac.manchester.cs.owlapi.modularity.SyntacticLocalityModuleExtractor;
 
 import com.clarkparsia.owlapi.modularity.locality.LocalityClass;
 import com.clarkparsia.owlapi.modularity.locality.SyntacticLocalityEvaluator;
@@ -80,11 +97,22 @@ public class CategoricalDiff implements AxiomDiff {
 	private StructuralChangeSet structuralChangeSet;
 	private CategorisedChangeSet categorisedChangeSet;
 	private LogicalChangeSet logicalChangeSet;
-	private OWLReasoner ont1reasoner, ont2reasoner, emptyOntReasoner;
+	private OWLReasoner ont1reasoner, ont2reasoner;
 	private Set<OWLAxiom> sharedAxioms;
 	private double diffTime, eaTime, erTime, iaTime, irTime, iaJustTime, irJustTime;
-	private int nrJusts;
-	private boolean verbose;
+	private int nrJusts, nrReasoners = 1, nrThreads = Runtime.getRuntime().availableProcessors();
+	private boolean verbose, externalReasoners, ownReasoners, bulkEntailment, modularEntailment, preReasoning, structuralChecking = true;
+	private AtomicInteger entailmentChecks = new AtomicInteger(), settledChecks = new AtomicInteger();
+	private ExecutorService workers;
+	private LinkedBlockingQueue<CategorisationWorker> idleWorkers = new LinkedBlockingQueue<CategorisationWorker>();
+	private ProgressMonitor progress;
+	private int progressStatus;
+	private long entailmentTimeout, portfolioThreshold;
+	private EntailmentCache cache;
+	private ReasonerType reasonerType = ReasonerType.HERMIT;
+	private long[] emptyOntDigest;
+	private final TautologyChecker tautologies = new TautologyChecker();
+	private final Map<OWLOntology,AtomicDecomposition> decompositions = new IdentityHashMap<OWLOntology,AtomicDecomposition>();
 	private static ShortFormProvider p = new SimpleShortFormProvider();
 
 	/**
@@ -101,7 +129,6 @@ public class CategoricalDiff implements AxiomDiff {
 		this.verbose = verbose;
 		man = OWLManager.createOWLOntologyManager();
 		df = man.getOWLDataFactory();
-		emptyOntReasoner = createEmptyOntologyReasoner();
 	}
 	
 	
@@ -121,7 +148,121 @@ public class CategoricalDiff implements AxiomDiff {
 		this.verbose = verbose;
 		man = OWLManager.createOWLOntologyManager();
 		df = man.getOWLDataFactory();
-		emptyOntReasoner = createEmptyOntologyReasoner();
+	}
+	
+	
+	/**
+	 * Set the reasoners for ontologies 1 and 2, rather than creating them during the diff. Reasoners given here
+	 * are not disposed of by the diff, so that they can be reused afterwards
+	 * @param ont1reasoner	Instance of a reasoner loaded with ontology 1
+	 * @param ont2reasoner	Instance of a reasoner loaded with ontology 2
+	 */
+	public void setReasoners(OWLReasoner ont1reasoner, OWLReasoner ont2reasoner) {
+		this.ont1reasoner = ont1reasoner;
+		this.ont2reasoner = ont2reasoner;
+		externalReasoners = true;
+	}
+	
+	
+	/**
+	 * Set the number of reasoner replicas per ontology used to check entailments in parallel in the logical diff
+	 * @param nrReasoners	Number of reasoner replicas per ontology
+	 */
+	public void setReasonerReplicas(int nrReasoners) {
+		this.nrReasoners = nrReasoners;
+	}
+	
+	
+	/**
+	 * Set the number of threads used to categorise changes. Each thread has its own ontology manager and reasoners
+	 * @param nrThreads	Number of categorisation threads, where 1 categorises all changes in the calling thread
+	 */
+	public void setCategorisationThreads(int nrThreads) {
+		this.nrThreads = Math.max(1, nrThreads);
+	}
+	
+	
+	/**
+	 * Set whether SubClassOf and EquivalentClasses changes should be checked for entailment in bulk in the logical diff
+	 * @param bulkEntailment	true if entailments should be checked in bulk, false otherwise
+	 */
+	public void setBulkEntailmentChecking(boolean bulkEntailment) {
+		this.bulkEntailment = bulkEntailment;
+	}
+	
+	
+	/**
+	 * Set whether entailments should be checked against locality-based modules of the ontologies in the logical diff
+	 * @param modularEntailment	true if entailments should be checked against modules, false otherwise
+	 */
+	public void setModularEntailmentChecking(boolean modularEntailment) {
+		this.modularEntailment = modularEntailment;
+	}
+	
+	
+	/**
+	 * Set whether entailment checks in the logical diff should first be settled, where possible, by a sound but
+	 * incomplete pre-reasoner (see {@link SaturationEntailmentChecker}). Single-axiom entailment checks in the
+	 * categorisation of changes are first settled by an {@link AxiomEntailmentChecker} by default
+	 * @param preReasoning	true if checks should be pre-reasoned, false otherwise
+	 */
+	public void setPreReasoning(boolean preReasoning) {
+		this.preReasoning = preReasoning;
+	}
+	
+	
+	/**
+	 * Set whether single-axiom and tautology checks in the categorisation of changes are first settled, where possible,
+	 * by an {@link AxiomEntailmentChecker}. This is on by default; turning it off leaves all checks to the reasoners,
+	 * which is only useful to compare categorisations
+	 * @param structuralChecking	true if checks should first be settled structurally, false otherwise
+	 */
+	void setStructuralChecking(boolean structuralChecking) {
+		this.structuralChecking = structuralChecking;
+	}
+	
+	
+	/**
+	 * Set the maximum time for each entailment check in the logical diff, after which the change is undetermined, 
+	 * and thus left uncategorised
+	 * @param entailmentTimeout	Maximum time (in milliseconds) per entailment check, or 0 if checks are not bounded
+	 */
+	public void setEntailmentTimeout(long entailmentTimeout) {
+		this.entailmentTimeout = entailmentTimeout;
+	}
+	
+	
+	/**
+	 * Set the time after which an entailment check in the logical diff is raced on the other reasoner engine
+	 * @param portfolioThreshold	Time (in milliseconds) after which checks are raced, or 0 if checks are not raced
+	 */
+	public void setPortfolioThreshold(long portfolioThreshold) {
+		this.portfolioThreshold = portfolioThreshold;
+	}
+	
+	
+	/**
+	 * Set the type of the reasoners created by this diff, for the whole ontologies (unless given, see 
+	 * {@link #setReasoners(OWLReasoner, OWLReasoner)}) and for the single-axiom checks of the categorisation
+	 * @param reasonerType	Reasoner type
+	 */
+	public void setReasonerType(ReasonerType reasonerType) {
+		this.reasonerType = reasonerType;
+	}
+	
+	
+	/**
+	 * Set the cache of entailment check results consulted by the logical diff, and by the strengthening and 
+	 * weakening checks, before the reasoners are called
+	 * @param cache	Entailment cache, or null if results should not be cached
+	 */
+	public void setEntailmentCache(EntailmentCache cache) {
+		this.cache = cache;
+		if(cache != null) {
+			OWLOntology emptyOnt = createEmptyOntology(man);
+			emptyOntDigest = EntailmentCache.getDigest(emptyOnt);
+			cleanUp(emptyOnt);
+		}
 	}
 	
 	
@@ -134,32 +275,95 @@ public class CategoricalDiff implements AxiomDiff {
 		if(categorisedChangeSet != null) return categorisedChangeSet;
 		if(verbose) System.out.println("\nComputing axiom diff...");
 		long start = System.currentTimeMillis();
-		ont1reasoner = new ReasonerLoader(ont1, false).createReasoner(false);
-		ont2reasoner = new ReasonerLoader(ont2, false).createReasoner(false);
-		
 		if(logicalChangeSet == null) {
+			if(!externalReasoners) {
+				ont1reasoner = new ReasonerLoader(ont1, false).createReasoner(reasonerType, false);
+				ont2reasoner = new ReasonerLoader(ont2, false).createReasoner(reasonerType, false);
+				ownReasoners = true;
+			}
 			LogicalDiffConcurrent lDiff = new LogicalDiffConcurrent(ont1, ont2, verbose);
+			lDiff.setReasonerReplicas(nrReasoners);
+			lDiff.setBulkEntailmentChecking(bulkEntailment);
+			lDiff.setModularEntailmentChecking(modularEntailment);
+			lDiff.setEntailmentTimeout(entailmentTimeout);
+			lDiff.setPortfolioThreshold(portfolioThreshold);
+			lDiff.setPreReasoning(preReasoning);
+			lDiff.setEntailmentCache(cache);
+			lDiff.setReasonerType(reasonerType);
 			logicalChangeSet = lDiff.getDiff(ont1reasoner, ont2reasoner);
 			
 			structuralChangeSet = lDiff.getStructuralChangeSet();
 			sharedAxioms = structuralChangeSet.getShared();
-			if(logicalChangeSet == null) return null;
+			if(logicalChangeSet == null) {
+				disposeOwnReasoners();
+				return null;
+			}
 		}
+		else if(sharedAxioms == null)
+			sharedAxioms = logicalChangeSet.getStructuralChangeSet().getShared();
 		
-		Set<OWLAxiom> ea = logicalChangeSet.getEffectualAdditionAxioms();
-		Set<OWLAxiom> er = logicalChangeSet.getEffectualRemovalAxioms();
-		Set<OWLAxiom> ia = logicalChangeSet.getIneffectualAdditionAxioms();
-		Set<OWLAxiom> ir = logicalChangeSet.getIneffectualRemovalAxioms();
+		final Set<OWLAxiom> ea = logicalChangeSet.getEffectualAdditionAxioms();
+		final Set<OWLAxiom> er = logicalChangeSet.getEffectualRemovalAxioms();
+		final Set<OWLAxiom> ia = logicalChangeSet.getIneffectualAdditionAxioms();
+		final Set<OWLAxiom> ir = logicalChangeSet.getIneffectualRemovalAxioms();
 		
-		if(verbose) System.out.print("   Computing change categorisation... ");
+		if(verbose) System.out.println("   Computing change categorisation... ");
 		long start2 = System.currentTimeMillis();
-		Set<CategorisedEffectualAddition> effAdds = categoriseEffectualAdditions(ea, er, ir);
-		Set<CategorisedEffectualRemoval> effRems = categoriseEffectualRemovals(er, ea, ia);
-		Set<CategorisedIneffectualAddition> ineffAdds = categoriseIneffectualAdditions(ia, er, ir);
-		Set<CategorisedIneffectualRemoval> ineffRems = categoriseIneffectualRemovals(ir, ea, ia);
+		progress = new ProgressMonitor(ea.size() + er.size() + ia.size() + ir.size());
+		progressStatus = 0;
+		workers = (nrThreads > 1 ? Executors.newFixedThreadPool(nrThreads) : null);
+		ExecutorService phases = (nrThreads > 1 ? Executors.newFixedThreadPool(4) : null);
+		Set<CategorisedEffectualAddition> effAdds = null;
+		Set<CategorisedEffectualRemoval> effRems = null;
+		Set<CategorisedIneffectualAddition> ineffAdds = null;
+		Set<CategorisedIneffectualRemoval> ineffRems = null;
+		try {
+			// The four phases are independent, and each phase submits its changes to the same pool of workers
+			Future<Set<CategorisedEffectualAddition>> effAddsTask = submit(phases, new Callable<Set<CategorisedEffectualAddition>>() {
+				@Override
+				public Set<CategorisedEffectualAddition> call() {
+					return categoriseEffectualAdditions(ea, er, ir);
+				}
+			});
+			Future<Set<CategorisedEffectualRemoval>> effRemsTask = submit(phases, new Callable<Set<CategorisedEffectualRemoval>>() {
+				@Override
+				public Set<CategorisedEffectualRemoval> call() {
+					return categoriseEffectualRemovals(er, ea, ia);
+				}
+			});
+			Future<Set<CategorisedIneffectualAddition>> ineffAddsTask = submit(phases, new Callable<Set<CategorisedIneffectualAddition>>() {
+				@Override
+				public Set<CategorisedIneffectualAddition> call() {
+					return categoriseIneffectualAdditions(ia, er, ir);
+				}
+			});
+			Future<Set<CategorisedIneffectualRemoval>> ineffRemsTask = submit(phases, new Callable<Set<CategorisedIneffectualRemoval>>() {
+				@Override
+				public Set<CategorisedIneffectualRemoval> call() {
+					return categoriseIneffectualRemovals(ir, ea, ia);
+				}
+			});
+			effAdds = get(effAddsTask);
+			effRems = get(effRemsTask);
+			ineffAdds = get(ineffAddsTask);
+			ineffRems = get(ineffRemsTask);
+		} finally {
+			// If a phase failed, the others are interrupted, and all are joined before the worker reasoners are disposed
+			shutdown(phases);
+			shutdown(workers);
+			workers = null;
+			for(CategorisationWorker worker : idleWorkers) worker.dispose();
+			idleWorkers.clear();
+			synchronized(decompositions) {
+				decompositions.clear();
+			}
+			disposeOwnReasoners();
+		}
 		
 		long end = System.currentTimeMillis();
-		if(verbose) System.out.print("done (" + (end-start2)/1000.0 + " secs)");
+		if(verbose) System.out.print("   done (" + (end-start2)/1000.0 + " secs" + 
+				", " + (settledChecks.get() + tautologies.getResolvedCount()) + " of " + 
+				(entailmentChecks.get() + tautologies.getCheckCount()) + " entailment checks settled without a reasoner)");
 		diffTime = (end-start)/1000.0;
 		
 		categorisedChangeSet = new CategorisedChangeSet(effAdds, ineffAdds, effRems, ineffRems, sharedAxioms, logicalChangeSet);
@@ -186,13 +390,11 @@ public class CategoricalDiff implements AxiomDiff {
 	 */
 	@SuppressWarnings("unchecked")
 	private Set<CategorisedEffectualAddition> categoriseEffectualAdditions(Set<OWLAxiom> ea, Set<OWLAxiom> er, Set<OWLAxiom> ir) {
-		if(verbose) System.out.println("\n    Categorising effectual additions... ");
 		Set<CategorisedEffectualAddition> effAdds = new HashSet<CategorisedEffectualAddition>();
 		if(!ea.isEmpty())
-			try { effAdds = (Set<CategorisedEffectualAddition>) categoriseEffectualChanges(true, ea, ont1, er, ir); }
-			catch (OWLOntologyCreationException e) { e.printStackTrace(); }
+			effAdds = (Set<CategorisedEffectualAddition>) categoriseEffectualChanges(true, ea, ont1, er, ir);
 		else
-			if(verbose) System.out.println("    done (no effectual additions)");
+			printPhase("effectual additions", 0, 0, -1);
 		return effAdds;
 	}
 	
@@ -206,13 +408,11 @@ public class CategoricalDiff implements AxiomDiff {
 	 */
 	@SuppressWarnings("unchecked")
 	private Set<CategorisedEffectualRemoval> categoriseEffectualRemovals(Set<OWLAxiom> er, Set<OWLAxiom> ea, Set<OWLAxiom> ia) {
-		if(verbose) System.out.println("    Categorising effectual removals... ");
 		Set<CategorisedEffectualRemoval> effRems = new HashSet<CategorisedEffectualRemoval>();
 		if(!er.isEmpty())
-			try { effRems = (Set<CategorisedEffectualRemoval>) categoriseEffectualChanges(false, er, ont2, ea, ia); }
-			catch (OWLOntologyCreationException e) { e.printStackTrace(); }
+			effRems = (Set<CategorisedEffectualRemoval>) categoriseEffectualChanges(false, er, ont2, ea, ia);
 		else
-			if(verbose) System.out.println("    done (no effectual removals)");
+			printPhase("effectual removals", 0, 0, -1);
 		return effRems;
 	}
 	
@@ -226,12 +426,11 @@ public class CategoricalDiff implements AxiomDiff {
 	 */
 	@SuppressWarnings("unchecked")
 	private Set<CategorisedIneffectualAddition> categoriseIneffectualAdditions(Set<OWLAxiom> ia, Set<OWLAxiom> er, Set<OWLAxiom> ir) {
-		if(verbose) System.out.println("    Categorising ineffectual additions... ");
 		Set<CategorisedIneffectualAddition> ineffAdds = new HashSet<CategorisedIneffectualAddition>();
 		if(!ia.isEmpty())
-			ineffAdds = (Set<CategorisedIneffectualAddition>) categoriseIneffectualChanges("rhs", ia, er, ir, ont1, ont2reasoner);
+			ineffAdds = (Set<CategorisedIneffectualAddition>) categoriseIneffectualChanges("rhs", ia, er, ir, ont1);
 		else
-			if(verbose) System.out.println("    done (no ineffectual additions)");
+			printPhase("ineffectual additions", 0, 0, -1);
 		return ineffAdds;
 	}
 	
@@ -245,133 +444,150 @@ public class CategoricalDiff implements AxiomDiff {
 	 */
 	@SuppressWarnings("unchecked")
 	private Set<CategorisedIneffectualRemoval> categoriseIneffectualRemovals(Set<OWLAxiom> ir, Set<OWLAxiom> ea, Set<OWLAxiom> ia) {
-		if(verbose) System.out.println("    Categorising ineffectual removals... ");
 		Set<CategorisedIneffectualRemoval> ineffRems = new HashSet<CategorisedIneffectualRemoval>();
 		if(!ir.isEmpty())
-			ineffRems = (Set<CategorisedIneffectualRemoval>) categoriseIneffectualChanges("lhs", ir, ea, ia, ont2, ont1reasoner);
+			ineffRems = (Set<CategorisedIneffectualRemoval>) categoriseIneffectualChanges("lhs", ir, ea, ia, ont2);
 		else
-			if(verbose) System.out.println("    done (no ineffectual removals)");
+			printPhase("ineffectual removals", 0, 0, -1);
 		return ineffRems;
 	}
 
 
 	/**
-	 * Categorise effectual changes
+	 * Categorise effectual changes, each change being categorised by one of the workers
 	 * @param effAdds	true if checking effectual additions, false for removals
 	 * @param axioms	Set of changes to categorise
 	 * @param ont	if(effAdds) then ont1, else ont2
 	 * @param effectual	if(effAdds) then Set of effectual removals, else Set of effectual additions
 	 * @param ineffectual	if(effAdds) then Set of ineffectual removals, else Set of ineffectual additions
 	 * @return Set of categorised changes
-	 * @throws OWLOntologyCreationException	Ontology creation exception
 	 */
 	@SuppressWarnings({ "unchecked", "rawtypes" })
-	private Set<? extends CategorisedEffectualChange> categoriseEffectualChanges(boolean effAdds, Set<OWLAxiom> axioms, OWLOntology ont, 
-			Set<OWLAxiom> effectual, Set<OWLAxiom> ineffectual) throws OWLOntologyCreationException {
+	private Set<? extends CategorisedEffectualChange> categoriseEffectualChanges(final boolean effAdds, Set<OWLAxiom> axioms, 
+			final OWLOntology ont, Set<OWLAxiom> effectual, Set<OWLAxiom> ineffectual) {
 		long start = System.currentTimeMillis();
 		
 		Set result = null;
 		if(effAdds) result = new HashSet<CategorisedEffectualAddition>();
 		else result = new HashSet<CategorisedEffectualRemoval>();
 
-		ProgressMonitor progress = new ProgressMonitor(axioms);
-		int status = 0;
-		Set<OWLEntity> ontSig = ont.getSignature();
-		OWLOntologyManager man = ont.getOWLOntologyManager();
-		SyntacticLocalityModuleExtractor modExtractorEff = new SyntacticLocalityModuleExtractor(man, ont, ModuleType.STAR);
-//		FaCTPlusPlusReasoner modExtractorEff = new FaCTPlusPlusReasoner(ont, new SimpleConfiguration(), BufferingMode.NON_BUFFERING);
-		SyntacticLocalityEvaluator eval = new SyntacticLocalityEvaluator(LocalityClass.BOTTOM_BOTTOM);
-
-		// Loop effectual changes
-		for(OWLAxiom ax : axioms) {
-			if(ax.isLogicalAxiom()) {
-				boolean stOrWkAx = false, newOrRetiredAx = false, modEquiv = false;
-				Set<OWLEntity> sig = ax.getSignature();
-				Set<OWLEntity> newTerms = new HashSet<OWLEntity>();		// New terms in the axiom				
-				for(OWLEntity e : sig) {
-					if(!ontSig.contains(e) && !e.isTopEntity() && !e.isBottomEntity())
-						newTerms.add(e);
-				}
-				// Check New or Retired Descriptions
-				CategorisedChange nd = checkNewOrRetiredDescription(effAdds, man, ax, newTerms, eval);
-				if(nd != null) {
-					newOrRetiredAx = true; 
-					result.add(nd);
-				}
-				// Check Strengthenings or Weakenings
-				if(!newOrRetiredAx) {
-					CategorisedChange st = checkStrengtheningOrWeakening(effAdds, man, ax, ineffectual, newTerms);
-					if(st != null) {
-						stOrWkAx = true; 
-						result.add(st);
-					}
-				}
-				// Check Modified Definitions
-				if(!newOrRetiredAx && !stOrWkAx) {
-					if(ax.isOfType(AxiomType.EQUIVALENT_CLASSES)) {
-						CategorisedChange me = checkModifiedDefinitions(effAdds, man, ax, modExtractorEff, newTerms);
-						if(me != null) { 
-							modEquiv = true; 
-							result.add(me);
-						}
-					}
-				}
-				// Pure Alterations
-				if(!newOrRetiredAx && !stOrWkAx && !modEquiv) {
-					if(effAdds) {
-						if(newTerms.isEmpty()) 
-							result.add(new CategorisedEffectualAddition(ax, EffectualAdditionCategory.PUREADDITION, new HashSet<OWLAxiom>(), newTerms));
-						else 
-							result.add(new CategorisedEffectualAddition(ax, EffectualAdditionCategory.PUREADDITIONNT, new HashSet<OWLAxiom>(), newTerms));
-					}
-					else {
-						if(newTerms.isEmpty()) 
-							result.add(new CategorisedEffectualRemoval(ax, EffectualRemovalCategory.PUREREMOVAL, new HashSet<OWLAxiom>(), newTerms));
-						else 
-							result.add(new CategorisedEffectualRemoval(ax, EffectualRemovalCategory.PUREREMOVALRT, new HashSet<OWLAxiom>(), newTerms));
+		final Set<OWLEntity> ontSig = ont.getSignature();
+		// Strengthening or weakening alignments are searched for only among the ineffectual changes sharing terms
+		List<OWLAxiom> searchSpace = new ArrayList<OWLAxiom>();
+		for(OWLAxiom axiom : ineffectual) {
+			if(axiom.isLogicalAxiom()) searchSpace.add(axiom);
+		}
+		final SignatureIndex searchIndex = new SignatureIndex(searchSpace);
+		List<Future<CategorisedChange>> changes = new ArrayList<Future<CategorisedChange>>();
+		for(final OWLAxiom ax : axioms) {
+			changes.add(submit(workers, new Callable<CategorisedChange>() {
+				@Override
+				public CategorisedChange call() {
+					CategorisationWorker worker = acquireWorker();
+					try {
+						return categoriseEffectualChange(effAdds, ax, ont, ontSig, searchIndex, worker);
+					} catch (OWLOntologyCreationException e) {
+						e.printStackTrace();
+						return null;
+					} finally {
+						idleWorkers.add(worker);
+						incrementProgress();
 					}
 				}
-			} // end if logical axiom
-			int p = progress.incrementProgress();
-			if(p > status && verbose) { 
-				System.out.print("\r\t" + p + "%");
-				status = p;
-			}
-		} // end for loop
-		modExtractorEff = null; progress = null;
+			}));
+		}
+		for(Future<CategorisedChange> change : changes) {
+			CategorisedChange c = get(change);
+			if(c != null) result.add(c);
+		}
 		
 		long end = System.currentTimeMillis();
 		double total = (end-start)/1000.0;
-		if(verbose) System.out.println("\n    done (" + total + " secs)");
 		
 		if(effAdds) eaTime = total;
 		else erTime = total;
-		
+		printPhase(effAdds ? "effectual additions" : "effectual removals", axioms.size(), total, -1);
 		return result;
 	}
 	
 	
+	/**
+	 * Categorise the given effectual change
+	 * @param effAdds	true if checking effectual additions, false for removals
+	 * @param ax	Effectual change
+	 * @param ont	if(effAdds) then ont1, else ont2
+	 * @param ontSig	Signature of the given ontology
+	 * @param searchIndex	Signature index of the logical axioms in the set of ineffectual removals if(effAdds), 
+	 * or else in the set of ineffectual additions
+	 * @param worker	Worker categorising the change
+	 * @return Categorised change, or null if the change is not a logical axiom
+	 * @throws OWLOntologyCreationException	Ontology creation exception
+	 */
+	private CategorisedChange categoriseEffectualChange(boolean effAdds, OWLAxiom ax, OWLOntology ont, Set<OWLEntity> ontSig, 
+			SignatureIndex searchIndex, CategorisationWorker worker) throws OWLOntologyCreationException {
+		if(!ax.isLogicalAxiom()) return null;
+		Set<OWLEntity> sig = ax.getSignature();
+		Set<OWLEntity> newTerms = new HashSet<OWLEntity>();		// New terms in the axiom				
+		for(OWLEntity e : sig) {
+			if(!ontSig.contains(e) && !e.isTopEntity() && !e.isBottomEntity())
+				newTerms.add(e);
+		}
+		// Check New or Retired Descriptions
+		CategorisedChange change = checkNewOrRetiredDescription(effAdds, ont.getOWLOntologyManager(), ax, newTerms, worker.eval);
+		// Check Strengthenings or Weakenings
+		if(change == null)
+			change = checkStrengtheningOrWeakening(effAdds, worker, ax, searchIndex, newTerms);
+		// Check Modified Definitions
+		if(change == null && ax.isOfType(AxiomType.EQUIVALENT_CLASSES))
+			change = checkModifiedDefinitions(effAdds, worker, ax, getAtomicDecomposition(ont), newTerms);
+		// Pure Alterations
+		if(change == null) {
+			if(effAdds) {
+				if(newTerms.isEmpty()) 
+					change = new CategorisedEffectualAddition(ax, EffectualAdditionCategory.PUREADDITION, new HashSet<OWLAxiom>(), newTerms);
+				else 
+					change = new CategorisedEffectualAddition(ax, EffectualAdditionCategory.PUREADDITIONNT, new HashSet<OWLAxiom>(), newTerms);
+			}
+			else {
+				if(newTerms.isEmpty()) 
+					change = new CategorisedEffectualRemoval(ax, EffectualRemovalCategory.PUREREMOVAL, new HashSet<OWLAxiom>(), newTerms);
+				else 
+					change = new CategorisedEffectualRemoval(ax, EffectualRemovalCategory.PUREREMOVALRT, new HashSet<OWLAxiom>(), newTerms);
+			}
+		}
+		return change;
+	}
+	
+	
 	/**
 	 * Check whether a given change is a strengthening (or weakening)
 	 * @param effAdds	true if checking additions, false if checking removals
-	 * @param man	OWL ontology manager
+	 * @param worker	Worker categorising the change
 	 * @param ax	OWL axiom to be checked
-	 * @param searchSpace	Set of axioms in the search space
+	 * @param searchIndex	Signature index of the (logical) axioms in the search space
 	 * @param newTerms	Set of new terms used in this axiom
 	 * @return Strengthening or Weakening-type change, or null if not a strengthening or weakening
 	 */
-	private CategorisedChange checkStrengtheningOrWeakening(boolean effAdds, OWLOntologyManager man, OWLAxiom ax, 
-			Set<OWLAxiom> searchSpace, Set<OWLEntity> newTerms) {
+	private CategorisedChange checkStrengtheningOrWeakening(boolean effAdds, CategorisationWorker worker, OWLAxiom ax, 
+			SignatureIndex searchIndex, Set<OWLEntity> newTerms) {
 		CategorisedChange change = null;
-		OWLOntology axOnt = createOntology(ax);
-		OWLReasoner reasoner = new ReasonerLoader(axOnt).createReasoner(false);
+		// Candidates share terms with the axiom, and those sharing the most terms are tried first
+		List<OWLAxiom> candidates = searchIndex.getOverlappingAxioms(ax);
+		if(candidates.isEmpty()) return null;
+		long[] axOntDigest = (cache != null ? worker.getPremiseDigest(ax) : null);
+		// Checks are settled by the cache, then by the lightweight checker, and only then by the worker's reasoner
+		AxiomEntailmentChecker checker = (structuralChecking ? new AxiomEntailmentChecker(ax) : null);
 		Set<OWLAxiom> stAlignments = new HashSet<OWLAxiom>();
-		for(OWLAxiom axiom : searchSpace) {
-			if(axiom.isLogicalAxiom() && signatureOverlaps(ax, axiom)) {
-				if(reasoner.isEntailed(axiom) && !emptyOntReasoner.isEntailed(axiom)) {
-					stAlignments.add(axiom);
-					break;
-				}
+		for(OWLAxiom axiom : candidates) {
+			Boolean entailed = (cache != null ? cache.get(axOntDigest, axiom) : null);
+			if(entailed == null && checker != null) entailed = checker.isEntailed(axiom);
+			if(entailed == null) {
+				entailed = worker.isEntailed(ax, axiom);
+				if(cache != null) cache.put(axOntDigest, axiom, entailed);
+			}
+			if(entailed && !isTautology(worker, axiom)) {
+				stAlignments.add(axiom);
+				break;
 			}
 		}
 		if(!stAlignments.isEmpty()) {
@@ -388,11 +604,61 @@ public class CategoricalDiff implements AxiomDiff {
 					change = new CategorisedEffectualRemoval(ax, EffectualRemovalCategory.WEAKENINGRT, stAlignments, newTerms);
 			}
 		}
-		cleanUp(reasoner); cleanUp(axOnt);
+		if(checker != null) addCheckCounts(checker);
 		return change;
 	}
 	
 	
+	/**
+	 * Check whether the given axiom is entailed by the empty ontology. Results are memoised across changes, and
+	 * axioms not settled structurally by the worker's entailment checker are checked by the worker's empty ontology
+	 * reasoner, using the entailment cache if there is one
+	 * @param worker	Worker whose empty ontology checker and reasoner are used
+	 * @param axiom	OWL axiom
+	 * @return true if the axiom is a tautology, false otherwise
+	 */
+	private boolean isTautology(CategorisationWorker worker, OWLAxiom axiom) {
+		Boolean tautology = tautologies.isTautology(axiom, (structuralChecking ? worker.getEmptyOntChecker() : null));
+		if(tautology == null) {
+			OWLReasoner reasoner = worker.getEmptyOntReasoner();
+			tautology = (cache != null ? cache.isEntailed(reasoner, emptyOntDigest, axiom) : reasoner.isEntailed(axiom));
+			tautologies.put(axiom, tautology);
+		}
+		return tautology;
+	}
+
+
+	/**
+	 * Check whether the given class expressions are related by subsumption, in either direction, in the empty
+	 * ontology
+	 * @param worker	Worker categorising the change
+	 * @param c	Class expression
+	 * @param d	Class expression
+	 * @return true if c is subsumed by d or d by c, false otherwise
+	 */
+	private boolean isComparable(CategorisationWorker worker, OWLClassExpression c, OWLClassExpression d) {
+		return isTautology(worker, df.getOWLSubClassOfAxiom(c, d)) || isTautology(worker, df.getOWLSubClassOfAxiom(d, c));
+	}
+
+
+	/**
+	 * Get the atomic decomposition of the given ontology, decomposing it on first use. The decomposition is shared
+	 * by all workers and categorisation phases, and keyed by identity since both versions may have the same ontology ID
+	 * @param ont	OWL ontology
+	 * @return Atomic decomposition of the ontology
+	 */
+	private AtomicDecomposition getAtomicDecomposition(OWLOntology ont) {
+		synchronized(decompositions) {
+			AtomicDecomposition decomposition = decompositions.get(ont);
+			if(decomposition == null) {
+				decomposition = new AtomicDecomposition(ont);
+				decompositions.put(ont, decomposition);
+			}
+			return decomposition;
+		}
+	}
+	
+	
 	/**
 	 * Check whether a given change is a new or retired description
 	 * @param effAdds	true if checking additions, false if checking removals
@@ -430,15 +696,15 @@ public class CategoricalDiff implements AxiomDiff {
 	/**
 	 * Check if given change is a modified equivalence
 	 * @param effAdds	true if checking additions, false if checking removals
-	 * @param man	OWL ontology manager
+	 * @param worker	Worker categorising the change
 	 * @param ax	OWL axiom to be checked
-	 * @param modExtractor	Star module extractor
+	 * @param decomposition	Atomic decomposition of the ontology the change is aligned against
 	 * @param newTerms	Set of new terms used in this axiom
 	 * @return Modified definition-type change, or null if not one
 	 * @throws OWLOntologyCreationException	Ontology creation exception
 	 */
-	private CategorisedChange checkModifiedDefinitions(boolean effAdds, OWLOntologyManager man, OWLAxiom ax, 
-			SyntacticLocalityModuleExtractor modExtractor, Set<OWLEntity> newTerms)  throws OWLOntologyCreationException {
+	private CategorisedChange checkModifiedDefinitions(boolean effAdds, CategorisationWorker worker, OWLAxiom ax, 
+			AtomicDecomposition decomposition, Set<OWLEntity> newTerms)  throws OWLOntologyCreationException {
 		CategorisedChange change = null;
 		Set<OWLAxiom> alignment = new HashSet<OWLAxiom>();
 		OWLEquivalentClassesAxiom equiv = (OWLEquivalentClassesAxiom) ax;
@@ -448,7 +714,7 @@ public class CategoricalDiff implements AxiomDiff {
 		OWLClassExpression lhs = sub1.getSubClass();
 		OWLClassExpression rhs = sub1.getSuperClass();
 
-		Set<OWLAxiom> mod = modExtractor.extract(ax.getSignature());
+		Set<OWLAxiom> mod = decomposition.getModule(ax.getSignature());
 		loop:
 		for(OWLAxiom a : mod) {
 			if(a.isOfType(AxiomType.EQUIVALENT_CLASSES)) {
@@ -457,23 +723,19 @@ public class CategoricalDiff implements AxiomDiff {
 				for(OWLSubClassOfAxiom sub : subs2) {
 					boolean isEquiv = false;
 					if(sub.getSubClass().equals(lhs)) {
-						if(emptyOntReasoner.isEntailed(df.getOWLSubClassOfAxiom(sub.getSuperClass(), rhs)) ||
-								emptyOntReasoner.isEntailed(df.getOWLSubClassOfAxiom(rhs, sub.getSuperClass())))
+						if(isComparable(worker, sub.getSuperClass(), rhs))
 							isEquiv = true;
 					}
 					else if(sub.getSubClass().equals(rhs)) {
-						if(emptyOntReasoner.isEntailed(df.getOWLSubClassOfAxiom(sub.getSuperClass(), lhs)) ||
-								emptyOntReasoner.isEntailed(df.getOWLSubClassOfAxiom(lhs, sub.getSuperClass())))
+						if(isComparable(worker, sub.getSuperClass(), lhs))
 							isEquiv = true;
 					}
 					else if(sub.getSuperClass().equals(lhs)) {
-						if(emptyOntReasoner.isEntailed(df.getOWLSubClassOfAxiom(sub.getSubClass(), rhs)) ||
-								emptyOntReasoner.isEntailed(df.getOWLSubClassOfAxiom(rhs, sub.getSubClass())))
+						if(isComparable(worker, sub.getSubClass(), rhs))
 							isEquiv = true;
 					}
 					else if(sub.getSuperClass().equals(lhs)) {
-						if(emptyOntReasoner.isEntailed(df.getOWLSubClassOfAxiom(sub.getSubClass(), lhs)) ||
-								emptyOntReasoner.isEntailed(df.getOWLSubClassOfAxiom(lhs, sub.getSubClass())))
+						if(isComparable(worker, sub.getSubClass(), lhs))
 							isEquiv = true;
 					}
 					
@@ -503,45 +765,57 @@ public class CategoricalDiff implements AxiomDiff {
 	
 
 	/**
-	 * Categorise the given set of ineffectual changes
+	 * Categorise the given set of ineffectual changes. The justifications of all changes are computed first, and 
+	 * then each change is categorised by one of the workers
 	 * @param desc	"rhs" if categorising additions, "lhs" if removals
 	 * @param axioms	Axiom changes to categorise
 	 * @param effectual	Set of effectual changes of the opposite ontology
 	 * @param ineffectual	Set of ineffectual changes of the opposite ontology
 	 * @param ont	Opposite ontology
-	 * @param src_reasoner	Reasoner instance for source ontology
 	 * @return Set of categorised ineffectual changes
 	 */
 	@SuppressWarnings({ "rawtypes", "unchecked" })
-	private Set<? extends CategorisedChange> categoriseIneffectualChanges(String desc, Set<OWLAxiom> axioms, Set<OWLAxiom> effectual, 
-			Set<OWLAxiom> ineffectual, OWLOntology ont, OWLReasoner src_reasoner) {
+	private Set<? extends CategorisedChange> categoriseIneffectualChanges(final String desc, Set<OWLAxiom> axioms, final Set<OWLAxiom> effectual, 
+			final Set<OWLAxiom> ineffectual, final OWLOntology ont) {
 		Set result = null;
 		if(desc.equals("rhs")) result = new HashSet<CategorisedIneffectualAddition>();
 		else result = new HashSet<CategorisedIneffectualRemoval>();
 		
 		long start = System.currentTimeMillis();
 		
-		if(verbose) System.out.print("\tComputing justifications... ");
-		JustificationFinder just = new JustificationFinder(ont, nrJusts);
+		final JustificationFinder just = new JustificationFinder(ont, nrJusts);
+		just.setAtomicDecomposition(getAtomicDecomposition(ont));
 		Map<OWLAxiom,Set<Explanation<OWLAxiom>>> exps = just.getJustifications(axioms); 
 		
 		double justTime = (System.currentTimeMillis()-start)/1000.0;
-		if(verbose) System.out.println("done (" + justTime + " secs)");
 		
-		ProgressMonitor progress = new ProgressMonitor(exps.keySet());
-		int status = 0;
-		for(Set<Explanation<OWLAxiom>> expsSet : exps.values()) {
-			try {
-				if(!expsSet.isEmpty())
-					result.add(categoriseIneffectualChange(desc, expsSet, effectual, ineffectual, ont, just, src_reasoner));
-			} catch (OWLOntologyCreationException e) {
-				e.printStackTrace();
-			}
-			int p = progress.incrementProgress();
-			if(p > status && verbose) { 
-				System.out.print("\r\t" + p + "%");
-				status = p;
-			}
+		// Changes without justifications are not categorised, but are still counted as processed
+		incrementProgress(axioms.size() - exps.size());
+		List<Future<CategorisedChange>> changes = new ArrayList<Future<CategorisedChange>>();
+		for(final Set<Explanation<OWLAxiom>> expsSet : exps.values()) {
+			changes.add(submit(workers, new Callable<CategorisedChange>() {
+				@Override
+				public CategorisedChange call() {
+					if(expsSet.isEmpty()) {
+						incrementProgress();
+						return null;
+					}
+					CategorisationWorker worker = acquireWorker();
+					try {
+						return categoriseIneffectualChange(desc, expsSet, effectual, ineffectual, ont, just, worker);
+					} catch (OWLOntologyCreationException e) {
+						e.printStackTrace();
+						return null;
+					} finally {
+						idleWorkers.add(worker);
+						incrementProgress();
+					}
+				}
+			}));
+		}
+		for(Future<CategorisedChange> change : changes) {
+			CategorisedChange c = get(change);
+			if(c != null) result.add(c);
 		}
 
 		long end = System.currentTimeMillis();
@@ -555,8 +829,8 @@ public class CategoricalDiff implements AxiomDiff {
 			irTime = total;
 			irJustTime = justTime;
 		}
-		if(verbose) System.out.println("\n    done (" + total + " secs)");
-		cleanUp(src_reasoner); cleanUp(exps); just = null;
+		printPhase(desc.equals("rhs") ? "ineffectual additions" : "ineffectual removals", axioms.size(), total, justTime);
+		cleanUp(exps);
 		return result;
 	}
 	
@@ -569,13 +843,13 @@ public class CategoricalDiff implements AxiomDiff {
 	 * @param ineffectual	Ineffectual changes
 	 * @param ont	Target ontology
 	 * @param just	Justification generator interface
-	 * @param src_reasoner	Reasoner instance with the source ontology loaded
+	 * @param worker	Worker categorising the change
 	 * @return Categorised change
 	 * @throws OWLOntologyCreationException	Ontology creation exception
 	 */
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	private CategorisedChange categoriseIneffectualChange(String desc, Set<Explanation<OWLAxiom>> exps, Set<OWLAxiom> effectual, 
-			Set<OWLAxiom> ineffectual, OWLOntology ont, JustificationFinder just, OWLReasoner src_reasoner) 
+			Set<OWLAxiom> ineffectual, OWLOntology ont, JustificationFinder just, CategorisationWorker worker) 
 					throws OWLOntologyCreationException {
 		boolean entailmentAssigned = false;
 		OWLAxiom entailment = null;
@@ -583,21 +857,25 @@ public class CategoricalDiff implements AxiomDiff {
 		if(desc.equals("rhs")) justMap = new HashMap<Explanation<OWLAxiom>,Set<IneffectualAdditionCategory>>();
 		else justMap = new HashMap<Explanation<OWLAxiom>,Set<IneffectualRemovalCategory>>();
 		
-		OWLOntology entOnt = null; OWLReasoner reasoner = null;
+		AxiomEntailmentChecker checker = null;
 		for(Explanation<OWLAxiom> explanation : exps) {
 			boolean prospRedundantNovelAx = false, rewrittenAx = false, redundancyAx = false, prospRedundantAx = false;
 			if(!entailmentAssigned) {
 				entailment = explanation.getEntailment();
 				entailmentAssigned = true;
-				entOnt = createOntology(entailment);
-				reasoner = new ReasonerLoader(entOnt).createReasoner(false);
+				// The worker's reasoner is only used for checks not settled by the lightweight checker
+				if(structuralChecking) checker = new AxiomEntailmentChecker(entailment);
 			}
 			
 			int entailedAxs = 0, shared = 0;
 			for(OWLAxiom ax : explanation.getAxioms()) {
 				if(ax.isOfType(AxiomType.TBoxAxiomTypes)) {
 					// Rewrite: If the axiom entails the justification, the axiom is rewritten
-					if(signatureOverlaps(entailment, ax) && reasoner.isEntailed(ax)) entailedAxs ++;
+					if(signatureOverlaps(entailment, ax)) {
+						Boolean entailed = (checker != null ? checker.isEntailed(ax) : null);
+						if(entailed == null) entailed = worker.isEntailed(entailment, ax);
+						if(entailed) entailedAxs ++;
+					}
 					// Prospective novel redundancy: If the justification intersects with the effectual additions or removals
 					if(effectual.contains(ax)) prospRedundantNovelAx = true;
 					// Redundant: If the justification intersects with the intersection
@@ -625,8 +903,7 @@ public class CategoricalDiff implements AxiomDiff {
 			if(prospRedundantNovelAx && !rewrittenAx && !redundancyAx)
 				updateJustificationMap(desc, justMap, explanation, "new");
 		} // end for each explanation
-		cleanUp(reasoner);
-		cleanUp(entOnt);
+		if(checker != null) addCheckCounts(checker);
 		
 		if(desc.equals("lhs")) return new CategorisedIneffectualRemoval(entailment, justMap);
 		else return new CategorisedIneffectualAddition(entailment, justMap);
@@ -709,12 +986,117 @@ public class CategoricalDiff implements AxiomDiff {
 	}
 	
 	
+	/**
+	 * Submit a task to the given executor, or run it in the calling thread if there is no executor
+	 * @param executor	Executor service, or null if tasks are run sequentially
+	 * @param task	Task
+	 * @return Future result of the task
+	 */
+	private static <T> Future<T> submit(ExecutorService executor, Callable<T> task) {
+		if(executor != null) return executor.submit(task);
+		FutureTask<T> future = new FutureTask<T>(task);
+		future.run();
+		return future;
+	}
+	
+	
+	/**
+	 * Stop the given executor, interrupting any running tasks, and wait for all its tasks to finish
+	 * @param executor	Executor service, or null if tasks were run sequentially
+	 */
+	private static void shutdown(ExecutorService executor) {
+		if(executor == null) return;
+		executor.shutdownNow();
+		try {
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	
+	/**
+	 * Wait for the result of the given task
+	 * @param future	Future result of a task
+	 * @return Result of the task
+	 */
+	private static <T> T get(Future<T> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			if(e.getCause() instanceof Error) throw (Error) e.getCause();
+			throw new RuntimeException(e.getCause());
+		}
+	}
+	
+	
+	/**
+	 * Acquire an idle worker, creating one if none is idle. There are at most as many workers as threads
+	 * @return Categorisation worker, to be returned to the idle workers once the change is categorised
+	 */
+	private CategorisationWorker acquireWorker() {
+		CategorisationWorker worker = idleWorkers.poll();
+		return (worker != null ? worker : new CategorisationWorker());
+	}
+	
+	
+	/**
+	 * Increment the number of categorised changes by 1, and print the overall progress in verbose mode
+	 */
+	private void incrementProgress() {
+		incrementProgress(1);
+	}
+	
+	
+	/**
+	 * Increment the number of categorised changes by the specified amount, and print the overall progress in verbose mode
+	 * @param increment	Amount to increment
+	 */
+	private void incrementProgress(int increment) {
+		if(increment == 0) return;
+		int p = progress.incrementProgress(increment);
+		if(verbose) {
+			synchronized(progress) {
+				if(p > progressStatus) { 
+					System.out.print("\r\t" + p + "%");
+					progressStatus = p;
+				}
+			}
+		}
+	}
+	
+	
+	/**
+	 * Print the outcome of a categorisation phase in verbose mode
+	 * @param desc	Description of the categorised changes
+	 * @param nrChanges	Number of categorised changes
+	 * @param time	Time taken by the phase (in seconds)
+	 * @param justTime	Time taken to compute justifications (in seconds), or -1 if none were computed
+	 */
+	private void printPhase(String desc, int nrChanges, double time, double justTime) {
+		if(!verbose) return;
+		synchronized(progress) {
+			if(nrChanges == 0) System.out.println("\r    Categorising " + desc + "... done (no " + desc + ")");
+			else System.out.println("\r    Categorising " + desc + "... done (" + nrChanges + (nrChanges == 1 ? " change, " : " changes, ") + time + " secs" +
+					(justTime >= 0 ? ", of which " + justTime + " secs computing justifications" : "") + ")");
+		}
+	}
+	
+	
 	/**
 	 * Determine if ontologies are logically equivalent
 	 * @return true if ontologies are logically equivalent, false otherwise
 	 */
 	public boolean isEquivalent() {
-		if(logicalChangeSet == null) logicalChangeSet = new LogicalDiff(ont1, ont2, verbose).getDiff();
+		if(logicalChangeSet == null) {
+			LogicalDiff lDiff = new LogicalDiff(ont1, ont2, verbose);
+			lDiff.setPreReasoning(preReasoning);
+			logicalChangeSet = lDiff.getDiff();
+		}
 		if(logicalChangeSet.getEffectualAdditionAxioms().isEmpty() && logicalChangeSet.getEffectualRemovalAxioms().isEmpty()) 
 			return true;
 		else 
@@ -723,15 +1105,15 @@ public class CategoricalDiff implements AxiomDiff {
 	
 	
 	/**
-	 * Create an empty ontology reasoner, where the empty ontology contains entity declarations
-	 * for all entities in sig(O1) and sig(O2)
-	 * @return Empty ontology reasoner
+	 * Create an empty ontology
+	 * @param man	OWL ontology manager in which to create the ontology
+	 * @return Empty ontology
 	 */
-	private OWLReasoner createEmptyOntologyReasoner() {
+	private OWLOntology createEmptyOntology(OWLOntologyManager man) {
 		OWLOntology emptyOnt = null;
 		try { emptyOnt = man.createOntology(); }
 		catch (OWLOntologyCreationException e) { e.printStackTrace(); }
-		return new ReasonerLoader(emptyOnt).createReasoner(false); 
+		return emptyOnt;
 	}
 
 	
@@ -742,12 +1124,12 @@ public class CategoricalDiff implements AxiomDiff {
 	 * @return true if the signatures overlap, false otherwise
 	 */
 	private boolean signatureOverlaps(OWLAxiom ax1, OWLAxiom ax2) {
-		boolean overlaps = false;
+		Set<OWLEntity> sig2 = ax2.getSignature();
 		for(OWLEntity e : ax1.getSignature()) {
-			if(ax2.getSignature().contains(e))
-				overlaps = true;
+			if(sig2.contains(e))
+				return true;
 		}
-		return overlaps;
+		return false;
 	}
 	
 	
@@ -779,15 +1161,12 @@ public class CategoricalDiff implements AxiomDiff {
 	
 	
 	/**
-	 * Create a new ontology containing the specified axiom and all entity declarations
-	 * @param axiom	Axiom
-	 * @return OWL ontology
+	 * Add the numbers of checks made and settled by the given entailment checker to the totals
+	 * @param checker	Axiom entailment checker
 	 */
-	private OWLOntology createOntology(OWLAxiom axiom) {
-		OWLOntology ont = null;
-		try { ont = man.createOntology(Collections.singleton(axiom)); } 
-		catch (OWLOntologyCreationException e) { e.printStackTrace(); }
-		return ont;
+	private void addCheckCounts(AxiomEntailmentChecker checker) {
+		entailmentChecks.addAndGet(checker.getCheckCount());
+		settledChecks.addAndGet(checker.getResolvedCount());
 	}
 	
 	
@@ -856,7 +1235,9 @@ public class CategoricalDiff implements AxiomDiff {
 				"\n\t   Redundancies: " + categorisedChangeSet.getRemovedRedundancies().size() +
 				"\n\t   Prospective Redundancies: " + categorisedChangeSet.getRemovedProspectiveRedundancies().size() +
 				"\n\t     Reshuffle Redundancies: " + categorisedChangeSet.getRemovedReshuffleRedundancies().size() +
-				"\n\t     New Redundancies: " + categorisedChangeSet.getRemovedProspectiveNewRedundancies().size() + "\n");
+				"\n\t     New Redundancies: " + categorisedChangeSet.getRemovedProspectiveNewRedundancies().size() + 
+				(entailmentTimeout > 0 ? "\n\tUndetermined Additions: " + categorisedChangeSet.getUndeterminedAdditionAxioms().size() +
+				"\n\tUndetermined Removals: " + categorisedChangeSet.getUndeterminedRemovalAxioms().size() : "") + "\n");
 	}
 	
 	
@@ -880,6 +1261,17 @@ public class CategoricalDiff implements AxiomDiff {
 	}
 	
 	
+	/**
+	 * Dispose of the reasoners for ontologies 1 and 2 if they were created by this diff, rather than given
+	 */
+	private void disposeOwnReasoners() {
+		if(!ownReasoners) return;
+		cleanUp(ont1reasoner); cleanUp(ont2reasoner);
+		ont1reasoner = null; ont2reasoner = null;
+		ownReasoners = false;
+	}
+	
+	
 	/**
 	 * Dispose and nullify reasoner instance
 	 * @param reasoner	OWL reasoner
@@ -906,4 +1298,86 @@ public class CategoricalDiff implements AxiomDiff {
 	private void cleanUp(Map<?,?> s) {
 		s.clear(); s = null;
 	}
+	
+	
+	/**
+	 * Categorisation worker, holding the ontology manager, reasoners and locality evaluator used to categorise one
+	 * change at a time, since none of these can be shared between threads. Entailment checks from a single axiom
+	 * reuse one premise ontology and its reasoner, whose axiom is swapped between checks
+	 */
+	private class CategorisationWorker {
+		private final OWLOntologyManager man;
+		private OWLReasoner emptyOntReasoner;
+		private AxiomEntailmentChecker emptyOntChecker;
+		private OWLOntology premiseOnt;
+		private OWLAxiom premise;
+		private OWLReasoner premiseReasoner;
+		private final SyntacticLocalityEvaluator eval;
+		
+		CategorisationWorker() {
+			man = OWLManager.createOWLOntologyManager();
+			eval = new SyntacticLocalityEvaluator(LocalityClass.BOTTOM_BOTTOM);
+		}
+		
+		/**
+		 * Get the empty ontology reasoner, creating it on first use
+		 * @return Empty ontology reasoner
+		 */
+		OWLReasoner getEmptyOntReasoner() {
+			if(emptyOntReasoner == null) emptyOntReasoner = new ReasonerLoader(createEmptyOntology(man)).createReasoner(reasonerType, false);
+			return emptyOntReasoner;
+		}
+		
+		/**
+		 * Get the entailment checker without premises, creating it on first use
+		 * @return Empty ontology entailment checker
+		 */
+		AxiomEntailmentChecker getEmptyOntChecker() {
+			if(emptyOntChecker == null) emptyOntChecker = new AxiomEntailmentChecker(Collections.<OWLAxiom>emptySet());
+			return emptyOntChecker;
+		}
+		
+		/**
+		 * Make the given axiom the only axiom of the premise ontology
+		 * @param axiom	OWL axiom
+		 */
+		private void loadPremise(OWLAxiom axiom) {
+			if(premiseOnt == null) premiseOnt = createEmptyOntology(man);
+			if(axiom.equals(premise)) return;
+			man.removeAxioms(premiseOnt, premiseOnt.getAxioms());
+			man.addAxiom(premiseOnt, axiom);
+			premise = axiom;
+			if(premiseReasoner != null) premiseReasoner.flush();
+		}
+		
+		/**
+		 * Get the digest of the ontology containing only the given axiom
+		 * @param axiom	OWL axiom
+		 * @return Ontology digest
+		 */
+		long[] getPremiseDigest(OWLAxiom axiom) {
+			loadPremise(axiom);
+			return EntailmentCache.getDigest(premiseOnt);
+		}
+		
+		/**
+		 * Check whether the given premise axiom entails the given axiom, using the worker's premise reasoner
+		 * @param premise	Premise axiom
+		 * @param axiom	OWL axiom
+		 * @return true if the premise entails the axiom, false otherwise
+		 */
+		boolean isEntailed(OWLAxiom premise, OWLAxiom axiom) {
+			loadPremise(premise);
+			if(premiseReasoner == null) premiseReasoner = new ReasonerLoader(premiseOnt).createReasoner(reasonerType, false);
+			return premiseReasoner.isEntailed(axiom);
+		}
+		
+		/**
+		 * Dispose of the reasoners of this worker
+		 */
+		void dispose() {
+			if(emptyOntReasoner != null) emptyOntReasoner.dispose();
+			if(premiseReasoner != null) premiseReasoner.dispose();
+		}
+	}
 }
@@ -0,0 +1,315 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.axiom;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLEquivalentClassesAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.Node;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.diff.utils.AxiomFingerprinter;
+import uk.ac.manchester.cs.diff.utils.FingerprintAxiomSet;
+import uk.ac.manchester.cs.diff.utils.FingerprintSet;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Persisted baseline against which later versions can be diffed incrementally (see {@link IncrementalDiff}).
+ * A baseline holds the axioms of an ontology, the fingerprints of its logical axioms, and the class hierarchy
+ * computed by a reasoner. The baseline ontology is only rebuilt (without parsing) if a reasoner is needed for it</p>
+ */
+public class DiffBaseline {
+	private static final String FORMAT_VERSION = "ecco-baseline-2";
+	private List<OWLAxiom> axioms;
+	private List<OWLAxiom> logicalAxioms;
+	private long[] fingerprints;
+	private Map<String,String[]> superClasses;
+	private Set<String> unsatisfiable;
+	private OWLOntology ont;
+
+
+	/**
+	 * Constructor
+	 * @param axioms	All axioms of the baseline ontology
+	 * @param logicalAxioms	Logical axioms of the baseline ontology
+	 * @param fingerprints	Fingerprints of the logical axioms, as consecutive pairs of high and low 64 bits
+	 * @param superClasses	Map of each named class to its direct named super classes and equivalent classes
+	 * @param unsatisfiable	Unsatisfiable named classes
+	 */
+	private DiffBaseline(List<OWLAxiom> axioms, List<OWLAxiom> logicalAxioms, long[] fingerprints,
+			Map<String,String[]> superClasses, Set<String> unsatisfiable) {
+		this.axioms = axioms;
+		this.logicalAxioms = logicalAxioms;
+		this.fingerprints = fingerprints;
+		this.superClasses = superClasses;
+		this.unsatisfiable = unsatisfiable;
+	}
+
+
+	/**
+	 * Create a baseline from the given ontology, classifying it with the given reasoner
+	 * @param ont	Baseline ontology
+	 * @param reasoner	Reasoner instance loaded with the baseline ontology
+	 * @return Diff baseline
+	 */
+	public static DiffBaseline create(OWLOntology ont, OWLReasoner reasoner) {
+		List<OWLAxiom> logicalAxioms = new ArrayList<OWLAxiom>(ont.getLogicalAxiomCount());
+		for(OWLAxiom ax : FingerprintAxiomSet.getLogicalAxioms(ont))
+			logicalAxioms.add(ax);
+
+		long[] fingerprints = new long[logicalAxioms.size()*2];
+		for(int i = 0; i < logicalAxioms.size(); i++) {
+			long[] fp = AxiomFingerprinter.getFingerprint(logicalAxioms.get(i));
+			fingerprints[2*i] = fp[0]; fingerprints[2*i+1] = fp[1];
+		}
+
+		reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+		Map<String,String[]> superClasses = new HashMap<String,String[]>();
+		for(OWLClass c : ont.getClassesInSignature()) {
+			Set<String> sups = new HashSet<String>();
+			for(OWLClass sup : reasoner.getSuperClasses(c, true).getFlattened())
+				sups.add(sup.getIRI().toString());
+			for(OWLClass eqv : reasoner.getEquivalentClasses(c).getEntitiesMinus(c))
+				sups.add(eqv.getIRI().toString());
+			superClasses.put(c.getIRI().toString(), sups.toArray(new String[sups.size()]));
+		}
+		Set<String> unsatisfiable = new HashSet<String>();
+		Node<OWLClass> bottom = reasoner.getUnsatisfiableClasses();
+		for(OWLClass c : bottom.getEntitiesMinusBottom())
+			unsatisfiable.add(c.getIRI().toString());
+
+		DiffBaseline baseline = new DiffBaseline(new ArrayList<OWLAxiom>(ont.getAxioms()), logicalAxioms, fingerprints, superClasses, unsatisfiable);
+		baseline.ont = ont;
+		return baseline;
+	}
+
+
+	/**
+	 * Save this baseline to the given file
+	 * @param filepath	Baseline file path
+	 * @throws IOException	IO exception
+	 */
+	public void save(String filepath) throws IOException {
+		File f = new File(filepath);
+		if(f.getAbsoluteFile().getParentFile() != null) f.getAbsoluteFile().getParentFile().mkdirs();
+		ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(f))));
+		try {
+			out.writeObject(FORMAT_VERSION);
+			out.writeObject(axioms);
+			out.writeObject(logicalAxioms);
+			out.writeObject(fingerprints);
+			out.writeObject(superClasses);
+			out.writeObject(unsatisfiable);
+		} finally {
+			out.close();
+		}
+	}
+
+
+	/**
+	 * Load a baseline from the given file
+	 * @param filepath	Baseline file path
+	 * @return Diff baseline
+	 * @throws IOException	IO exception, also thrown if the file is not a baseline of this version of ecco
+	 */
+	@SuppressWarnings("unchecked")
+	public static DiffBaseline load(String filepath) throws IOException {
+		ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(filepath))));
+		try {
+			if(!FORMAT_VERSION.equals(in.readObject()))
+				throw new IOException("Unsupported baseline file format: " + filepath);
+			return new DiffBaseline((List<OWLAxiom>) in.readObject(), (List<OWLAxiom>) in.readObject(), (long[]) in.readObject(),
+					(Map<String,String[]>) in.readObject(), (Set<String>) in.readObject());
+		} catch (ClassNotFoundException e) {
+			throw new IOException(e);
+		} finally {
+			in.close();
+		}
+	}
+
+
+	/**
+	 * Get the baseline ontology, rebuilding it from the stored axioms if necessary
+	 * @return Baseline ontology
+	 */
+	public OWLOntology getOntology() {
+		if(ont == null) {
+			try {
+				ont = OWLManager.createOWLOntologyManager().createOntology(new HashSet<OWLAxiom>(axioms));
+			} catch (OWLOntologyCreationException e) {
+				e.printStackTrace();
+			}
+		}
+		return ont;
+	}
+
+
+	/**
+	 * Get the number of logical axioms in the baseline
+	 * @return Number of logical axioms
+	 */
+	public int getLogicalAxiomCount() {
+		return logicalAxioms.size();
+	}
+
+
+	/**
+	 * Get the logical axiom at the given position
+	 * @param i	Logical axiom index
+	 * @return Logical axiom
+	 */
+	public OWLAxiom getLogicalAxiom(int i) {
+		return logicalAxioms.get(i);
+	}
+
+
+	/**
+	 * Get the high 64 bits of the fingerprint of the logical axiom at the given position
+	 * @param i	Logical axiom index
+	 * @return High 64 bits of the fingerprint
+	 */
+	public long getFingerprintHigh(int i) {
+		return fingerprints[2*i];
+	}
+
+
+	/**
+	 * Get the low 64 bits of the fingerprint of the logical axiom at the given position
+	 * @param i	Logical axiom index
+	 * @return Low 64 bits of the fingerprint
+	 */
+	public long getFingerprintLow(int i) {
+		return fingerprints[2*i+1];
+	}
+
+
+	/**
+	 * Get the fingerprints of all logical axioms of the baseline
+	 * @return Fingerprint set
+	 */
+	public FingerprintSet getFingerprints() {
+		FingerprintSet fps = new FingerprintSet(logicalAxioms.size());
+		for(int i = 0; i < logicalAxioms.size(); i++)
+			fps.add(fingerprints[2*i], fingerprints[2*i+1]);
+		return fps;
+	}
+
+
+	/**
+	 * Check whether the given axiom is entailed by the baseline using only the stored class hierarchy. This is
+	 * possible for subsumptions and equivalences between named classes. As in the full diff, which only checks
+	 * axioms whose signature is in the ontology, axioms using classes outside the baseline signature are not entailed
+	 * @param ax	OWL axiom
+	 * @return true if the axiom is entailed, false if it is not, or null if it cannot be decided from the class hierarchy
+	 */
+	public Boolean isEntailedByHierarchy(OWLAxiom ax) {
+		if(ax instanceof OWLSubClassOfAxiom) {
+			OWLSubClassOfAxiom sub = (OWLSubClassOfAxiom)ax;
+			if(sub.getSubClass().isAnonymous() || sub.getSuperClass().isAnonymous()) return null;
+			if(!isInSignature(sub.getSubClass().asOWLClass()) || !isInSignature(sub.getSuperClass().asOWLClass())) return false;
+			return isSubsumedBy(sub.getSubClass().asOWLClass(), sub.getSuperClass().asOWLClass());
+		}
+		else if(ax instanceof OWLEquivalentClassesAxiom) {
+			OWLEquivalentClassesAxiom eqv = (OWLEquivalentClassesAxiom)ax;
+			List<OWLClassExpression> ces = eqv.getClassExpressionsAsList();
+			for(OWLClassExpression ce : ces)
+				if(ce.isAnonymous()) return null;
+			for(OWLClassExpression ce : ces)
+				if(!isInSignature(ce.asOWLClass())) return false;
+			for(int i = 1; i < ces.size(); i++) {
+				OWLClass a = ces.get(i-1).asOWLClass(), b = ces.get(i).asOWLClass();
+				if(!isSubsumedBy(a, b) || !isSubsumedBy(b, a)) return false;
+			}
+			return true;
+		}
+		return null;
+	}
+
+
+	/**
+	 * Check whether the given named class, including owl:Thing and owl:Nothing, is used in the baseline ontology
+	 * @param c	OWL class
+	 * @return true if the class is in the signature of the baseline, false otherwise
+	 */
+	private boolean isInSignature(OWLClass c) {
+		return superClasses.containsKey(c.getIRI().toString());
+	}
+
+
+	/**
+	 * Check whether a named class is subsumed by another in the stored class hierarchy. The baseline is consistent,
+	 * so owl:Nothing is subsumed by every class, only unsatisfiable classes are subsumed by owl:Nothing, and 
+	 * owl:Thing is only subsumed by classes equivalent to it
+	 * @param sub	Sub class
+	 * @param sup	Super class
+	 * @return true if sub is subsumed by sup, false otherwise
+	 */
+	private boolean isSubsumedBy(OWLClass sub, OWLClass sup) {
+		if(sub.isOWLNothing() || sup.isOWLThing() || sub.equals(sup)) return true;
+		String subIri = sub.getIRI().toString(), supIri = sup.getIRI().toString();
+		if(unsatisfiable.contains(subIri)) return true;
+		if(sup.isOWLNothing()) return false;
+		if(sub.isOWLThing()) {
+			String[] eqvs = superClasses.get(supIri);
+			return eqvs != null && Arrays.asList(eqvs).contains(subIri);
+		}
+		if(!superClasses.containsKey(subIri)) return false;
+
+		Set<String> visited = new HashSet<String>();
+		Deque<String> toVisit = new ArrayDeque<String>();
+		toVisit.add(subIri);
+		while(!toVisit.isEmpty()) {
+			String c = toVisit.poll();
+			if(!visited.add(c)) continue;
+			if(c.equals(supIri)) return true;
+			String[] sups = superClasses.get(c);
+			if(sups != null)
+				for(String s : sups) toVisit.add(s);
+		}
+		return false;
+	}
+}
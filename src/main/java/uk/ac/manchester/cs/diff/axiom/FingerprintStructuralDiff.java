@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.axiom;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+
+import uk.ac.manchester.cs.diff.axiom.changeset.StructuralChangeSet;
+import uk.ac.manchester.cs.diff.output.csv.CSVAxiomDiffReport;
+import uk.ac.manchester.cs.diff.output.xml.XMLAxiomDiffReport;
+import uk.ac.manchester.cs.diff.utils.AxiomFingerprinter;
+import uk.ac.manchester.cs.diff.utils.FingerprintAxiomSet;
+import uk.ac.manchester.cs.diff.utils.FingerprintSet;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Structural diff that compares 128-bit axiom fingerprints held in primitive hash sets, rather than
+ * copying the logical axioms of both ontologies into sets of axioms. Only added and removed axioms are
+ * materialised; the shared axioms are represented by their fingerprints</p>
+ */
+public class FingerprintStructuralDiff implements AxiomDiff {
+	private OWLOntology ont1, ont2;
+	private String ont1name, ont2name;
+	private StructuralChangeSet changeSet;
+	private double diffTime;
+	private boolean verbose;
+
+	/**
+	 * Constructor
+	 * @param ont1	Ontology 1
+	 * @param ont2	Ontology 2
+	 * @param verbose	true if detailed output should be printed, false otherwise
+	 */
+	public FingerprintStructuralDiff(OWLOntology ont1, OWLOntology ont2, boolean verbose) {
+		this.ont1 = ont1;
+		this.ont2 = ont2;
+		this.verbose = verbose;
+	}
+
+
+	/**
+	 * Constructor 2
+	 * @param ont1	Ontology 1
+	 * @param ont2	Ontology 2
+	 * @param ont1name	Ontology 1 filename
+	 * @param ont2name	Ontology 2 filename
+	 * @param verbose	true if detailed output should be printed, false otherwise
+	 */
+	public FingerprintStructuralDiff(OWLOntology ont1, OWLOntology ont2, String ont1name, String ont2name, boolean verbose) {
+		this(ont1, ont2, verbose);
+		this.ont1name = ont1name;
+		this.ont2name = ont2name;
+	}
+
+
+	/**
+	 * Get structural changes between ontologies
+	 * @return Structural change set
+	 */
+	@SuppressWarnings("deprecation")
+	public StructuralChangeSet getDiff() {
+		if(changeSet != null) return changeSet;
+
+		if(verbose) System.out.print("   Computing structural differences (fingerprint-based)... ");
+		long start = System.currentTimeMillis();
+
+		// Index fingerprints of ontology 1, kept in iteration order so that they are computed once
+		int nrAxioms1 = ont1.getLogicalAxiomCount();
+		long[] o1hi = new long[nrAxioms1], o1lo = new long[nrAxioms1];
+		FingerprintSet o1fps = new FingerprintSet(nrAxioms1);
+		int i = 0;
+		for(OWLAxiom ax : FingerprintAxiomSet.getLogicalAxioms(ont1)) {
+			long[] fp = AxiomFingerprinter.getFingerprint(ax);
+			o1hi[i] = fp[0]; o1lo[i] = fp[1]; i++;
+			o1fps.add(fp);
+		}
+
+		// Axioms of ontology 2 are either shared or added
+		Set<OWLAxiom> additions = new HashSet<OWLAxiom>();
+		FingerprintSet sharedfps = new FingerprintSet(Math.min(nrAxioms1, ont2.getLogicalAxiomCount()));
+		for(OWLAxiom ax : FingerprintAxiomSet.getLogicalAxioms(ont2)) {
+			long[] fp = AxiomFingerprinter.getFingerprint(ax);
+			if(o1fps.contains(fp))
+				sharedfps.add(fp);
+			else if(!isSubsumptionOfTop(ax))
+				additions.add(ax);
+		}
+		o1fps = null;
+
+		// Axioms of ontology 1 that are not shared are removed
+		Set<OWLAxiom> removals = new HashSet<OWLAxiom>();
+		BitSet shared = new BitSet(nrAxioms1);
+		i = 0;
+		for(OWLAxiom ax : FingerprintAxiomSet.getLogicalAxioms(ont1)) {
+			if(sharedfps.contains(o1hi[i], o1lo[i]))
+				shared.set(i);
+			else if(!isSubsumptionOfTop(ax))
+				removals.add(ax);
+			i++;
+		}
+
+		long end = System.currentTimeMillis();
+		diffTime = (end-start)/1000.0;
+
+		changeSet = new StructuralChangeSet(additions, removals, new FingerprintAxiomSet(ont1, sharedfps, shared));
+		addOntologyFileNames(); changeSet.setDiffTime(diffTime);
+
+		if(verbose) System.out.println("done (" + diffTime + " secs)");
+		if(verbose) printDiff();
+		return changeSet;
+	}
+
+
+	/**
+	 * Check whether the given axiom is of the form C SubClassOf owl:Thing, which is not reported as a change
+	 * @param ax	OWL axiom
+	 * @return true if the axiom is a subsumption with owl:Thing as superclass, false otherwise
+	 */
+	private boolean isSubsumptionOfTop(OWLAxiom ax) {
+		return (ax instanceof OWLSubClassOfAxiom) && ((OWLSubClassOfAxiom)ax).getSuperClass().isTopEntity();
+	}
+
+
+	/**
+	 * Print diff results
+	 */
+	public void printDiff() {
+		System.out.println(
+				"\tAdditions: " + changeSet.getAddedAxioms().size() +
+				"\n\tRemovals: " + changeSet.getRemovedAxioms().size() +
+				"\n\tShared: " + changeSet.getShared().size());
+	}
+
+
+	/**
+	 * Record file names of given ontologies in the change set
+	 */
+	@SuppressWarnings("deprecation")
+	private void addOntologyFileNames() {
+		if(ont1name == null) changeSet.setOntologyName(1, "Ont1");
+		else changeSet.setOntologyName(1, ont1name);
+
+		if(ont2name == null) changeSet.setOntologyName(2, "Ont2");
+		else changeSet.setOntologyName(2, ont2name);
+	}
+
+
+	/**
+	 * Get an XML change report for the change set computed by this diff
+	 * @return XML change report object
+	 */
+	public XMLAxiomDiffReport getXMLReport() {
+		if(changeSet == null) changeSet = getDiff();
+		return new XMLAxiomDiffReport(ont1, ont2, changeSet);
+	}
+
+
+	/**
+	 * Get a CSV change report
+	 * @return Change report as a CSV document
+	 */
+	public String getCSVChangeReport() {
+		if(changeSet == null) changeSet = getDiff();
+		return new CSVAxiomDiffReport().getReport(changeSet);
+	}
+
+
+	/**
+	 * Determine if ontologies are structurally equivalent (thus logically equivalent)
+	 * @return true if ontologies are structurally equivalent, false otherwise
+	 */
+	public boolean isEquivalent() {
+		if(changeSet == null) changeSet = getDiff();
+		return changeSet.isEmpty();
+	}
+
+
+	/**
+	 * Get the time to compute the diff
+	 * @return Diff time (in seconds)
+	 */
+	public double getDiffTime() {
+		return diffTime;
+	}
+}
@@ -0,0 +1,305 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.axiom;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.diff.axiom.changeset.LogicalChangeSet;
+import uk.ac.manchester.cs.diff.axiom.changeset.StructuralChangeSet;
+import uk.ac.manchester.cs.diff.exception.InconsistentOntologyException;
+import uk.ac.manchester.cs.diff.output.csv.CSVAxiomDiffReport;
+import uk.ac.manchester.cs.diff.output.xml.XMLAxiomDiffReport;
+import uk.ac.manchester.cs.diff.utils.AxiomFingerprinter;
+import uk.ac.manchester.cs.diff.utils.FingerprintAxiomSet;
+import uk.ac.manchester.cs.diff.utils.FingerprintSet;
+import uk.ac.manchester.cs.diff.utils.ReasonerLoader;
+import uk.ac.manchester.cs.diff.utils.ReasonerLoader.ReasonerType;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Logical diff of an ontology against a persisted {@link DiffBaseline}. The structural delta is computed against
+ * the stored fingerprints, and entailment checks run only for the delta: added axioms are first checked against the
+ * stored class hierarchy of the baseline, and only those that cannot be decided there require a reasoner over the
+ * (rebuilt) baseline ontology</p>
+ */
+public class IncrementalDiff implements AxiomDiff {
+	private DiffBaseline baseline;
+	private OWLOntology ont2;
+	private OWLReasoner ont1reasoner, ont2reasoner;
+	private StructuralChangeSet structChangeSet;
+	private LogicalChangeSet logicalChangeSet;
+	private double diffTime;
+	private int hierarchyChecks;
+	private ReasonerType reasonerType = ReasonerType.HERMIT;
+	private boolean verbose;
+
+	/**
+	 * Constructor
+	 * @param baseline	Diff baseline (ontology 1)
+	 * @param ont2	Ontology 2
+	 * @param verbose	Verbose mode
+	 */
+	public IncrementalDiff(DiffBaseline baseline, OWLOntology ont2, boolean verbose) {
+		this.baseline = baseline;
+		this.ont2 = ont2;
+		this.verbose = verbose;
+	}
+
+
+	/**
+	 * Set the type of the reasoner created for ontology 2, unless one is given. The reasoner created for the baseline,
+	 * if needed, is of the same type as the reasoner for ontology 2
+	 * @param reasonerType	Reasoner type
+	 */
+	public void setReasonerType(ReasonerType reasonerType) {
+		this.reasonerType = reasonerType;
+	}
+
+
+	/**
+	 * Get the structural changes between the baseline and ontology 2
+	 * @return Structural change set
+	 */
+	@SuppressWarnings("deprecation")
+	public StructuralChangeSet getStructuralChangeSet() {
+		if(structChangeSet != null) return structChangeSet;
+		if(verbose) System.out.print("   Computing structural differences against baseline... ");
+		long start = System.currentTimeMillis();
+
+		FingerprintSet o1fps = baseline.getFingerprints();
+		FingerprintSet o2fps = new FingerprintSet(ont2.getLogicalAxiomCount());
+		FingerprintSet sharedfps = new FingerprintSet(Math.min(baseline.getLogicalAxiomCount(), ont2.getLogicalAxiomCount()));
+		BitSet shared = new BitSet(ont2.getLogicalAxiomCount());
+		Set<OWLAxiom> additions = new HashSet<OWLAxiom>();
+		int i = 0;
+		for(OWLAxiom ax : FingerprintAxiomSet.getLogicalAxioms(ont2)) {
+			long[] fp = AxiomFingerprinter.getFingerprint(ax);
+			o2fps.add(fp);
+			if(o1fps.contains(fp)) {
+				sharedfps.add(fp);
+				shared.set(i);
+			}
+			else if(!isSubsumptionOfTop(ax))
+				additions.add(ax);
+			i++;
+		}
+		Set<OWLAxiom> removals = new HashSet<OWLAxiom>();
+		for(i = 0; i < baseline.getLogicalAxiomCount(); i++) {
+			if(!o2fps.contains(baseline.getFingerprintHigh(i), baseline.getFingerprintLow(i))) {
+				OWLAxiom ax = baseline.getLogicalAxiom(i);
+				if(!isSubsumptionOfTop(ax)) removals.add(ax);
+			}
+		}
+
+		structChangeSet = new StructuralChangeSet(additions, removals, new FingerprintAxiomSet(ont2, sharedfps, shared));
+		structChangeSet.setOntologyName(1, "Baseline"); structChangeSet.setOntologyName(2, "Ont2");
+		structChangeSet.setDiffTime((System.currentTimeMillis()-start)/1000.0);
+		if(verbose) System.out.println("done (" + structChangeSet.getOperationTime() + " secs)");
+		return structChangeSet;
+	}
+
+
+	/**
+	 * Get logical changes between the baseline and ontology 2 given a reasoner instance for ontology 2
+	 * @param ont2reasoner	Instance of a reasoner loaded with ontology 2
+	 * @return Logical change set
+	 */
+	public LogicalChangeSet getDiff(OWLReasoner ont2reasoner) {
+		this.ont2reasoner = ont2reasoner;
+		return getDiff();
+	}
+
+
+	/**
+	 * Get logical changes between the baseline and ontology 2
+	 * @return Logical change set
+	 */
+	@SuppressWarnings("deprecation")
+	public LogicalChangeSet getDiff() {
+		if(logicalChangeSet != null) return logicalChangeSet;
+		getStructuralChangeSet();
+		boolean disposeOnt2reasoner = (ont2reasoner == null);
+		if(ont2reasoner == null) ont2reasoner = new ReasonerLoader(ont2).createReasoner(reasonerType, false);
+		if(!ont2reasoner.isConsistent())
+			throw new InconsistentOntologyException("Ontology 2 is inconsistent. Cannot perform logical diff on inconsistent input.");
+
+		if(verbose) System.out.print("   Verifying axiom impact against baseline... ");
+		long start = System.currentTimeMillis();
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		Future<Set<OWLAxiom>> ia = executor.submit(new Callable<Set<OWLAxiom>>() {
+			@Override
+			public Set<OWLAxiom> call() {
+				return getIneffectualAdditions(structChangeSet.getAddedAxioms());
+			}
+		});
+		Future<Set<OWLAxiom>> ir = executor.submit(new Callable<Set<OWLAxiom>>() {
+			@Override
+			public Set<OWLAxiom> call() {
+				return getEntailedAxioms(structChangeSet.getRemovedAxioms(), ont2reasoner);
+			}
+		});
+		Set<OWLAxiom> ineffectualAdditions = null, ineffectualRemovals = null;
+		try {
+			ineffectualAdditions = ia.get();
+			ineffectualRemovals = ir.get();
+		} catch(InterruptedException e) {
+			e.printStackTrace();
+		} catch(ExecutionException e) {
+			e.printStackTrace();
+		}
+		executor.shutdown();
+		if(disposeOnt2reasoner) ont2reasoner.dispose();
+		if(ont1reasoner != null) ont1reasoner.dispose();
+
+		Set<OWLAxiom> effectualAdditions = new HashSet<OWLAxiom>(structChangeSet.getAddedAxioms());
+		effectualAdditions.removeAll(ineffectualAdditions);
+		Set<OWLAxiom> effectualRemovals = new HashSet<OWLAxiom>(structChangeSet.getRemovedAxioms());
+		effectualRemovals.removeAll(ineffectualRemovals);
+
+		diffTime = (System.currentTimeMillis()-start)/1000.0;
+		logicalChangeSet = new LogicalChangeSet(effectualAdditions, ineffectualAdditions, effectualRemovals, ineffectualRemovals, structChangeSet);
+		logicalChangeSet.setDiffTime(diffTime);
+
+		if(verbose) System.out.println("done (" + diffTime + " secs, " + hierarchyChecks + " of " +
+				structChangeSet.getAddedAxioms().size() + " additions decided by the baseline class hierarchy)");
+		if(verbose) printDiff();
+		return logicalChangeSet;
+	}
+
+
+	/**
+	 * Get the added axioms that are entailed by the baseline. Those that can be decided by the stored class hierarchy
+	 * are checked there, and the remaining ones by a reasoner over the baseline ontology, created only if necessary
+	 * @param additions	Added axioms
+	 * @return Ineffectual additions
+	 */
+	private Set<OWLAxiom> getIneffectualAdditions(Set<OWLAxiom> additions) {
+		Set<OWLAxiom> ineffectual = new HashSet<OWLAxiom>();
+		List<OWLAxiom> undecided = new ArrayList<OWLAxiom>();
+		for(OWLAxiom ax : additions) {
+			Boolean entailed = baseline.isEntailedByHierarchy(ax);
+			if(entailed == null) undecided.add(ax);
+			else {
+				hierarchyChecks++;
+				if(entailed) ineffectual.add(ax);
+			}
+		}
+		if(!undecided.isEmpty()) {
+			ont1reasoner = new ReasonerLoader(baseline.getOntology()).createReasoner(ReasonerLoader.getConcreteType(ont2reasoner), false);
+			ineffectual.addAll(getEntailedAxioms(undecided, ont1reasoner));
+		}
+		return ineffectual;
+	}
+
+
+	/**
+	 * Get the given axioms that are entailed by the ontology loaded in the given reasoner
+	 * @param axioms	Axioms to check
+	 * @param reasoner	Reasoner instance
+	 * @return Entailed axioms
+	 */
+	private Set<OWLAxiom> getEntailedAxioms(Iterable<OWLAxiom> axioms, OWLReasoner reasoner) {
+		Set<OWLAxiom> entailed = new HashSet<OWLAxiom>();
+		Set<OWLEntity> ontSig = reasoner.getRootOntology().getSignature();
+		for(OWLAxiom axiom : axioms) {
+			if(ontSig.containsAll(axiom.getSignature()) && reasoner.isEntailed(axiom))
+				entailed.add(axiom);
+		}
+		return entailed;
+	}
+
+
+	/**
+	 * Check whether the given axiom is of the form C SubClassOf owl:Thing, which is not reported as a change
+	 * @param ax	OWL axiom
+	 * @return true if the axiom is a subsumption with owl:Thing as superclass, false otherwise
+	 */
+	private boolean isSubsumptionOfTop(OWLAxiom ax) {
+		return (ax instanceof OWLSubClassOfAxiom) && ((OWLSubClassOfAxiom)ax).getSuperClass().isTopEntity();
+	}
+
+
+	/**
+	 * Print diff results
+	 */
+	public void printDiff() {
+		System.out.println(
+				"\tEffectual Additions: " + logicalChangeSet.getEffectualAdditionAxioms().size() +
+				"\n\tEffectual Removals: " + logicalChangeSet.getEffectualRemovalAxioms().size() +
+				"\n\tIneffectual Additions: " + logicalChangeSet.getIneffectualAdditionAxioms().size() +
+				"\n\tIneffectual Removals: " + logicalChangeSet.getIneffectualRemovalAxioms().size());
+	}
+
+
+	/**
+	 * Get an XML change report for the change set computed by this diff
+	 * @return XML change report object
+	 */
+	public XMLAxiomDiffReport getXMLReport() {
+		if(logicalChangeSet == null) logicalChangeSet = getDiff();
+		return new XMLAxiomDiffReport(baseline.getOntology(), ont2, logicalChangeSet);
+	}
+
+
+	/**
+	 * Get a CSV change report
+	 * @return Change report as a CSV document
+	 */
+	public String getCSVChangeReport() {
+		if(logicalChangeSet == null) logicalChangeSet = getDiff();
+		return new CSVAxiomDiffReport().getReport(logicalChangeSet);
+	}
+
+
+	/**
+	 * Determine if ontology 2 is logically equivalent to the baseline
+	 * @return true if ontologies are logically equivalent, false otherwise
+	 */
+	public boolean isEquivalent() {
+		if(logicalChangeSet == null) logicalChangeSet = getDiff();
+		return logicalChangeSet.getEffectualAdditionAxioms().isEmpty() && logicalChangeSet.getEffectualRemovalAxioms().isEmpty();
+	}
+
+
+	/**
+	 * Get the time to compute the diff
+	 * @return Diff time (in seconds)
+	 */
+	public double getDiffTime() {
+		return diffTime;
+	}
+}
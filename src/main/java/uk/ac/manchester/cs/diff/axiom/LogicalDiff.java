@@ -18,7 +18,9 @@
  ******************************************************************************/
 package uk.ac.manchester.cs.diff.axiom;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.semanticweb.owlapi.model.OWLAxiom;
@@ -31,7 +33,10 @@ import uk.ac.manchester.cs.diff.axiom.changeset.StructuralChangeSet;
 import uk.ac.manchester.cs.diff.exception.InconsistentOntologyException;
 import uk.ac.manchester.cs.diff.output.csv.CSVAxiomDiffReport;
 import uk.ac.manchester.cs.diff.output.xml.XMLAxiomDiffReport;
+import uk.ac.manchester.cs.diff.utils.BulkEntailmentChecker;
+import uk.ac.manchester.cs.diff.utils.EntailmentCache;
 import uk.ac.manchester.cs.diff.utils.ReasonerLoader;
+import uk.ac.manchester.cs.diff.utils.SaturationEntailmentChecker;
 
 /**
  * @author Rafael S. Goncalves <br>
@@ -45,7 +50,9 @@ public class LogicalDiff implements AxiomDiff {
 	private LogicalChangeSet logicalChangeSet;
 	private OWLReasoner ont1reasoner, ont2reasoner;
 	private double diffTime;
-	private boolean verbose;
+	private boolean verbose, bulkEntailment, preReasoning;
+	private EntailmentCache cache;
+	private int preResolved;
 	
 	/**
 	 * Constructor
@@ -88,6 +95,35 @@ public class LogicalDiff implements AxiomDiff {
 	}
 
 	
+	/**
+	 * Set whether SubClassOf and EquivalentClasses changes should be checked in bulk, by classifying each ontology
+	 * once (see {@link BulkEntailmentChecker}), rather than one entailment check per axiom
+	 * @param bulkEntailment	true if entailments should be checked in bulk, false otherwise
+	 */
+	public void setBulkEntailmentChecking(boolean bulkEntailment) {
+		this.bulkEntailment = bulkEntailment;
+	}
+	
+	
+	/**
+	 * Set whether entailment checks should first be settled, where possible, by a sound but incomplete pre-reasoner
+	 * (see {@link SaturationEntailmentChecker}), leaving only the remaining checks to the reasoners
+	 * @param preReasoning	true if checks should be pre-reasoned, false otherwise
+	 */
+	public void setPreReasoning(boolean preReasoning) {
+		this.preReasoning = preReasoning;
+	}
+	
+	
+	/**
+	 * Set the cache of entailment check results consulted before the reasoners, and updated with their results
+	 * @param cache	Entailment cache, or null if results should not be cached
+	 */
+	public void setEntailmentCache(EntailmentCache cache) {
+		this.cache = cache;
+	}
+	
+	
 	/**
 	 * Get logical changes between ontologies
 	 * @return Logical change set
@@ -96,14 +132,7 @@ public class LogicalDiff implements AxiomDiff {
 	public LogicalChangeSet getDiff() {
 		if(logicalChangeSet != null) return logicalChangeSet;
 		if(structChangeSet == null) structChangeSet = new StructuralDiff(ont1, ont2, verbose).getDiff();
-		
-		if(ont1reasoner == null) ont1reasoner = new ReasonerLoader(ont1).createReasoner(false);
-		if(ont2reasoner == null) ont2reasoner = new ReasonerLoader(ont2).createReasoner(false);
-		
-		if(!ont1reasoner.isConsistent())
-			throw new InconsistentOntologyException("Ontology 1 is inconsistent. Cannot perform logical diff on inconsistent input.");
-		if(!ont2reasoner.isConsistent())
-			throw new InconsistentOntologyException("Ontology 2 is inconsistent. Cannot perform logical diff on inconsistent input.");
+		loadReasoners();
 		
 		if(verbose) System.out.print("   Verifying axiom impact... ");
 		long start = System.currentTimeMillis();
@@ -122,12 +151,27 @@ public class LogicalDiff implements AxiomDiff {
 		logicalChangeSet = new LogicalChangeSet(effectualAdditions, ineffectualAdditions, effectualRemovals, ineffectualRemovals, structChangeSet);
 		logicalChangeSet.setDiffTime(diffTime);
 
-		if(verbose) System.out.println("done (" + diffTime + " secs)");
+		if(verbose) System.out.println("done (" + diffTime + " secs" + 
+				(preReasoning ? ", " + preResolved + " checks settled by pre-reasoning" : "") + ")");
 		if(verbose) printDiff();
 		return logicalChangeSet;
 	}
 	
 
+	/**
+	 * Create the reasoners that were not given, and check that both ontologies are consistent
+	 */
+	private void loadReasoners() {
+		if(ont1reasoner == null) ont1reasoner = new ReasonerLoader(ont1).createReasoner(false);
+		if(ont2reasoner == null) ont2reasoner = new ReasonerLoader(ont2).createReasoner(false);
+		
+		if(!ont1reasoner.isConsistent())
+			throw new InconsistentOntologyException("Ontology 1 is inconsistent. Cannot perform logical diff on inconsistent input.");
+		if(!ont2reasoner.isConsistent())
+			throw new InconsistentOntologyException("Ontology 2 is inconsistent. Cannot perform logical diff on inconsistent input.");
+	}
+	
+
 	/**
 	 * Get ineffectual changes
 	 * @param axioms	Set of axioms to check
@@ -136,13 +180,34 @@ public class LogicalDiff implements AxiomDiff {
 	 */
 	private Set<OWLAxiom> getIneffectualChanges(Set<OWLAxiom> axioms, OWLReasoner reasoner) {
 		Set<OWLEntity> ontSig = reasoner.getRootOntology().getSignature();
+		long[] ontDigest = (cache != null ? EntailmentCache.getDigest(reasoner.getRootOntology()) : null);
+		SaturationEntailmentChecker preReasoner = (preReasoning ? new SaturationEntailmentChecker(reasoner.getRootOntology()) : null);
 		Set<OWLAxiom> ineffectual = new HashSet<OWLAxiom>();
+		List<OWLAxiom> bulk = new ArrayList<OWLAxiom>();
 		for(OWLAxiom axiom : axioms) {
 			if(ontSig.containsAll(axiom.getSignature())) {
-				if(reasoner.isEntailed(axiom))
-					ineffectual.add(axiom);
+				Boolean entailed = (cache != null ? cache.get(ontDigest, axiom) : null);
+				if(entailed == null && preReasoner != null) entailed = preReasoner.isEntailed(axiom);
+				if(entailed == null) {
+					if(bulkEntailment && BulkEntailmentChecker.isSupported(axiom)) {
+						bulk.add(axiom);
+						continue;
+					}
+					entailed = reasoner.isEntailed(axiom);
+					if(cache != null) cache.put(ontDigest, axiom, entailed);
+				}
+				if(entailed) ineffectual.add(axiom);
+			}
+		}
+		if(!bulk.isEmpty()) {
+			Set<OWLAxiom> entailed = new BulkEntailmentChecker(reasoner.getRootOntology(), reasoner).getEntailedAxioms(bulk);
+			ineffectual.addAll(entailed);
+			if(cache != null) {
+				for(OWLAxiom axiom : bulk)
+					cache.put(ontDigest, axiom, entailed.contains(axiom));
 			}
 		}
+		if(preReasoner != null) preResolved += preReasoner.getResolvedCount();
 		return ineffectual;
 	}
 	
@@ -180,11 +245,12 @@ public class LogicalDiff implements AxiomDiff {
 	
 	
 	/**
-	 * Determine if ontologies are logically equivalent
+	 * Determine if ontologies are logically equivalent. Unless the logical diff was already computed, this stops at 
+	 * the first change found to be effectual rather than computing the whole diff, see {@link #findEffectualChange()}
 	 * @return true if ontologies are logically equivalent, false otherwise
 	 */
 	public boolean isEquivalent() {
-		if(logicalChangeSet == null) logicalChangeSet = getDiff();
+		if(logicalChangeSet == null) return findEffectualChange() == null;
 		if(logicalChangeSet.getEffectualAdditionAxioms().isEmpty() && logicalChangeSet.getEffectualRemovalAxioms().isEmpty()) 
 			return true;
 		else 
@@ -192,6 +258,61 @@ public class LogicalDiff implements AxiomDiff {
 	}
 	
 	
+	/**
+	 * Find a change that is effectual, stopping at the first one found. Changes with terms outside the signature of
+	 * the other ontology, which are effectual, are looked at first, and then the remaining changes are checked one
+	 * by one (consulting the entailment cache and pre-reasoner first, if any)
+	 * @return Effectual change, or null if all changes are ineffectual
+	 */
+	public OWLAxiom findEffectualChange() {
+		if(structChangeSet == null) structChangeSet = new StructuralDiff(ont1, ont2, verbose).getDiff();
+		loadReasoners();
+		
+		OWLAxiom effectual = getChangeWithNewTerms(structChangeSet.getAddedAxioms(), ont1);
+		if(effectual == null) effectual = getChangeWithNewTerms(structChangeSet.getRemovedAxioms(), ont2);
+		if(effectual == null) effectual = getEffectualChange(structChangeSet.getAddedAxioms(), ont1reasoner);
+		if(effectual == null) effectual = getEffectualChange(structChangeSet.getRemovedAxioms(), ont2reasoner);
+		return effectual;
+	}
+	
+	
+	/**
+	 * Get a change in the given set that has terms outside the signature of the given ontology
+	 * @param axioms	Set of axioms
+	 * @param ont	Ontology
+	 * @return Change with new terms, or null if there is none
+	 */
+	private OWLAxiom getChangeWithNewTerms(Set<OWLAxiom> axioms, OWLOntology ont) {
+		Set<OWLEntity> ontSig = ont.getSignature();
+		for(OWLAxiom ax : axioms)
+			if(!ontSig.containsAll(ax.getSignature())) return ax;
+		return null;
+	}
+	
+	
+	/**
+	 * Get the first change in the given set that is not entailed by the ontology loaded into the given reasoner
+	 * @param axioms	Set of axioms, all within the signature of the ontology
+	 * @param reasoner	OWL reasoner
+	 * @return Effectual change, or null if all changes are ineffectual
+	 */
+	private OWLAxiom getEffectualChange(Set<OWLAxiom> axioms, OWLReasoner reasoner) {
+		if(axioms.isEmpty()) return null;
+		long[] ontDigest = (cache != null ? EntailmentCache.getDigest(reasoner.getRootOntology()) : null);
+		SaturationEntailmentChecker preReasoner = (preReasoning ? new SaturationEntailmentChecker(reasoner.getRootOntology()) : null);
+		for(OWLAxiom axiom : axioms) {
+			Boolean entailed = (cache != null ? cache.get(ontDigest, axiom) : null);
+			if(entailed == null && preReasoner != null) entailed = preReasoner.isEntailed(axiom);
+			if(entailed == null) {
+				entailed = reasoner.isEntailed(axiom);
+				if(cache != null) cache.put(ontDigest, axiom, entailed);
+			}
+			if(!entailed) return axiom;
+		}
+		return null;
+	}
+	
+	
 	/**
 	 * Convenience method to get the StructuralChangeSet
 	 * @return Structural diff change set
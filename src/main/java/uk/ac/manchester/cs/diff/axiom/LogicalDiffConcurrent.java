@@ -19,14 +19,22 @@
 package uk.ac.manchester.cs.diff.axiom;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLEntity;
@@ -38,7 +46,15 @@ import uk.ac.manchester.cs.diff.axiom.changeset.StructuralChangeSet;
 import uk.ac.manchester.cs.diff.exception.InconsistentOntologyException;
 import uk.ac.manchester.cs.diff.output.csv.CSVAxiomDiffReport;
 import uk.ac.manchester.cs.diff.output.xml.XMLAxiomDiffReport;
+import uk.ac.manchester.cs.diff.utils.BulkEntailmentChecker;
+import uk.ac.manchester.cs.diff.utils.EntailmentCache;
+import uk.ac.manchester.cs.diff.utils.EntailmentDeadline;
+import uk.ac.manchester.cs.diff.utils.ModuleEntailmentChecker;
+import uk.ac.manchester.cs.diff.utils.PortfolioEntailmentChecker;
 import uk.ac.manchester.cs.diff.utils.ReasonerLoader;
+import uk.ac.manchester.cs.diff.utils.ReasonerLoader.ReasonerType;
+import uk.ac.manchester.cs.diff.utils.ReasonerPool;
+import uk.ac.manchester.cs.diff.utils.SaturationEntailmentChecker;
 
 /**
  * @author Rafael S. Goncalves <br>
@@ -52,7 +68,14 @@ public class LogicalDiffConcurrent implements AxiomDiff {
 	private LogicalChangeSet logicalChangeSet;
 	private OWLReasoner ont1reasoner, ont2reasoner;
 	private double diffTime;
-	private boolean verbose;
+	private int nrReplicas = 1, bulkChecked;
+	private long timeout, portfolioThreshold;
+	private EntailmentDeadline deadline;
+	private Set<OWLAxiom> undetermined;
+	private EntailmentCache cache;
+	private ReasonerType reasonerType = ReasonerType.HERMIT;
+	private boolean verbose, bulkEntailment, modularEntailment, preReasoning;
+	private static final int CHUNK_SIZE = 32, MODULE_CACHE_SIZE = 64;
 	
 	/**
 	 * Constructor
@@ -95,6 +118,91 @@ public class LogicalDiffConcurrent implements AxiomDiff {
 	}
 
 	
+	/**
+	 * Set the number of independent reasoner replicas per ontology used to check entailments in parallel. The 
+	 * changed axioms are checked in chunks by twice as many worker threads, which steal chunks from each other
+	 * @param nrReplicas	Maximum number of reasoner replicas per ontology (including the given or created reasoner)
+	 */
+	public void setReasonerReplicas(int nrReplicas) {
+		this.nrReplicas = Math.max(1, nrReplicas);
+	}
+	
+	
+	/**
+	 * Set whether SubClassOf and EquivalentClasses changes should be checked in bulk, by classifying each ontology
+	 * once (see {@link BulkEntailmentChecker}), rather than one entailment check per axiom
+	 * @param bulkEntailment	true if entailments should be checked in bulk, false otherwise
+	 */
+	public void setBulkEntailmentChecking(boolean bulkEntailment) {
+		this.bulkEntailment = bulkEntailment;
+	}
+	
+	
+	/**
+	 * Set whether entailments should be checked against the locality-based module of each ontology for the signature 
+	 * of the changed axiom (see {@link ModuleEntailmentChecker}), rather than against the whole ontology. Changes over 
+	 * the same terms share one module reasoner, and changes over different terms are checked in parallel
+	 * @param modularEntailment	true if entailments should be checked against modules, false otherwise
+	 */
+	public void setModularEntailmentChecking(boolean modularEntailment) {
+		this.modularEntailment = modularEntailment;
+	}
+	
+	
+	/**
+	 * Set the maximum time for each (per-axiom) entailment check, after which the reasoner is interrupted and the
+	 * changed axiom is deemed undetermined, i.e., neither effectual nor ineffectual. Checks are then made with reasoner
+	 * replicas (or module reasoners) owned by this diff, since an interrupted reasoner is discarded. Axioms checked
+	 * in bulk (see {@link #setBulkEntailmentChecking(boolean)}) are not subject to the deadline
+	 * @param timeout	Maximum time (in milliseconds) per entailment check, or 0 if checks are not bounded
+	 */
+	public void setEntailmentTimeout(long timeout) {
+		this.timeout = Math.max(0, timeout);
+	}
+	
+	
+	/**
+	 * Set the time after which an entailment check is raced on the other reasoner engine (HermiT or JFact) in 
+	 * parallel, the first answer winning (see {@link PortfolioEntailmentChecker}). Checks are then made with reasoner
+	 * replicas owned by this diff, since a losing reasoner is interrupted. The portfolio is not used for checks against
+	 * modules, nor for checks bounded by a deadline (see {@link #setEntailmentTimeout(long)})
+	 * @param portfolioThreshold	Time (in milliseconds) after which checks are raced, or 0 if checks are not raced
+	 */
+	public void setPortfolioThreshold(long portfolioThreshold) {
+		this.portfolioThreshold = Math.max(0, portfolioThreshold);
+	}
+	
+	
+	/**
+	 * Set whether entailment checks should first be settled, where possible, by a sound but incomplete pre-reasoner
+	 * (see {@link SaturationEntailmentChecker}), leaving only the remaining checks to the reasoners
+	 * @param preReasoning	true if checks should be pre-reasoned, false otherwise
+	 */
+	public void setPreReasoning(boolean preReasoning) {
+		this.preReasoning = preReasoning;
+	}
+	
+	
+	/**
+	 * Set the type of the reasoners created by this diff. Reasoner replicas and module reasoners are of the same type
+	 * as the reasoner loaded with the whole ontology
+	 * @param reasonerType	Reasoner type
+	 */
+	public void setReasonerType(ReasonerType reasonerType) {
+		this.reasonerType = reasonerType;
+	}
+	
+	
+	/**
+	 * Set the cache of entailment check results consulted before the reasoners, and updated with their results.
+	 * Undetermined checks are not cached
+	 * @param cache	Entailment cache, or null if results should not be cached
+	 */
+	public void setEntailmentCache(EntailmentCache cache) {
+		this.cache = cache;
+	}
+	
+	
 	/**
 	 * Get logical changes between ontologies
 	 * @return Logical change set
@@ -102,85 +210,340 @@ public class LogicalDiffConcurrent implements AxiomDiff {
 	@SuppressWarnings("deprecation")
 	public LogicalChangeSet getDiff() {
 		if(logicalChangeSet != null) return logicalChangeSet;
-		if(structChangeSet == null) structChangeSet = new StructuralDiff(ont1, ont2, verbose).getDiff();
-		
-		if(ont1reasoner == null) ont1reasoner = new ReasonerLoader(ont1).createReasoner(false);
-		if(ont2reasoner == null) ont2reasoner = new ReasonerLoader(ont2).createReasoner(false);
-		
-		if(!ont1reasoner.isConsistent())
-			throw new InconsistentOntologyException("Ontology 1 is inconsistent. Cannot perform logical diff on inconsistent input.");
-		if(!ont2reasoner.isConsistent())
-			throw new InconsistentOntologyException("Ontology 2 is inconsistent. Cannot perform logical diff on inconsistent input.");
+		if(structChangeSet == null) structChangeSet = new FingerprintStructuralDiff(ont1, ont2, verbose).getDiff();
+		loadReasoners();
 		
 		if(verbose) System.out.print("   Verifying axiom impact... ");
 		long start = System.currentTimeMillis();
 		
-		IneffectualChangeChecker ineffAddChecker = new IneffectualChangeChecker(structChangeSet.getAddedAxioms(), ont1reasoner);
-		IneffectualChangeChecker ineffRemChecker = new IneffectualChangeChecker(structChangeSet.getRemovedAxioms(), ont2reasoner);
-        
-		ExecutorService executor = Executors.newFixedThreadPool(2);
-		List<Callable<Set<OWLAxiom>>> l = new ArrayList<Callable<Set<OWLAxiom>>>();
-		l.add(ineffRemChecker); l.add(ineffAddChecker);
-		
-		Future<Set<OWLAxiom>> ia = executor.submit(ineffAddChecker);
-		Future<Set<OWLAxiom>> ir = executor.submit(ineffRemChecker);
-		
-		Set<OWLAxiom> ineffectualAdditions = null, ineffectualRemovals = null;
-		try {
-			ineffectualAdditions = ia.get();
-			ineffectualRemovals = ir.get();
-		} catch(InterruptedException e) {
-			e.printStackTrace();
-		} catch(ExecutionException e) {
-			e.printStackTrace();
-		}
-		executor.shutdown();
+		ForkJoinPool fjPool = new ForkJoinPool(2*nrReplicas);
+		List<OWLAxiom> additions = new ArrayList<OWLAxiom>(structChangeSet.getAddedAxioms());
+		List<OWLAxiom> removals = new ArrayList<OWLAxiom>(structChangeSet.getRemovedAxioms());
+		Set<OWLAxiom> ineffectualAdditions = new HashSet<OWLAxiom>(), ineffectualRemovals = new HashSet<OWLAxiom>();
+		long[] ont1digest = null, ont2digest = null;
+		int cached = 0;
+		if(cache != null) {
+			ont1digest = EntailmentCache.getDigest(ont1);
+			ont2digest = EntailmentCache.getDigest(ont2);
+			cached = getCachedChanges(additions, ont1, ont1digest, ineffectualAdditions) + 
+					getCachedChanges(removals, ont2, ont2digest, ineffectualRemovals);
+		}
+		int preResolved = 0;
+		if(preReasoning) {
+			preResolved = getPreReasonedChanges(additions, ont1, ineffectualAdditions) + 
+					getPreReasonedChanges(removals, ont2, ineffectualRemovals);
+		}
+		if(bulkEntailment) {
+			// Supported axioms are checked in bulk first, since classification may use the reasoners given to the pools
+			List<OWLAxiom> bulkAdditions = getBulkSupportedAxioms(additions), bulkRemovals = getBulkSupportedAxioms(removals);
+			ForkJoinTask<Set<OWLAxiom>> ia = fjPool.submit(getBulkChecker(bulkAdditions, ont1, ont1reasoner, ont1digest));
+			ForkJoinTask<Set<OWLAxiom>> ir = fjPool.submit(getBulkChecker(bulkRemovals, ont2, ont2reasoner, ont2digest));
+			ineffectualAdditions.addAll(ia.join());
+			ineffectualRemovals.addAll(ir.join());
+			bulkChecked = bulkAdditions.size() + bulkRemovals.size();
+		}
+		
+		undetermined = Collections.newSetFromMap(new ConcurrentHashMap<OWLAxiom,Boolean>());
+		if(timeout > 0) deadline = new EntailmentDeadline(timeout);
+		IneffectualChangeChecker ineffAddChecker, ineffRemChecker;
+		ReasonerPool ont1pool = null, ont2pool = null;
+		PortfolioEntailmentChecker ont1portfolio = null, ont2portfolio = null;
+		ModuleEntailmentChecker ont1modules = null, ont2modules = null;
+		if(modularEntailment) {
+			ont1modules = new ModuleEntailmentChecker(ont1, ReasonerLoader.getConcreteType(ont1reasoner), MODULE_CACHE_SIZE);
+			ont2modules = new ModuleEntailmentChecker(ont2, ReasonerLoader.getConcreteType(ont2reasoner), MODULE_CACHE_SIZE);
+			ineffAddChecker = new IneffectualChangeChecker(additions, ont1modules, ont1.getSignature(), ont1digest);
+			ineffRemChecker = new IneffectualChangeChecker(removals, ont2modules, ont2.getSignature(), ont2digest);
+		}
+		else {
+			if(portfolioThreshold > 0 && deadline == null) {
+				ont1portfolio = new PortfolioEntailmentChecker(ont1, portfolioThreshold);
+				ont2portfolio = new PortfolioEntailmentChecker(ont2, portfolioThreshold);
+			}
+			// The given reasoners may be shared with other stages, so they are not used if checks can be interrupted
+			boolean interruptible = (deadline != null || ont1portfolio != null);
+			ont1pool = new ReasonerPool(ont1, (interruptible ? null : ont1reasoner), ReasonerLoader.getConcreteType(ont1reasoner), nrReplicas);
+			ont2pool = new ReasonerPool(ont2, (interruptible ? null : ont2reasoner), ReasonerLoader.getConcreteType(ont2reasoner), nrReplicas);
+			ineffAddChecker = new IneffectualChangeChecker(additions, ont1pool, ont1portfolio, ont1.getSignature(), ont1digest);
+			ineffRemChecker = new IneffectualChangeChecker(removals, ont2pool, ont2portfolio, ont2.getSignature(), ont2digest);
+		}
+		fjPool.execute(ineffAddChecker); fjPool.execute(ineffRemChecker);
+		ineffectualAdditions.addAll(ineffAddChecker.join());
+		ineffectualRemovals.addAll(ineffRemChecker.join());
+		fjPool.shutdown();
+		String instances;
+		if(modularEntailment) {
+			instances = (ont1modules.getModuleCount() + ont2modules.getModuleCount()) + " module reasoners, " + 
+					(ont1modules.getCacheHits() + ont2modules.getCacheHits()) + " module cache hits";
+			ont1modules.dispose(); ont2modules.dispose();
+		}
+		else {
+			instances = (ont1pool.getReplicaCount() + ont2pool.getReplicaCount()) + " reasoner instances";
+			ont1pool.dispose(); ont2pool.dispose();
+		}
+		if(ont1portfolio != null) {
+			instances += ", portfolio on ontology 1: " + ont1portfolio + "; on ontology 2: " + ont2portfolio;
+			ont1portfolio.dispose(); ont2portfolio.dispose();
+		}
+		if(cache != null) instances += ", " + cached + " cached results";
+		if(preReasoning) instances += ", " + preResolved + " checks settled by pre-reasoning";
+		if(deadline != null) {
+			instances += ", " + deadline.getTimedOutCount() + " checks timed out";
+			deadline.shutdown();
+		}
+		
+		Set<OWLAxiom> undeterminedAdditions = new HashSet<OWLAxiom>(), undeterminedRemovals = new HashSet<OWLAxiom>();
+		for(OWLAxiom ax : undetermined) {
+			if(structChangeSet.getAddedAxioms().contains(ax)) undeterminedAdditions.add(ax);
+			else undeterminedRemovals.add(ax);
+		}
 				
 		Set<OWLAxiom> effectualAdditions = new HashSet<OWLAxiom>(structChangeSet.getAddedAxioms());
 		effectualAdditions.removeAll(ineffectualAdditions);
+		effectualAdditions.removeAll(undeterminedAdditions);
 		
 		Set<OWLAxiom> effectualRemovals = new HashSet<OWLAxiom>(structChangeSet.getRemovedAxioms());
 		effectualRemovals.removeAll(ineffectualRemovals);
+		effectualRemovals.removeAll(undeterminedRemovals);
 		
 		long end = System.currentTimeMillis();
 		diffTime = (end-start)/1000.0;
 	
-		logicalChangeSet = new LogicalChangeSet(effectualAdditions, ineffectualAdditions, effectualRemovals, ineffectualRemovals, structChangeSet);
+		logicalChangeSet = new LogicalChangeSet(effectualAdditions, ineffectualAdditions, effectualRemovals, ineffectualRemovals, 
+				undeterminedAdditions, undeterminedRemovals, structChangeSet);
 		logicalChangeSet.setDiffTime(diffTime);
 
-		if(verbose) System.out.println("done (" + diffTime + " secs)"); 
+		if(verbose) System.out.println("done (" + diffTime + " secs, " + instances + 
+				(bulkEntailment ? ", " + bulkChecked + " axioms checked in bulk" : "") + ")"); 
 		if(verbose) printDiff();
 		return logicalChangeSet;
 	}
 	
 	
 	/**
-	 * Ineffectual change checker worker  
+	 * Create the reasoners that were not given, and check that both ontologies are consistent
+	 */
+	private void loadReasoners() {
+		if(ont1reasoner == null) ont1reasoner = new ReasonerLoader(ont1).createReasoner(reasonerType, false);
+		if(ont2reasoner == null) ont2reasoner = new ReasonerLoader(ont2).createReasoner(reasonerType, false);
+		
+		if(!ont1reasoner.isConsistent())
+			throw new InconsistentOntologyException("Ontology 1 is inconsistent. Cannot perform logical diff on inconsistent input.");
+		if(!ont2reasoner.isConsistent())
+			throw new InconsistentOntologyException("Ontology 2 is inconsistent. Cannot perform logical diff on inconsistent input.");
+	}
+	
+	
+	/**
+	 * Remove from the given list the axioms whose entailment by the given ontology is cached, adding those that 
+	 * are entailed to the given set of ineffectual changes
+	 * @param axioms	List of axioms, from which axioms with cached results are removed
+	 * @param ont	Ontology
+	 * @param ontDigest	Digest of the ontology
+	 * @param ineffectual	Set of ineffectual changes
+	 * @return Number of axioms with cached results
+	 */
+	private int getCachedChanges(List<OWLAxiom> axioms, OWLOntology ont, long[] ontDigest, Set<OWLAxiom> ineffectual) {
+		Set<OWLEntity> ontSig = ont.getSignature();
+		List<OWLAxiom> others = new ArrayList<OWLAxiom>();
+		int cached = 0;
+		for(OWLAxiom ax : axioms) {
+			Boolean entailed = (ontSig.containsAll(ax.getSignature()) ? cache.get(ontDigest, ax) : null);
+			if(entailed == null) others.add(ax);
+			else {
+				if(entailed) ineffectual.add(ax);
+				cached++;
+			}
+		}
+		axioms.clear(); axioms.addAll(others);
+		return cached;
+	}
+	
+	
+	/**
+	 * Remove from the given list the axioms whose entailment by the given ontology is settled by pre-reasoning,
+	 * adding those that are entailed to the given set of ineffectual changes
+	 * @param axioms	List of axioms, from which axioms settled by pre-reasoning are removed
+	 * @param ont	Ontology
+	 * @param ineffectual	Set of ineffectual changes
+	 * @return Number of axioms settled by pre-reasoning
+	 */
+	private int getPreReasonedChanges(List<OWLAxiom> axioms, OWLOntology ont, Set<OWLAxiom> ineffectual) {
+		if(axioms.isEmpty()) return 0;
+		SaturationEntailmentChecker preReasoner = new SaturationEntailmentChecker(ont);
+		Set<OWLEntity> ontSig = ont.getSignature();
+		List<OWLAxiom> others = new ArrayList<OWLAxiom>();
+		for(OWLAxiom ax : axioms) {
+			Boolean entailed = (ontSig.containsAll(ax.getSignature()) ? preReasoner.isEntailed(ax) : null);
+			if(entailed == null) others.add(ax);
+			else if(entailed) ineffectual.add(ax);
+		}
+		axioms.clear(); axioms.addAll(others);
+		return preReasoner.getResolvedCount();
+	}
+	
+	
+	/**
+	 * Remove from the given list the axioms whose entailment can be checked in bulk
+	 * @param axioms	List of axioms, from which supported axioms are removed
+	 * @return List of axioms that can be checked in bulk
+	 */
+	private List<OWLAxiom> getBulkSupportedAxioms(List<OWLAxiom> axioms) {
+		List<OWLAxiom> supported = new ArrayList<OWLAxiom>(), others = new ArrayList<OWLAxiom>();
+		for(OWLAxiom ax : axioms) {
+			if(BulkEntailmentChecker.isSupported(ax)) supported.add(ax);
+			else others.add(ax);
+		}
+		axioms.clear(); axioms.addAll(others);
+		return supported;
+	}
+	
+	
+	/**
+	 * Get a task that checks in bulk which of the given axioms are entailed by the given ontology
+	 * @param axioms	SubClassOf and EquivalentClasses axioms
+	 * @param ont	Ontology
+	 * @param reasoner	Reasoner loaded with the ontology
+	 * @param ontDigest	Digest of the ontology, or null if results are not cached
+	 * @return Task that returns the entailed axioms
 	 */
-	public class IneffectualChangeChecker implements Callable<Set<OWLAxiom>> {
-		private Set<OWLAxiom> axioms;
-		private OWLReasoner reasoner;
+	private Callable<Set<OWLAxiom>> getBulkChecker(final List<OWLAxiom> axioms, final OWLOntology ont, final OWLReasoner reasoner, 
+			final long[] ontDigest) {
+		return new Callable<Set<OWLAxiom>>() {
+			@Override
+			public Set<OWLAxiom> call() {
+				// As in the per-axiom checks, axioms with terms outside the ontology signature are not entailed
+				Set<OWLEntity> ontSig = ont.getSignature();
+				List<OWLAxiom> candidates = new ArrayList<OWLAxiom>();
+				for(OWLAxiom ax : axioms)
+					if(ontSig.containsAll(ax.getSignature())) candidates.add(ax);
+				Set<OWLAxiom> entailed = new BulkEntailmentChecker(ont, reasoner).getEntailedAxioms(candidates);
+				if(ontDigest != null) {
+					for(OWLAxiom ax : candidates)
+						cache.put(ontDigest, ax, entailed.contains(ax));
+				}
+				return entailed;
+			}
+		};
+	}
+	
+	
+	/**
+	 * Ineffectual change checker worker, which splits the given axioms into chunks (stolen by idle workers), 
+	 * and checks each chunk with a reasoner replica acquired from the pool, or against the modules of the ontology.
+	 * Axioms whose check reaches the deadline are collected as undetermined, and the interrupted reasoner discarded.
+	 * Likewise, a reasoner that lost a portfolio race and cannot be used anymore is discarded
+	 */
+	public class IneffectualChangeChecker extends RecursiveTask<Set<OWLAxiom>> {
+		private static final long serialVersionUID = 4260318571939414082L;
+		private List<OWLAxiom> axioms;
+		private ReasonerPool pool;
+		private PortfolioEntailmentChecker portfolio;
+		private ModuleEntailmentChecker modules;
+		private Set<OWLEntity> ontSig;
+		private long[] ontDigest;
+		private int from, to;
 
 		/**
 		 * Constructor
-		 * @param axioms	Set of axioms to be checked
-		 * @param reasoner	Reasoner instance
+		 * @param axioms	List of axioms to be checked
+		 * @param pool	Pool of reasoner replicas
+		 * @param portfolio	Portfolio in which slow checks are raced, or null if checks are not raced
+		 * @param ontSig	Signature of the ontology loaded into the reasoners
+		 * @param ontDigest	Digest of the ontology loaded into the reasoners, or null if results are not cached
+		 */
+		public IneffectualChangeChecker(List<OWLAxiom> axioms, ReasonerPool pool, PortfolioEntailmentChecker portfolio, 
+				Set<OWLEntity> ontSig, long[] ontDigest) {
+			this(axioms, pool, portfolio, null, ontSig, ontDigest, 0, axioms.size());
+		}
+		
+		/**
+		 * Constructor
+		 * @param axioms	List of axioms to be checked
+		 * @param modules	Module-based entailment checker
+		 * @param ontSig	Signature of the ontology whose modules are checked
+		 * @param ontDigest	Digest of the ontology whose modules are checked, or null if results are not cached
 		 */
-		public IneffectualChangeChecker(Set<OWLAxiom> axioms, OWLReasoner reasoner) {
+		public IneffectualChangeChecker(List<OWLAxiom> axioms, ModuleEntailmentChecker modules, Set<OWLEntity> ontSig, long[] ontDigest) {
+			this(axioms, null, null, modules, ontSig, ontDigest, 0, axioms.size());
+		}
+		
+		/**
+		 * Constructor
+		 * @param axioms	List of axioms to be checked
+		 * @param pool	Pool of reasoner replicas, or null if checking against modules
+		 * @param portfolio	Portfolio in which slow checks are raced, or null if checks are not raced
+		 * @param modules	Module-based entailment checker, or null if checking with the pool
+		 * @param ontSig	Signature of the ontology loaded into the reasoners
+		 * @param ontDigest	Digest of the ontology loaded into the reasoners, or null if results are not cached
+		 * @param from	Index of the first axiom to check (inclusive)
+		 * @param to	Index of the last axiom to check (exclusive)
+		 */
+		private IneffectualChangeChecker(List<OWLAxiom> axioms, ReasonerPool pool, PortfolioEntailmentChecker portfolio, 
+				ModuleEntailmentChecker modules, Set<OWLEntity> ontSig, long[] ontDigest, int from, int to) {
 			this.axioms = axioms;
-			this.reasoner = reasoner;
+			this.pool = pool;
+			this.portfolio = portfolio;
+			this.modules = modules;
+			this.ontSig = ontSig;
+			this.ontDigest = ontDigest;
+			this.from = from;
+			this.to = to;
 		}
 		
 		@Override
-		public Set<OWLAxiom> call() {
-			Set<OWLAxiom> ineffectual = null;
-			Set<OWLEntity> ontSig = reasoner.getRootOntology().getSignature();
-			ineffectual = new HashSet<OWLAxiom>();
-			for(OWLAxiom axiom : axioms) {
-				if(ontSig.containsAll(axiom.getSignature())) {
-					if(reasoner.isEntailed(axiom))
-						ineffectual.add(axiom);
+		protected Set<OWLAxiom> compute() {
+			Set<OWLAxiom> ineffectual = new HashSet<OWLAxiom>();
+			if(to - from > CHUNK_SIZE) {
+				int mid = (from + to) >>> 1;
+				IneffectualChangeChecker left = new IneffectualChangeChecker(axioms, pool, portfolio, modules, ontSig, ontDigest, from, mid);
+				left.fork();
+				ineffectual.addAll(new IneffectualChangeChecker(axioms, pool, portfolio, modules, ontSig, ontDigest, mid, to).compute());
+				ineffectual.addAll(left.join());
+				return ineffectual;
+			}
+			if(modules != null) {
+				for(int i = from; i < to; i++) {
+					OWLAxiom axiom = axioms.get(i);
+					if(!ontSig.containsAll(axiom.getSignature())) continue;
+					Boolean entailed = modules.isEntailed(axiom, deadline);
+					if(entailed == null) undetermined.add(axiom);
+					else {
+						if(entailed) ineffectual.add(axiom);
+						if(ontDigest != null) cache.put(ontDigest, axiom, entailed);
+					}
 				}
+				return ineffectual;
+			}
+			OWLReasoner reasoner;
+			try {
+				reasoner = pool.acquire();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			try {
+				for(int i = from; i < to; i++) {
+					OWLAxiom axiom = axioms.get(i);
+					if(!ontSig.containsAll(axiom.getSignature())) continue;
+					Boolean entailed;
+					if(deadline != null) entailed = deadline.isEntailed(reasoner, axiom);
+					else if(portfolio != null) entailed = portfolio.isEntailed(reasoner, axiom);
+					else entailed = reasoner.isEntailed(axiom);
+					if(entailed == null) undetermined.add(axiom);
+					else {
+						if(entailed) ineffectual.add(axiom);
+						if(ontDigest != null) cache.put(ontDigest, axiom, entailed);
+					}
+					if(entailed == null || (portfolio != null && portfolio.mustDiscard(reasoner))) {
+						pool.discard(reasoner);
+						reasoner = null;
+						reasoner = pool.acquire();
+					}
+				}
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			} finally {
+				if(reasoner != null) pool.release(reasoner);
 			}
 			return ineffectual;
 		}
@@ -195,7 +558,9 @@ public class LogicalDiffConcurrent implements AxiomDiff {
 				"\tEffectual Additions: " + logicalChangeSet.getEffectualAdditionAxioms().size() +
 				"\n\tEffectual Removals: " + logicalChangeSet.getEffectualRemovalAxioms().size() + 
 				"\n\tIneffectual Additions: " + logicalChangeSet.getIneffectualAdditionAxioms().size() +
-				"\n\tIneffectual Removals: " + logicalChangeSet.getIneffectualRemovalAxioms().size());
+				"\n\tIneffectual Removals: " + logicalChangeSet.getIneffectualRemovalAxioms().size() + 
+				(deadline != null ? "\n\tUndetermined Additions: " + logicalChangeSet.getUndeterminedAdditionAxioms().size() +
+				"\n\tUndetermined Removals: " + logicalChangeSet.getUndeterminedRemovalAxioms().size() : ""));
 	}
 	
 	
@@ -222,15 +587,171 @@ public class LogicalDiffConcurrent implements AxiomDiff {
 	
 	
 	/**
-	 * Determine if ontologies are logically equivalent
-	 * @return true if ontologies are logically equivalent, false otherwise
+	 * Determine if ontologies are logically equivalent given a reasoner instance per ontology
+	 * @param ont1reasoner	Instance of a reasoner loaded with ontology 1 
+	 * @param ont2reasoner	Instance of a reasoner loaded with ontology 2
+	 * @return true if ontologies are logically equivalent, false otherwise (including when undetermined)
+	 */
+	public boolean isEquivalent(OWLReasoner ont1reasoner, OWLReasoner ont2reasoner) {
+		return Boolean.TRUE.equals(checkEquivalence(ont1reasoner, ont2reasoner));
+	}
+	
+	
+	/**
+	 * Determine if ontologies are logically equivalent. Unless the logical diff was already computed, this stops at 
+	 * the first change found to be effectual rather than computing the whole diff, see {@link #findEffectualChange()}
+	 * @return true if ontologies are logically equivalent, false otherwise (including when undetermined)
 	 */
 	public boolean isEquivalent() {
-		if(logicalChangeSet == null) logicalChangeSet = this.getDiff();
-		if(logicalChangeSet.getEffectualAdditionAxioms().isEmpty() && logicalChangeSet.getEffectualRemovalAxioms().isEmpty()) 
-			return true;
-		else 
+		return Boolean.TRUE.equals(checkEquivalence());
+	}
+	
+	
+	/**
+	 * Check if ontologies are logically equivalent given a reasoner instance per ontology, distinguishing the case
+	 * where this could not be determined
+	 * @param ont1reasoner	Instance of a reasoner loaded with ontology 1 
+	 * @param ont2reasoner	Instance of a reasoner loaded with ontology 2
+	 * @return true if ontologies are logically equivalent, false if they are not, or null if undetermined
+	 */
+	public Boolean checkEquivalence(OWLReasoner ont1reasoner, OWLReasoner ont2reasoner) {
+		this.ont1reasoner = ont1reasoner;
+		this.ont2reasoner = ont2reasoner;
+		return checkEquivalence();
+	}
+	
+	
+	/**
+	 * Check if ontologies are logically equivalent, distinguishing the case where this could not be determined, i.e.,
+	 * no change is effectual but the entailment check of some change reached the time limit. Unless the logical diff 
+	 * was already computed, this stops at the first change found to be effectual, see {@link #findEffectualChange()}
+	 * @return true if ontologies are logically equivalent, false if they are not, or null if undetermined
+	 */
+	public Boolean checkEquivalence() {
+		if(logicalChangeSet == null) {
+			if(findEffectualChange() != null) return false;
+			return (undetermined.isEmpty() ? true : null);
+		}
+		if(!logicalChangeSet.getEffectualAdditionAxioms().isEmpty() || !logicalChangeSet.getEffectualRemovalAxioms().isEmpty())
 			return false;
+		if(!logicalChangeSet.getUndeterminedAdditionAxioms().isEmpty() || !logicalChangeSet.getUndeterminedRemovalAxioms().isEmpty())
+			return null;
+		return true;
+	}
+	
+	
+	/**
+	 * Find a change that is effectual, stopping at the first one found. Cheap candidates are looked at first: changes
+	 * with terms outside the signature of the other ontology (which are effectual), then changes with cached or 
+	 * pre-reasoned results. The remaining changes are checked against their locality-based modules, smallest 
+	 * signature first, by parallel workers, and all checks are cancelled as soon as one change is found to be 
+	 * effectual. Changes whose check reaches the time limit do not stop the search, and are collected as undetermined
+	 * (see {@link #getUndeterminedChanges()})
+	 * @return Effectual change, or null if no change was found to be effectual
+	 */
+	public OWLAxiom findEffectualChange() {
+		if(structChangeSet == null) structChangeSet = new FingerprintStructuralDiff(ont1, ont2, verbose).getDiff();
+		loadReasoners();
+		
+		if(verbose) System.out.print("   Checking logical equivalence... ");
+		long start = System.currentTimeMillis();
+		List<OWLAxiom> additions = new ArrayList<OWLAxiom>(structChangeSet.getAddedAxioms());
+		List<OWLAxiom> removals = new ArrayList<OWLAxiom>(structChangeSet.getRemovedAxioms());
+		int nrChanges = additions.size() + removals.size();
+		long[] ont1digest = (cache != null ? EntailmentCache.getDigest(ont1) : null);
+		long[] ont2digest = (cache != null ? EntailmentCache.getDigest(ont2) : null);
+		
+		OWLAxiom effectual = getChangeWithNewTerms(additions, ont1);
+		if(effectual == null) effectual = getChangeWithNewTerms(removals, ont2);
+		if(effectual == null) effectual = getSettledEffectualChange(additions, ont1, ont1digest);
+		if(effectual == null) effectual = getSettledEffectualChange(removals, ont2, ont2digest);
+		int checked = 0;
+		undetermined = Collections.newSetFromMap(new ConcurrentHashMap<OWLAxiom,Boolean>());
+		if(effectual == null && nrChanges > 0) {
+			ModuleEntailmentChecker ont1modules = new ModuleEntailmentChecker(ont1, ReasonerLoader.getConcreteType(ont1reasoner), MODULE_CACHE_SIZE);
+			ModuleEntailmentChecker ont2modules = new ModuleEntailmentChecker(ont2, ReasonerLoader.getConcreteType(ont2reasoner), MODULE_CACHE_SIZE);
+			List<Candidate> candidates = new ArrayList<Candidate>();
+			for(OWLAxiom ax : additions)
+				candidates.add(new Candidate(ax, ont1modules, ont1digest));
+			for(OWLAxiom ax : removals)
+				candidates.add(new Candidate(ax, ont2modules, ont2digest));
+			Collections.sort(candidates, new Comparator<Candidate>() {
+				@Override
+				public int compare(Candidate c1, Candidate c2) {
+					return Integer.compare(c1.signatureSize, c2.signatureSize);
+				}
+			});
+			if(timeout > 0) deadline = new EntailmentDeadline(timeout);
+			EffectualChangeFinder finder = new EffectualChangeFinder(candidates, ont1modules, ont2modules);
+			effectual = finder.find(2*nrReplicas);
+			checked = finder.getCheckCount();
+			ont1modules.dispose(); ont2modules.dispose();
+			if(deadline != null) deadline.shutdown();
+		}
+		if(verbose) System.out.println("done (" + (System.currentTimeMillis()-start)/1000.0 + " secs, " + checked + 
+				" of " + nrChanges + " changes checked against modules)\n\t" + 
+				getEquivalenceMessage(effectual));
+		return effectual;
+	}
+	
+	
+	/**
+	 * Get the changes whose entailment check reached the time limit in the last search for an effectual change
+	 * @return Set of undetermined changes, empty if none (or if no search was made)
+	 */
+	public Set<OWLAxiom> getUndeterminedChanges() {
+		return (undetermined != null ? Collections.unmodifiableSet(undetermined) : Collections.<OWLAxiom>emptySet());
+	}
+	
+	
+	/**
+	 * Get the outcome message of the search for an effectual change
+	 * @param effectual	Effectual change, or null if none was found
+	 * @return Outcome message
+	 */
+	private String getEquivalenceMessage(OWLAxiom effectual) {
+		if(effectual != null) return "Effectual change found: " + effectual;
+		if(undetermined.isEmpty()) return "Ontologies are logically equivalent";
+		return "Equivalence undetermined: no effectual change found, but " + undetermined.size() + 
+				" change(s) could not be checked within the time limit, e.g.: " + undetermined.iterator().next();
+	}
+	
+	
+	/**
+	 * Get a change in the given list that has terms outside the signature of the given ontology, which makes the
+	 * change effectual
+	 * @param axioms	List of axioms
+	 * @param ont	Ontology
+	 * @return Change with new terms, or null if there is none
+	 */
+	private OWLAxiom getChangeWithNewTerms(List<OWLAxiom> axioms, OWLOntology ont) {
+		Set<OWLEntity> ontSig = ont.getSignature();
+		for(OWLAxiom ax : axioms)
+			if(!ontSig.containsAll(ax.getSignature())) return ax;
+		return null;
+	}
+	
+	
+	/**
+	 * Get a change in the given list whose non-entailment by the given ontology is cached or settled by pre-reasoning, 
+	 * removing from the list the changes whose entailment is
+	 * @param axioms	List of axioms, from which axioms with settled entailment are removed
+	 * @param ont	Ontology
+	 * @param ontDigest	Digest of the ontology, or null if results are not cached
+	 * @return Effectual change, or null if none was settled
+	 */
+	private OWLAxiom getSettledEffectualChange(List<OWLAxiom> axioms, OWLOntology ont, long[] ontDigest) {
+		if(axioms.isEmpty() || (cache == null && !preReasoning)) return null;
+		SaturationEntailmentChecker preReasoner = (preReasoning ? new SaturationEntailmentChecker(ont) : null);
+		List<OWLAxiom> others = new ArrayList<OWLAxiom>();
+		for(OWLAxiom ax : axioms) {
+			Boolean entailed = (cache != null ? cache.get(ontDigest, ax) : null);
+			if(entailed == null && preReasoner != null) entailed = preReasoner.isEntailed(ax);
+			if(entailed == null) others.add(ax);
+			else if(!entailed) return ax;
+		}
+		axioms.clear(); axioms.addAll(others);
+		return null;
 	}
 	
 	
@@ -242,6 +763,113 @@ public class LogicalDiffConcurrent implements AxiomDiff {
 		if(structChangeSet != null)
 			return structChangeSet;
 		else
-			return new StructuralDiff(ont1, ont2, verbose).getDiff();
+			return new FingerprintStructuralDiff(ont1, ont2, verbose).getDiff();
+	}
+	
+	
+	/**
+	 * Change to be checked for entailment against its module, in the equivalence check. The signature size of the
+	 * change stands in for the size of its module, which is only extracted when the change is checked
+	 */
+	private static class Candidate {
+		private final OWLAxiom axiom;
+		private final ModuleEntailmentChecker modules;
+		private final long[] ontDigest;
+		private final int signatureSize;
+		
+		Candidate(OWLAxiom axiom, ModuleEntailmentChecker modules, long[] ontDigest) {
+			this.axiom = axiom;
+			this.modules = modules;
+			this.ontDigest = ontDigest;
+			this.signatureSize = axiom.getSignature().size();
+		}
+	}
+	
+	
+	/**
+	 * Effectual change finder, whose workers take the candidate changes in order and check them against their
+	 * modules, until one change is found to be effectual, at which point all checks are cancelled. Changes whose
+	 * check reaches the deadline are collected as undetermined
+	 */
+	private class EffectualChangeFinder {
+		private final List<Candidate> candidates;
+		private final ModuleEntailmentChecker ont1modules, ont2modules;
+		private final AtomicInteger next = new AtomicInteger(), checked = new AtomicInteger();
+		private final AtomicReference<OWLAxiom> effectual = new AtomicReference<OWLAxiom>();
+		
+		/**
+		 * Constructor
+		 * @param candidates	Candidate changes, in the order in which they should be checked
+		 * @param ont1modules	Module entailment checker for ontology 1
+		 * @param ont2modules	Module entailment checker for ontology 2
+		 */
+		EffectualChangeFinder(List<Candidate> candidates, ModuleEntailmentChecker ont1modules, ModuleEntailmentChecker ont2modules) {
+			this.candidates = candidates;
+			this.ont1modules = ont1modules;
+			this.ont2modules = ont2modules;
+		}
+		
+		/**
+		 * Check the candidate changes with the given number of workers
+		 * @param nrWorkers	Number of worker threads
+		 * @return Effectual change, or null if no change was found to be effectual
+		 */
+		OWLAxiom find(int nrWorkers) {
+			nrWorkers = Math.max(1, Math.min(nrWorkers, candidates.size()));
+			ExecutorService executor = Executors.newFixedThreadPool(nrWorkers);
+			List<Future<Void>> workers = new ArrayList<Future<Void>>();
+			for(int i = 0; i < nrWorkers; i++) {
+				workers.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						check();
+						return null;
+					}
+				}));
+			}
+			try {
+				for(Future<Void> worker : workers)
+					worker.get();
+			} catch (InterruptedException | ExecutionException e) {
+				cancel();
+				throw new RuntimeException(e);
+			} finally {
+				executor.shutdown();
+			}
+			return effectual.get();
+		}
+		
+		/**
+		 * Check candidate changes, in order, until none remain or an effectual change is found
+		 */
+		private void check() {
+			int i;
+			while(effectual.get() == null && (i = next.getAndIncrement()) < candidates.size()) {
+				Candidate c = candidates.get(i);
+				Boolean entailed = c.modules.isEntailed(c.axiom, deadline);
+				checked.incrementAndGet();
+				if(entailed != null && c.ontDigest != null) cache.put(c.ontDigest, c.axiom, entailed);
+				if(entailed == null) {
+					// Checks interrupted by the cancellation are not undetermined, as the result is already known
+					if(effectual.get() == null) undetermined.add(c.axiom);
+				}
+				else if(!entailed && effectual.compareAndSet(null, c.axiom)) cancel();
+			}
+		}
+		
+		/**
+		 * Cancel the checks in progress on both ontologies
+		 */
+		private void cancel() {
+			ont1modules.cancel(); ont2modules.cancel();
+		}
+		
+		/**
+		 * Get the number of changes checked against modules
+		 * @return Number of checked changes
+		 */
+		int getCheckCount() {
+			return checked.get();
+		}
 	}
 }
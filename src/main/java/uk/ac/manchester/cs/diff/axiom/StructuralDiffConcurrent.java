@@ -0,0 +1,328 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.axiom;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+
+import uk.ac.manchester.cs.diff.axiom.changeset.StructuralChangeSet;
+import uk.ac.manchester.cs.diff.output.csv.CSVAxiomDiffReport;
+import uk.ac.manchester.cs.diff.output.xml.XMLAxiomDiffReport;
+import uk.ac.manchester.cs.diff.utils.OntologyDigest;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Structural diff that partitions the logical axioms of both ontologies by axiom type, and diffs each
+ * partition as a separate fork/join task. Partitions that are too large are further split by axiom hash
+ * code range. Membership is checked directly against the ontologies, so no copies of the axiom sets are
+ * made. The resulting change set is the same as that of {@link StructuralDiff}</p>
+ */
+public class StructuralDiffConcurrent implements AxiomDiff {
+	private static final int MAX_PARTITION_SIZE = 20000;
+	private OWLOntology ont1, ont2;
+	private String ont1name, ont2name;
+	private StructuralChangeSet changeSet;
+	private Set<AxiomType<?>> unchangedTypes;
+	private double diffTime;
+	private boolean verbose;
+
+	/**
+	 * Constructor
+	 * @param ont1	Ontology 1
+	 * @param ont2	Ontology 2
+	 * @param verbose	true if detailed output should be printed, false otherwise
+	 */
+	public StructuralDiffConcurrent(OWLOntology ont1, OWLOntology ont2, boolean verbose) {
+		this.ont1 = ont1;
+		this.ont2 = ont2;
+		this.verbose = verbose;
+	}
+
+
+	/**
+	 * Constructor 2
+	 * @param ont1	Ontology 1
+	 * @param ont2	Ontology 2
+	 * @param ont1name	Ontology 1 filename
+	 * @param ont2name	Ontology 2 filename
+	 * @param verbose	true if detailed output should be printed, false otherwise
+	 */
+	public StructuralDiffConcurrent(OWLOntology ont1, OWLOntology ont2, String ont1name, String ont2name, boolean verbose) {
+		this(ont1, ont2, verbose);
+		this.ont1name = ont1name;
+		this.ont2name = ont2name;
+	}
+
+
+	/**
+	 * Set the axiom types known to be unchanged between the ontologies (e.g. from equal {@link OntologyDigest}s). 
+	 * The axioms of these types are added to the shared axioms without being diffed
+	 * @param unchangedTypes	Set of unchanged axiom types
+	 */
+	public void setUnchangedAxiomTypes(Set<AxiomType<?>> unchangedTypes) {
+		this.unchangedTypes = unchangedTypes;
+	}
+	
+	
+	/**
+	 * Get structural changes between ontologies
+	 * @return Structural change set
+	 */
+	@SuppressWarnings("deprecation")
+	public StructuralChangeSet getDiff() {
+		if(changeSet != null) return changeSet;
+
+		if(verbose) System.out.print("   Computing structural differences (concurrently)... ");
+		long start = System.currentTimeMillis();
+
+		List<PartitionDiffer> tasks = new ArrayList<PartitionDiffer>();
+		List<AxiomType<?>> skipped = new ArrayList<AxiomType<?>>();
+		for(AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+			if(type.isLogical() && unchangedTypes != null && unchangedTypes.contains(type))
+				skipped.add(type);
+			else if(type.isLogical()) {
+				Set<? extends OWLAxiom> o1axs = ont1.getAxioms(type), o2axs = ont2.getAxioms(type);
+				if(!o1axs.isEmpty() || !o2axs.isEmpty())
+					tasks.add(new PartitionDiffer(o1axs, o2axs, Integer.MIN_VALUE, Integer.MAX_VALUE + 1L));
+			}
+		}
+		ForkJoinPool fjPool = new ForkJoinPool();
+		PartitionDiff result = fjPool.invoke(new PartitionDiffCollector(tasks));
+		fjPool.shutdown();
+		for(AxiomType<?> type : skipped) {
+			for(OWLAxiom ax : ont1.getAxioms(type))
+				if(!isSubsumptionOfTop(ax) || ont2.containsAxiom(ax)) result.shared.add(ax);
+		}
+
+		long end = System.currentTimeMillis();
+		diffTime = (end-start)/1000.0;
+
+		changeSet = new StructuralChangeSet(result.additions, result.removals, result.shared);
+		addOntologyFileNames(); changeSet.setDiffTime(diffTime);
+
+		if(verbose) System.out.println("done (" + diffTime + " secs, " + tasks.size() + " axiom type partitions)");
+		if(verbose) printDiff();
+		return changeSet;
+	}
+
+
+	/**
+	 * Changes found within a partition
+	 */
+	private class PartitionDiff {
+		private Set<OWLAxiom> additions = new HashSet<OWLAxiom>(), removals = new HashSet<OWLAxiom>(), shared = new HashSet<OWLAxiom>();
+
+		/**
+		 * Merge the given partition changes into these
+		 * @param diff	Partition changes
+		 */
+		private void merge(PartitionDiff diff) {
+			additions.addAll(diff.additions);
+			removals.addAll(diff.removals);
+			shared.addAll(diff.shared);
+		}
+	}
+
+
+	/**
+	 * Task that runs all given partition tasks and merges their results
+	 */
+	private class PartitionDiffCollector extends RecursiveTask<PartitionDiff> {
+		private static final long serialVersionUID = 1L;
+		private List<PartitionDiffer> tasks;
+
+		/**
+		 * Constructor
+		 * @param tasks	Partition tasks
+		 */
+		public PartitionDiffCollector(List<PartitionDiffer> tasks) {
+			this.tasks = tasks;
+		}
+
+		@Override
+		protected PartitionDiff compute() {
+			PartitionDiff result = new PartitionDiff();
+			for(PartitionDiffer task : ForkJoinTask.invokeAll(tasks))
+				result.merge(task.join());
+			return result;
+		}
+	}
+
+
+	/**
+	 * Structural diff over a partition of axioms of the same type whose hash codes fall within a given range
+	 */
+	private class PartitionDiffer extends RecursiveTask<PartitionDiff> {
+		private static final long serialVersionUID = 1L;
+		private Collection<? extends OWLAxiom> o1axs, o2axs;
+		private long minHash, maxHash;
+
+		/**
+		 * Constructor
+		 * @param o1axs	Axioms of ontology 1 in this partition
+		 * @param o2axs	Axioms of ontology 2 in this partition
+		 * @param minHash	Lower bound (inclusive) of the hash code range of this partition
+		 * @param maxHash	Upper bound (exclusive) of the hash code range of this partition
+		 */
+		public PartitionDiffer(Collection<? extends OWLAxiom> o1axs, Collection<? extends OWLAxiom> o2axs, long minHash, long maxHash) {
+			this.o1axs = o1axs;
+			this.o2axs = o2axs;
+			this.minHash = minHash;
+			this.maxHash = maxHash;
+		}
+
+		@Override
+		protected PartitionDiff compute() {
+			if(o1axs.size() + o2axs.size() > MAX_PARTITION_SIZE && maxHash-minHash > 1) {
+				long mid = minHash + (maxHash-minHash)/2;
+				List<OWLAxiom> o1lower = new ArrayList<OWLAxiom>(), o1upper = new ArrayList<OWLAxiom>();
+				List<OWLAxiom> o2lower = new ArrayList<OWLAxiom>(), o2upper = new ArrayList<OWLAxiom>();
+				split(o1axs, mid, o1lower, o1upper);
+				split(o2axs, mid, o2lower, o2upper);
+
+				PartitionDiffer lower = new PartitionDiffer(o1lower, o2lower, minHash, mid);
+				lower.fork();
+				PartitionDiffer upper = new PartitionDiffer(o1upper, o2upper, mid, maxHash);
+				PartitionDiff result = upper.invoke();
+				result.merge(lower.join());
+				return result;
+			}
+			else return computeDirectly();
+		}
+
+		/**
+		 * Diff the axioms of this partition
+		 * @return Partition changes
+		 */
+		private PartitionDiff computeDirectly() {
+			PartitionDiff result = new PartitionDiff();
+			for(OWLAxiom ax : o1axs) {
+				if(!ont2.containsAxiom(ax)) {
+					if(!isSubsumptionOfTop(ax)) result.removals.add(ax);
+				}
+				else result.shared.add(ax);
+			}
+			for(OWLAxiom ax : o2axs) {
+				if(!ont1.containsAxiom(ax) && !isSubsumptionOfTop(ax))
+					result.additions.add(ax);
+			}
+			return result;
+		}
+
+		/**
+		 * Split the given axioms into those whose hash code is below the given value and the rest
+		 * @param axioms	Axioms to split
+		 * @param mid	Hash code split point
+		 * @param lower	Axioms whose hash code is below the split point
+		 * @param upper	Axioms whose hash code is equal to or above the split point
+		 */
+		private void split(Collection<? extends OWLAxiom> axioms, long mid, List<OWLAxiom> lower, List<OWLAxiom> upper) {
+			for(OWLAxiom ax : axioms) {
+				if(ax.hashCode() < mid) lower.add(ax);
+				else upper.add(ax);
+			}
+		}
+	}
+
+
+	/**
+	 * Check whether the given axiom is of the form C SubClassOf owl:Thing, which is not reported as a change
+	 * @param ax	OWL axiom
+	 * @return true if the axiom is a subsumption with owl:Thing as superclass, false otherwise
+	 */
+	private boolean isSubsumptionOfTop(OWLAxiom ax) {
+		return (ax instanceof OWLSubClassOfAxiom) && ((OWLSubClassOfAxiom)ax).getSuperClass().isTopEntity();
+	}
+
+
+	/**
+	 * Print diff results
+	 */
+	public void printDiff() {
+		System.out.println(
+				"\tAdditions: " + changeSet.getAddedAxioms().size() +
+				"\n\tRemovals: " + changeSet.getRemovedAxioms().size() +
+				"\n\tShared: " + changeSet.getShared().size());
+	}
+
+
+	/**
+	 * Record file names of given ontologies in the change set
+	 */
+	@SuppressWarnings("deprecation")
+	private void addOntologyFileNames() {
+		if(ont1name == null) changeSet.setOntologyName(1, "Ont1");
+		else changeSet.setOntologyName(1, ont1name);
+
+		if(ont2name == null) changeSet.setOntologyName(2, "Ont2");
+		else changeSet.setOntologyName(2, ont2name);
+	}
+
+
+	/**
+	 * Get an XML change report for the change set computed by this diff
+	 * @return XML change report object
+	 */
+	public XMLAxiomDiffReport getXMLReport() {
+		if(changeSet == null) changeSet = getDiff();
+		return new XMLAxiomDiffReport(ont1, ont2, changeSet);
+	}
+
+
+	/**
+	 * Get a CSV change report
+	 * @return Change report as a CSV document
+	 */
+	public String getCSVChangeReport() {
+		if(changeSet == null) changeSet = getDiff();
+		return new CSVAxiomDiffReport().getReport(changeSet);
+	}
+
+
+	/**
+	 * Determine if ontologies are structurally equivalent (thus logically equivalent)
+	 * @return true if ontologies are structurally equivalent, false otherwise
+	 */
+	public boolean isEquivalent() {
+		if(changeSet == null) changeSet = getDiff();
+		return changeSet.isEmpty();
+	}
+
+
+	/**
+	 * Get the time to compute the diff
+	 * @return Diff time (in seconds)
+	 */
+	public double getDiffTime() {
+		return diffTime;
+	}
+}
@@ -774,6 +774,26 @@ public class CategorisedChangeSet implements AxiomChangeSet {
 	}
 	
 	
+	/**
+	 * Get the set of additions whose impact could not be determined within the entailment check deadline, 
+	 * and which are therefore not categorised
+	 * @return Set of undetermined addition axioms
+	 */
+	public Set<OWLAxiom> getUndeterminedAdditionAxioms() {
+		return logicalChangeSet.getUndeterminedAdditionAxioms();
+	}
+	
+	
+	/**
+	 * Get the set of removals whose impact could not be determined within the entailment check deadline, 
+	 * and which are therefore not categorised
+	 * @return Set of undetermined removal axioms
+	 */
+	public Set<OWLAxiom> getUndeterminedRemovalAxioms() {
+		return logicalChangeSet.getUndeterminedRemovalAxioms();
+	}
+	
+	
 	/**
 	 * Get the set of effectual and ineffectual removals in the change set
 	 * @return Set of effectual and ineffectual removals in the change set
@@ -792,7 +812,8 @@ public class CategorisedChangeSet implements AxiomChangeSet {
 	 */
 	public boolean isEmpty() {
 		if(effectualAdditions.isEmpty() && effectualRemovals.isEmpty() 
-				&& ineffectualAdditions.isEmpty() && ineffectualAdditions.isEmpty())
+				&& ineffectualAdditions.isEmpty() && ineffectualAdditions.isEmpty()
+				&& getUndeterminedAdditionAxioms().isEmpty() && getUndeterminedRemovalAxioms().isEmpty())
 			return true;
 		else
 			return false;
@@ -800,11 +821,13 @@ public class CategorisedChangeSet implements AxiomChangeSet {
 	
 	
 	/**
-	 * Check if change set contains no meaningful changes, i.e., changes which are effectual
-	 * @return true if change set contains no effectual changes, false otherwise
+	 * Check if change set contains no meaningful changes, i.e., changes which are effectual. Undetermined changes
+	 * may be effectual, so a change set with undetermined changes is not free of effectual changes
+	 * @return true if change set contains no effectual (or undetermined) changes, false otherwise
 	 */
 	public boolean isFreeOfEffectualChanges() {
-		if(effectualAdditions.isEmpty() && effectualRemovals.isEmpty())
+		if(effectualAdditions.isEmpty() && effectualRemovals.isEmpty() 
+				&& getUndeterminedAdditionAxioms().isEmpty() && getUndeterminedRemovalAxioms().isEmpty())
 			return true;
 		else
 			return false;
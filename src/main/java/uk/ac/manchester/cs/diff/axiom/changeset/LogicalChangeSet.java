@@ -34,6 +34,7 @@ import uk.ac.manchester.cs.diff.axiom.change.LogicalRemoval;
  */
 public class LogicalChangeSet implements AxiomChangeSet {
 	private Set<OWLAxiom> effectualAdditions, ineffectualAdditions, effectualRemovals, ineffectualRemovals;
+	private Set<OWLAxiom> undeterminedAdditions, undeterminedRemovals;
 	private StructuralChangeSet structuralChangeSet;
 	private double diffTime;
 	
@@ -47,10 +48,30 @@ public class LogicalChangeSet implements AxiomChangeSet {
 	 */
 	public LogicalChangeSet(Set<OWLAxiom> effectualAdditions, Set<OWLAxiom> ineffectualAdditions, 
 			Set<OWLAxiom> effectualRemovals, Set<OWLAxiom> ineffectualRemovals, StructuralChangeSet structuralChangeSet) {
+		this(effectualAdditions, ineffectualAdditions, effectualRemovals, ineffectualRemovals, 
+				new HashSet<OWLAxiom>(), new HashSet<OWLAxiom>(), structuralChangeSet);
+	}
+	
+	
+	/**
+	 * Constructor
+	 * @param effectualAdditions	Effectual additions
+	 * @param ineffectualAdditions	Ineffectual additions
+	 * @param effectualRemovals	Effectual removals
+	 * @param ineffectualRemovals	Ineffectual removals
+	 * @param undeterminedAdditions	Additions whose impact could not be determined within the entailment check deadline
+	 * @param undeterminedRemovals	Removals whose impact could not be determined within the entailment check deadline
+	 * @param structuralChangeSet	Structural change set
+	 */
+	public LogicalChangeSet(Set<OWLAxiom> effectualAdditions, Set<OWLAxiom> ineffectualAdditions, 
+			Set<OWLAxiom> effectualRemovals, Set<OWLAxiom> ineffectualRemovals, Set<OWLAxiom> undeterminedAdditions, 
+			Set<OWLAxiom> undeterminedRemovals, StructuralChangeSet structuralChangeSet) {
 		this.effectualAdditions = effectualAdditions;
 		this.ineffectualAdditions = ineffectualAdditions;
 		this.effectualRemovals = effectualRemovals;
 		this.ineffectualRemovals = ineffectualRemovals;
+		this.undeterminedAdditions = undeterminedAdditions;
+		this.undeterminedRemovals = undeterminedRemovals;
 		this.structuralChangeSet = structuralChangeSet;
 	}
 	
@@ -147,13 +168,32 @@ public class LogicalChangeSet implements AxiomChangeSet {
 	}
 	
 	
+	/**
+	 * Get the set of addition axioms whose impact could not be determined within the entailment check deadline
+	 * @return Set of undetermined addition axioms
+	 */
+	public Set<OWLAxiom> getUndeterminedAdditionAxioms() {
+		return undeterminedAdditions;
+	}
+	
+	
+	/**
+	 * Get the set of removal axioms whose impact could not be determined within the entailment check deadline
+	 * @return Set of undetermined removal axioms
+	 */
+	public Set<OWLAxiom> getUndeterminedRemovalAxioms() {
+		return undeterminedRemovals;
+	}
+	
+	
 	/**
 	 * Check if change set contains no changes
 	 * @return true if change set contains no changes, false otherwise
 	 */
 	public boolean isEmpty() {
 		if(effectualAdditions.isEmpty() && effectualRemovals.isEmpty() 
-				&& ineffectualAdditions.isEmpty() && ineffectualAdditions.isEmpty())
+				&& ineffectualAdditions.isEmpty() && ineffectualAdditions.isEmpty()
+				&& undeterminedAdditions.isEmpty() && undeterminedRemovals.isEmpty())
 			return true;
 		else
 			return false;
@@ -55,6 +55,7 @@ import uk.ac.manchester.cs.diff.concept.witnesses.WitnessGroup;
 import uk.ac.manchester.cs.diff.output.csv.CSVConceptDiffReport;
 import uk.ac.manchester.cs.diff.output.xml.XMLConceptDiffReport;
 import uk.ac.manchester.cs.diff.utils.ReasonerLoader;
+import uk.ac.manchester.cs.diff.utils.ReasonerSession;
 
 /**
  * @author Rafael S. Goncalves <br>
@@ -71,6 +72,7 @@ public class SubconceptDiff implements ConceptDiff {
 	protected Set<OWLEntity> sigma;
 	protected boolean verbose, atomicOnly = false;
 	protected ConceptChangeSet changeSet;
+	protected ReasonerSession session;
 	
 	/**
 	 * Constructor for subconcept diff w.r.t. Sigma = sig(O1) U sig(O2)
@@ -501,9 +503,14 @@ public class SubconceptDiff implements ConceptDiff {
 
 		@Override
 		public void run() {
-			reasoner = new ReasonerLoader(ont, false).createReasoner(false);
 			long start = System.currentTimeMillis();
-			reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+			if(session != null)
+				reasoner = session.getClassifiedReasoner(ont);
+			else {
+				reasoner = new ReasonerLoader(ont, false).createReasoner(false);
+				start = System.currentTimeMillis();
+				reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+			}
 			long end = System.currentTimeMillis();
 			time = (end-start)/1000.0;
 		}
@@ -673,6 +680,17 @@ public class SubconceptDiff implements ConceptDiff {
 	}
 	
 	
+	/**
+	 * Set the reasoner session from which reasoners are obtained, rather than creating them during the diff. Reasoners
+	 * already classified by earlier stages of the run are reused, e.g., when classifying the ontologies again after 
+	 * the temporary subconcept definitions are removed
+	 * @param session	Reasoner session
+	 */
+	public void setReasonerSession(ReasonerSession session) {
+		this.session = session;
+	}
+	
+	
 	/**
 	 * Get the XML report for concept diff
 	 * @return Concept diff report object
@@ -56,6 +56,7 @@ import org.semanticweb.owlapi.model.OWLOntologyStorageException;
 import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
 
 import uk.ac.manchester.cs.diff.axiom.CategoricalDiff;
+import uk.ac.manchester.cs.diff.utils.AtomicDecomposition;
 
 /**
  * @author Rafael S. Goncalves <br>
@@ -70,6 +71,7 @@ public class JustificationFinder {
 	private ExplanationGeneratorFactory<OWLAxiom> regFac, lacFac;
 	private int lacJustLimit, justLimit;
 	private int justCounter = 0, entCounter = 0;
+	private AtomicDecomposition decomposition;
 
 	/**
 	 * Constructor
@@ -88,6 +90,28 @@ public class JustificationFinder {
 	} 
 	
 	
+	/**
+	 * Set the atomic decomposition of the ontology, so that justifications for an entailment are computed from the
+	 * module for its signature, which contains all of them, rather than from the whole ontology
+	 * @param decomposition	Atomic decomposition of the ontology
+	 */
+	public void setAtomicDecomposition(AtomicDecomposition decomposition) {
+		this.decomposition = decomposition;
+	}
+	
+	
+	/**
+	 * Get an explanation generator for the given entailment, over its module if the atomic decomposition is set
+	 * @param axiom	Entailment
+	 * @return Explanation generator
+	 */
+	private ExplanationGenerator<OWLAxiom> getExplanationGenerator(OWLAxiom axiom) {
+		if(decomposition != null)
+			return regFac.createExplanationGenerator(decomposition.getModule(axiom.getSignature()));
+		return regFac.createExplanationGenerator(ont);
+	}
+	
+	
 	/**
 	 * Get all justifications for a given set of entailments (concurrently)
 	 * @param entailments	Set of entailments
@@ -118,7 +142,7 @@ public class JustificationFinder {
 	 * @return Justifications for the given entailment
 	 */
 	public Set<Explanation<OWLAxiom>> getJustifications(OWLAxiom axiom) {
-		ExplanationGenerator<OWLAxiom> exGen = regFac.createExplanationGenerator(ont);
+		ExplanationGenerator<OWLAxiom> exGen = getExplanationGenerator(axiom);
 		Set<Explanation<OWLAxiom>> justs = exGen.getExplanations(axiom, justLimit);
 		if(justs.isEmpty())
 			System.err.println("\n\t !! Could not retrieve justifications for axiom:\n\t\t" + 
@@ -153,7 +177,7 @@ public class JustificationFinder {
 		public Map<OWLAxiom,Set<Explanation<OWLAxiom>>> computeDirectly() {
 			Map<OWLAxiom,Set<Explanation<OWLAxiom>>> regExps = new HashMap<OWLAxiom,Set<Explanation<OWLAxiom>>>();
 			for(OWLAxiom ax : axioms) {
-				ExplanationGenerator<OWLAxiom> exGen = regFac.createExplanationGenerator(ont);
+				ExplanationGenerator<OWLAxiom> exGen = getExplanationGenerator(ax);
 
 				// TODO all good up till here:
 				Set<Explanation<OWLAxiom>> justs = exGen.getExplanations(ax, limit);
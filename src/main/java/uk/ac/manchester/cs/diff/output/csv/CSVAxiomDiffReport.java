@@ -52,13 +52,15 @@ public class CSVAxiomDiffReport {
 		else if(changeSet instanceof LogicalChangeSet) {
 			LogicalChangeSet logicalChangeSet = (LogicalChangeSet)changeSet;
 			getStructuralChangeSetReport(logicalChangeSet.getStructuralChangeSet());
-			report = getLogicalChangeSetReport(logicalChangeSet);
+			getLogicalChangeSetReport(logicalChangeSet);
+			report = getUndeterminedChangesReport(logicalChangeSet);
 		}
 		else if(changeSet instanceof CategorisedChangeSet) {
 			CategorisedChangeSet categorisedChangeSet = (CategorisedChangeSet)changeSet;
 			getStructuralChangeSetReport(categorisedChangeSet.getStructuralChangeSet());
 			getLogicalChangeSetReport(categorisedChangeSet.getLogicalChangeSet());
-			report = getCategorisedChangeSetReport(categorisedChangeSet);
+			getCategorisedChangeSetReport(categorisedChangeSet);
+			report = getUndeterminedChangesReport(categorisedChangeSet.getLogicalChangeSet());
 		}
 		return report;
 	}
@@ -98,6 +100,20 @@ public class CSVAxiomDiffReport {
 	}
 	
 	
+	/**
+	 * Get a CSV report of the changes whose effect is undetermined in a logical change set. These columns come last,
+	 * so that the columns of earlier reports keep their positions
+	 * @param logChangeSet	Logical change set
+	 * @return CSV report ending with the undetermined changes
+	 */
+	private String getUndeterminedChangesReport(LogicalChangeSet logChangeSet) {
+		header += ",Undetermined Additions,Undetermined Removals";
+		row += "," + logChangeSet.getUndeterminedAdditionAxioms().size();
+		row += "," + logChangeSet.getUndeterminedRemovalAxioms().size();
+		return header + "\n" + row;
+	}
+	
+	
 	/**
 	 * Get a CSV report of a categorised change set
 	 * @param catChangeSet	Categorised change set
@@ -199,13 +199,16 @@ public class XMLAxiomDiffReport implements XMLDiffReport {
 	private Document getLogicalChangeSetReport(LogicalChangeSet changeSet, Document doc, ShortFormProvider sf) {
 		if(axiomIds == null) axiomIds = new HashMap<OWLAxiom,Integer>();
 		
-		addElement("Additions", "adds", changeSet.getAdditions().size(), doc, "root", true);
+		Set<OWLAxiom> undAdds = changeSet.getUndeterminedAdditionAxioms(), undRems = changeSet.getUndeterminedRemovalAxioms();
+		addElement("Additions", "adds", changeSet.getAdditions().size() + undAdds.size(), doc, "root", true);
 		addElementAndChildren("Effectual", "effadds", changeSet.getEffectualAdditionAxioms(), doc, "adds", true, sf);
 		addElementAndChildren("Ineffectual", "ineffadds", changeSet.getIneffectualAdditionAxioms(), doc, "adds", true, sf);
+		if(!undAdds.isEmpty()) addElementAndChildren("Undetermined", "undadds", undAdds, doc, "adds", true, sf);
 		
-		addElement("Removals", "rems", changeSet.getRemovals().size(), doc, "root", true);
+		addElement("Removals", "rems", changeSet.getRemovals().size() + undRems.size(), doc, "root", true);
 		addElementAndChildren("Effectual", "effrems", changeSet.getEffectualRemovalAxioms(), doc, "rems", true, sf);
 		addElementAndChildren("Ineffectual", "ineffrems", changeSet.getIneffectualRemovalAxioms(), doc, "rems", true, sf);
+		if(!undRems.isEmpty()) addElementAndChildren("Undetermined", "undrems", undRems, doc, "rems", true, sf);
 		return doc;
 	}
 	
@@ -222,8 +225,9 @@ public class XMLAxiomDiffReport implements XMLDiffReport {
 		sharedAxioms = changeSet.getSharedAxioms(); 
 		if(axiomIds == null) axiomIds = new HashMap<OWLAxiom,Integer>();
 
-		addElement("Additions", "adds", changeSet.getAdditions().size(), doc, "root", true);
-		addElement("Removals", "rems", changeSet.getRemovals().size(), doc, "root", true);
+		Set<OWLAxiom> undAdds = changeSet.getUndeterminedAdditionAxioms(), undRems = changeSet.getUndeterminedRemovalAxioms();
+		addElement("Additions", "adds", changeSet.getAdditions().size() + undAdds.size(), doc, "root", true);
+		addElement("Removals", "rems", changeSet.getRemovals().size() + undRems.size(), doc, "root", true);
 		
 		addElement("Effectual", "effadds", changeSet.getEffectualAdditions().size(), doc, "adds", true);
 		addEffectualCategoryElementAndChildren(
@@ -256,6 +260,7 @@ public class XMLAxiomDiffReport implements XMLDiffReport {
 		addIneffectualAdditions(
 				"AddedNewProspectiveRedundancy", "anpred", changeSet.getAddedProspectiveNewRedundancies(), doc, "apred", true, 
 				IneffectualAdditionCategory.NEWPROSPREDUNDANCY, sf);
+		if(!undAdds.isEmpty()) addElementAndChildren("Undetermined", "undadds", undAdds, doc, "adds", true, sf);
 		
 		addElement("Effectual", "effrems", changeSet.getEffectualRemovals().size(), doc, "rems", true);
 		addEffectualCategoryElementAndChildren(
@@ -289,6 +294,7 @@ public class XMLAxiomDiffReport implements XMLDiffReport {
 		addIneffectualRemovals(
 				"RemovedNewProspectiveRedundancy", "rnpred", changeSet.getRemovedProspectiveNewRedundancies(), doc, "rpred", true, 
 				IneffectualRemovalCategory.NEWPROSPREDUNDANCY, sf);
+		if(!undRems.isEmpty()) addElementAndChildren("Undetermined", "undrems", undRems, doc, "rems", true, sf);
 		
 		return doc;
 	}
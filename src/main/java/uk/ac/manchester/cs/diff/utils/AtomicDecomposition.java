@@ -0,0 +1,338 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import com.clarkparsia.owlapi.modularity.locality.LocalityClass;
+import com.clarkparsia.owlapi.modularity.locality.SyntacticLocalityEvaluator;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Atomic decomposition of an ontology w.r.t. syntactic bottom-locality, computed once and then used to answer
+ * module queries. Axioms with the same module for their own signature form an atom, and the module of an axiom is
+ * the union of the atoms its atom depends on. A module for a signature is gathered atom by atom, adding everything
+ * an atom depends on as soon as one of its axioms is non-local, and only re-checking the atoms that mention a term
+ * newly added to the signature. STAR modules are then narrowed from the resulting bottom module rather than from
+ * the whole ontology. Modules contain logical axioms only. Queries can be made by several threads</p>
+ */
+public class AtomicDecomposition {
+	private final List<OWLAxiom> axioms;
+	private final Map<OWLEntity,int[]> index;
+	private final int[] atomOf, globalAtoms;
+	private final List<int[]> atomAxioms, ideals;
+
+	/**
+	 * Constructor
+	 * @param ont	Ontology
+	 */
+	public AtomicDecomposition(OWLOntology ont) {
+		axioms = new ArrayList<OWLAxiom>(ont.getLogicalAxioms());
+		index = new HashMap<OWLEntity,int[]>();
+		atomOf = new int[axioms.size()];
+		atomAxioms = new ArrayList<int[]>();
+		ideals = new ArrayList<int[]>();
+		indexAxioms();
+		globalAtoms = decompose();
+	}
+
+
+	/**
+	 * Get the STAR module for the given signature
+	 * @param signature	Signature
+	 * @return Set of logical axioms in the module
+	 */
+	public Set<OWLAxiom> getModule(Set<OWLEntity> signature) {
+		BitSet module = getBottomModuleAxioms(signature);
+		SyntacticLocalityEvaluator top = new SyntacticLocalityEvaluator(LocalityClass.TOP_TOP);
+		SyntacticLocalityEvaluator bottom = new SyntacticLocalityEvaluator(LocalityClass.BOTTOM_BOTTOM);
+		// The bottom module is a fixpoint of bottom extraction, so alternate until either pass leaves it unchanged
+		SyntacticLocalityEvaluator eval = top;
+		int size;
+		do {
+			size = module.cardinality();
+			module = extract(module, signature, eval);
+			eval = (eval == top ? bottom : top);
+		} while(module.cardinality() != size);
+		return toAxioms(module);
+	}
+
+
+	/**
+	 * Get the bottom-locality module for the given signature
+	 * @param signature	Signature
+	 * @return Set of logical axioms in the module
+	 */
+	public Set<OWLAxiom> getBottomModule(Set<OWLEntity> signature) {
+		return toAxioms(getBottomModuleAxioms(signature));
+	}
+
+
+	/**
+	 * Get the bottom-locality module for the given signature, gathered atom by atom
+	 * @param signature	Signature
+	 * @return Module, as the set of its axiom indexes
+	 */
+	private BitSet getBottomModuleAxioms(Set<OWLEntity> signature) {
+		BitSet atoms = new BitSet(ideals.size());
+		Set<OWLEntity> sig = new HashSet<OWLEntity>(signature);
+		Deque<OWLEntity> queue = new ArrayDeque<OWLEntity>(sig);
+		for(int a : globalAtoms) addIdeal(a, atoms, sig, queue);
+		SyntacticLocalityEvaluator eval = new SyntacticLocalityEvaluator(LocalityClass.BOTTOM_BOTTOM);
+		while(!queue.isEmpty()) {
+			int[] axs = index.get(queue.poll());
+			if(axs == null) continue;
+			for(int i : axs) {
+				int a = atomOf[i];
+				if(a >= 0 && !atoms.get(a) && !eval.isLocal(axioms.get(i), sig)) addIdeal(a, atoms, sig, queue);
+			}
+		}
+		BitSet module = new BitSet(axioms.size());
+		for(int a = atoms.nextSetBit(0); a >= 0; a = atoms.nextSetBit(a+1))
+			for(int i : atomAxioms.get(a)) module.set(i);
+		return module;
+	}
+
+
+	/**
+	 * Extract the module for the given signature from the given axioms, w.r.t. the locality of the given evaluator.
+	 * Each axiom is checked once, and then again only when a term in its signature is added to the signature
+	 * @param axs	Axiom indexes
+	 * @param signature	Signature
+	 * @param eval	Syntactic locality evaluator
+	 * @return Module, as the set of its axiom indexes
+	 */
+	private BitSet extract(BitSet axs, Set<OWLEntity> signature, SyntacticLocalityEvaluator eval) {
+		BitSet module = new BitSet(axioms.size());
+		Set<OWLEntity> sig = new HashSet<OWLEntity>(signature);
+		Deque<OWLEntity> queue = new ArrayDeque<OWLEntity>();
+		for(int i = axs.nextSetBit(0); i >= 0; i = axs.nextSetBit(i+1))
+			if(!module.get(i) && !eval.isLocal(axioms.get(i), sig)) addAxiom(i, module, sig, queue);
+		while(!queue.isEmpty()) {
+			int[] postings = index.get(queue.poll());
+			for(int i : postings)
+				if(axs.get(i) && !module.get(i) && !eval.isLocal(axioms.get(i), sig)) addAxiom(i, module, sig, queue);
+		}
+		return module;
+	}
+
+
+	/**
+	 * Add the given axiom to the given module, and its terms to the signature
+	 * @param axiom	Axiom index
+	 * @param module	Module being extracted
+	 * @param sig	Signature
+	 * @param queue	Terms to be processed
+	 */
+	private void addAxiom(int axiom, BitSet module, Set<OWLEntity> sig, Deque<OWLEntity> queue) {
+		module.set(axiom);
+		for(OWLEntity e : axioms.get(axiom).getSignature())
+			if(sig.add(e)) queue.add(e);
+	}
+
+
+	/**
+	 * Get the axioms with the given indexes
+	 * @param axs	Axiom indexes
+	 * @return Set of axioms
+	 */
+	private Set<OWLAxiom> toAxioms(BitSet axs) {
+		Set<OWLAxiom> result = new HashSet<OWLAxiom>();
+		for(int i = axs.nextSetBit(0); i >= 0; i = axs.nextSetBit(i+1)) result.add(axioms.get(i));
+		return result;
+	}
+
+
+	/**
+	 * Get the number of atoms
+	 * @return Number of atoms
+	 */
+	public int getAtomCount() {
+		return ideals.size();
+	}
+
+
+	/**
+	 * Add the given atom, and all atoms it depends on, to the given set of atoms, and their terms to the signature
+	 * @param atom	Atom
+	 * @param atoms	Set of atoms
+	 * @param sig	Signature
+	 * @param queue	Terms to be processed
+	 */
+	private void addIdeal(int atom, BitSet atoms, Set<OWLEntity> sig, Deque<OWLEntity> queue) {
+		for(int a : ideals.get(atom)) {
+			if(atoms.get(a)) continue;
+			atoms.set(a);
+			for(int i : atomAxioms.get(a))
+				for(OWLEntity e : axioms.get(i).getSignature())
+					if(sig.add(e)) queue.add(e);
+		}
+	}
+
+
+	/**
+	 * Index the axioms by the terms in their signature
+	 */
+	private void indexAxioms() {
+		Map<OWLEntity,List<Integer>> postings = new HashMap<OWLEntity,List<Integer>>();
+		for(int i = 0; i < axioms.size(); i++) {
+			for(OWLEntity e : axioms.get(i).getSignature()) {
+				List<Integer> p = postings.get(e);
+				if(p == null) {
+					p = new ArrayList<Integer>(2);
+					postings.put(e, p);
+				}
+				p.add(i);
+			}
+		}
+		for(Map.Entry<OWLEntity,List<Integer>> entry : postings.entrySet())
+			index.put(entry.getKey(), toArray(entry.getValue()));
+	}
+
+
+	/**
+	 * Decompose the ontology into atoms. The module of each axiom is extracted in turn, and any axiom already
+	 * decomposed that is found to be non-local contributes its whole module at once
+	 * @return Atoms whose axioms are non-local w.r.t. the empty signature, and so belong to every module
+	 */
+	private int[] decompose() {
+		SyntacticLocalityEvaluator eval = new SyntacticLocalityEvaluator(LocalityClass.BOTTOM_BOTTOM);
+		Set<OWLEntity> emptySig = Collections.emptySet();
+		List<Integer> global = new ArrayList<Integer>();
+		for(int i = 0; i < axioms.size(); i++) {
+			atomOf[i] = -2;	// not yet decomposed
+			if(!eval.isLocal(axioms.get(i), emptySig)) global.add(i);
+		}
+		List<BitSet> modules = new ArrayList<BitSet>();
+		Map<BitSet,Integer> atoms = new HashMap<BitSet,Integer>();
+		List<List<Integer>> members = new ArrayList<List<Integer>>();
+		for(int i = 0; i < axioms.size(); i++) {
+			BitSet module = extract(axioms.get(i).getSignature(), global, modules, eval);
+			if(!module.get(i)) {
+				atomOf[i] = -1;	// local w.r.t. its own signature, so in no module
+				continue;
+			}
+			Integer atom = atoms.get(module);
+			if(atom == null) {
+				atom = modules.size();
+				atoms.put(module, atom);
+				modules.add(module);
+				members.add(new ArrayList<Integer>());
+			}
+			atomOf[i] = atom;
+			members.get(atom).add(i);
+		}
+		for(int a = 0; a < modules.size(); a++) {
+			atomAxioms.add(toArray(members.get(a)));
+			BitSet ideal = new BitSet();
+			BitSet module = modules.get(a);
+			for(int i = module.nextSetBit(0); i >= 0; i = module.nextSetBit(i+1))
+				ideal.set(atomOf[i]);
+			ideals.add(toArray(ideal));
+		}
+		BitSet globalAtoms = new BitSet();
+		for(int i : global) globalAtoms.set(atomOf[i]);
+		return toArray(globalAtoms);
+	}
+
+
+	/**
+	 * Extract the bottom-locality module for the given signature during decomposition
+	 * @param signature	Signature
+	 * @param global	Axioms non-local w.r.t. the empty signature
+	 * @param modules	Modules of the atoms found so far
+	 * @param eval	Syntactic locality evaluator
+	 * @return Module, as the set of its axiom indexes
+	 */
+	private BitSet extract(Set<OWLEntity> signature, List<Integer> global, List<BitSet> modules, SyntacticLocalityEvaluator eval) {
+		BitSet module = new BitSet(axioms.size());
+		Set<OWLEntity> sig = new HashSet<OWLEntity>(signature);
+		Deque<OWLEntity> queue = new ArrayDeque<OWLEntity>(sig);
+		for(int i : global) addAxiom(i, module, modules, sig, queue);
+		while(!queue.isEmpty()) {
+			int[] axs = index.get(queue.poll());
+			if(axs == null) continue;
+			for(int i : axs)
+				if(!module.get(i) && atomOf[i] != -1 && !eval.isLocal(axioms.get(i), sig)) addAxiom(i, module, modules, sig, queue);
+		}
+		return module;
+	}
+
+
+	/**
+	 * Add the given axiom to the module being extracted during decomposition, together with its own module if the
+	 * axiom is already decomposed, since that is contained in the module being extracted
+	 * @param axiom	Axiom index
+	 * @param module	Module being extracted
+	 * @param modules	Modules of the atoms found so far
+	 * @param sig	Signature
+	 * @param queue	Terms to be processed
+	 */
+	private void addAxiom(int axiom, BitSet module, List<BitSet> modules, Set<OWLEntity> sig, Deque<OWLEntity> queue) {
+		BitSet added = new BitSet();
+		if(atomOf[axiom] >= 0) {
+			added.or(modules.get(atomOf[axiom]));
+			added.andNot(module);
+		}
+		added.set(axiom);
+		module.or(added);
+		for(int i = added.nextSetBit(0); i >= 0; i = added.nextSetBit(i+1))
+			for(OWLEntity e : axioms.get(i).getSignature())
+				if(sig.add(e)) queue.add(e);
+	}
+
+
+	/**
+	 * Convert the given list of integers to an array
+	 * @param list	List of integers
+	 * @return Array of integers
+	 */
+	private static int[] toArray(List<Integer> list) {
+		int[] array = new int[list.size()];
+		for(int i = 0; i < array.length; i++) array[i] = list.get(i);
+		return array;
+	}
+
+
+	/**
+	 * Convert the given bit set to an array of the indexes of its set bits
+	 * @param bits	Bit set
+	 * @return Array of integers
+	 */
+	private static int[] toArray(BitSet bits) {
+		int[] array = new int[bits.cardinality()];
+		for(int i = bits.nextSetBit(0), k = 0; i >= 0; i = bits.nextSetBit(i+1), k++) array[k] = i;
+		return array;
+	}
+}
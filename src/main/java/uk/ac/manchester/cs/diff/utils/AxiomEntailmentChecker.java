@@ -0,0 +1,457 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataAllValuesFrom;
+import org.semanticweb.owlapi.model.OWLDataExactCardinality;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataHasValue;
+import org.semanticweb.owlapi.model.OWLDataMaxCardinality;
+import org.semanticweb.owlapi.model.OWLDataMinCardinality;
+import org.semanticweb.owlapi.model.OWLDataPropertyDomainAxiom;
+import org.semanticweb.owlapi.model.OWLDataPropertyExpression;
+import org.semanticweb.owlapi.model.OWLDataRange;
+import org.semanticweb.owlapi.model.OWLDataSomeValuesFrom;
+import org.semanticweb.owlapi.model.OWLDisjointClassesAxiom;
+import org.semanticweb.owlapi.model.OWLEquivalentClassesAxiom;
+import org.semanticweb.owlapi.model.OWLEquivalentDataPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLEquivalentObjectPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLInverseObjectPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLObjectAllValuesFrom;
+import org.semanticweb.owlapi.model.OWLObjectComplementOf;
+import org.semanticweb.owlapi.model.OWLObjectExactCardinality;
+import org.semanticweb.owlapi.model.OWLObjectHasValue;
+import org.semanticweb.owlapi.model.OWLObjectIntersectionOf;
+import org.semanticweb.owlapi.model.OWLObjectMaxCardinality;
+import org.semanticweb.owlapi.model.OWLObjectMinCardinality;
+import org.semanticweb.owlapi.model.OWLObjectOneOf;
+import org.semanticweb.owlapi.model.OWLObjectPropertyDomainAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLObjectPropertyRangeAxiom;
+import org.semanticweb.owlapi.model.OWLObjectSomeValuesFrom;
+import org.semanticweb.owlapi.model.OWLObjectUnionOf;
+import org.semanticweb.owlapi.model.OWLPropertyExpression;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubDataPropertyOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubObjectPropertyOfAxiom;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Lightweight entailment checker for a single premise axiom, or a few, deciding whether the premises entail a
+ * given axiom without a DL reasoner where it can. With no premises, it checks whether axioms are tautologies. Checks
+ * are first settled by EL saturation of the premises (see {@link SaturationEntailmentChecker}), which also settles
+ * non-entailments if the premises are in EL. Otherwise the axioms are normalised into subsumptions between class
+ * expressions in negation normal form with flattened conjunctions and disjunctions, and entailments are found by
+ * structural subsumption, which may use the premise subsumptions (and their contrapositives) at any depth of the
+ * comparison. Checks settled by neither are left to a DL reasoner</p>
+ */
+public class AxiomEntailmentChecker {
+	private static final int MAX_PREMISE_USES = 2;
+	private final OWLDataFactory df = OWLManager.getOWLDataFactory();
+	private final SaturationEntailmentChecker saturation;
+	private final List<OWLClassExpression[]> premises = new ArrayList<OWLClassExpression[]>();
+	private final Map<OWLPropertyExpression<?,?>,Set<OWLPropertyExpression<?,?>>> toldSuperRoles = new HashMap<OWLPropertyExpression<?,?>,Set<OWLPropertyExpression<?,?>>>();
+	private final Map<OWLPropertyExpression<?,?>,Set<OWLPropertyExpression<?,?>>> superRoles = new HashMap<OWLPropertyExpression<?,?>,Set<OWLPropertyExpression<?,?>>>();
+	private int checks, resolved;
+
+	/**
+	 * Constructor
+	 * @param premise	Premise axiom
+	 */
+	public AxiomEntailmentChecker(OWLAxiom premise) {
+		this(Collections.singleton(premise));
+	}
+
+
+	/**
+	 * Constructor
+	 * @param premises	Premise axioms, which may be empty
+	 */
+	public AxiomEntailmentChecker(Collection<OWLAxiom> premises) {
+		saturation = new SaturationEntailmentChecker(premises);
+		for(OWLAxiom premise : premises) {
+			List<OWLClassExpression[]> subsumptions = getSubsumptions(premise);
+			if(subsumptions != null) {
+				for(OWLClassExpression[] s : subsumptions) {
+					this.premises.add(s);
+					this.premises.add(new OWLClassExpression[] { normalise(s[1].getComplementNNF()), normalise(s[0].getComplementNNF()) });
+				}
+			}
+			List<OWLPropertyExpression<?,?>[]> inclusions = getRoleInclusions(premise);
+			if(inclusions != null) {
+				for(OWLPropertyExpression<?,?>[] i : inclusions) {
+					addToldRoleInclusion(i[0], i[1]);
+					if(i[0] instanceof OWLObjectPropertyExpression)
+						addToldRoleInclusion(((OWLObjectPropertyExpression)i[0]).getInverseProperty().getSimplified(),
+								((OWLObjectPropertyExpression)i[1]).getInverseProperty().getSimplified());
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Check whether the given axiom is entailed by the premises, as far as this checker can tell
+	 * @param axiom	OWL axiom
+	 * @return true if the axiom is entailed, false if it is not, or null if the check could not be settled
+	 */
+	public synchronized Boolean isEntailed(OWLAxiom axiom) {
+		checks++;
+		Boolean entailed = saturation.isEntailed(axiom);
+		if(entailed == null && isStructurallyEntailed(axiom)) entailed = true;
+		if(entailed != null) resolved++;
+		return entailed;
+	}
+
+
+	/**
+	 * Get the number of checks made
+	 * @return Number of checks
+	 */
+	public synchronized int getCheckCount() {
+		return checks;
+	}
+
+
+	/**
+	 * Get the number of checks settled by this checker
+	 * @return Number of settled checks
+	 */
+	public synchronized int getResolvedCount() {
+		return resolved;
+	}
+
+
+	/**
+	 * Check whether the given axiom follows from the premises by structural subsumption
+	 * @param axiom	OWL axiom
+	 * @return true if the axiom is entailed, false if this could not be shown
+	 */
+	private boolean isStructurallyEntailed(OWLAxiom axiom) {
+		List<OWLClassExpression[]> subsumptions = getSubsumptions(axiom);
+		if(subsumptions != null) {
+			for(OWLClassExpression[] s : subsumptions)
+				if(!isSubsumed(s[0], s[1], MAX_PREMISE_USES)) return false;
+			return true;
+		}
+		List<OWLPropertyExpression<?,?>[]> inclusions = getRoleInclusions(axiom);
+		if(inclusions != null) {
+			for(OWLPropertyExpression<?,?>[] i : inclusions)
+				if(!isSubRole(i[0], i[1])) return false;
+			return true;
+		}
+		return false;
+	}
+
+
+	/**
+	 * Get the normalised subsumptions between class expressions expressed by the given axiom
+	 * @param axiom	OWL axiom
+	 * @return List of subsumptions (subclass and superclass, in negation normal form), or null if the axiom is not
+	 * expressed by subsumptions
+	 */
+	private List<OWLClassExpression[]> getSubsumptions(OWLAxiom axiom) {
+		List<OWLClassExpression[]> result = new ArrayList<OWLClassExpression[]>();
+		if(axiom.isOfType(AxiomType.SUBCLASS_OF)) {
+			OWLSubClassOfAxiom sub = (OWLSubClassOfAxiom)axiom;
+			addSubsumption(result, sub.getSubClass(), sub.getSuperClass());
+		}
+		else if(axiom.isOfType(AxiomType.EQUIVALENT_CLASSES)) {
+			List<OWLClassExpression> ces = ((OWLEquivalentClassesAxiom)axiom).getClassExpressionsAsList();
+			for(OWLClassExpression c : ces)
+				for(OWLClassExpression d : ces)
+					if(!c.equals(d)) addSubsumption(result, c, d);
+		}
+		else if(axiom.isOfType(AxiomType.DISJOINT_CLASSES)) {
+			List<OWLClassExpression> ces = ((OWLDisjointClassesAxiom)axiom).getClassExpressionsAsList();
+			for(int i = 0; i < ces.size(); i++)
+				for(int j = i+1; j < ces.size(); j++)
+					addSubsumption(result, ces.get(i), df.getOWLObjectComplementOf(ces.get(j)));
+		}
+		else if(axiom.isOfType(AxiomType.OBJECT_PROPERTY_DOMAIN)) {
+			OWLObjectPropertyDomainAxiom dom = (OWLObjectPropertyDomainAxiom)axiom;
+			addSubsumption(result, df.getOWLObjectSomeValuesFrom(dom.getProperty(), df.getOWLThing()), dom.getDomain());
+		}
+		else if(axiom.isOfType(AxiomType.OBJECT_PROPERTY_RANGE)) {
+			OWLObjectPropertyRangeAxiom ran = (OWLObjectPropertyRangeAxiom)axiom;
+			addSubsumption(result, df.getOWLThing(), df.getOWLObjectAllValuesFrom(ran.getProperty(), ran.getRange()));
+		}
+		else if(axiom.isOfType(AxiomType.DATA_PROPERTY_DOMAIN)) {
+			OWLDataPropertyDomainAxiom dom = (OWLDataPropertyDomainAxiom)axiom;
+			addSubsumption(result, df.getOWLDataSomeValuesFrom(dom.getProperty(), df.getTopDatatype()), dom.getDomain());
+		}
+		else return null;
+		return result;
+	}
+
+
+	/**
+	 * Add the normalised subsumption between the given class expressions to the given list
+	 * @param subsumptions	List of subsumptions
+	 * @param sub	Subclass
+	 * @param sup	Superclass
+	 */
+	private void addSubsumption(List<OWLClassExpression[]> subsumptions, OWLClassExpression sub, OWLClassExpression sup) {
+		subsumptions.add(new OWLClassExpression[] { normalise(sub.getNNF()), normalise(sup.getNNF()) });
+	}
+
+
+	/**
+	 * Get the inclusions between properties expressed by the given axiom
+	 * @param axiom	OWL axiom
+	 * @return List of inclusions (subproperty and superproperty), or null if the axiom is not expressed by inclusions
+	 */
+	private List<OWLPropertyExpression<?,?>[]> getRoleInclusions(OWLAxiom axiom) {
+		List<OWLPropertyExpression<?,?>[]> result = new ArrayList<OWLPropertyExpression<?,?>[]>();
+		if(axiom.isOfType(AxiomType.SUB_OBJECT_PROPERTY)) {
+			OWLSubObjectPropertyOfAxiom sub = (OWLSubObjectPropertyOfAxiom)axiom;
+			result.add(new OWLPropertyExpression<?,?>[] { sub.getSubProperty().getSimplified(), sub.getSuperProperty().getSimplified() });
+		}
+		else if(axiom.isOfType(AxiomType.EQUIVALENT_OBJECT_PROPERTIES)) {
+			for(OWLObjectPropertyExpression p : ((OWLEquivalentObjectPropertiesAxiom)axiom).getProperties())
+				for(OWLObjectPropertyExpression q : ((OWLEquivalentObjectPropertiesAxiom)axiom).getProperties())
+					if(!p.equals(q)) result.add(new OWLPropertyExpression<?,?>[] { p.getSimplified(), q.getSimplified() });
+		}
+		else if(axiom.isOfType(AxiomType.INVERSE_OBJECT_PROPERTIES)) {
+			OWLInverseObjectPropertiesAxiom inv = (OWLInverseObjectPropertiesAxiom)axiom;
+			OWLObjectPropertyExpression p = inv.getFirstProperty().getSimplified(), q = inv.getSecondProperty().getInverseProperty().getSimplified();
+			result.add(new OWLPropertyExpression<?,?>[] { p, q });
+			result.add(new OWLPropertyExpression<?,?>[] { q, p });
+		}
+		else if(axiom.isOfType(AxiomType.SUB_DATA_PROPERTY)) {
+			OWLSubDataPropertyOfAxiom sub = (OWLSubDataPropertyOfAxiom)axiom;
+			result.add(new OWLPropertyExpression<?,?>[] { sub.getSubProperty(), sub.getSuperProperty() });
+		}
+		else if(axiom.isOfType(AxiomType.EQUIVALENT_DATA_PROPERTIES)) {
+			for(OWLDataPropertyExpression p : ((OWLEquivalentDataPropertiesAxiom)axiom).getProperties())
+				for(OWLDataPropertyExpression q : ((OWLEquivalentDataPropertiesAxiom)axiom).getProperties())
+					if(!p.equals(q)) result.add(new OWLPropertyExpression<?,?>[] { p, q });
+		}
+		else return null;
+		return result;
+	}
+
+
+	/**
+	 * Normalise the given class expression, which is in negation normal form: nested conjunctions and disjunctions
+	 * are flattened, exact cardinalities are split into minimum and maximum ones, and value restrictions become
+	 * existential restrictions to a singleton
+	 * @param ce	Class expression in negation normal form
+	 * @return Normalised class expression
+	 */
+	private OWLClassExpression normalise(OWLClassExpression ce) {
+		if(ce instanceof OWLObjectIntersectionOf) {
+			Set<OWLClassExpression> ops = new HashSet<OWLClassExpression>();
+			for(OWLClassExpression op : ((OWLObjectIntersectionOf)ce).getOperands()) {
+				OWLClassExpression n = normalise(op);
+				if(n instanceof OWLObjectIntersectionOf) ops.addAll(((OWLObjectIntersectionOf)n).getOperands());
+				else if(!n.isOWLThing()) ops.add(n);
+			}
+			return (ops.isEmpty() ? df.getOWLThing() : ops.size() == 1 ? ops.iterator().next() : df.getOWLObjectIntersectionOf(ops));
+		}
+		if(ce instanceof OWLObjectUnionOf) {
+			Set<OWLClassExpression> ops = new HashSet<OWLClassExpression>();
+			for(OWLClassExpression op : ((OWLObjectUnionOf)ce).getOperands()) {
+				OWLClassExpression n = normalise(op);
+				if(n instanceof OWLObjectUnionOf) ops.addAll(((OWLObjectUnionOf)n).getOperands());
+				else if(!n.isOWLNothing()) ops.add(n);
+			}
+			return (ops.isEmpty() ? df.getOWLNothing() : ops.size() == 1 ? ops.iterator().next() : df.getOWLObjectUnionOf(ops));
+		}
+		if(ce instanceof OWLObjectSomeValuesFrom) {
+			OWLObjectSomeValuesFrom ex = (OWLObjectSomeValuesFrom)ce;
+			return df.getOWLObjectSomeValuesFrom(ex.getProperty().getSimplified(), normalise(ex.getFiller()));
+		}
+		if(ce instanceof OWLObjectAllValuesFrom) {
+			OWLObjectAllValuesFrom all = (OWLObjectAllValuesFrom)ce;
+			return df.getOWLObjectAllValuesFrom(all.getProperty().getSimplified(), normalise(all.getFiller()));
+		}
+		if(ce instanceof OWLObjectMinCardinality) {
+			OWLObjectMinCardinality min = (OWLObjectMinCardinality)ce;
+			return df.getOWLObjectMinCardinality(min.getCardinality(), min.getProperty().getSimplified(), normalise(min.getFiller()));
+		}
+		if(ce instanceof OWLObjectMaxCardinality) {
+			OWLObjectMaxCardinality max = (OWLObjectMaxCardinality)ce;
+			return df.getOWLObjectMaxCardinality(max.getCardinality(), max.getProperty().getSimplified(), normalise(max.getFiller()));
+		}
+		if(ce instanceof OWLObjectExactCardinality)
+			return normalise(((OWLObjectExactCardinality)ce).asIntersectionOfMinMax());
+		if(ce instanceof OWLDataExactCardinality)
+			return normalise(((OWLDataExactCardinality)ce).asIntersectionOfMinMax());
+		if(ce instanceof OWLObjectHasValue)
+			return normalise(((OWLObjectHasValue)ce).asSomeValuesFrom());
+		if(ce instanceof OWLDataHasValue)
+			return ((OWLDataHasValue)ce).asSomeValuesFrom();
+		return ce;
+	}
+
+
+	/**
+	 * Check whether the first class expression is structurally subsumed by the second
+	 * @param c	Normalised class expression
+	 * @param d	Normalised class expression
+	 * @param uses	Number of times the premise subsumptions may still be used
+	 * @return true if c is subsumed by d, false if this could not be shown
+	 */
+	private boolean isSubsumed(OWLClassExpression c, OWLClassExpression d, int uses) {
+		if(c.equals(d) || d.isOWLThing() || c.isOWLNothing()) return true;
+		if(d instanceof OWLObjectIntersectionOf) {
+			for(OWLClassExpression op : ((OWLObjectIntersectionOf)d).getOperands())
+				if(!isSubsumed(c, op, uses)) return false;
+			return true;
+		}
+		if(c instanceof OWLObjectUnionOf) {
+			for(OWLClassExpression op : ((OWLObjectUnionOf)c).getOperands())
+				if(!isSubsumed(op, d, uses)) return false;
+			return true;
+		}
+		if(c instanceof OWLObjectIntersectionOf) {
+			Set<OWLClassExpression> ops = ((OWLObjectIntersectionOf)c).getOperands();
+			for(OWLClassExpression op : ops) {
+				if(op instanceof OWLObjectComplementOf && ops.contains(((OWLObjectComplementOf)op).getOperand())) return true;
+				if(isSubsumed(op, d, uses)) return true;
+			}
+		}
+		if(d instanceof OWLObjectUnionOf) {
+			Set<OWLClassExpression> ops = ((OWLObjectUnionOf)d).getOperands();
+			for(OWLClassExpression op : ops) {
+				if(op instanceof OWLObjectComplementOf && ops.contains(((OWLObjectComplementOf)op).getOperand())) return true;
+				if(isSubsumed(c, op, uses)) return true;
+			}
+		}
+		if(isSubsumedByRestriction(c, d, uses)) return true;
+		// Use a premise subsumption x SubClassOf y, with c SubClassOf x and y SubClassOf d
+		if(uses > 0) {
+			for(OWLClassExpression[] p : premises)
+				if(isSubsumed(c, p[0], uses-1) && isSubsumed(p[1], d, uses-1)) return true;
+		}
+		return false;
+	}
+
+
+	/**
+	 * Check whether the first class expression is structurally subsumed by the second, where both are restrictions
+	 * or complements
+	 * @param c	Normalised class expression
+	 * @param d	Normalised class expression
+	 * @param uses	Number of times the premise subsumptions may still be used
+	 * @return true if c is subsumed by d, false if this could not be shown
+	 */
+	private boolean isSubsumedByRestriction(OWLClassExpression c, OWLClassExpression d, int uses) {
+		if(c instanceof OWLObjectComplementOf && d instanceof OWLObjectComplementOf)
+			return isSubsumed(((OWLObjectComplementOf)d).getOperand(), ((OWLObjectComplementOf)c).getOperand(), uses);
+		if(c instanceof OWLObjectOneOf && d instanceof OWLObjectOneOf)
+			return ((OWLObjectOneOf)d).getIndividuals().containsAll(((OWLObjectOneOf)c).getIndividuals());
+		// Existential restrictions are minimum cardinalities of 1
+		if((c instanceof OWLObjectSomeValuesFrom || c instanceof OWLObjectMinCardinality) &&
+				(d instanceof OWLObjectSomeValuesFrom || d instanceof OWLObjectMinCardinality)) {
+			int n = (c instanceof OWLObjectMinCardinality ? ((OWLObjectMinCardinality)c).getCardinality() : 1);
+			int m = (d instanceof OWLObjectMinCardinality ? ((OWLObjectMinCardinality)d).getCardinality() : 1);
+			OWLObjectPropertyExpression r = (c instanceof OWLObjectSomeValuesFrom ? ((OWLObjectSomeValuesFrom)c).getProperty() : ((OWLObjectMinCardinality)c).getProperty());
+			OWLObjectPropertyExpression s = (d instanceof OWLObjectSomeValuesFrom ? ((OWLObjectSomeValuesFrom)d).getProperty() : ((OWLObjectMinCardinality)d).getProperty());
+			OWLClassExpression cFiller = (c instanceof OWLObjectSomeValuesFrom ? ((OWLObjectSomeValuesFrom)c).getFiller() : ((OWLObjectMinCardinality)c).getFiller());
+			OWLClassExpression dFiller = (d instanceof OWLObjectSomeValuesFrom ? ((OWLObjectSomeValuesFrom)d).getFiller() : ((OWLObjectMinCardinality)d).getFiller());
+			return n >= m && isSubRole(r, s) && isSubsumed(cFiller, dFiller, uses);
+		}
+		if(c instanceof OWLObjectAllValuesFrom && d instanceof OWLObjectAllValuesFrom) {
+			OWLObjectAllValuesFrom cAll = (OWLObjectAllValuesFrom)c, dAll = (OWLObjectAllValuesFrom)d;
+			return isSubRole(dAll.getProperty(), cAll.getProperty()) && isSubsumed(cAll.getFiller(), dAll.getFiller(), uses);
+		}
+		if(c instanceof OWLObjectMaxCardinality && d instanceof OWLObjectMaxCardinality) {
+			OWLObjectMaxCardinality cMax = (OWLObjectMaxCardinality)c, dMax = (OWLObjectMaxCardinality)d;
+			return cMax.getCardinality() <= dMax.getCardinality() && isSubRole(dMax.getProperty(), cMax.getProperty()) &&
+					isSubsumed(dMax.getFiller(), cMax.getFiller(), uses);
+		}
+		// Data restrictions are compared with equal data ranges only
+		if((c instanceof OWLDataSomeValuesFrom || c instanceof OWLDataMinCardinality) &&
+				(d instanceof OWLDataSomeValuesFrom || d instanceof OWLDataMinCardinality)) {
+			int n = (c instanceof OWLDataMinCardinality ? ((OWLDataMinCardinality)c).getCardinality() : 1);
+			int m = (d instanceof OWLDataMinCardinality ? ((OWLDataMinCardinality)d).getCardinality() : 1);
+			OWLDataPropertyExpression r = (c instanceof OWLDataSomeValuesFrom ? ((OWLDataSomeValuesFrom)c).getProperty() : ((OWLDataMinCardinality)c).getProperty());
+			OWLDataPropertyExpression s = (d instanceof OWLDataSomeValuesFrom ? ((OWLDataSomeValuesFrom)d).getProperty() : ((OWLDataMinCardinality)d).getProperty());
+			OWLDataRange cr = (c instanceof OWLDataSomeValuesFrom ? ((OWLDataSomeValuesFrom)c).getFiller() : ((OWLDataMinCardinality)c).getFiller());
+			OWLDataRange dr = (d instanceof OWLDataSomeValuesFrom ? ((OWLDataSomeValuesFrom)d).getFiller() : ((OWLDataMinCardinality)d).getFiller());
+			return n >= m && isSubRole(r, s) && (cr.equals(dr) || dr.isTopDatatype());
+		}
+		if(c instanceof OWLDataAllValuesFrom && d instanceof OWLDataAllValuesFrom) {
+			OWLDataAllValuesFrom cAll = (OWLDataAllValuesFrom)c, dAll = (OWLDataAllValuesFrom)d;
+			return isSubRole(dAll.getProperty(), cAll.getProperty()) && (cAll.getFiller().equals(dAll.getFiller()) || dAll.getFiller().isTopDatatype());
+		}
+		if(c instanceof OWLDataMaxCardinality && d instanceof OWLDataMaxCardinality) {
+			OWLDataMaxCardinality cMax = (OWLDataMaxCardinality)c, dMax = (OWLDataMaxCardinality)d;
+			return cMax.getCardinality() <= dMax.getCardinality() && isSubRole(dMax.getProperty(), cMax.getProperty()) &&
+					cMax.getFiller().equals(dMax.getFiller());
+		}
+		return false;
+	}
+
+
+	/**
+	 * Check whether the first property is a subproperty of the second, by the premise property inclusions
+	 * @param r	Property expression
+	 * @param s	Property expression
+	 * @return true if r is a subproperty of s, false if this could not be shown
+	 */
+	private boolean isSubRole(OWLPropertyExpression<?,?> r, OWLPropertyExpression<?,?> s) {
+		if(r.equals(s)) return true;
+		if(toldSuperRoles.isEmpty()) return false;
+		Set<OWLPropertyExpression<?,?>> sups = superRoles.get(r);
+		if(sups == null) {
+			sups = new HashSet<OWLPropertyExpression<?,?>>();
+			Deque<OWLPropertyExpression<?,?>> queue = new ArrayDeque<OWLPropertyExpression<?,?>>(Collections.singleton(r));
+			while(!queue.isEmpty()) {
+				OWLPropertyExpression<?,?> p = queue.poll();
+				if(!sups.add(p)) continue;
+				Set<OWLPropertyExpression<?,?>> told = toldSuperRoles.get(p);
+				if(told != null) queue.addAll(told);
+			}
+			superRoles.put(r, sups);
+		}
+		return sups.contains(s);
+	}
+
+
+	/**
+	 * Index a told inclusion between the given properties
+	 * @param sub	Subproperty
+	 * @param sup	Superproperty
+	 */
+	private void addToldRoleInclusion(OWLPropertyExpression<?,?> sub, OWLPropertyExpression<?,?> sup) {
+		Set<OWLPropertyExpression<?,?>> sups = toldSuperRoles.get(sub);
+		if(sups == null) toldSuperRoles.put(sub, sups = new HashSet<OWLPropertyExpression<?,?>>());
+		sups.add(sup);
+	}
+}
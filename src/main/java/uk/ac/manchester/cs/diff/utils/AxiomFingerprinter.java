@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.util.SimpleRenderer;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Computes a stable 128-bit fingerprint of an axiom from its canonical functional-style rendering (with
+ * full IRIs). Structurally equivalent axioms, including their annotations, get the same fingerprint across
+ * ontology managers and JVM runs</p>
+ */
+public class AxiomFingerprinter {
+	private static final HashFunction hashFunction = Hashing.murmur3_128();
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+
+	/**
+	 * Get the 128-bit fingerprint of the given axiom
+	 * @param ax	OWL axiom
+	 * @return Array with the high and low 64 bits of the fingerprint (in that order)
+	 */
+	public static long[] getFingerprint(OWLAxiom ax) {
+		HashCode hash = hashFunction.hashString(getCanonicalRendering(ax), UTF8);
+		ByteBuffer buf = ByteBuffer.wrap(hash.asBytes());
+		return new long[] { buf.getLong(), buf.getLong() };
+	}
+
+
+	/**
+	 * Get the canonical rendering of the given axiom. A new renderer is used per call, since
+	 * renderers keep state, so that fingerprints can be computed concurrently
+	 * @param ax	OWL axiom
+	 * @return Functional-style rendering of the axiom using full IRIs
+	 */
+	public static String getCanonicalRendering(OWLAxiom ax) {
+		return new SimpleRenderer().render(ax);
+	}
+}
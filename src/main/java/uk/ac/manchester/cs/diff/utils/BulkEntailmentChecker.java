@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEquivalentClassesAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Batch entailment checking of SubClassOf and EquivalentClasses axioms by classification. Each complex class
+ * expression in the given axioms is named by a fresh concept name (as in {@link uk.ac.manchester.cs.diff.concept.SubconceptDiff}),
+ * the ontology extended with these definitions is classified once, and all entailments are read off the class hierarchy.
+ * If no fresh names are needed, the given reasoner is classified and used directly. Other axiom types are not supported,
+ * and should be checked individually. If the extended ontology cannot be created, the given reasoner checks each axiom</p>
+ */
+public class BulkEntailmentChecker {
+	private OWLOntology ont;
+	private OWLReasoner reasoner;
+	private Map<OWLClass,Set<OWLClass>> superClasses;
+	private double classificationTime;
+	private int freshNames;
+
+	/**
+	 * Constructor
+	 * @param ont	Ontology
+	 * @param reasoner	Reasoner loaded with the ontology, which is classified if no fresh names are needed (otherwise the 
+	 * extended ontology is classified by a new reasoner of the same type)
+	 */
+	public BulkEntailmentChecker(OWLOntology ont, OWLReasoner reasoner) {
+		this.ont = ont;
+		this.reasoner = reasoner;
+	}
+
+
+	/**
+	 * Check whether the given axiom can be checked by classification, i.e., whether it is a SubClassOf or EquivalentClasses axiom
+	 * @param ax	OWL axiom
+	 * @return true if the axiom is supported, false otherwise
+	 */
+	public static boolean isSupported(OWLAxiom ax) {
+		return ax instanceof OWLSubClassOfAxiom || ax instanceof OWLEquivalentClassesAxiom;
+	}
+
+
+	/**
+	 * Get the given axioms that are entailed by the ontology. All axioms must be supported (see {@link #isSupported(OWLAxiom)})
+	 * @param axioms	SubClassOf and EquivalentClasses axioms
+	 * @return Set of entailed axioms
+	 */
+	public Set<OWLAxiom> getEntailedAxioms(Collection<OWLAxiom> axioms) {
+		Set<OWLAxiom> entailed = new HashSet<OWLAxiom>();
+		if(axioms.isEmpty()) return entailed;
+		long start = System.currentTimeMillis();
+		OWLDataFactory df = OWLManager.getOWLDataFactory();
+
+		// Name each complex class expression
+		Map<OWLClassExpression,OWLClass> names = new HashMap<OWLClassExpression,OWLClass>();
+		Set<OWLAxiom> definitions = new HashSet<OWLAxiom>();
+		for(OWLAxiom ax : axioms) {
+			for(OWLClassExpression ce : getClassExpressions(ax)) {
+				if(ce.isAnonymous() && !names.containsKey(ce)) {
+					OWLClass c = df.getOWLClass(IRI.create("diffEnt_" + (names.size()+1)));
+					names.put(ce, c);
+					definitions.add(df.getOWLEquivalentClassesAxiom(c, ce));
+				}
+			}
+		}
+		freshNames = names.size();
+
+		// Classify the imports closure of the ontology, extended with the definitions of the fresh names if there are any
+		OWLReasoner classifier = reasoner;
+		if(!definitions.isEmpty()) {
+			OWLOntologyManager man = OWLManager.createOWLOntologyManager();
+			Set<OWLAxiom> closure = new HashSet<OWLAxiom>(definitions);
+			for(OWLOntology o : ont.getImportsClosure())
+				closure.addAll(o.getAxioms());
+			try {
+				OWLOntology extended = man.createOntology(closure);
+				classifier = new ReasonerLoader(extended).createReasoner(ReasonerLoader.getConcreteType(reasoner), false);
+			} catch (OWLOntologyCreationException e) {
+				System.err.println("[Bulk entailment] Unable to create the extended ontology, checking axioms individually: " + e.getMessage());
+				for(OWLAxiom ax : axioms)
+					if(reasoner.isEntailed(ax)) entailed.add(ax);
+				classificationTime = (System.currentTimeMillis()-start)/1000.0;
+				return entailed;
+			}
+		}
+		classifier.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+		classificationTime = (System.currentTimeMillis()-start)/1000.0;
+
+		superClasses = new HashMap<OWLClass,Set<OWLClass>>();
+		for(OWLAxiom ax : axioms) {
+			List<OWLClass> classes = new ArrayList<OWLClass>();
+			for(OWLClassExpression ce : getClassExpressions(ax))
+				classes.add(ce.isAnonymous() ? names.get(ce) : ce.asOWLClass());
+			boolean isEntailed = true;
+			if(ax instanceof OWLSubClassOfAxiom)
+				isEntailed = isSubsumed(classes.get(0), classes.get(1), classifier);
+			else {
+				for(int i = 1; i < classes.size() && isEntailed; i++)
+					isEntailed = isSubsumed(classes.get(0), classes.get(i), classifier) && isSubsumed(classes.get(i), classes.get(0), classifier);
+			}
+			if(isEntailed) entailed.add(ax);
+		}
+		if(classifier != reasoner) classifier.dispose();
+		superClasses = null;
+		return entailed;
+	}
+
+
+	/**
+	 * Get the class expressions of the given axiom, in order: subclass and superclass of a SubClassOf axiom,
+	 * or the operands of an EquivalentClasses axiom
+	 * @param ax	SubClassOf or EquivalentClasses axiom
+	 * @return List of class expressions
+	 */
+	private List<OWLClassExpression> getClassExpressions(OWLAxiom ax) {
+		List<OWLClassExpression> ces = new ArrayList<OWLClassExpression>();
+		if(ax instanceof OWLSubClassOfAxiom) {
+			ces.add(((OWLSubClassOfAxiom)ax).getSubClass());
+			ces.add(((OWLSubClassOfAxiom)ax).getSuperClass());
+		}
+		else
+			ces.addAll(((OWLEquivalentClassesAxiom)ax).getClassExpressionsAsList());
+		return ces;
+	}
+
+
+	/**
+	 * Check whether the given subclass is subsumed by the given superclass according to the computed class hierarchy
+	 * @param sub	Subclass
+	 * @param sup	Superclass
+	 * @param classifier	Reasoner whose class hierarchy has been computed
+	 * @return true if the subsumption is entailed, false otherwise
+	 */
+	private boolean isSubsumed(OWLClass sub, OWLClass sup, OWLReasoner classifier) {
+		if(sub.equals(sup) || sup.isOWLThing() || sub.isOWLNothing()) return true;
+		Set<OWLClass> supers = superClasses.get(sub);
+		if(supers == null) {
+			if(classifier.getBottomClassNode().contains(sub))
+				return true;
+			supers = new HashSet<OWLClass>(classifier.getSuperClasses(sub, false).getFlattened());
+			supers.addAll(classifier.getEquivalentClasses(sub).getEntities());
+			superClasses.put(sub, supers);
+		}
+		return supers.contains(sup);
+	}
+
+
+	/**
+	 * Get the number of fresh names introduced in the last check
+	 * @return Number of fresh concept names
+	 */
+	public int getFreshNameCount() {
+		return freshNames;
+	}
+
+
+	/**
+	 * Get the time spent (creating the reasoner and) classifying the ontology in the last check
+	 * @return Classification time (in seconds)
+	 */
+	public double getClassificationTime() {
+		return classificationTime;
+	}
+}
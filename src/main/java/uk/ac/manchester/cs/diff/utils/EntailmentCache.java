@@ -0,0 +1,273 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Local on-disk cache of entailment check results, keyed by the digest of the logical axioms of the ontology
+ * (see {@link OntologyDigest}, rolled up over the imports closure) and the fingerprint of the checked axiom (see
+ * {@link AxiomFingerprinter}). Results are kept in memory while diffing, bounded in number with least recently used
+ * entries evicted first, and written back to a single gzipped file in the cache directory, in access order, so that
+ * recency survives across runs</p>
+ */
+public class EntailmentCache {
+	private static final String FORMAT_VERSION = "ecco-entailments-1", FILE_NAME = "entailments.cache";
+	public static final int DEFAULT_SIZE = 250000;
+	private final File cacheFile;
+	private final int maxEntries;
+	private final Map<Key,Boolean> results;
+	private int hits, misses;
+	private boolean modified;
+
+	/**
+	 * Constructor, which loads the results stored in the given cache directory, if any
+	 * @param cacheDir	Cache directory
+	 * @param maxEntries	Maximum number of results kept (and stored)
+	 */
+	public EntailmentCache(String cacheDir, final int maxEntries) {
+		this.cacheFile = new File(cacheDir, FILE_NAME);
+		this.maxEntries = Math.max(1, maxEntries);
+		results = new LinkedHashMap<Key,Boolean>(16, 0.75f, true) {
+			private static final long serialVersionUID = -3187702154622834312L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key,Boolean> eldest) {
+				return size() > EntailmentCache.this.maxEntries;
+			}
+		};
+		load();
+	}
+
+
+	/**
+	 * Constructor, which loads the results stored in the given cache directory, if any
+	 * @param cacheDir	Cache directory
+	 */
+	public EntailmentCache(String cacheDir) {
+		this(cacheDir, DEFAULT_SIZE);
+	}
+
+
+	/**
+	 * Get the digest under which entailment results for the given ontology are cached: the sum of the digests of
+	 * the ontologies in its imports closure. Annotation assertions and declarations are not part of the digest
+	 * @param ont	OWL ontology
+	 * @return Ontology digest (high and low 64 bits)
+	 */
+	public static long[] getDigest(OWLOntology ont) {
+		long[] digest = new long[2];
+		for(OWLOntology o : ont.getImportsClosure()) {
+			long[] d = new OntologyDigest(o, false).getRootDigest();
+			digest[0] += d[0]; digest[1] += d[1];
+		}
+		return digest;
+	}
+
+
+	/**
+	 * Get the cached result of checking whether the given axiom is entailed by the ontology with the given digest
+	 * @param ontDigest	Ontology digest (see {@link #getDigest(OWLOntology)})
+	 * @param ax	OWL axiom
+	 * @return true if the axiom is entailed, false if not, or null if the result is not cached
+	 */
+	public Boolean get(long[] ontDigest, OWLAxiom ax) {
+		Key key = new Key(ontDigest, AxiomFingerprinter.getFingerprint(ax));
+		synchronized(results) {
+			Boolean entailed = results.get(key);
+			if(entailed != null) hits++;
+			else misses++;
+			return entailed;
+		}
+	}
+
+
+	/**
+	 * Cache the result of checking whether the given axiom is entailed by the ontology with the given digest
+	 * @param ontDigest	Ontology digest (see {@link #getDigest(OWLOntology)})
+	 * @param ax	OWL axiom
+	 * @param entailed	true if the axiom is entailed, false otherwise
+	 */
+	public void put(long[] ontDigest, OWLAxiom ax, boolean entailed) {
+		Key key = new Key(ontDigest, AxiomFingerprinter.getFingerprint(ax));
+		synchronized(results) {
+			results.put(key, entailed);
+			modified = true;
+		}
+	}
+
+
+	/**
+	 * Check whether the given axiom is entailed by the ontology loaded into the given reasoner, using the cached
+	 * result if there is one, and caching the result of the reasoner otherwise
+	 * @param reasoner	Reasoner instance
+	 * @param ontDigest	Digest of the ontology loaded into the reasoner (see {@link #getDigest(OWLOntology)})
+	 * @param ax	OWL axiom
+	 * @return true if the axiom is entailed, false otherwise
+	 */
+	public boolean isEntailed(OWLReasoner reasoner, long[] ontDigest, OWLAxiom ax) {
+		Boolean entailed = get(ontDigest, ax);
+		if(entailed == null) {
+			entailed = reasoner.isEntailed(ax);
+			put(ontDigest, ax, entailed);
+		}
+		return entailed;
+	}
+
+
+	/**
+	 * Get the number of lookups answered from the cache
+	 * @return Number of cache hits
+	 */
+	public int getHits() {
+		synchronized(results) {
+			return hits;
+		}
+	}
+
+
+	/**
+	 * Get the number of lookups not answered from the cache
+	 * @return Number of cache misses
+	 */
+	public int getMisses() {
+		synchronized(results) {
+			return misses;
+		}
+	}
+
+
+	/**
+	 * Get the number of cached results
+	 * @return Number of cached results
+	 */
+	public int size() {
+		synchronized(results) {
+			return results.size();
+		}
+	}
+
+
+	/**
+	 * Load the results stored in the cache file, if it exists. An unreadable cache file is ignored
+	 */
+	private void load() {
+		if(!cacheFile.exists()) return;
+		try {
+			DataInputStream in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(cacheFile))));
+			try {
+				if(!in.readUTF().equals(FORMAT_VERSION)) return;
+				int n = in.readInt();
+				for(int i = 0; i < n; i++) {
+					Key key = new Key(in.readLong(), in.readLong(), in.readLong(), in.readLong());
+					results.put(key, in.readBoolean());
+				}
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			System.err.println("[Entailment cache] Ignoring unreadable cache file " + cacheFile + ": " + e.getMessage());
+			results.clear();
+		}
+	}
+
+
+	/**
+	 * Write the cached results to the cache file, least recently used first, if any were added since loading
+	 */
+	public void save() {
+		synchronized(results) {
+			if(!modified) return;
+			cacheFile.getParentFile().mkdirs();
+			File tmp = new File(cacheFile.getParentFile(), FILE_NAME + ".tmp" + Thread.currentThread().getId());
+			try {
+				DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(tmp))));
+				try {
+					out.writeUTF(FORMAT_VERSION);
+					out.writeInt(results.size());
+					for(Map.Entry<Key,Boolean> e : results.entrySet()) {
+						Key key = e.getKey();
+						out.writeLong(key.ont0); out.writeLong(key.ont1); out.writeLong(key.ax0); out.writeLong(key.ax1);
+						out.writeBoolean(e.getValue());
+					}
+				} finally {
+					out.close();
+				}
+				if(!tmp.renameTo(cacheFile)) {
+					cacheFile.delete();
+					if(!tmp.renameTo(cacheFile)) tmp.delete();
+				}
+				modified = false;
+			} catch (IOException e) {
+				System.err.println("[Entailment cache] Unable to write cache file " + cacheFile + ": " + e.getMessage());
+				tmp.delete();
+			}
+		}
+	}
+
+
+	/**
+	 * Cache key: ontology digest and axiom fingerprint
+	 */
+	private static final class Key {
+		private final long ont0, ont1, ax0, ax1;
+
+		Key(long[] ontDigest, long[] axFingerprint) {
+			this(ontDigest[0], ontDigest[1], axFingerprint[0], axFingerprint[1]);
+		}
+
+		Key(long ont0, long ont1, long ax0, long ax1) {
+			this.ont0 = ont0;
+			this.ont1 = ont1;
+			this.ax0 = ax0;
+			this.ax1 = ax1;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Key)) return false;
+			Key k = (Key)obj;
+			return ont0 == k.ont0 && ont1 == k.ont1 && ax0 == k.ax0 && ax1 == k.ax1;
+		}
+
+		@Override
+		public int hashCode() {
+			// Fingerprints are uniformly distributed, so their low bits suffice
+			return (int)(ont1 ^ ax1);
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.ReasonerInterruptedException;
+import org.semanticweb.owlapi.reasoner.TimeOutException;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Deadline for individual entailment checks, enforced by interrupting the reasoner from a watchdog thread. A check
+ * that reaches its deadline is undetermined, whatever the reasoner returns: JFact does not reset its interrupt flag,
+ * and answers every later check negatively instead. So a reasoner whose check was interrupted must be discarded
+ * by the caller, and never be a reasoner shared with other stages</p>
+ */
+public class EntailmentDeadline {
+	private final long timeout;
+	private final ScheduledExecutorService watchdog;
+	private final AtomicInteger timedOut;
+
+	/**
+	 * Constructor
+	 * @param timeout	Maximum time (in milliseconds) per entailment check
+	 */
+	public EntailmentDeadline(long timeout) {
+		this.timeout = timeout;
+		timedOut = new AtomicInteger();
+		watchdog = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "entailment-deadline");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+
+	/**
+	 * Check whether the given axiom is entailed by the ontology loaded into the given reasoner, within the deadline
+	 * @param reasoner	Reasoner instance, which must be discarded if the check is undetermined
+	 * @param axiom	OWL axiom
+	 * @return true if the axiom is entailed, false if not, or null if the check was interrupted at the deadline
+	 */
+	public Boolean isEntailed(OWLReasoner reasoner, OWLAxiom axiom) {
+		Interrupter interrupter = new Interrupter(reasoner);
+		ScheduledFuture<?> alarm = watchdog.schedule(interrupter, timeout, TimeUnit.MILLISECONDS);
+		boolean entailed;
+		try {
+			entailed = reasoner.isEntailed(axiom);
+		} catch (ReasonerInterruptedException | TimeOutException e) {
+			if(!interrupter.finish()) throw e;
+			timedOut.incrementAndGet();
+			return null;
+		}
+		alarm.cancel(false);
+		if(interrupter.finish()) {
+			timedOut.incrementAndGet();
+			return null;
+		}
+		return entailed;
+	}
+
+
+	/**
+	 * Get the number of checks that reached their deadline
+	 * @return Number of undetermined checks
+	 */
+	public int getTimedOutCount() {
+		return timedOut.get();
+	}
+
+
+	/**
+	 * Stop the watchdog thread
+	 */
+	public void shutdown() {
+		watchdog.shutdownNow();
+	}
+
+
+	/**
+	 * Interrupts the reasoner of a check unless the check finished first
+	 */
+	private static class Interrupter implements Runnable {
+		private final OWLReasoner reasoner;
+		private boolean finished, fired;
+
+		Interrupter(OWLReasoner reasoner) {
+			this.reasoner = reasoner;
+		}
+
+		@Override
+		public synchronized void run() {
+			if(finished) return;
+			fired = true;
+			reasoner.interrupt();
+		}
+
+		/**
+		 * Mark the check as finished, so that the reasoner is no longer interrupted
+		 * @return true if the reasoner was interrupted before the check finished, false otherwise
+		 */
+		synchronized boolean finish() {
+			finished = true;
+			return fired;
+		}
+	}
+}
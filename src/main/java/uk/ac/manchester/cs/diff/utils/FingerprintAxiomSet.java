@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.Iterables;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Read-only set of axioms backed by a fingerprint set and the ontology whose axioms were fingerprinted.
+ * Membership is decided by fingerprint, and axioms are only materialised, from the backing ontology, when the
+ * set is iterated. Iteration does not fingerprint axioms again: members are marked in a bit set indexed by the
+ * position of each axiom in {@link #getLogicalAxioms(OWLOntology)}, so the backing ontology must not change</p>
+ */
+public class FingerprintAxiomSet extends AbstractSet<OWLAxiom> {
+	private OWLOntology ont;
+	private FingerprintSet fingerprints;
+	private BitSet members;
+
+	/**
+	 * Constructor
+	 * @param ont	Ontology containing all axioms whose fingerprints are in the given set
+	 * @param fingerprints	Fingerprint set
+	 * @param members	Bit set where bit i is set if the i-th logical axiom of the ontology, in the order of
+	 * {@link #getLogicalAxioms(OWLOntology)}, is in the set
+	 */
+	public FingerprintAxiomSet(OWLOntology ont, FingerprintSet fingerprints, BitSet members) {
+		this.ont = ont;
+		this.fingerprints = fingerprints;
+		this.members = members;
+	}
+
+
+	@Override
+	public boolean contains(Object o) {
+		if(!(o instanceof OWLAxiom)) return false;
+		return fingerprints.contains(AxiomFingerprinter.getFingerprint((OWLAxiom)o));
+	}
+
+
+	@Override
+	public Iterator<OWLAxiom> iterator() {
+		return Iterables.filter(getLogicalAxioms(ont), new Predicate<OWLAxiom>() {
+			private int index = 0;
+			
+			@Override
+			public boolean apply(OWLAxiom ax) {
+				return members.get(index++);
+			}
+		}).iterator();
+	}
+
+
+	@Override
+	public int size() {
+		return fingerprints.size();
+	}
+
+
+	/**
+	 * Get the underlying fingerprint set
+	 * @return Fingerprint set
+	 */
+	public FingerprintSet getFingerprints() {
+		return fingerprints;
+	}
+
+
+	/**
+	 * Get a view over the logical axioms of the given ontology, grouped by axiom type. Unlike
+	 * {@link OWLOntology#getLogicalAxioms()} this does not copy the axioms into a new set
+	 * @param ont	OWL ontology
+	 * @return Iterable over the logical axioms of the ontology
+	 */
+	public static Iterable<OWLAxiom> getLogicalAxioms(OWLOntology ont) {
+		List<Iterable<? extends OWLAxiom>> axiomsByType = new ArrayList<Iterable<? extends OWLAxiom>>();
+		for(AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+			if(type.isLogical())
+				axiomsByType.add(ont.getAxioms(type));
+		}
+		return Iterables.concat(axiomsByType);
+	}
+}
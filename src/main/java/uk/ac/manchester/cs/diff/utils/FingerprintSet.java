@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Open-addressing (linear probing) hash set of 128-bit fingerprints, stored as pairs of primitive
+ * longs. The all-zero fingerprint is used as the empty slot marker and is tracked separately</p>
+ */
+public class FingerprintSet {
+	private static final double MAX_LOAD = 0.5;
+	private long[] hi, lo;
+	private int size, mask;
+	private boolean containsZero;
+
+	/**
+	 * Constructor
+	 */
+	public FingerprintSet() {
+		this(16);
+	}
+
+
+	/**
+	 * Constructor
+	 * @param expectedSize	Expected number of fingerprints
+	 */
+	public FingerprintSet(int expectedSize) {
+		int capacity = 16;
+		while(capacity * MAX_LOAD < expectedSize) capacity <<= 1;
+		allocate(capacity);
+	}
+
+
+	/**
+	 * Add a fingerprint to the set
+	 * @param fp	Fingerprint (high and low 64 bits)
+	 * @return true if the fingerprint was not already in the set, false otherwise
+	 */
+	public boolean add(long[] fp) {
+		return add(fp[0], fp[1]);
+	}
+
+
+	/**
+	 * Add a fingerprint to the set
+	 * @param h	High 64 bits
+	 * @param l	Low 64 bits
+	 * @return true if the fingerprint was not already in the set, false otherwise
+	 */
+	public boolean add(long h, long l) {
+		if(h == 0 && l == 0) {
+			if(containsZero) return false;
+			containsZero = true; size++;
+			return true;
+		}
+		int i = slot(h, l);
+		while(hi[i] != 0 || lo[i] != 0) {
+			if(hi[i] == h && lo[i] == l) return false;
+			i = (i+1) & mask;
+		}
+		hi[i] = h; lo[i] = l; size++;
+		if(size > (mask+1) * MAX_LOAD) rehash();
+		return true;
+	}
+
+
+	/**
+	 * Check whether the given fingerprint is in the set
+	 * @param fp	Fingerprint (high and low 64 bits)
+	 * @return true if the fingerprint is in the set, false otherwise
+	 */
+	public boolean contains(long[] fp) {
+		return contains(fp[0], fp[1]);
+	}
+
+
+	/**
+	 * Check whether the given fingerprint is in the set
+	 * @param h	High 64 bits
+	 * @param l	Low 64 bits
+	 * @return true if the fingerprint is in the set, false otherwise
+	 */
+	public boolean contains(long h, long l) {
+		if(h == 0 && l == 0) return containsZero;
+		int i = slot(h, l);
+		while(hi[i] != 0 || lo[i] != 0) {
+			if(hi[i] == h && lo[i] == l) return true;
+			i = (i+1) & mask;
+		}
+		return false;
+	}
+
+
+	/**
+	 * Get the number of fingerprints in the set
+	 * @return Number of fingerprints
+	 */
+	public int size() {
+		return size;
+	}
+
+
+	/**
+	 * Check whether the set is empty
+	 * @return true if the set is empty, false otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+
+	/**
+	 * Get the initial probe position of a fingerprint. Fingerprints are already uniformly
+	 * distributed hashes, so the low bits are mixed with the high bits and used directly
+	 * @param h	High 64 bits
+	 * @param l	Low 64 bits
+	 * @return Slot index
+	 */
+	private int slot(long h, long l) {
+		long x = h ^ l;
+		return (int)(x ^ (x >>> 32)) & mask;
+	}
+
+
+	/**
+	 * Allocate the slot arrays with the given capacity (a power of 2)
+	 * @param capacity	Number of slots
+	 */
+	private void allocate(int capacity) {
+		hi = new long[capacity];
+		lo = new long[capacity];
+		mask = capacity-1;
+	}
+
+
+	/**
+	 * Double the capacity of the set and re-insert all fingerprints
+	 */
+	private void rehash() {
+		long[] oldHi = hi, oldLo = lo;
+		allocate(oldHi.length * 2);
+		for(int j = 0; j < oldHi.length; j++) {
+			if(oldHi[j] != 0 || oldLo[j] != 0) {
+				int i = slot(oldHi[j], oldLo[j]);
+				while(hi[i] != 0 || lo[i] != 0)
+					i = (i+1) & mask;
+				hi[i] = oldHi[j]; lo[i] = oldLo[j];
+			}
+		}
+	}
+}
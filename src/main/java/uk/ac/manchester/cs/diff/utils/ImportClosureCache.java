@@ -0,0 +1,315 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.io.FileDocumentSource;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.MissingImportHandlingStrategy;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyIRIMapper;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.util.AutoIRIMapper;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Offline resolver of imports closures backed by a local catalog directory. Imports are resolved to the catalog
+ * documents whose ontology (or version) IRI matches, or to local files when imported by a file IRI; nothing is fetched
+ * over the network. Each distinct import document is parsed once, keyed by the hash of its content, and its axioms are
+ * shared between all ontologies that import it (e.g., both inputs of a diff). Independent imports are parsed in parallel</p>
+ */
+public class ImportClosureCache {
+	private static final IRI UNRESOLVED_IMPORT = IRI.create(new File(System.getProperty("java.io.tmpdir"), "ecco-unresolved-import.owl"));
+	private final AutoIRIMapper catalog;
+	private final Map<String,File> catalogFiles;
+	private final boolean loadAnnotations;
+	private final ConcurrentMap<String,ModuleParser> modules;
+
+	/**
+	 * Constructor
+	 * @param catalogDir	Catalog directory containing (possibly in subfolders) the ontology documents that may be imported
+	 * @param loadAnnotations	true if annotation axioms of imported ontologies should be loaded, false otherwise
+	 */
+	public ImportClosureCache(String catalogDir, boolean loadAnnotations) {
+		this.loadAnnotations = loadAnnotations;
+		catalog = new AutoIRIMapper(new File(catalogDir), true);
+		catalog.update();
+		catalogFiles = new HashMap<String,File>();
+		indexFiles(new File(catalogDir));
+		modules = new ConcurrentHashMap<String,ModuleParser>();
+	}
+
+
+	/**
+	 * Index the files in the given directory (and its subdirectories) by file name, as a fallback for catalog
+	 * documents whose ontology IRI cannot be determined without parsing them
+	 * @param dir	Directory
+	 */
+	private void indexFiles(File dir) {
+		File[] files = dir.listFiles();
+		if(files == null) return;
+		for(File f : files) {
+			if(f.isDirectory()) indexFiles(f);
+			else if(!f.isHidden() && !catalogFiles.containsKey(f.getName())) catalogFiles.put(f.getName(), f);
+		}
+	}
+	
+	
+	/**
+	 * Get an IRI mapper that prevents an ontology manager from following imports, which are instead resolved by
+	 * {@link #addImportsClosure(OWLOntology, List)}. The manager should load ontologies with a silent missing import
+	 * handling strategy
+	 * @return IRI mapper that maps every ontology IRI to a nonexistent document
+	 */
+	public static OWLOntologyIRIMapper getNoImportMapper() {
+		return new OWLOntologyIRIMapper() {
+			@Override
+			public IRI getDocumentIRI(IRI ontologyIRI) {
+				return UNRESOLVED_IMPORT;
+			}
+		};
+	}
+
+
+	/**
+	 * Resolve the imports closure of the given ontology, which must have been loaded without following its imports,
+	 * and add it to the manager of that ontology. Each import is added as an ontology whose IRI is the imported IRI,
+	 * containing the (shared) axioms of the imported document and the imports declarations of that document, and 
+	 * whose document IRI is that of the catalog document
+	 * @param root	Root ontology
+	 * @param errors	List to which imports that could not be resolved are added, along with the reason why
+	 */
+	public void addImportsClosure(OWLOntology root, List<String> errors) {
+		ConcurrentMap<IRI,ImportedModule> closure = new ConcurrentHashMap<IRI,ImportedModule>();
+		List<String> closureErrors = Collections.synchronizedList(new ArrayList<String>());
+		List<ImportResolver> tasks = new ArrayList<ImportResolver>();
+		for(OWLImportsDeclaration decl : root.getImportsDeclarations()) {
+			if(closure.putIfAbsent(decl.getIRI(), ImportedModule.PENDING) == null)
+				tasks.add(new ImportResolver(decl.getIRI(), closure, closureErrors));
+		}
+		RecursiveAction.invokeAll(tasks);
+
+		OWLOntologyManager man = root.getOWLOntologyManager();
+		List<AddImport> imports = new ArrayList<AddImport>();
+		for(Map.Entry<IRI,ImportedModule> e : closure.entrySet()) {
+			ImportedModule module = e.getValue();
+			if(module == ImportedModule.PENDING || man.contains(e.getKey())) continue;
+			try {
+				OWLOntology imported = man.createOntology(e.getKey());
+				man.setOntologyDocumentIRI(imported, IRI.create(module.document));
+				man.addAxioms(imported, module.axioms);
+				for(IRI iri : module.imports)
+					imports.add(new AddImport(imported, man.getOWLDataFactory().getOWLImportsDeclaration(iri)));
+			} catch (OWLOntologyCreationException ex) {
+				closureErrors.add(e.getKey() + " (" + ex.getMessage() + ")");
+			}
+		}
+		if(!imports.isEmpty()) man.applyChanges(imports);
+		errors.addAll(closureErrors);
+	}
+
+
+	/**
+	 * Get the number of distinct import documents parsed so far
+	 * @return Number of parsed import documents
+	 */
+	public int getParsedModuleCount() {
+		return modules.size();
+	}
+
+
+	/**
+	 * Get the local document of the given import IRI: the catalog document with that ontology IRI, the file it denotes
+	 * if the IRI is a file IRI or, failing that, the catalog document named as the last segment of the IRI
+	 * @param iri	Imported IRI
+	 * @return Import document, or null if the import cannot be resolved locally
+	 */
+	private File getDocument(IRI iri) {
+		IRI documentIRI;
+		synchronized(catalog) {
+			documentIRI = catalog.getDocumentIRI(iri);
+		}
+		if(documentIRI == null && "file".equalsIgnoreCase(iri.getScheme())) documentIRI = iri;
+		if(documentIRI != null) {
+			File f = new File(documentIRI.toURI());
+			if(f.isFile()) return f;
+		}
+		String path = iri.toURI().getPath();
+		if(path == null || path.endsWith("/")) return null;
+		return catalogFiles.get(path.substring(path.lastIndexOf('/')+1));
+	}
+
+
+	/**
+	 * Get the parsed import document, parsing it if no document with the same content has been parsed before.
+	 * Concurrent requests for the same content wait for a single parse
+	 * @param f	Import document
+	 * @return Imported module
+	 * @throws IOException	IO exception
+	 */
+	private ImportedModule getModule(File f) throws IOException {
+		String key;
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			OntologySnapshotCache.updateDigest(md, f);
+			key = OntologySnapshotCache.toHex(md.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+		ModuleParser parser = new ModuleParser(f);
+		ModuleParser existing = modules.putIfAbsent(key, parser);
+		if(existing == null) return parser.invoke();
+		else return existing.join();
+	}
+
+
+	/**
+	 * Task that resolves an import, and forks the resolution of the imports of that import not yet in the closure
+	 */
+	private class ImportResolver extends RecursiveAction {
+		private static final long serialVersionUID = -2871404951337262851L;
+		private final IRI iri;
+		private final ConcurrentMap<IRI,ImportedModule> closure;
+		private final List<String> errors;
+
+		/**
+		 * Constructor
+		 * @param iri	Imported IRI
+		 * @param closure	Map of imported IRIs to their modules
+		 * @param errors	List of import errors
+		 */
+		ImportResolver(IRI iri, ConcurrentMap<IRI,ImportedModule> closure, List<String> errors) {
+			this.iri = iri;
+			this.closure = closure;
+			this.errors = errors;
+		}
+
+		@Override
+		protected void compute() {
+			File f = getDocument(iri);
+			if(f == null) {
+				errors.add(iri + " (not found in import catalog)");
+				return;
+			}
+			ImportedModule module;
+			try {
+				module = getModule(f);
+			} catch (IOException e) {
+				errors.add(iri + " (" + e.getMessage() + ")");
+				return;
+			}
+			if(module.error != null) {
+				errors.add(iri + " (" + module.error + ")");
+				return;
+			}
+			closure.put(iri, module);
+			List<ImportResolver> tasks = new ArrayList<ImportResolver>();
+			for(IRI imported : module.imports) {
+				if(closure.putIfAbsent(imported, ImportedModule.PENDING) == null)
+					tasks.add(new ImportResolver(imported, closure, errors));
+			}
+			invokeAll(tasks);
+		}
+	}
+
+
+	/**
+	 * Task that parses an import document in a throwaway manager, without following its imports
+	 */
+	private class ModuleParser extends RecursiveTask<ImportedModule> {
+		private static final long serialVersionUID = 6013532473392460412L;
+		private final File f;
+
+		/**
+		 * Constructor
+		 * @param f	Import document
+		 */
+		ModuleParser(File f) {
+			this.f = f;
+		}
+
+		@Override
+		protected ImportedModule compute() {
+			OWLOntologyManager man = OWLManager.createOWLOntologyManager();
+			man.addIRIMapper(getNoImportMapper());
+			OWLOntologyLoaderConfiguration config = new OWLOntologyLoaderConfiguration()
+					.setLoadAnnotationAxioms(loadAnnotations)
+					.setMissingImportHandlingStrategy(MissingImportHandlingStrategy.SILENT)
+					.setFollowRedirects(false);
+			try {
+				OWLOntology ont = man.loadOntologyFromOntologyDocument(new FileDocumentSource(f), config);
+				Set<IRI> imports = new HashSet<IRI>();
+				for(OWLImportsDeclaration decl : ont.getImportsDeclarations())
+					imports.add(decl.getIRI());
+				return new ImportedModule(f, ont.getAxioms(), imports, null);
+			} catch (OWLOntologyCreationException e) {
+				return new ImportedModule(f, Collections.<OWLAxiom>emptySet(), Collections.<IRI>emptySet(), e.getMessage());
+			}
+		}
+	}
+
+
+	/**
+	 * Parsed import document: its axioms and the IRIs it imports, or the reason why it could not be parsed
+	 */
+	private static class ImportedModule {
+		private static final ImportedModule PENDING = new ImportedModule(null, null, null, null);
+		private final File document;
+		private final Set<OWLAxiom> axioms;
+		private final Set<IRI> imports;
+		private final String error;
+
+		/**
+		 * Constructor
+		 * @param document	Import document
+		 * @param axioms	Axioms of the import document
+		 * @param imports	IRIs imported by the import document
+		 * @param error	Parse error, or null if the document was parsed
+		 */
+		ImportedModule(File document, Set<OWLAxiom> axioms, Set<IRI> imports, String error) {
+			this.document = document;
+			this.axioms = axioms;
+			this.imports = imports;
+			this.error = error;
+		}
+	}
+}
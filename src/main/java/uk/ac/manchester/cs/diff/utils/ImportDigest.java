@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Digests of the imported ontologies in the imports closure of an ontology, keyed by ontology IRI. An import
+ * loaded from a local document is digested by the hash of the document content, so no axiom is hashed; other
+ * imports are digested by their {@link OntologyDigest}. Imports with equal digests in two closures are identical</p>
+ */
+public class ImportDigest {
+	private Map<IRI,OWLOntology> imports;
+	private Map<IRI,String> digests;
+
+	/**
+	 * Constructor
+	 * @param root	Root ontology, whose imports closure has not been merged into it
+	 */
+	public ImportDigest(OWLOntology root) {
+		imports = new HashMap<IRI,OWLOntology>();
+		digests = new HashMap<IRI,String>();
+		for(OWLOntology imported : root.getImportsClosure()) {
+			IRI iri = imported.getOntologyID().getOntologyIRI();
+			if(imported == root || iri == null) continue;
+			imports.put(iri, imported);
+			digests.put(iri, getDigest(imported));
+		}
+	}
+
+
+	/**
+	 * Get the digest of the given imported ontology: the hash of its document content if the document is a local
+	 * file, or else its ontology digest
+	 * @param imported	Imported ontology
+	 * @return Digest of the imported ontology
+	 */
+	private String getDigest(OWLOntology imported) {
+		IRI documentIRI = imported.getOWLOntologyManager().getOntologyDocumentIRI(imported);
+		if(documentIRI != null && "file".equalsIgnoreCase(documentIRI.getScheme())) {
+			File f = new File(documentIRI.toURI());
+			if(f.isFile()) {
+				try {
+					MessageDigest md = MessageDigest.getInstance("SHA-256");
+					OntologySnapshotCache.updateDigest(md, f);
+					return "file:" + OntologySnapshotCache.toHex(md.digest());
+				} catch (IOException | NoSuchAlgorithmException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		return "axioms:" + new OntologyDigest(imported, false).toString();
+	}
+
+
+	/**
+	 * Get the imported ontologies of this closure that are identical to the same imports of the given closure
+	 * @param other	Import digest of another imports closure
+	 * @return Set of identical imported ontologies in this closure
+	 */
+	public Set<OWLOntology> getIdenticalImports(ImportDigest other) {
+		Set<OWLOntology> identical = new HashSet<OWLOntology>();
+		for(Map.Entry<IRI,String> e : digests.entrySet()) {
+			if(e.getValue().equals(other.digests.get(e.getKey())))
+				identical.add(imports.get(e.getKey()));
+		}
+		return identical;
+	}
+}
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RecursiveTask;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDisjointClassesAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.util.OWLObjectDuplicator;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Preprocessing of an input ontology in a single pass over its axioms (and, if imports are processed, those of its
+ * imports closure). Unary disjointness axioms are dropped from the root ontology, as are its ABox axioms if so
+ * specified, while imported axioms are kept as they are. Entity IRIs are optionally normalised into a common
+ * namespace. The resulting axioms are added in one go to a new working ontology without imports, leaving the input
+ * ontology unchanged. Optionally, the logical axioms of imports known to be identical in the other input are collected
+ * separately, together with a second working ontology that contains all other axioms</p>
+ */
+public class InputPreprocessor extends RecursiveTask<OWLOntology> {
+	private static final long serialVersionUID = 2837564512096613544L;
+	public static final String normalizedNamespace = "http://owl.cs.manchester.ac.uk/ecco#";
+	private OWLOntology ont, changedModules;
+	private Set<OWLOntology> sharedImports;
+	private Set<OWLAxiom> sharedImportAxioms;
+	private boolean processImports, ignoreAbox, normalizeURIs;
+	private double time;
+
+	/**
+	 * Constructor
+	 * @param ont	Input ontology
+	 * @param processImports	true if the axioms of the imports closure should be included, false if only those of the root ontology
+	 * @param ignoreAbox	true if ABox axioms should be dropped, false otherwise
+	 * @param normalizeURIs	true if entity IRIs should be normalised into a common namespace, false otherwise
+	 */
+	public InputPreprocessor(OWLOntology ont, boolean processImports, boolean ignoreAbox, boolean normalizeURIs) {
+		this.ont = ont;
+		this.processImports = processImports;
+		this.ignoreAbox = ignoreAbox;
+		this.normalizeURIs = normalizeURIs;
+	}
+
+
+	@Override
+	protected OWLOntology compute() {
+		long start = System.currentTimeMillis();
+		OWLOntologyManager man = OWLManager.createOWLOntologyManager();
+		Set<OWLOntology> onts = (processImports ? ont.getImportsClosure() : Collections.singleton(ont));
+		OWLObjectDuplicator duplicator = null;
+		if(normalizeURIs) {
+			// The duplicator copies the given map, so it must be complete before the duplicator is created
+			Map<OWLEntity,IRI> iriMap = new HashMap<OWLEntity,IRI>();
+			for(OWLOntology o : onts)
+				for(OWLEntity e : o.getSignature())
+					if(!e.isBuiltIn()) iriMap.put(e, getNormalizedIRI(e.getIRI()));
+			duplicator = new OWLObjectDuplicator(iriMap, man.getOWLDataFactory());
+		}
+
+		Set<OWLAxiom> axioms = new HashSet<OWLAxiom>();
+		if(sharedImports != null) sharedImportAxioms = new HashSet<OWLAxiom>();
+		for(OWLOntology o : onts) {
+			boolean shared = (sharedImports != null && sharedImports.contains(o)), root = (o == ont);
+			for(OWLAxiom ax : o.getAxioms()) {
+				if(root && (isUnaryDisjointness(ax) || (ignoreAbox && ax.isOfType(AxiomType.ABoxAxiomTypes)))) continue;
+				if(normalizeURIs) ax = duplicator.duplicateObject(ax);
+				axioms.add(ax);
+				if(shared && ax.isLogicalAxiom()) sharedImportAxioms.add(ax);
+			}
+		}
+
+		OWLOntology result = null;
+		try {
+			result = man.createOntology(ont.getOntologyID());
+			man.addAxioms(result, axioms);
+			if(sharedImportAxioms != null) {
+				axioms.removeAll(sharedImportAxioms);
+				changedModules = man.createOntology(axioms);
+			}
+		} catch (OWLOntologyCreationException e) {
+			e.printStackTrace();
+		}
+		time = (System.currentTimeMillis()-start)/1000.0;
+		return result;
+	}
+
+
+	/**
+	 * Check whether the given axiom is a disjointness axiom with fewer than 2 classes in its signature,
+	 * which dependent tools do not handle
+	 * @param ax	OWL axiom
+	 * @return true if the axiom is a unary disjointness axiom, false otherwise
+	 */
+	private boolean isUnaryDisjointness(OWLAxiom ax) {
+		return ax.isOfType(AxiomType.DISJOINT_CLASSES) && ((OWLDisjointClassesAxiom)ax).getClassesInSignature().size() < 2;
+	}
+
+
+	/**
+	 * Get the IRI of an entity in the common namespace, i.e., the normalised namespace followed by the entity name
+	 * @param iri	Entity IRI
+	 * @return Normalised IRI
+	 */
+	private IRI getNormalizedIRI(IRI iri) {
+		String entityName = iri.toString().substring(iri.toString().lastIndexOf("#")+1);
+		return IRI.create(normalizedNamespace + entityName);
+	}
+
+
+	/**
+	 * Set the imported ontologies that are identical in the other input, whose logical axioms can only be shared.
+	 * These are collected separately during preprocessing (see {@link #getSharedImportAxioms()})
+	 * @param sharedImports	Set of imported ontologies identical in the other input
+	 */
+	public void setSharedImports(Set<OWLOntology> sharedImports) {
+		this.sharedImports = sharedImports;
+	}
+
+
+	/**
+	 * Get the (preprocessed) logical axioms of the imports that are identical in the other input
+	 * @return Set of logical axioms of shared imports, or null if no shared imports were set
+	 */
+	public Set<OWLAxiom> getSharedImportAxioms() {
+		return sharedImportAxioms;
+	}
+
+
+	/**
+	 * Get a working ontology with the (preprocessed) axioms of the root ontology and of the imports that are not
+	 * shared, i.e., all axioms of the working ontology except the logical axioms of shared imports
+	 * @return Working ontology without the shared imports, or null if no shared imports were set
+	 */
+	public OWLOntology getChangedModules() {
+		return changedModules;
+	}
+
+
+	/**
+	 * Get the time spent preprocessing the ontology
+	 * @return Preprocessing time (in seconds)
+	 */
+	public double getPreprocessingTime() {
+		return time;
+	}
+}
@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.ReasonerInterruptedException;
+import org.semanticweb.owlapi.reasoner.TimeOutException;
+
+import uk.ac.manchester.cs.diff.utils.ReasonerLoader.ReasonerType;
+import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
+import uk.ac.manchester.cs.owlapi.modularity.SyntacticLocalityModuleExtractor;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Entailment checking against syntactic locality (STAR) modules. An axiom is entailed by an ontology if and only if
+ * it is entailed by the module of the ontology for the signature of the axiom, so each check runs on a small reasoner
+ * over that module. Module reasoners are cached by signature, so that axioms over the same terms share one reasoner,
+ * and the least recently used ones are disposed of once the cache is full. Checks on different modules can run in
+ * parallel, while checks on the same module are serialised. All checks can be cancelled at once, e.g., once one check
+ * settles the question being asked</p>
+ */
+public class ModuleEntailmentChecker {
+	private final OWLOntologyManager man;
+	private final SyntacticLocalityModuleExtractor extractor;
+	private final ReasonerType type;
+	private final Map<Set<OWLEntity>,ModuleEntry> cache;
+	private final List<ModuleEntry> evicted;
+	private final AtomicInteger nrModules, nrHits;
+	private volatile boolean cancelled;
+
+	/**
+	 * Constructor for a checker with HermiT module reasoners
+	 * @param ont	Ontology
+	 * @param cacheSize	Maximum number of module reasoners kept alive
+	 */
+	public ModuleEntailmentChecker(OWLOntology ont, int cacheSize) {
+		this(ont, ReasonerType.HERMIT, cacheSize);
+	}
+
+
+	/**
+	 * Constructor
+	 * @param ont	Ontology
+	 * @param type	Type of the module reasoners
+	 * @param cacheSize	Maximum number of module reasoners kept alive
+	 */
+	public ModuleEntailmentChecker(OWLOntology ont, ReasonerType type, final int cacheSize) {
+		this.type = type;
+		man = OWLManager.createOWLOntologyManager();
+		extractor = new SyntacticLocalityModuleExtractor(ont.getOWLOntologyManager(), ont, ModuleType.STAR);
+		evicted = new ArrayList<ModuleEntry>();
+		nrModules = new AtomicInteger();
+		nrHits = new AtomicInteger();
+		cache = new LinkedHashMap<Set<OWLEntity>,ModuleEntry>(16, 0.75f, true) {
+			private static final long serialVersionUID = -2284530371596305164L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Set<OWLEntity>,ModuleEntry> eldest) {
+				if(size() <= cacheSize) return false;
+				evicted.add(eldest.getValue());
+				return true;
+			}
+		};
+	}
+
+
+	/**
+	 * Check whether the given axiom is entailed by the ontology
+	 * @param ax	OWL axiom
+	 * @return true if the axiom is entailed, false otherwise
+	 */
+	public boolean isEntailed(OWLAxiom ax) {
+		return isEntailed(ax, null);
+	}
+	
+	
+	/**
+	 * Check whether the given axiom is entailed by the ontology within the given deadline. The module reasoner of 
+	 * a check that reaches its deadline is discarded, and created again for later checks on the same module
+	 * @param ax	OWL axiom
+	 * @param deadline	Deadline for the check, or null if the check is not bounded
+	 * @return true if the axiom is entailed, false if not, or null if the check reached its deadline
+	 */
+	public Boolean isEntailed(OWLAxiom ax, EntailmentDeadline deadline) {
+		return getEntry(ax).isEntailed(ax, deadline);
+	}
+	
+	
+	/**
+	 * Get the size of the module of the ontology for the signature of the given axiom, extracting it if needed
+	 * @param ax	OWL axiom
+	 * @return Number of axioms in the module
+	 */
+	public int getModuleSize(OWLAxiom ax) {
+		return getEntry(ax).getModuleSize();
+	}
+	
+	
+	/**
+	 * Cancel all checks: checks in progress are interrupted, and these and later checks are undetermined. The module
+	 * reasoners of interrupted checks are discarded
+	 */
+	public void cancel() {
+		cancelled = true;
+		List<ModuleEntry> entries;
+		synchronized(cache) {
+			entries = new ArrayList<ModuleEntry>(cache.values());
+		}
+		for(ModuleEntry e : entries)
+			e.interrupt();
+	}
+	
+	
+	/**
+	 * Get the module entry for the signature of the given axiom, disposing of evicted entries
+	 * @param ax	OWL axiom
+	 * @return Module entry
+	 */
+	private ModuleEntry getEntry(OWLAxiom ax) {
+		Set<OWLEntity> sig = ax.getSignature();
+		ModuleEntry entry;
+		List<ModuleEntry> toDispose = null;
+		synchronized(cache) {
+			entry = cache.get(sig);
+			if(entry == null) cache.put(sig, entry = new ModuleEntry(sig));
+			else nrHits.incrementAndGet();
+			if(!evicted.isEmpty()) {
+				toDispose = new ArrayList<ModuleEntry>(evicted);
+				evicted.clear();
+			}
+		}
+		if(toDispose != null) {
+			for(ModuleEntry e : toDispose)
+				e.evict();
+		}
+		return entry;
+	}
+
+
+	/**
+	 * Get the number of modules extracted
+	 * @return Number of modules
+	 */
+	public int getModuleCount() {
+		return nrModules.get();
+	}
+
+
+	/**
+	 * Get the number of checks that reused a cached module
+	 * @return Number of cache hits
+	 */
+	public int getCacheHits() {
+		return nrHits.get();
+	}
+
+
+	/**
+	 * Dispose of all module reasoners
+	 */
+	public void dispose() {
+		List<ModuleEntry> entries;
+		synchronized(cache) {
+			entries = new ArrayList<ModuleEntry>(cache.values());
+			entries.addAll(evicted);
+			cache.clear(); evicted.clear();
+		}
+		for(ModuleEntry e : entries)
+			e.evict();
+	}
+
+
+	/**
+	 * Module of the ontology for a signature, and a reasoner over it, both created on first use
+	 */
+	private class ModuleEntry {
+		private final Set<OWLEntity> sig;
+		private OWLOntology module;
+		private OWLReasoner reasoner;
+		private volatile OWLReasoner checking;
+		private boolean isEvicted;
+
+		/**
+		 * Constructor
+		 * @param sig	Module signature
+		 */
+		ModuleEntry(Set<OWLEntity> sig) {
+			this.sig = sig;
+		}
+
+		/**
+		 * Check whether the given axiom, whose signature is that of the module, is entailed by the module
+		 * @param ax	OWL axiom
+		 * @param deadline	Deadline for the check, or null if the check is not bounded
+		 * @return true if the axiom is entailed, false if not, or null if the check reached its deadline or was cancelled
+		 */
+		synchronized Boolean isEntailed(OWLAxiom ax, EntailmentDeadline deadline) {
+			if(cancelled) return null;
+			if(reasoner == null) reasoner = new ReasonerLoader(getModule()).createReasoner(type, false);
+			Boolean entailed;
+			checking = reasoner;
+			try {
+				if(cancelled) entailed = null;
+				else if(deadline != null) entailed = deadline.isEntailed(reasoner, ax);
+				else entailed = reasoner.isEntailed(ax);
+			} catch (ReasonerInterruptedException | TimeOutException e) {
+				if(!cancelled) throw e;
+				entailed = null;
+			} finally {
+				checking = null;
+			}
+			// The answer of a reasoner interrupted by cancellation is not trusted
+			if(cancelled) entailed = null;
+			// A check that started before eviction disposes of the reasoner itself, as does a check that was interrupted
+			if(isEvicted) release();
+			else if(entailed == null) { reasoner.dispose(); reasoner = null; }
+			return entailed;
+		}
+
+		/**
+		 * Get the size of the module for the signature of this entry, extracting it if needed
+		 * @return Number of axioms in the module
+		 */
+		synchronized int getModuleSize() {
+			int size = getModule().getAxiomCount();
+			if(isEvicted) release();
+			return size;
+		}
+
+		/**
+		 * Get the module for the signature of this entry, extracting it if needed
+		 * @return Module
+		 */
+		private OWLOntology getModule() {
+			if(module == null) {
+				Set<OWLAxiom> axioms;
+				synchronized(extractor) {
+					axioms = extractor.extract(sig);
+				}
+				try {
+					synchronized(man) {
+						module = man.createOntology(axioms);
+					}
+				} catch (OWLOntologyCreationException e) {
+					throw new RuntimeException(e);
+				}
+				nrModules.incrementAndGet();
+			}
+			return module;
+		}
+
+		/**
+		 * Interrupt the check in progress on this entry, if any
+		 */
+		void interrupt() {
+			OWLReasoner r = checking;
+			if(r != null) r.interrupt();
+		}
+
+		/**
+		 * Mark the entry as evicted, and dispose of its reasoner and module
+		 */
+		synchronized void evict() {
+			isEvicted = true;
+			release();
+		}
+
+		/**
+		 * Dispose of the reasoner and module of this entry
+		 */
+		private void release() {
+			if(reasoner != null) { reasoner.dispose(); reasoner = null; }
+			if(module != null) {
+				synchronized(man) {
+					man.removeOntology(module);
+				}
+				module = null;
+			}
+		}
+	}
+}
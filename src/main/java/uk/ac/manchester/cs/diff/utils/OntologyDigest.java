@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Merkle-style digest of the logical axioms of an ontology, computed in a single pass. Each axiom is hashed
+ * into its 128-bit fingerprint, and the fingerprints are rolled up (by order-independent addition) per axiom type
+ * and, optionally, per entity in the signature of the axiom. The root digest rolls up the axiom type digests.
+ * Two ontologies whose digests are equal are structurally equivalent (barring fingerprint collisions), and when
+ * they differ the axiom types and entities whose digests differ locate the changes. As in the structural diff,
+ * axioms of the form C SubClassOf owl:Thing are not taken into account</p>
+ */
+public class OntologyDigest {
+	private Map<AxiomType<?>,long[]> typeDigests;
+	private Map<OWLEntity,long[]> entityDigests;
+	private long[] root;
+
+	/**
+	 * Constructor
+	 * @param ont	OWL ontology
+	 * @param perEntity	true if digests should also be rolled up per entity, false if only per axiom type. The per
+	 * axiom type digest requires constant memory, whereas the per entity one is proportional to the ontology signature
+	 */
+	public OntologyDigest(OWLOntology ont, boolean perEntity) {
+		typeDigests = new HashMap<AxiomType<?>,long[]>();
+		if(perEntity) entityDigests = new HashMap<OWLEntity,long[]>();
+		root = new long[2];
+		for(AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+			if(!type.isLogical()) continue;
+			long[] typeDigest = new long[2];
+			for(OWLAxiom ax : ont.getAxioms(type)) {
+				if(isSubsumptionOfTop(ax)) continue;
+				long[] fp = AxiomFingerprinter.getFingerprint(ax);
+				add(typeDigest, fp);
+				if(perEntity) {
+					for(OWLEntity e : ax.getSignature()) {
+						long[] entityDigest = entityDigests.get(e);
+						if(entityDigest == null) entityDigests.put(e, entityDigest = new long[2]);
+						add(entityDigest, fp);
+					}
+				}
+			}
+			if(typeDigest[0] != 0 || typeDigest[1] != 0) {
+				typeDigests.put(type, typeDigest);
+				add(root, typeDigest);
+			}
+		}
+	}
+
+
+	/**
+	 * Add the given fingerprint to the given digest
+	 * @param digest	Digest (high and low 64 bits)
+	 * @param fp	Fingerprint (high and low 64 bits)
+	 */
+	private void add(long[] digest, long[] fp) {
+		digest[0] += fp[0]; digest[1] += fp[1];
+	}
+
+
+	/**
+	 * Check whether the given axiom is of the form C SubClassOf owl:Thing, which is not reported as a change
+	 * @param ax	OWL axiom
+	 * @return true if the axiom is a subsumption with owl:Thing as superclass, false otherwise
+	 */
+	private boolean isSubsumptionOfTop(OWLAxiom ax) {
+		return (ax instanceof OWLSubClassOfAxiom) && ((OWLSubClassOfAxiom)ax).getSuperClass().isTopEntity();
+	}
+
+
+	/**
+	 * Check whether this digest is equal to the given one, i.e., whether the digested ontologies are structurally equivalent
+	 * @param other	Ontology digest
+	 * @return true if the root digests are equal, false otherwise
+	 */
+	public boolean isEquivalent(OntologyDigest other) {
+		return root[0] == other.root[0] && root[1] == other.root[1];
+	}
+
+
+	/**
+	 * Get the axiom types whose digests differ between this and the given digest
+	 * @param other	Ontology digest
+	 * @return Set of axiom types that contain changes
+	 */
+	public Set<AxiomType<?>> getChangedAxiomTypes(OntologyDigest other) {
+		Set<AxiomType<?>> changed = new HashSet<AxiomType<?>>();
+		if(isEquivalent(other)) return changed;
+		collectChanged(typeDigests, other.typeDigests, changed);
+		collectChanged(other.typeDigests, typeDigests, changed);
+		return changed;
+	}
+
+
+	/**
+	 * Get the entities whose digests differ between this and the given digest, i.e., entities that appear in
+	 * added or removed axioms. Both digests must have been computed per entity
+	 * @param other	Ontology digest
+	 * @return Set of entities involved in changes
+	 */
+	public Set<OWLEntity> getChangedEntities(OntologyDigest other) {
+		if(entityDigests == null || other.entityDigests == null)
+			throw new IllegalStateException("Entity digests were not computed.");
+		Set<OWLEntity> changed = new HashSet<OWLEntity>();
+		if(isEquivalent(other)) return changed;
+		collectChanged(entityDigests, other.entityDigests, changed);
+		collectChanged(other.entityDigests, entityDigests, changed);
+		return changed;
+	}
+
+
+	/**
+	 * Add to the given set the keys of the first map whose digests differ from (or are missing in) the second map
+	 * @param digests1	Map of keys to digests
+	 * @param digests2	Map of keys to digests
+	 * @param changed	Set of keys with different digests
+	 */
+	private <K> void collectChanged(Map<K,long[]> digests1, Map<K,long[]> digests2, Set<K> changed) {
+		for(Map.Entry<K,long[]> e : digests1.entrySet()) {
+			long[] d2 = digests2.get(e.getKey());
+			if(d2 == null || d2[0] != e.getValue()[0] || d2[1] != e.getValue()[1])
+				changed.add(e.getKey());
+		}
+	}
+
+
+	/**
+	 * Check whether digests were rolled up per entity
+	 * @return true if entity digests were computed, false otherwise
+	 */
+	public boolean hasEntityDigests() {
+		return entityDigests != null;
+	}
+
+
+	/**
+	 * Get the root digest
+	 * @return Root digest (high and low 64 bits)
+	 */
+	public long[] getRootDigest() {
+		return root.clone();
+	}
+
+
+	/**
+	 * Get the root digest as a hexadecimal string
+	 * @return Root digest
+	 */
+	public String toString() {
+		return String.format("%016x%016x", root[0], root[1]);
+	}
+}
@@ -19,18 +19,19 @@
 package uk.ac.manchester.cs.diff.utils;
 
 import java.io.File;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.RecursiveTask;
 
+import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.io.IRIDocumentSource;
-import org.semanticweb.owlapi.model.AxiomType;
 import org.semanticweb.owlapi.model.IRI;
-import org.semanticweb.owlapi.model.OWLAxiom;
-import org.semanticweb.owlapi.model.OWLDisjointClassesAxiom;
-import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.MissingImportEvent;
+import org.semanticweb.owlapi.model.MissingImportHandlingStrategy;
+import org.semanticweb.owlapi.model.MissingImportListener;
 import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyIRIMapper;
 import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
 
@@ -44,100 +45,167 @@ public class OntologyLoader extends RecursiveTask<OWLOntology> {
 	private static final long serialVersionUID = -5909585243181647744L;
 	private OWLOntologyManager man;
 	private OWLOntologyLoaderConfiguration config;
-	private boolean processImports, ignoreAbox, localFile;
+	private OntologySnapshotCache snapshotCache;
+	private ImportClosureCache importCache;
+	private boolean localFile, fromSnapshot;
 	private int ontNr;
 	private String filepath;
+	private List<String> importErrors;
+	private double loadTime;
 	
 	
-	public OntologyLoader(OWLOntologyManager man, OWLOntologyLoaderConfiguration config, 
-			int ontNr, String filepath, boolean processImports, boolean ignoreAbox, boolean localFile) {
+	/**
+	 * Constructor
+	 * @param config	Ontology loader configuration
+	 * @param ontNr	Ontology number
+	 * @param filepath	Ontology file path or URL
+	 * @param localFile	true if the ontology is a file in the local file system, false otherwise
+	 */
+	public OntologyLoader(OWLOntologyLoaderConfiguration config, int ontNr, String filepath, boolean localFile) {
+		this(OWLManager.createOWLOntologyManager(), config, ontNr, filepath, localFile);
+	}
+	
+	
+	/**
+	 * Constructor
+	 * @param man	OWL ontology manager to load the ontology (and its imports) into
+	 * @param config	Ontology loader configuration
+	 * @param ontNr	Ontology number
+	 * @param filepath	Ontology file path or URL
+	 * @param localFile	true if the ontology is a file in the local file system, false otherwise
+	 */
+	public OntologyLoader(OWLOntologyManager man, OWLOntologyLoaderConfiguration config, int ontNr, String filepath, boolean localFile) {
 		this.man = man;
 		this.config = config;
 		this.ontNr = ontNr;
 		this.filepath = filepath;
-		this.processImports = processImports;
-		this.ignoreAbox = ignoreAbox;
 		this.localFile = localFile;
+		importErrors = new ArrayList<String>();
 	}
 	
+	
 	@Override
 	protected OWLOntology compute() {
-		String sep = null;
-		if(localFile) sep = System.getProperty("file.separator");
-		else sep = "/";
+		String path = filepath;
+		if(path.contains("\\")) path = path.replace("\\", "/");
 		
-		String filename = filepath.substring(filepath.lastIndexOf(sep)+1, filepath.length());
-		System.out.println("Input " + ontNr + ": " + filename + " (" + filepath + ")");
+		MissingImportListener importListener = new MissingImportListener() {
+			@Override
+			public void importMissing(MissingImportEvent event) {
+				importErrors.add(event.getImportedOntologyURI() + " (" + event.getCreationException().getMessage() + ")");
+			}
+		};
+		// With an import cache, imports are resolved from the catalog once the root ontology is parsed
+		OWLOntologyLoaderConfiguration config = this.config;
+		OWLOntologyIRIMapper noImportMapper = ImportClosureCache.getNoImportMapper();
+		if(importCache != null) {
+			man.addIRIMapper(noImportMapper);
+			config = config.setMissingImportHandlingStrategy(MissingImportHandlingStrategy.SILENT);
+		}
+		else
+			man.addMissingImportListener(importListener);
 		
-		// Load ontology
+		// Load ontology and its imports closure, or rebuild it from a snapshot of a previous parse
+		long start = System.currentTimeMillis();
 		OWLOntology ont = null;
+		String snapshotKey = null;
+		if(snapshotCache != null && localFile) {
+			snapshotKey = snapshotCache.getKey(new File(path));
+			if(snapshotKey != null) ont = snapshotCache.load(snapshotKey, man);
+			if(ont != null) {
+				fromSnapshot = true;
+				loadTime = (System.currentTimeMillis()-start)/1000.0;
+				man.removeMissingImportListener(importListener);
+				return ont;
+			}
+		}
 		try {
-			if(localFile) ont = man.loadOntologyFromOntologyDocument(new IRIDocumentSource(IRI.create("file:" + new File(filepath))), config);
-			else ont = man.loadOntologyFromOntologyDocument(new IRIDocumentSource(IRI.create(filepath)));
+			if(localFile) ont = man.loadOntologyFromOntologyDocument(new IRIDocumentSource(IRI.create("file:///" + path)), config);
+			else ont = man.loadOntologyFromOntologyDocument(new IRIDocumentSource(IRI.create(path)), config);
 		} catch (OWLOntologyCreationException e) {
-			System.out.println("[Invalid IRI]\tUnable to load ontology " + ontNr + ".\n\tInput: " + filepath);
+			System.err.println("[Load error]\tUnable to load ontology " + ontNr + ". Input: " + filepath);
+			e.printStackTrace();
 		}
-		
-		Set<OWLAxiom> result = null;
-		if(ont != null) {
-			if(ignoreAbox) removeAbox(ont);
-			result = ont.getAxioms();
-			System.out.println("\tLoaded ontology " + ontNr + " (" + ont.getLogicalAxiomCount() + " logical axioms)");
-			
-			// Process imports
-			if(processImports) {
-				if(!ont.getImportsDeclarations().isEmpty()) {
-					for(OWLImportsDeclaration d : ont.getImportsDeclarations()) {
-						try {
-							OWLOntology imported = man.loadOntology(d.getIRI());
-							result.addAll(imported.getLogicalAxioms());
-							man.removeOntology(imported);
-						} catch (OWLOntologyCreationException e) {
-							System.out.println("[Invalid IRI]\tUnable to load the imported ontology: " + d.getIRI());
-						}
-					}
-				}
-			}
-			normalize(result);
-			man.removeOntology(ont);
+		if(importCache != null) {
+			man.removeIRIMapper(noImportMapper);
+			if(ont != null) importCache.addImportsClosure(ont, importErrors);
 		}
-		OWLOntology out = null;
-		if(result != null) {
-			try {
-				out = man.createOntology(result);
-			} catch (OWLOntologyCreationException e) {
-				e.printStackTrace();
-			}
-		} 
-		return out;
+		// Snapshots of ontologies with missing imports are not stored, so that a later run can retry the imports
+		if(ont != null && snapshotKey != null && importErrors.isEmpty())
+			snapshotCache.save(snapshotKey, ont);
+		loadTime = (System.currentTimeMillis()-start)/1000.0;
+		man.removeMissingImportListener(importListener);
+		return ont;
 	}
 	
 	
 	/**
-	 * Given a set of axioms, remove unary disjointness axioms
-	 * @param set	Set of axioms to analyse
-	 * @return Set of axioms without unary disjointness axioms
+	 * Set the snapshot cache used to skip parsing of previously loaded (local) ontology files
+	 * @param snapshotCache	Ontology snapshot cache
 	 */
-	private Set<OWLAxiom> normalize(Set<OWLAxiom> set) {
-		Set<OWLAxiom> toRemove = new HashSet<OWLAxiom>();
-		for(OWLAxiom ax : set) {
-			if(ax.isOfType(AxiomType.DISJOINT_CLASSES)) {
-				OWLDisjointClassesAxiom dis = (OWLDisjointClassesAxiom)ax;
-				if(dis.getClassesInSignature().size() < 2)
-					toRemove.add(ax);
-			}
-		}
-		set.removeAll(toRemove);
-		return set;
+	public void setSnapshotCache(OntologySnapshotCache snapshotCache) {
+		this.snapshotCache = snapshotCache;
 	}
 	
-
+	
 	/**
-	 * Remove Abox axioms from given ontology
-	 * @param ont	Ontology to remove axioms from
+	 * Set the import cache used to resolve the imports closure from a local catalog, instead of following imports
+	 * @param importCache	Import closure cache, or null if imports should be followed by the ontology manager
 	 */
-	private void removeAbox(OWLOntology ont) {
-		Set<OWLAxiom> aboxAxs = ont.getABoxAxioms(true);
-		ont.getOWLOntologyManager().removeAxioms(ont, aboxAxs);
+	public void setImportCache(ImportClosureCache importCache) {
+		this.importCache = importCache;
+	}
+	
+	
+	/**
+	 * Check whether the ontology was rebuilt from a snapshot rather than parsed
+	 * @return true if the ontology was rebuilt from a snapshot, false otherwise
+	 */
+	public boolean isLoadedFromSnapshot() {
+		return fromSnapshot;
+	}
+	
+	
+	/**
+	 * Get the name of the ontology file
+	 * @return Ontology file name
+	 */
+	public String getFileName() {
+		return filepath.substring(filepath.lastIndexOf(File.separator)+1, filepath.length());
+	}
+	
+	
+	/**
+	 * Get the imports that could not be loaded
+	 * @return List of imports that could not be loaded, and the reason why
+	 */
+	public List<String> getImportErrors() {
+		return importErrors;
+	}
+	
+	
+	/**
+	 * Get the time spent loading the ontology and its imports
+	 * @return Load time (in seconds)
+	 */
+	public double getLoadTime() {
+		return loadTime;
+	}
+	
+	
+	/**
+	 * Print load statistics and import errors of the loaded ontology
+	 * @param ont	Loaded ontology, or null if loading failed
+	 */
+	public void printReport(OWLOntology ont) {
+		if(ont != null) {
+			int nrImports = ont.getImports().size(), nrAxioms = ont.getLogicalAxiomCount();
+			for(OWLOntology imported : ont.getImports())
+				nrAxioms += imported.getLogicalAxiomCount();
+			System.out.println("\tLoaded ontology " + ontNr + " (" + nrAxioms + " logical axioms, " + nrImports + " imports, " + loadTime + " secs" + 
+					(fromSnapshot ? ", from snapshot" : "") + ")");
+		}
+		for(String importError : importErrors)
+			System.out.println("\t[Import error] Unable to load an import of ontology " + ontNr + ": " + importError);
 	}
 }
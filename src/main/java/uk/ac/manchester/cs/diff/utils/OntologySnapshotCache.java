@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.util.VersionInfo;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Local on-disk cache of parsed ontologies. Entries are keyed by the SHA-256 digest of the ontology
+ * document together with the loader settings (imports processing, ABox removal and annotation loading),
+ * and hold a gzipped binary serialisation of the resulting axiom set. On a cache hit the ontology is
+ * rebuilt directly from the axioms, bypassing the OWL document parsers. Snapshots that include imported
+ * axioms also record the digest of each imported document, and are discarded on load once any of those
+ * documents has changed; ontologies whose imports are not local files are not cached in that case</p>
+ */
+public class OntologySnapshotCache {
+	private static final String FORMAT_VERSION = "ecco-snapshot-3", FILE_EXTENSION = ".snapshot";
+	private File cacheDir;
+	private boolean processImports, ignoreAbox, loadAnnotations;
+
+	/**
+	 * Constructor
+	 * @param cacheDir	Cache directory
+	 * @param processImports	true if imported axioms are included in the snapshot, false otherwise
+	 * @param ignoreAbox	true if ABox axioms of the root ontology are excluded from the snapshot, false otherwise
+	 * @param loadAnnotations	true if annotation axioms are loaded, false otherwise
+	 */
+	public OntologySnapshotCache(String cacheDir, boolean processImports, boolean ignoreAbox, boolean loadAnnotations) {
+		this.cacheDir = new File(cacheDir);
+		this.processImports = processImports;
+		this.ignoreAbox = ignoreAbox;
+		this.loadAnnotations = loadAnnotations;
+	}
+
+
+	/**
+	 * Get the cache key of the given ontology document under the current loader settings
+	 * @param file	Ontology document
+	 * @return Cache key, or null if the document could not be read
+	 */
+	public String getKey(File file) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			updateDigest(md, file);
+			String settings = FORMAT_VERSION + "|" + VersionInfo.getVersionInfo().getVersion() +
+					"|imports=" + processImports + "|ignoreAbox=" + ignoreAbox + "|annotations=" + loadAnnotations;
+			md.update(settings.getBytes("UTF-8"));
+			return toHex(md.digest());
+		} catch (IOException e) {
+			System.err.println("[Snapshot cache] Unable to read " + file + ": " + e.getMessage());
+		} catch (NoSuchAlgorithmException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+
+	/**
+	 * Update the given message digest with the content of the given file
+	 * @param md	Message digest
+	 * @param file	File
+	 * @throws IOException	IO exception
+	 */
+	static void updateDigest(MessageDigest md, File file) throws IOException {
+		InputStream in = new BufferedInputStream(new FileInputStream(file));
+		try {
+			byte[] buf = new byte[1 << 16];
+			int n;
+			while((n = in.read(buf)) != -1)
+				md.update(buf, 0, n);
+		} finally {
+			in.close();
+		}
+	}
+	
+	
+	/**
+	 * Rebuild the ontology stored under the given key
+	 * @param key	Cache key
+	 * @param man	OWL ontology manager in which to create the ontology
+	 * @return Ontology rebuilt from the snapshot, or null if there is no (readable) snapshot for the key
+	 */
+	@SuppressWarnings("unchecked")
+	public OWLOntology load(String key, OWLOntologyManager man) {
+		File f = getSnapshotFile(key);
+		if(!f.exists()) return null;
+		OWLOntology ont = null;
+		try {
+			ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(f))));
+			try {
+				String ontIri = (String) in.readObject(), versionIri = (String) in.readObject();
+				List<String> importFiles = (List<String>) in.readObject(), importDigests = (List<String>) in.readObject();
+				for(int i = 0; i < importFiles.size(); i++) {
+					File imported = new File(importFiles.get(i));
+					if(!imported.isFile() || !getDigest(imported).equals(importDigests.get(i))) {
+						System.err.println("[Snapshot cache] Ignoring stale snapshot " + f + ": imported document " + imported + " has changed");
+						return null;
+					}
+				}
+				List<OWLAxiom> axioms = (List<OWLAxiom>) in.readObject();
+				OWLOntologyID id = (ontIri == null ? new OWLOntologyID() :
+					new OWLOntologyID(IRI.create(ontIri), (versionIri == null ? null : IRI.create(versionIri))));
+				ont = man.createOntology(id);
+				man.addAxioms(ont, new HashSet<OWLAxiom>(axioms));
+			} finally {
+				in.close();
+			}
+		} catch (IOException | ClassNotFoundException | NoSuchAlgorithmException | OWLOntologyCreationException e) {
+			System.err.println("[Snapshot cache] Ignoring unreadable snapshot " + f + ": " + e.getMessage());
+			if(ont != null) man.removeOntology(ont);
+			ont = null;
+		}
+		return ont;
+	}
+
+
+	/**
+	 * Store the axioms of the given ontology (filtered according to the loader settings) under the given key, 
+	 * together with the digests of the imported documents whose axioms are included. As in preprocessing, ABox
+	 * axioms are only left out of the root ontology. Nothing is stored if any 
+	 * such document is not a local file, since it could not be checked for changes on load
+	 * @param key	Cache key
+	 * @param ont	Loaded ontology
+	 */
+	public void save(String key, OWLOntology ont) {
+		List<OWLAxiom> axioms = new ArrayList<OWLAxiom>();
+		for(OWLAxiom ax : ont.getAxioms())
+			if(!ignoreAbox || !ax.isOfType(AxiomType.ABoxAxiomTypes)) axioms.add(ax);
+		ArrayList<String> importFiles = new ArrayList<String>(), importDigests = new ArrayList<String>();
+		if(processImports) {
+			for(OWLOntology imported : ont.getImports()) {
+				IRI documentIRI = imported.getOWLOntologyManager().getOntologyDocumentIRI(imported);
+				File doc = (documentIRI != null && "file".equalsIgnoreCase(documentIRI.getScheme()) ? new File(documentIRI.toURI()) : null);
+				if(doc == null || !doc.isFile()) return;
+				try {
+					importDigests.add(getDigest(doc));
+				} catch (IOException | NoSuchAlgorithmException e) {
+					System.err.println("[Snapshot cache] Unable to read imported document " + doc + ": " + e.getMessage());
+					return;
+				}
+				importFiles.add(doc.getAbsolutePath());
+				axioms.addAll(imported.getAxioms());
+			}
+		}
+		OWLOntologyID id = ont.getOntologyID();
+		String ontIri = (id.getOntologyIRI() == null ? null : id.getOntologyIRI().toString());
+		String versionIri = (id.getVersionIRI() == null ? null : id.getVersionIRI().toString());
+
+		cacheDir.mkdirs();
+		File f = getSnapshotFile(key), tmp = new File(cacheDir, key + ".tmp" + Thread.currentThread().getId());
+		try {
+			ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(tmp))));
+			try {
+				out.writeObject(ontIri);
+				out.writeObject(versionIri);
+				out.writeObject(importFiles);
+				out.writeObject(importDigests);
+				out.writeObject(axioms);
+			} finally {
+				out.close();
+			}
+			if(!tmp.renameTo(f)) tmp.delete();
+		} catch (IOException e) {
+			System.err.println("[Snapshot cache] Unable to write snapshot " + f + ": " + e.getMessage());
+			tmp.delete();
+		}
+	}
+
+
+	/**
+	 * Get the SHA-256 digest of the content of the given file
+	 * @param file	File
+	 * @return Hexadecimal digest
+	 * @throws IOException	IO exception
+	 * @throws NoSuchAlgorithmException	No such algorithm exception
+	 */
+	private static String getDigest(File file) throws IOException, NoSuchAlgorithmException {
+		MessageDigest md = MessageDigest.getInstance("SHA-256");
+		updateDigest(md, file);
+		return toHex(md.digest());
+	}
+
+
+	/**
+	 * Get the snapshot file for the given key
+	 * @param key	Cache key
+	 * @return Snapshot file
+	 */
+	private File getSnapshotFile(String key) {
+		return new File(cacheDir, key + FILE_EXTENSION);
+	}
+
+
+	/**
+	 * Get the hexadecimal representation of the given bytes
+	 * @param bytes	Byte array
+	 * @return Hexadecimal string
+	 */
+	static String toHex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder();
+		for(byte b : bytes)
+			sb.append(String.format("%02x", b));
+		return sb.toString();
+	}
+}
@@ -0,0 +1,329 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.ReasonerInterruptedException;
+import org.semanticweb.owlapi.reasoner.TimeOutException;
+
+import uk.ac.manchester.cs.diff.utils.ReasonerLoader.ReasonerType;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Portfolio of HermiT and JFact for entailment checks over an ontology. Each check runs on the given (primary)
+ * reasoner, in the calling thread, and if it exceeds a threshold the same check is raced on a reasoner of the other
+ * engine, in parallel. The first answer wins and the other check is interrupted. HermiT reasoners remain usable
+ * after an interrupt, but JFact ones do not (they never clear their interrupt flag), so interrupted JFact reasoners
+ * of the portfolio are disposed of, and a primary JFact reasoner that lost a race must be discarded by the caller
+ * (see {@link #mustDiscard(OWLReasoner)})</p>
+ */
+public class PortfolioEntailmentChecker {
+	private final OWLOntology ont;
+	private final long threshold;
+	private final ScheduledExecutorService watchdog;
+	private final ExecutorService racers;
+	private final LinkedBlockingQueue<OWLReasoner> idleHermit, idleJFact;
+	private final Set<OWLReasoner> discarded;
+	private final AtomicInteger races = new AtomicInteger();
+	private final AtomicInteger[] answers = { new AtomicInteger(), new AtomicInteger() }, wins = { new AtomicInteger(), new AtomicInteger() };
+	private final AtomicLong[] latency = { new AtomicLong(), new AtomicLong() };
+
+	/**
+	 * Constructor
+	 * @param ont	Ontology loaded into the primary reasoners
+	 * @param threshold	Time (in milliseconds) after which a check is raced on the other engine
+	 */
+	public PortfolioEntailmentChecker(OWLOntology ont, long threshold) {
+		this.ont = ont;
+		this.threshold = Math.max(0, threshold);
+		ThreadFactory daemons = new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "entailment-portfolio");
+				t.setDaemon(true);
+				return t;
+			}
+		};
+		watchdog = Executors.newSingleThreadScheduledExecutor(daemons);
+		racers = Executors.newCachedThreadPool(daemons);
+		idleHermit = new LinkedBlockingQueue<OWLReasoner>();
+		idleJFact = new LinkedBlockingQueue<OWLReasoner>();
+		discarded = Collections.newSetFromMap(new IdentityHashMap<OWLReasoner,Boolean>());
+	}
+
+
+	/**
+	 * Check whether the given axiom is entailed by the ontology, racing the primary reasoner against the other
+	 * engine if the check exceeds the threshold
+	 * @param primary	HermiT or JFact reasoner loaded with the ontology, used exclusively by the calling thread
+	 * @param axiom	OWL axiom
+	 * @return true if the axiom is entailed, false otherwise
+	 */
+	public boolean isEntailed(OWLReasoner primary, OWLAxiom axiom) {
+		ReasonerType primaryType = ReasonerLoader.getReasonerType(primary);
+		if(primaryType == null) return primary.isEntailed(axiom);
+		Race race = new Race(primary, primaryType, axiom);
+		ScheduledFuture<?> alarm = watchdog.schedule(race, threshold, TimeUnit.MILLISECONDS);
+		boolean entailed = false, interrupted = false;
+		try {
+			entailed = primary.isEntailed(axiom);
+		} catch (ReasonerInterruptedException | TimeOutException e) {
+			interrupted = true;
+		}
+		alarm.cancel(false);
+		Boolean result = race.finishPrimary(entailed, interrupted);
+		if(result == null) throw new ReasonerInterruptedException("Entailment check interrupted outside of the portfolio race");
+		return result;
+	}
+
+
+	/**
+	 * Check whether the given primary reasoner was interrupted after losing a race and cannot be trusted anymore,
+	 * in which case it must be discarded by the caller. This is only the case for JFact reasoners
+	 * @param primary	Primary reasoner
+	 * @return true if the reasoner must be discarded, false otherwise
+	 */
+	public boolean mustDiscard(OWLReasoner primary) {
+		synchronized(discarded) {
+			return discarded.remove(primary);
+		}
+	}
+
+
+	/**
+	 * Get the number of checks that exceeded the threshold and were raced on both engines
+	 * @return Number of races
+	 */
+	public int getRaceCount() {
+		return races.get();
+	}
+
+
+	/**
+	 * Get the number of races won by the given engine
+	 * @param type	HermiT or JFact
+	 * @return Number of races won
+	 */
+	public int getWinCount(ReasonerType type) {
+		return wins[type.ordinal()].get();
+	}
+
+
+	/**
+	 * Get the number of checks answered by the given engine, whether raced or not
+	 * @param type	HermiT or JFact
+	 * @return Number of answered checks
+	 */
+	public int getAnswerCount(ReasonerType type) {
+		return answers[type.ordinal()].get();
+	}
+
+
+	/**
+	 * Get the mean time taken by the checks answered by the given engine
+	 * @param type	HermiT or JFact
+	 * @return Mean latency (in milliseconds), or 0 if the engine answered no checks
+	 */
+	public double getMeanLatency(ReasonerType type) {
+		int n = answers[type.ordinal()].get();
+		return (n == 0 ? 0 : latency[type.ordinal()].get() / (double)n);
+	}
+
+
+	/**
+	 * Get a summary of the portfolio statistics
+	 * @return Number of races and, per engine, races won, checks answered and their mean latency
+	 */
+	public String toString() {
+		StringBuilder sb = new StringBuilder(races.get() + " races");
+		for(ReasonerType type : new ReasonerType[] { ReasonerType.HERMIT, ReasonerType.JFACT }) {
+			sb.append(", " + type + ": " + getWinCount(type) + " won, " + getAnswerCount(type) + " answered in " +
+					String.format("%.1f", getMeanLatency(type)) + " ms on average");
+		}
+		return sb.toString();
+	}
+
+
+	/**
+	 * Stop the portfolio threads and dispose of the reasoners created by the portfolio
+	 */
+	public void dispose() {
+		watchdog.shutdownNow();
+		racers.shutdownNow();
+		for(OWLReasoner r : idleHermit) r.dispose();
+		for(OWLReasoner r : idleJFact) r.dispose();
+		idleHermit.clear(); idleJFact.clear();
+	}
+
+
+	/**
+	 * Acquire an idle reasoner of the given engine, creating one if none is idle
+	 * @param type	HermiT or JFact
+	 * @return Reasoner instance
+	 */
+	private OWLReasoner acquire(ReasonerType type) {
+		OWLReasoner reasoner = (type == ReasonerType.HERMIT ? idleHermit : idleJFact).poll();
+		if(reasoner != null) return reasoner;
+		// As in ReasonerPool, reasoners for the same ontology are loaded one at a time
+		synchronized(ont) {
+			return new ReasonerLoader(ont).createReasoner(type, false);
+		}
+	}
+
+
+	/**
+	 * Race between a check on a primary reasoner and the same check on a reasoner of the other engine. The first
+	 * check to finish closes the race, under the race lock, and only then interrupts the other check, so an answer
+	 * given by a reasoner after it was interrupted is never used
+	 */
+	private class Race implements Runnable {
+		private final OWLReasoner primary;
+		private final ReasonerType primaryType, otherType;
+		private final OWLAxiom axiom;
+		private final long start;
+		private OWLReasoner other;
+		private Boolean result;
+		private boolean raced, closed, primaryInterrupted;
+
+		Race(OWLReasoner primary, ReasonerType primaryType, OWLAxiom axiom) {
+			this.primary = primary;
+			this.primaryType = primaryType;
+			this.otherType = (primaryType == ReasonerType.HERMIT ? ReasonerType.JFACT : ReasonerType.HERMIT);
+			this.axiom = axiom;
+			this.start = System.currentTimeMillis();
+		}
+
+		/**
+		 * Start the check on the other engine, once the threshold is exceeded
+		 */
+		@Override
+		public void run() {
+			synchronized(this) {
+				if(closed) return;
+				raced = true;
+			}
+			races.incrementAndGet();
+			racers.execute(new Runnable() {
+				@Override
+				public void run() {
+					runOther();
+				}
+			});
+		}
+
+		/**
+		 * Run the check on a reasoner of the other engine, and close the race if it is still open
+		 */
+		private void runOther() {
+			OWLReasoner reasoner = acquire(otherType);
+			synchronized(this) {
+				if(closed) {
+					release(reasoner, false);
+					return;
+				}
+				other = reasoner;
+			}
+			boolean entailed = false, failed = false;
+			try {
+				entailed = reasoner.isEntailed(axiom);
+			} catch (ReasonerInterruptedException | TimeOutException e) {
+				failed = true;
+			}
+			boolean interrupted;
+			synchronized(this) {
+				interrupted = closed;
+				if(!closed && !failed) {
+					close(entailed, otherType);
+					primaryInterrupted = true;
+					primary.interrupt();
+				}
+				other = null;
+			}
+			release(reasoner, interrupted || failed);
+		}
+
+		/**
+		 * Finish the check on the primary reasoner, closing the race if it is still open
+		 * @param entailed	Answer of the primary reasoner
+		 * @param interrupted	true if the primary check was interrupted, false if it returned an answer
+		 * @return Answer of the race winner, or null if the primary check was interrupted by some other party
+		 */
+		synchronized Boolean finishPrimary(boolean entailed, boolean interrupted) {
+			if(!closed) {
+				if(interrupted) {
+					closed = true;
+					if(other != null) other.interrupt();
+					return null;
+				}
+				close(entailed, primaryType);
+				if(other != null) other.interrupt();
+			}
+			else if(primaryInterrupted && primaryType == ReasonerType.JFACT) {
+				synchronized(discarded) {
+					discarded.add(primary);
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Close the race with the answer of the given engine
+		 * @param entailed	Answer
+		 * @param winner	Engine that gave the answer
+		 */
+		private void close(boolean entailed, ReasonerType winner) {
+			closed = true;
+			result = entailed;
+			answers[winner.ordinal()].incrementAndGet();
+			latency[winner.ordinal()].addAndGet(System.currentTimeMillis() - start);
+			if(raced) wins[winner.ordinal()].incrementAndGet();
+		}
+
+		/**
+		 * Return a reasoner of the other engine to the idle reasoners, or dispose of it if it was interrupted and
+		 * is a JFact reasoner
+		 * @param reasoner	Reasoner instance
+		 * @param interrupted	true if the reasoner may have been interrupted, false otherwise
+		 */
+		private void release(OWLReasoner reasoner, boolean interrupted) {
+			if(otherType == ReasonerType.JFACT) {
+				if(interrupted) reasoner.dispose();
+				else idleJFact.add(reasoner);
+			}
+			else idleHermit.add(reasoner);
+		}
+	}
+}
@@ -25,6 +25,7 @@ import java.util.Set;
  * Information Management Group (IMG) <br>
  * School of Computer Science <br>
  * University of Manchester <br>
+ * <p>Progress monitor, which may be shared by several threads</p>
  */
 public class ProgressMonitor {
 	private Integer total;
@@ -39,11 +40,20 @@ public class ProgressMonitor {
 	}
 	
 	
+	/**
+	 * Constructor
+	 * @param total	Number of objects
+	 */
+	public ProgressMonitor(int total) {
+		this.total = total;
+	}
+	
+	
 	/**
 	 * Increment the number of processed objects by 1
 	 * @return Percentage of objects processed
 	 */
-	public Integer incrementProgress() {
+	public synchronized Integer incrementProgress() {
 		if(done == null) 
 			done = 1.0;
 		else 
@@ -57,7 +67,7 @@ public class ProgressMonitor {
 	 * @param increment	Amount to increment
 	 * @return Percentage of objects processed
 	 */
-	public Integer incrementProgress(int increment) {
+	public synchronized Integer incrementProgress(int increment) {
 		if(done == null) 
 			done = increment + 0.0;
 		else 
@@ -70,7 +80,7 @@ public class ProgressMonitor {
 	 * Get the percentage of objects processed
 	 * @return Percentage of objects processed
 	 */
-	public Integer getPercentDone() {
+	public synchronized Integer getPercentDone() {
 		return (int) ((done/total)*100.0);
 	}
 }
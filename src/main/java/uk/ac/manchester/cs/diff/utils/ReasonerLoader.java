@@ -39,6 +39,7 @@ import uk.ac.manchester.cs.jfact.JFactReasoner;
 public class ReasonerLoader {
 	private OWLOntology ont;
 	private boolean verbose = false;
+	private ReasonerType type;
 	
 	/**
 	 * Constructor
@@ -66,6 +67,21 @@ public class ReasonerLoader {
 	 * @return Reasoner instance
 	 */
 	public OWLReasoner createReasoner(boolean useProgressMonitor) {
+		return createReasoner(ReasonerType.HERMIT, useProgressMonitor);
+	}
+	
+	
+	/**
+	 * Create a reasoner instance of the given type
+	 * @param type	Reasoner type
+	 * @param useProgressMonitor	true if a progress monitor should be used, false otherwise
+	 * @return Reasoner instance
+	 */
+	public OWLReasoner createReasoner(ReasonerType type, boolean useProgressMonitor) {
+		this.type = type;
+		if(type == ReasonerType.JFACT)
+			return createJFactReasoner(useProgressMonitor);
+		
 		Configuration config = new Configuration();
 		config.freshEntityPolicy = FreshEntityPolicy.ALLOW;
 		
@@ -80,6 +96,30 @@ public class ReasonerLoader {
 	}
 	
 	
+	/**
+	 * Get the type of the given reasoner instance
+	 * @param reasoner	Reasoner instance
+	 * @return Reasoner type, or null if the reasoner is neither HermiT nor JFact
+	 */
+	public static ReasonerType getReasonerType(OWLReasoner reasoner) {
+		if(reasoner instanceof Reasoner) return ReasonerType.HERMIT;
+		if(reasoner instanceof JFactReasoner) return ReasonerType.JFACT;
+		return null;
+	}
+	
+	
+	/**
+	 * Get the type of the given reasoner instance, or HermiT if the reasoner is neither HermiT nor JFact, e.g., to
+	 * create further reasoners of the same type as a given one
+	 * @param reasoner	Reasoner instance, or null if none
+	 * @return Reasoner type
+	 */
+	public static ReasonerType getConcreteType(OWLReasoner reasoner) {
+		ReasonerType type = (reasoner != null ? getReasonerType(reasoner) : null);
+		return (type != null ? type : ReasonerType.HERMIT);
+	}
+	
+	
 	/**
 	 * Create a FaCT++ reasoner instance
 	 * @return Reasoner instance
@@ -109,8 +149,20 @@ public class ReasonerLoader {
 	 * Create a JFact reasoner instance
 	 * @param useProgressMonitor	true if a progress monitor should be used, false otherwise
 	 * @return Reasoner instance
+	 * @deprecated	Misnamed, use {@link #createJFactReasoner(boolean)}
 	 */
+	@Deprecated
 	public OWLReasoner createHermitReasoner(boolean useProgressMonitor) {
+		return createJFactReasoner(useProgressMonitor);
+	}
+	
+	
+	/**
+	 * Create a JFact reasoner instance
+	 * @param useProgressMonitor	true if a progress monitor should be used, false otherwise
+	 * @return Reasoner instance
+	 */
+	public OWLReasoner createJFactReasoner(boolean useProgressMonitor) {
 		SimpleConfiguration config;
 		if(useProgressMonitor)
 			config = new SimpleConfiguration(new ConsoleProgressMonitor(), FreshEntityPolicy.ALLOW, Long.MAX_VALUE, IndividualNodeSetPolicy.BY_NAME);
@@ -135,4 +187,31 @@ public class ReasonerLoader {
 	public OWLOntology getOntology() {
 		return ont;
 	}
+	
+	
+	/**
+	 * Get the type of the last reasoner created by this loader
+	 * @return Reasoner type, or null if no reasoner has been created
+	 */
+	public ReasonerType getReasonerType() {
+		return type;
+	}
+	
+	
+	/**
+	 * @author Rafael S. Goncalves <br>
+	 * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+	 * School of Medicine, Stanford University <br>
+	 * <p>Reasoner types</p>
+	 */
+	public enum ReasonerType {
+		HERMIT, JFACT;
+		
+		public String toString() {
+			switch(this) {
+			case HERMIT: return "HermiT";
+			default: return "JFact";
+			}
+	    }
+	}
 }
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.diff.utils.ReasonerLoader.ReasonerType;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Pool of independent reasoner replicas over the same ontology, so that entailment checks can run in parallel
+ * (reasoner instances are not thread safe). Replicas are created on demand, up to the pool size, when all existing
+ * ones are in use. A primary reasoner given to the pool is used as one of the replicas, but not disposed of by it</p>
+ */
+public class ReasonerPool {
+	private final OWLOntology ont;
+	private final OWLReasoner primary;
+	private final ReasonerType type;
+	private final int size;
+	private final LinkedBlockingQueue<OWLReasoner> idle;
+	private final List<OWLReasoner> replicas;
+	private final AtomicInteger created;
+
+	/**
+	 * Constructor for a pool whose replicas are of the same type as the primary reasoner (or HermiT if none is given)
+	 * @param ont	Ontology loaded into each replica
+	 * @param primary	Reasoner instance already loaded with the ontology, or null if none
+	 * @param size	Maximum number of replicas (including the primary reasoner)
+	 */
+	public ReasonerPool(OWLOntology ont, OWLReasoner primary, int size) {
+		this(ont, primary, ReasonerLoader.getConcreteType(primary), size);
+	}
+
+
+	/**
+	 * Constructor
+	 * @param ont	Ontology loaded into each replica
+	 * @param primary	Reasoner instance already loaded with the ontology, or null if none
+	 * @param type	Type of the replicas created by the pool
+	 * @param size	Maximum number of replicas (including the primary reasoner)
+	 */
+	public ReasonerPool(OWLOntology ont, OWLReasoner primary, ReasonerType type, int size) {
+		this.ont = ont;
+		this.primary = primary;
+		this.type = type;
+		this.size = Math.max(1, size);
+		idle = new LinkedBlockingQueue<OWLReasoner>();
+		replicas = new ArrayList<OWLReasoner>();
+		created = new AtomicInteger();
+		if(primary != null) {
+			replicas.add(primary);
+			idle.add(primary);
+			created.set(1);
+		}
+	}
+
+
+	/**
+	 * Acquire a reasoner replica for exclusive use, creating one if none is idle and the pool is not full, or
+	 * waiting for one to be released otherwise
+	 * @return Reasoner replica
+	 * @throws InterruptedException	if interrupted while waiting for a replica
+	 */
+	public OWLReasoner acquire() throws InterruptedException {
+		OWLReasoner reasoner = idle.poll();
+		if(reasoner != null) return reasoner;
+		// Reserve a slot before creating the replica, so that other threads can wait for an idle replica meanwhile.
+		// Replicas of the same ontology are loaded one at a time, since the ontology is not safe for concurrent indexing
+		if(created.incrementAndGet() <= size) {
+			synchronized(ont) {
+				reasoner = new ReasonerLoader(ont).createReasoner(type, false);
+			}
+			synchronized(replicas) {
+				replicas.add(reasoner);
+			}
+			return reasoner;
+		}
+		return idle.take();
+	}
+
+
+	/**
+	 * Release a reasoner replica acquired from this pool
+	 * @param reasoner	Reasoner replica
+	 */
+	public void release(OWLReasoner reasoner) {
+		idle.add(reasoner);
+	}
+
+
+	/**
+	 * Discard a reasoner replica acquired from this pool that can no longer be used (e.g., because it was interrupted),
+	 * disposing of it unless it is the primary reasoner, and replacing it with a new replica. The replacement is created 
+	 * eagerly, since other threads may be waiting for an idle replica
+	 * @param reasoner	Reasoner replica
+	 */
+	public void discard(OWLReasoner reasoner) {
+		if(reasoner != primary) reasoner.dispose();
+		OWLReasoner replacement;
+		synchronized(ont) {
+			replacement = new ReasonerLoader(ont).createReasoner(type, false);
+		}
+		synchronized(replicas) {
+			replicas.remove(reasoner);
+			replicas.add(replacement);
+		}
+		idle.add(replacement);
+	}
+	
+	
+	/**
+	 * Get the number of replicas created so far (including the primary reasoner)
+	 * @return Number of replicas
+	 */
+	public int getReplicaCount() {
+		synchronized(replicas) {
+			return replicas.size();
+		}
+	}
+
+
+	/**
+	 * Dispose of the replicas created by the pool, i.e., all but the primary reasoner
+	 */
+	public void dispose() {
+		synchronized(replicas) {
+			for(OWLReasoner reasoner : replicas)
+				if(reasoner != primary) reasoner.dispose();
+			replicas.clear();
+			idle.clear();
+		}
+	}
+}
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.diff.utils.ReasonerLoader.ReasonerType;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Reasoners shared by all stages of a diff run, cached by ontology identity and version, so that each version
+ * of an ontology is loaded and classified once. The version of an ontology is given by the logical axioms in its
+ * imports closure. Declarations are not part of the version: declaring entities does not change the entailments
+ * over existing ones, and reasoners answer queries over fresh entities. Reasoners handed out by the session must
+ * not be disposed of by the stages that use them; the session disposes of them when the run ends</p>
+ */
+public class ReasonerSession {
+	private static final int MAX_VERSIONS = 2;
+	private final Map<OWLOntology,LinkedList<Entry>> reasoners;
+	private final ReasonerType type;
+	private final boolean verbose;
+	private int created, reused;
+
+	/**
+	 * Constructor
+	 * @param verbose	Verbose mode
+	 */
+	public ReasonerSession(boolean verbose) {
+		this(ReasonerType.HERMIT, verbose);
+	}
+
+
+	/**
+	 * Constructor
+	 * @param type	Type of the reasoners created
+	 * @param verbose	Verbose mode
+	 */
+	public ReasonerSession(ReasonerType type, boolean verbose) {
+		this.type = type;
+		this.verbose = verbose;
+		reasoners = new IdentityHashMap<OWLOntology,LinkedList<Entry>>();
+	}
+
+
+	/**
+	 * Get a reasoner loaded with the current version of the given ontology, creating one if none is cached. Up to
+	 * two versions per ontology are kept (e.g., before and while temporary axioms are added), the least recently
+	 * used one being disposed of beyond that
+	 * @param ont	OWL ontology
+	 * @return Reasoner instance
+	 */
+	public OWLReasoner getReasoner(OWLOntology ont) {
+		// Reasoners for the same ontology are created one at a time, as in ReasonerPool
+		synchronized(ont) {
+			Version version = new Version(ont);
+			LinkedList<Entry> entries;
+			synchronized(reasoners) {
+				entries = reasoners.get(ont);
+				if(entries == null) reasoners.put(ont, entries = new LinkedList<Entry>());
+				for(Iterator<Entry> it = entries.iterator(); it.hasNext();) {
+					Entry e = it.next();
+					if(e.version.equals(version)) {
+						it.remove(); entries.addFirst(e);
+						reused++;
+						return e.reasoner;
+					}
+				}
+			}
+			OWLReasoner reasoner = new ReasonerLoader(ont, verbose).createReasoner(type, false);
+			Entry evicted = null;
+			synchronized(reasoners) {
+				entries.addFirst(new Entry(version, reasoner));
+				if(entries.size() > MAX_VERSIONS) evicted = entries.removeLast();
+				created++;
+			}
+			if(evicted != null) evicted.reasoner.dispose();
+			return reasoner;
+		}
+	}
+
+
+	/**
+	 * Get a reasoner loaded with the current version of the given ontology, whose class hierarchy has been computed
+	 * @param ont	OWL ontology
+	 * @return Classified reasoner instance
+	 */
+	public OWLReasoner getClassifiedReasoner(OWLOntology ont) {
+		OWLReasoner reasoner = getReasoner(ont);
+		synchronized(reasoner) {
+			reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+		}
+		return reasoner;
+	}
+
+
+	/**
+	 * Get the number of reasoners created by this session
+	 * @return Number of reasoners created
+	 */
+	public int getCreatedCount() {
+		return created;
+	}
+
+
+	/**
+	 * Get the number of requests answered with a cached reasoner
+	 * @return Number of reused reasoners
+	 */
+	public int getReusedCount() {
+		return reused;
+	}
+
+
+	/**
+	 * Dispose of all reasoners except those loaded with the given ontology, which are kept for later use
+	 * @param keep	Ontology whose reasoners should be kept, or null if all reasoners should be disposed of
+	 */
+	public void dispose(OWLOntology keep) {
+		List<Entry> disposed = new ArrayList<Entry>();
+		synchronized(reasoners) {
+			for(Iterator<Map.Entry<OWLOntology,LinkedList<Entry>>> it = reasoners.entrySet().iterator(); it.hasNext();) {
+				Map.Entry<OWLOntology,LinkedList<Entry>> e = it.next();
+				if(e.getKey() != keep) {
+					disposed.addAll(e.getValue());
+					it.remove();
+				}
+			}
+		}
+		for(Entry e : disposed)
+			e.reasoner.dispose();
+	}
+
+
+	/**
+	 * Dispose of all reasoners
+	 */
+	public void dispose() {
+		dispose(null);
+	}
+
+
+	/**
+	 * Cached reasoner for a version of an ontology
+	 */
+	private static class Entry {
+		private final Version version;
+		private final OWLReasoner reasoner;
+
+		Entry(Version version, OWLReasoner reasoner) {
+			this.version = version;
+			this.reasoner = reasoner;
+		}
+	}
+
+
+	/**
+	 * Version of an ontology: the number of logical axioms in its imports closure, and the sum of their hash codes
+	 */
+	private static class Version {
+		private final int size;
+		private final long hash;
+
+		Version(OWLOntology ont) {
+			int size = 0; long hash = 0;
+			for(OWLOntology o : ont.getImportsClosure()) {
+				for(OWLAxiom ax : o.getLogicalAxioms()) {
+					size++; hash += ax.hashCode();
+				}
+			}
+			this.size = size;
+			this.hash = hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Version)) return false;
+			Version v = (Version)obj;
+			return size == v.size && hash == v.hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31*size + (int)(hash ^ (hash >>> 32));
+		}
+	}
+}
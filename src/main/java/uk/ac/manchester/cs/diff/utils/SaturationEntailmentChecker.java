@@ -0,0 +1,581 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDisjointClassesAxiom;
+import org.semanticweb.owlapi.model.OWLEquivalentClassesAxiom;
+import org.semanticweb.owlapi.model.OWLEquivalentObjectPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLObjectIntersectionOf;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyDomainAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLObjectSomeValuesFrom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubObjectPropertyOfAxiom;
+import org.semanticweb.owlapi.model.OWLTransitiveObjectPropertyAxiom;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Sound but incomplete entailment checker, used to settle cheap entailment checks before a (complete) DL reasoner
+ * is called. An axiom is entailed if it is told, i.e., asserted in the ontology up to annotations, or if it follows
+ * by EL saturation (completion rules over concept names, conjunctions, existential restrictions, the role hierarchy
+ * and transitive roles) from the EL parts of the ontology axioms. Saturation is lazy: only the concepts reachable
+ * from those in the checked axioms are saturated. If every logical axiom of the ontology is in the supported EL
+ * fragment, and the bottom concept is not used, the saturation is complete for SubClassOf, EquivalentClasses,
+ * ObjectPropertyDomain and object property inclusion axioms, so that non-entailments of these are settled too.
+ * Otherwise, checks that cannot be settled are left to the reasoner</p>
+ */
+public class SaturationEntailmentChecker {
+	private final OWLDataFactory df = OWLManager.getOWLDataFactory();
+	private final Set<OWLAxiom> toldAxioms = new HashSet<OWLAxiom>();
+	private final Map<OWLClassExpression,Set<OWLClassExpression>> toldSubsumers = new HashMap<OWLClassExpression,Set<OWLClassExpression>>();
+	private final Map<OWLObjectProperty,Set<OWLObjectProperty>> toldSuperRoles = new HashMap<OWLObjectProperty,Set<OWLObjectProperty>>();
+	private final Map<OWLObjectProperty,Set<OWLObjectProperty>> superRoles = new HashMap<OWLObjectProperty,Set<OWLObjectProperty>>();
+	private final Set<OWLObjectProperty> transitiveRoles = new HashSet<OWLObjectProperty>();
+	private final Map<OWLClassExpression,Set<OWLObjectIntersectionOf>> negConjunctions = new HashMap<OWLClassExpression,Set<OWLObjectIntersectionOf>>();
+	private final Map<OWLClassExpression,Set<OWLObjectSomeValuesFrom>> negExistentials = new HashMap<OWLClassExpression,Set<OWLObjectSomeValuesFrom>>();
+	private final Map<OWLClassExpression,Context> contexts = new HashMap<OWLClassExpression,Context>();
+	private final Deque<Object[]> todo = new ArrayDeque<Object[]>();
+	private boolean complete = true;
+	private int checks, resolved;
+
+	/**
+	 * Constructor
+	 * @param ont	Ontology, whose imports closure is used
+	 */
+	public SaturationEntailmentChecker(OWLOntology ont) {
+		List<OWLAxiom> axioms = new ArrayList<OWLAxiom>();
+		for(OWLOntology o : ont.getImportsClosure())
+			axioms.addAll(o.getLogicalAxioms());
+		init(axioms);
+	}
+
+
+	/**
+	 * Constructor
+	 * @param axioms	Set of axioms
+	 */
+	public SaturationEntailmentChecker(Collection<OWLAxiom> axioms) {
+		List<OWLAxiom> logical = new ArrayList<OWLAxiom>();
+		for(OWLAxiom ax : axioms)
+			if(ax.isLogicalAxiom()) logical.add(ax);
+		init(logical);
+	}
+
+
+	/**
+	 * Check whether the given axiom is entailed, as far as this checker can tell
+	 * @param axiom	OWL axiom
+	 * @return true if the axiom is entailed, false if it is not, or null if the check could not be settled
+	 */
+	public synchronized Boolean isEntailed(OWLAxiom axiom) {
+		checks++;
+		Boolean entailed = check(axiom);
+		if(entailed != null) resolved++;
+		return entailed;
+	}
+
+
+	/**
+	 * Check whether non-entailments are settled by this checker, i.e., whether all ontology axioms are in the
+	 * supported EL fragment
+	 * @return true if the saturation is complete, false otherwise
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+
+	/**
+	 * Get the number of checks made
+	 * @return Number of checks
+	 */
+	public synchronized int getCheckCount() {
+		return checks;
+	}
+
+
+	/**
+	 * Get the number of checks settled by this checker
+	 * @return Number of settled checks
+	 */
+	public synchronized int getResolvedCount() {
+		return resolved;
+	}
+
+
+	/**
+	 * Index the given logical axioms
+	 * @param axioms	Logical axioms
+	 */
+	private void init(Collection<OWLAxiom> axioms) {
+		for(OWLAxiom ax : axioms) {
+			toldAxioms.add(ax.getAxiomWithoutAnnotations());
+			if(ax.getClassesInSignature().contains(df.getOWLNothing())) complete = false;
+			if(ax.isOfType(AxiomType.SUBCLASS_OF)) {
+				OWLSubClassOfAxiom sub = (OWLSubClassOfAxiom)ax;
+				addToldSubsumption(sub.getSubClass(), sub.getSuperClass());
+			}
+			else if(ax.isOfType(AxiomType.EQUIVALENT_CLASSES)) {
+				List<OWLClassExpression> ces = ((OWLEquivalentClassesAxiom)ax).getClassExpressionsAsList();
+				for(OWLClassExpression c : ces)
+					for(OWLClassExpression d : ces)
+						if(!c.equals(d)) addToldSubsumption(c, d);
+			}
+			else if(ax.isOfType(AxiomType.OBJECT_PROPERTY_DOMAIN)) {
+				OWLObjectPropertyDomainAxiom dom = (OWLObjectPropertyDomainAxiom)ax;
+				addToldSubsumption(df.getOWLObjectSomeValuesFrom(dom.getProperty(), df.getOWLThing()), dom.getDomain());
+			}
+			else if(ax.isOfType(AxiomType.DISJOINT_CLASSES)) {
+				// Used for entailments only: disjointness involves the bottom concept
+				complete = false;
+				List<OWLClassExpression> ces = ((OWLDisjointClassesAxiom)ax).getClassExpressionsAsList();
+				for(int i = 0; i < ces.size(); i++)
+					for(int j = i+1; j < ces.size(); j++)
+						if(isEL(ces.get(i)) && isEL(ces.get(j)))
+							addToldSubsumption(df.getOWLObjectIntersectionOf(ces.get(i), ces.get(j)), df.getOWLNothing());
+			}
+			else if(ax.isOfType(AxiomType.SUB_OBJECT_PROPERTY)) {
+				OWLSubObjectPropertyOfAxiom sub = (OWLSubObjectPropertyOfAxiom)ax;
+				if(isNamed(sub.getSubProperty()) && isNamed(sub.getSuperProperty()))
+					addToldRoleInclusion(sub.getSubProperty().asOWLObjectProperty(), sub.getSuperProperty().asOWLObjectProperty());
+				else complete = false;
+			}
+			else if(ax.isOfType(AxiomType.EQUIVALENT_OBJECT_PROPERTIES)) {
+				Set<OWLObjectPropertyExpression> props = ((OWLEquivalentObjectPropertiesAxiom)ax).getProperties();
+				for(OWLObjectPropertyExpression p : props) {
+					for(OWLObjectPropertyExpression q : props) {
+						if(isNamed(p) && isNamed(q)) addToldRoleInclusion(p.asOWLObjectProperty(), q.asOWLObjectProperty());
+						else complete = false;
+					}
+				}
+			}
+			else if(ax.isOfType(AxiomType.TRANSITIVE_OBJECT_PROPERTY)) {
+				OWLObjectPropertyExpression p = ((OWLTransitiveObjectPropertyAxiom)ax).getProperty();
+				if(isNamed(p)) transitiveRoles.add(p.asOWLObjectProperty());
+				else complete = false;
+			}
+			// Without nominals or the bottom concept, EL assertions do not affect subsumptions between concepts
+			else if(ax.isOfType(AxiomType.CLASS_ASSERTION)) {
+				if(!isEL(((OWLClassAssertionAxiom)ax).getClassExpression())) complete = false;
+			}
+			else if(ax.isOfType(AxiomType.OBJECT_PROPERTY_ASSERTION)) {
+				if(!isNamed(((OWLObjectPropertyAssertionAxiom)ax).getProperty())) complete = false;
+			}
+			else if(!ax.isOfType(AxiomType.SAME_INDIVIDUAL, AxiomType.DIFFERENT_INDIVIDUALS))
+				complete = false;
+		}
+		// For a negative occurrence of (s some D), and a transitive subrole t of s, chains of t-edges to D must yield (t some D)
+		for(Set<OWLObjectSomeValuesFrom> exs : new ArrayList<Set<OWLObjectSomeValuesFrom>>(negExistentials.values())) {
+			for(OWLObjectSomeValuesFrom ex : new ArrayList<OWLObjectSomeValuesFrom>(exs)) {
+				for(OWLObjectProperty t : transitiveRoles)
+					if(getSuperRoles(t).contains(ex.getProperty()))
+						addNegativeOccurrence(df.getOWLObjectSomeValuesFrom(t, ex.getFiller()));
+			}
+		}
+	}
+
+
+	/**
+	 * Index a told subsumption between the given class expressions. The subsumption is used if the subclass is an EL
+	 * concept, for each EL conjunct of the superclass
+	 * @param sub	Subclass
+	 * @param sup	Superclass
+	 */
+	private void addToldSubsumption(OWLClassExpression sub, OWLClassExpression sup) {
+		if(!isEL(sub) || !isEL(sup)) complete = false;
+		if(!isEL(sub)) return;
+		addNegativeOccurrence(sub);
+		for(OWLClassExpression conjunct : sup.asConjunctSet()) {
+			if(isEL(conjunct) || conjunct.isOWLNothing()) {
+				Set<OWLClassExpression> subsumers = toldSubsumers.get(sub);
+				if(subsumers == null) toldSubsumers.put(sub, subsumers = new HashSet<OWLClassExpression>());
+				subsumers.add(conjunct);
+			}
+		}
+	}
+
+
+	/**
+	 * Index a told inclusion between the given roles
+	 * @param sub	Subproperty
+	 * @param sup	Superproperty
+	 */
+	private void addToldRoleInclusion(OWLObjectProperty sub, OWLObjectProperty sup) {
+		Set<OWLObjectProperty> sups = toldSuperRoles.get(sub);
+		if(sups == null) toldSuperRoles.put(sub, sups = new HashSet<OWLObjectProperty>());
+		sups.add(sup);
+	}
+
+
+	/**
+	 * Index the given class expression, and its subexpressions, as occurring on the left-hand side of a subsumption,
+	 * so that it is derived whenever its parts are
+	 * @param ce	EL class expression
+	 */
+	private void addNegativeOccurrence(OWLClassExpression ce) {
+		if(ce instanceof OWLObjectIntersectionOf) {
+			for(OWLClassExpression op : ((OWLObjectIntersectionOf)ce).getOperands()) {
+				Set<OWLObjectIntersectionOf> conjs = negConjunctions.get(op);
+				if(conjs == null) negConjunctions.put(op, conjs = new HashSet<OWLObjectIntersectionOf>());
+				conjs.add((OWLObjectIntersectionOf)ce);
+				addNegativeOccurrence(op);
+			}
+		}
+		else if(ce instanceof OWLObjectSomeValuesFrom) {
+			OWLObjectSomeValuesFrom ex = (OWLObjectSomeValuesFrom)ce;
+			Set<OWLObjectSomeValuesFrom> exs = negExistentials.get(ex.getFiller());
+			if(exs == null) negExistentials.put(ex.getFiller(), exs = new HashSet<OWLObjectSomeValuesFrom>());
+			exs.add(ex);
+			addNegativeOccurrence(ex.getFiller());
+		}
+	}
+
+
+	/**
+	 * Check whether the given axiom is entailed
+	 * @param axiom	OWL axiom
+	 * @return true if the axiom is entailed, false if it is not, or null if the check could not be settled
+	 */
+	private Boolean check(OWLAxiom axiom) {
+		if(!axiom.isLogicalAxiom()) return null;
+		if(toldAxioms.contains(axiom.getAxiomWithoutAnnotations())) return true;
+		if(axiom.isOfType(AxiomType.SUBCLASS_OF)) {
+			OWLSubClassOfAxiom sub = (OWLSubClassOfAxiom)axiom;
+			return checkSubsumption(sub.getSubClass(), sub.getSuperClass());
+		}
+		else if(axiom.isOfType(AxiomType.EQUIVALENT_CLASSES)) {
+			List<OWLClassExpression> ces = ((OWLEquivalentClassesAxiom)axiom).getClassExpressionsAsList();
+			Boolean entailed = true;
+			for(OWLClassExpression c : ces) {
+				for(OWLClassExpression d : ces) {
+					if(c.equals(d)) continue;
+					Boolean sub = checkSubsumption(c, d);
+					if(sub == null) entailed = null;
+					else if(!sub) return false;
+				}
+			}
+			return entailed;
+		}
+		else if(axiom.isOfType(AxiomType.OBJECT_PROPERTY_DOMAIN)) {
+			OWLObjectPropertyDomainAxiom dom = (OWLObjectPropertyDomainAxiom)axiom;
+			return checkSubsumption(df.getOWLObjectSomeValuesFrom(dom.getProperty(), df.getOWLThing()), dom.getDomain());
+		}
+		else if(axiom.isOfType(AxiomType.SUB_OBJECT_PROPERTY)) {
+			OWLSubObjectPropertyOfAxiom sub = (OWLSubObjectPropertyOfAxiom)axiom;
+			return checkRoleInclusion(sub.getSubProperty(), sub.getSuperProperty());
+		}
+		else if(axiom.isOfType(AxiomType.EQUIVALENT_OBJECT_PROPERTIES)) {
+			Set<OWLObjectPropertyExpression> props = ((OWLEquivalentObjectPropertiesAxiom)axiom).getProperties();
+			Boolean entailed = true;
+			for(OWLObjectPropertyExpression p : props) {
+				for(OWLObjectPropertyExpression q : props) {
+					Boolean sub = checkRoleInclusion(p, q);
+					if(sub == null) entailed = null;
+					else if(!sub) return false;
+				}
+			}
+			return entailed;
+		}
+		return null;
+	}
+
+
+	/**
+	 * Check whether the given subsumption is entailed, by evaluating the superclass over the saturated subclass
+	 * @param sub	Subclass
+	 * @param sup	Superclass
+	 * @return true if the subsumption is entailed, false if it is not, or null if the check could not be settled
+	 */
+	private Boolean checkSubsumption(OWLClassExpression sub, OWLClassExpression sup) {
+		if(sup.isOWLThing() || sub.isOWLNothing()) return true;
+		if(!isEL(sub) || !(isEL(sup) || sup.isOWLNothing())) return null;
+		Context ctx = getContext(sub);
+		saturate();
+		if(holds(ctx, sup)) return true;
+		return (complete ? false : null);
+	}
+
+
+	/**
+	 * Check whether the given role inclusion is entailed
+	 * @param sub	Subproperty
+	 * @param sup	Superproperty
+	 * @return true if the inclusion is entailed, false if it is not, or null if the check could not be settled
+	 */
+	private Boolean checkRoleInclusion(OWLObjectPropertyExpression sub, OWLObjectPropertyExpression sup) {
+		if(!isNamed(sub) || !isNamed(sup)) return null;
+		if(getSuperRoles(sub.asOWLObjectProperty()).contains(sup)) return true;
+		return (complete ? false : null);
+	}
+
+
+	/**
+	 * Check whether the given class expression holds in the given context of the canonical model built by saturation
+	 * @param ctx	Saturated context
+	 * @param ce	EL class expression
+	 * @return true if the class expression holds, false otherwise
+	 */
+	private boolean holds(Context ctx, OWLClassExpression ce) {
+		if(ctx.subsumers.contains(ce) || ctx.subsumers.contains(df.getOWLNothing()) || ce.isOWLThing()) return true;
+		if(ce instanceof OWLObjectIntersectionOf) {
+			for(OWLClassExpression op : ((OWLObjectIntersectionOf)ce).getOperands())
+				if(!holds(ctx, op)) return false;
+			return true;
+		}
+		else if(ce instanceof OWLObjectSomeValuesFrom) {
+			OWLObjectSomeValuesFrom ex = (OWLObjectSomeValuesFrom)ce;
+			OWLObjectProperty r = ex.getProperty().asOWLObjectProperty();
+			for(Map.Entry<OWLObjectProperty,Set<Context>> e : ctx.successors.entrySet()) {
+				if(!getSuperRoles(e.getKey()).contains(r)) continue;
+				for(Context succ : e.getValue())
+					if(holds(succ, ex.getFiller())) return true;
+			}
+			// Successors along chains of a transitive subrole of r
+			for(OWLObjectProperty t : transitiveRoles) {
+				if(!getSuperRoles(t).contains(r)) continue;
+				Set<Context> visited = new HashSet<Context>();
+				Deque<Context> queue = new ArrayDeque<Context>(Collections.singleton(ctx));
+				while(!queue.isEmpty()) {
+					Context c = queue.poll();
+					for(Map.Entry<OWLObjectProperty,Set<Context>> e : c.successors.entrySet()) {
+						if(!getSuperRoles(e.getKey()).contains(t)) continue;
+						for(Context succ : e.getValue()) {
+							if(!visited.add(succ)) continue;
+							if(holds(succ, ex.getFiller())) return true;
+							queue.add(succ);
+						}
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * Get the reflexive and transitive closure of the told superproperties of the given role
+	 * @param r	Object property
+	 * @return Set of superproperties
+	 */
+	private Set<OWLObjectProperty> getSuperRoles(OWLObjectProperty r) {
+		Set<OWLObjectProperty> sups = superRoles.get(r);
+		if(sups != null) return sups;
+		sups = new HashSet<OWLObjectProperty>();
+		Deque<OWLObjectProperty> queue = new ArrayDeque<OWLObjectProperty>(Collections.singleton(r));
+		while(!queue.isEmpty()) {
+			OWLObjectProperty p = queue.poll();
+			if(!sups.add(p)) continue;
+			Set<OWLObjectProperty> told = toldSuperRoles.get(p);
+			if(told != null) queue.addAll(told);
+		}
+		superRoles.put(r, sups);
+		return sups;
+	}
+
+
+	/**
+	 * Get the context of the given class expression, creating (and scheduling the saturation of) it if needed
+	 * @param ce	EL class expression
+	 * @return Context
+	 */
+	private Context getContext(OWLClassExpression ce) {
+		Context ctx = contexts.get(ce);
+		if(ctx == null) {
+			contexts.put(ce, ctx = new Context());
+			todo.add(new Object[] { ctx, ce });
+			todo.add(new Object[] { ctx, df.getOWLThing() });
+		}
+		return ctx;
+	}
+
+
+	/**
+	 * Apply the completion rules until no new subsumers or links are derived
+	 */
+	private void saturate() {
+		while(!todo.isEmpty()) {
+			Object[] item = todo.poll();
+			if(item.length == 2) addSubsumer((Context)item[0], (OWLClassExpression)item[1]);
+			else addLink((Context)item[0], (OWLObjectProperty)item[1], (Context)item[2]);
+		}
+	}
+
+
+	/**
+	 * Derive the given subsumer in the given context
+	 * @param ctx	Context
+	 * @param ce	Subsumer
+	 */
+	private void addSubsumer(Context ctx, OWLClassExpression ce) {
+		if(!ctx.subsumers.add(ce)) return;
+		if(ce instanceof OWLObjectIntersectionOf) {
+			for(OWLClassExpression op : ((OWLObjectIntersectionOf)ce).getOperands())
+				todo.add(new Object[] { ctx, op });
+		}
+		else if(ce instanceof OWLObjectSomeValuesFrom) {
+			OWLObjectSomeValuesFrom ex = (OWLObjectSomeValuesFrom)ce;
+			todo.add(new Object[] { ctx, ex.getProperty().asOWLObjectProperty(), getContext(ex.getFiller()) });
+		}
+		Set<OWLClassExpression> told = toldSubsumers.get(ce);
+		if(told != null) {
+			for(OWLClassExpression sup : told)
+				todo.add(new Object[] { ctx, sup });
+		}
+		Set<OWLObjectIntersectionOf> conjs = negConjunctions.get(ce);
+		if(conjs != null) {
+			for(OWLObjectIntersectionOf conj : conjs)
+				if(ctx.subsumers.containsAll(conj.getOperands())) todo.add(new Object[] { ctx, conj });
+		}
+		for(Link link : ctx.predecessors)
+			propagate(link, ce);
+	}
+
+
+	/**
+	 * Derive a link from the given source context to the given target context, with the given role
+	 * @param source	Source context
+	 * @param r	Object property
+	 * @param target	Target context
+	 */
+	private void addLink(Context source, OWLObjectProperty r, Context target) {
+		Link link = new Link(source, r);
+		if(!target.predecessors.add(link)) return;
+		Set<Context> succs = source.successors.get(r);
+		if(succs == null) source.successors.put(r, succs = new HashSet<Context>());
+		succs.add(target);
+		for(OWLClassExpression ce : target.subsumers)
+			propagate(link, ce);
+	}
+
+
+	/**
+	 * Propagate a subsumer of the target of the given link back to its source
+	 * @param link	Link into the context where the subsumer was derived
+	 * @param ce	Subsumer
+	 */
+	private void propagate(Link link, OWLClassExpression ce) {
+		if(ce.isOWLNothing()) {
+			todo.add(new Object[] { link.source, ce });
+			return;
+		}
+		Set<OWLObjectSomeValuesFrom> exs = negExistentials.get(ce);
+		if(exs != null) {
+			for(OWLObjectSomeValuesFrom ex : exs)
+				if(getSuperRoles(link.role).contains(ex.getProperty())) todo.add(new Object[] { link.source, ex });
+		}
+		// Transitivity: (r some (t some D)) implies (t some D) for a subrole r of t, where (t some D) occurs negatively
+		if(ce instanceof OWLObjectSomeValuesFrom) {
+			OWLObjectSomeValuesFrom ex = (OWLObjectSomeValuesFrom)ce;
+			OWLObjectProperty t = ex.getProperty().asOWLObjectProperty();
+			if(transitiveRoles.contains(t) && getSuperRoles(link.role).contains(t)) {
+				Set<OWLObjectSomeValuesFrom> negs = negExistentials.get(ex.getFiller());
+				if(negs != null && negs.contains(ex)) todo.add(new Object[] { link.source, ex });
+			}
+		}
+	}
+
+
+	/**
+	 * Check whether the given class expression is in the supported EL fragment: concept names (other than the bottom
+	 * concept), the top concept, conjunctions, and existential restrictions over object property names
+	 * @param ce	Class expression
+	 * @return true if the class expression is supported, false otherwise
+	 */
+	private boolean isEL(OWLClassExpression ce) {
+		if(!ce.isAnonymous()) return !ce.isOWLNothing();
+		if(ce instanceof OWLObjectIntersectionOf) {
+			for(OWLClassExpression op : ((OWLObjectIntersectionOf)ce).getOperands())
+				if(!isEL(op)) return false;
+			return true;
+		}
+		if(ce instanceof OWLObjectSomeValuesFrom) {
+			OWLObjectSomeValuesFrom ex = (OWLObjectSomeValuesFrom)ce;
+			return isNamed(ex.getProperty()) && isEL(ex.getFiller());
+		}
+		return false;
+	}
+
+
+	/**
+	 * Check whether the given object property expression is an object property name
+	 * @param p	Object property expression
+	 * @return true if the property is named, false otherwise
+	 */
+	private boolean isNamed(OWLObjectPropertyExpression p) {
+		return !p.isAnonymous();
+	}
+
+
+	/**
+	 * Saturation context of a class expression: its derived subsumers, and its links to and from other contexts
+	 */
+	private static class Context {
+		private final Set<OWLClassExpression> subsumers = new HashSet<OWLClassExpression>();
+		private final Map<OWLObjectProperty,Set<Context>> successors = new HashMap<OWLObjectProperty,Set<Context>>();
+		private final Set<Link> predecessors = new HashSet<Link>();
+	}
+
+
+	/**
+	 * Link into a context, from a source context with a role
+	 */
+	private static class Link {
+		private final Context source;
+		private final OWLObjectProperty role;
+
+		Link(Context source, OWLObjectProperty role) {
+			this.source = source;
+			this.role = role;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Link)) return false;
+			Link l = (Link)obj;
+			return source == l.source && role.equals(l.role);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31*System.identityHashCode(source) + role.hashCode();
+		}
+	}
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Inverted index from entities to the axioms whose signature contains them, used to find the axioms that share
+ * terms with a given axiom without comparing it against every indexed axiom. The index is not modified once built,
+ * so it can be queried by several threads</p>
+ */
+public class SignatureIndex {
+	private final List<OWLAxiom> axioms;
+	private final Map<OWLEntity,List<Integer>> index;
+
+	/**
+	 * Constructor
+	 * @param axioms	Axioms to index
+	 */
+	public SignatureIndex(Collection<OWLAxiom> axioms) {
+		this.axioms = new ArrayList<OWLAxiom>(axioms);
+		index = new HashMap<OWLEntity,List<Integer>>();
+		for(int i = 0; i < this.axioms.size(); i++) {
+			for(OWLEntity e : this.axioms.get(i).getSignature()) {
+				List<Integer> postings = index.get(e);
+				if(postings == null) {
+					postings = new ArrayList<Integer>(2);
+					index.put(e, postings);
+				}
+				postings.add(i);
+			}
+		}
+	}
+
+
+	/**
+	 * Get the indexed axioms that share at least one entity with the given axiom, ranked by the number of shared
+	 * entities, most first. Axioms sharing equally many entities are in indexing order
+	 * @param axiom	OWL axiom
+	 * @return List of indexed axioms whose signature overlaps that of the given axiom
+	 */
+	public List<OWLAxiom> getOverlappingAxioms(OWLAxiom axiom) {
+		final Map<Integer,Integer> overlaps = new HashMap<Integer,Integer>();
+		for(OWLEntity e : axiom.getSignature()) {
+			List<Integer> postings = index.get(e);
+			if(postings == null) continue;
+			for(Integer i : postings) {
+				Integer n = overlaps.get(i);
+				overlaps.put(i, (n == null ? 1 : n + 1));
+			}
+		}
+		if(overlaps.isEmpty()) return Collections.emptyList();
+		List<Integer> ranked = new ArrayList<Integer>(overlaps.keySet());
+		Collections.sort(ranked, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i, Integer j) {
+				int c = overlaps.get(j).compareTo(overlaps.get(i));
+				return (c != 0 ? c : i.compareTo(j));
+			}
+		});
+		List<OWLAxiom> result = new ArrayList<OWLAxiom>(ranked.size());
+		for(Integer i : ranked) result.add(axioms.get(i));
+		return result;
+	}
+
+
+	/**
+	 * Get the number of indexed axioms
+	 * @return Number of indexed axioms
+	 */
+	public int size() {
+		return axioms.size();
+	}
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Memo of whether axioms are tautologies, i.e., entailed by the empty ontology, which can be shared by several
+ * threads. Axioms not yet checked are first tried by an {@link AxiomEntailmentChecker} without premises, which each
+ * thread should own so that checks are not serialised, and only those left unsettled need a reasoner, whose result
+ * should then be added to the memo</p>
+ */
+public class TautologyChecker {
+	private final ConcurrentMap<OWLAxiom,Boolean> results = new ConcurrentHashMap<OWLAxiom,Boolean>();
+	private final AtomicInteger checks = new AtomicInteger(), resolved = new AtomicInteger();
+
+	/**
+	 * Check whether the given axiom is a tautology, as far as the memo or the given entailment checker can tell
+	 * @param axiom	OWL axiom
+	 * @param checker	Entailment checker without premises, owned by the calling thread, or null to only use the memo
+	 * @return true if the axiom is a tautology, false if it is not, or null if the check needs a reasoner
+	 */
+	public Boolean isTautology(OWLAxiom axiom, AxiomEntailmentChecker checker) {
+		checks.incrementAndGet();
+		OWLAxiom key = axiom.getAxiomWithoutAnnotations();
+		Boolean tautology = results.get(key);
+		if(tautology == null && checker != null) {
+			tautology = checker.isEntailed(key);
+			if(tautology != null) results.put(key, tautology);
+		}
+		if(tautology != null) resolved.incrementAndGet();
+		return tautology;
+	}
+
+
+	/**
+	 * Add the result of a tautology check made by a reasoner
+	 * @param axiom	OWL axiom
+	 * @param tautology	true if the axiom is a tautology, false otherwise
+	 */
+	public void put(OWLAxiom axiom, boolean tautology) {
+		results.put(axiom.getAxiomWithoutAnnotations(), tautology);
+	}
+
+
+	/**
+	 * Get the number of checks made
+	 * @return Number of checks
+	 */
+	public int getCheckCount() {
+		return checks.get();
+	}
+
+
+	/**
+	 * Get the number of checks settled by the memo or an entailment checker
+	 * @return Number of settled checks
+	 */
+	public int getResolvedCount() {
+		return resolved.get();
+	}
+}
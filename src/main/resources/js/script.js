@@ -375,7 +375,7 @@ var tooltip = function () {
 //Array of categories
 var allDivs = new Array("st", "stnt", "add", "addnt", "newdesc", "stequiv", "stequivnt", "arewrite",
 "aprw", "ared", "aavred", "anpred", "weak", "weakrt", "rem", "remrt", "retdesc", "wkequiv", "wkequivrt",
-"rrewrite", "rprw", "rred", "ravred", "rnpred");
+"rrewrite", "rprw", "rred", "ravred", "rnpred", "undadds", "undrems");
 
 var effAds = new Array("st", "stnt", "add", "addnt", "newdesc", "stequiv", "stequivnt");
 var inefAds = new Array("arewrite", "aprw", "ared", "aavred", "anpred");
@@ -383,6 +383,7 @@ var effRems = new Array("weak", "weakrt", "rem", "remrt", "retdesc", "wkequiv",
 var inefRems = new Array("rrewrite", "rprw", "rred", "ravred", "rnpred");
 
 var allTriggers = new Array('additions', 'effAddsTrigger', 'effAdds', 'ineffAddsTrigger',
-'ineffAdds', 'removals', 'effRemsTrigger', 'effRems', 'ineffRemsTrigger', 'ineffRems');
+'ineffAdds', 'removals', 'effRemsTrigger', 'effRems', 'ineffRemsTrigger', 'ineffRems', 'undAddsTrigger',
+'undRemsTrigger');
 
 var links = document.getElementsByTagName("a");
\ No newline at end of file
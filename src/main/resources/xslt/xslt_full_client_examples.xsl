@@ -281,6 +281,17 @@ If not, see http://www.gnu.org/licenses/
 									</xsl:if>
 								</ul>
 								</li>
+								<xsl:variable name="undrems"><xsl:value-of select="count(/root/Removals/Undetermined/Change)"/></xsl:variable>
+								<xsl:if test="$undrems > 0">
+								<br/>
+								<li id="undremstrig">
+									<xsl:text>  </xsl:text>
+									<input type="checkbox" name="undRemsTrigger" onClick="toggleDiv('undrems')"/><xsl:text>  </xsl:text>
+									<a href="#undrems"><h4 style="display:inline;">Undetermined (<xsl:value-of select="$undrems"/>)</h4></a><xsl:text>  </xsl:text>
+									<img src="images/info_bubble.png" alt="" align="right" width="14" height="14" class="hotspot" onmouseout="tooltip.hide();"
+										onmouseover="tooltip.show('Asserted axioms in Ontology 1, not asserted in Ontology 2, whose entailment check by Ontology 2 ran out of time; they are neither effectual nor ineffectual');"/> 
+								</li>
+								</xsl:if>
 							</ul>
 						</td>
 						<td class="topleft" style="vertical-align:top">
@@ -485,6 +496,17 @@ If not, see http://www.gnu.org/licenses/
 									</xsl:if>
 								</ul>
 								</li>
+								<xsl:variable name="undadds"><xsl:value-of select="count(/root/Additions/Undetermined/Change)"/></xsl:variable>
+								<xsl:if test="$undadds > 0">
+								<br/>
+								<li id="undaddstrig">
+									<xsl:text>  </xsl:text>
+									<input type="checkbox" name="undAddsTrigger" onClick="toggleDiv('undadds')"/><xsl:text>  </xsl:text>
+									<a href="#undadds"><h4 style="display:inline;">Undetermined (<xsl:value-of select="$undadds"/>)</h4></a><xsl:text>  </xsl:text>
+									<img src="images/info_bubble.png" alt="" align="right" width="14" height="14" class="hotspot" onmouseout="tooltip.hide();"
+										onmouseover="tooltip.show('Asserted axioms in Ontology 2, not asserted in Ontology 1, whose entailment check by Ontology 1 ran out of time; they are neither effectual nor ineffectual');"/> 
+								</li>
+								</xsl:if>
 							</ul>
 						</td>
 					</tr>
@@ -998,6 +1020,43 @@ If not, see http://www.gnu.org/licenses/
 	</xsl:template>
 
 
+	<!--                     UNDETERMINED CHANGES                     -->
+
+
+	<!-- Undetermined Additions -->
+	<xsl:template match="Additions/Undetermined">
+		<xsl:if test="child::node()">
+			<tbody id="undadds" style="display:none">
+				<tr class="withoutstyle">
+					<td colspan="3"><h4 style="display: inline-block;">Undetermined Additions (<xsl:value-of select="count(./*)"/>)</h4> [<a href="#">back to top</a>]</td>
+				</tr>
+				<tr>
+					<th class="addition">ID</th>
+					<th class="addition" colspan="4">Addition to Ontology 2</th>
+				</tr>
+				<xsl:apply-templates mode="OneColumnEffectualAddition"/>
+			</tbody>
+		</xsl:if>
+	</xsl:template>
+
+
+	<!-- Undetermined Removals -->
+	<xsl:template match="Removals/Undetermined">
+		<xsl:if test="child::node()">
+			<tbody id="undrems" style="display:none">
+				<tr class="withoutstyle">
+					<td colspan="3"><h4 style="display: inline-block;">Undetermined Removals (<xsl:value-of select="count(./*)"/>)</h4> [<a href="#">back to top</a>]</td>
+				</tr>
+				<tr>
+					<th class="removal">ID</th>
+					<th class="removal" colspan="4">Removal from Ontology 1</th>
+				</tr>
+				<xsl:apply-templates mode="OneColumnEffectualRemoval"/>
+			</tbody>
+		</xsl:if>
+	</xsl:template>
+
+
 	<!--                     CHANGE TEMPLATES                     -->
 
 
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import uk.ac.manchester.cs.diff.axiom.changeset.CategorisedChangeSet;
+import uk.ac.manchester.cs.diff.axiom.changeset.LogicalChangeSet;
+import uk.ac.manchester.cs.diff.axiom.changeset.StructuralChangeSet;
+import uk.ac.manchester.cs.diff.utils.EntailmentCache;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests of how {@link Ecco} preprocesses its input and configures the diffs it runs</p>
+ */
+public class EccoTest {
+	private File dir;
+	private OWLDataFactory df;
+	private OWLOntologyManager man1, man2;
+	private OWLOntology ont1, ont2;
+	private OWLAxiom ab, bc, ac, abc, xy, importedAssertion;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = Files.createTempDirectory("ecco").toFile();
+		df = OWLManager.getOWLDataFactory();
+		OWLClass a = getNamedClass("A"), b = getNamedClass("B"), c = getNamedClass("C"), x = getNamedClass("X"), y = getNamedClass("Y");
+		ab = df.getOWLSubClassOfAxiom(a, b);
+		bc = df.getOWLSubClassOfAxiom(b, c);
+		ac = df.getOWLSubClassOfAxiom(a, c);
+		abc = df.getOWLSubClassOfAxiom(a, df.getOWLObjectIntersectionOf(b, c));
+		xy = df.getOWLSubClassOfAxiom(x, y);
+		importedAssertion = df.getOWLClassAssertionAxiom(x, df.getOWLNamedIndividual(IRI.create("urn:test#i")));
+		man1 = OWLManager.createOWLOntologyManager();
+		man2 = OWLManager.createOWLOntologyManager();
+		ont1 = createImportingOntology(man1, Arrays.asList(ab, bc));
+		ont2 = createImportingOntology(man2, Arrays.asList(ab, ac));
+	}
+
+	@After
+	public void tearDown() {
+		delete(dir);
+	}
+
+	@Test
+	public void replacesInputsWithWorkingOntologies() {
+		EccoSettings settings = new EccoSettings();
+		settings.setIgnoreAbox(true);
+		StructuralChangeSet changeSet = new Ecco(ont1, ont2, settings).getStructuralAxiomChanges();
+		assertEquals(Collections.singleton(ac), changeSet.getAddedAxioms());
+		assertEquals(Collections.singleton(bc), changeSet.getRemovedAxioms());
+		// ABox axioms are only dropped from the root ontologies
+		assertEquals(new HashSet<OWLAxiom>(Arrays.asList(ab, xy, importedAssertion)), new HashSet<OWLAxiom>(changeSet.getShared()));
+		// The inputs and their imports are no longer held by their managers
+		assertTrue(man1.getOntologies().isEmpty());
+		assertTrue(man2.getOntologies().isEmpty());
+	}
+
+	@Test
+	public void sharedImportsAreCategorisedWithSettings() throws Exception {
+		EccoSettings settings = new EccoSettings();
+		settings.setProcessImports(true);
+		settings.setSharedImports(true);
+		settings.setNumberOfCategorisationThreads(1);
+		// The removed axiom is entailed by the added one, so the addition is a strengthening (with the new term C)
+		CategorisedChangeSet changeSet = new Ecco(createImportingOntology(OWLManager.createOWLOntologyManager(), Arrays.asList(ab)), 
+				createImportingOntology(OWLManager.createOWLOntologyManager(), Arrays.asList(abc)), settings).getCategorisedAxiomChanges();
+		assertEquals(1, changeSet.getStrengtheningsWithNewTerms().size());
+		assertEquals(Collections.singleton(ab), changeSet.getIneffectualRemovalAxioms());
+
+		// A cached result, which contradicts the reasoner, must be used by the strengthening check
+		OWLOntologyManager man = OWLManager.createOWLOntologyManager();
+		EntailmentCache cache = new EntailmentCache(dir.getPath());
+		cache.put(EntailmentCache.getDigest(man.createOntology(Collections.singleton(abc))), ab, false);
+		cache.save();
+		settings.setEntailmentCacheDirectory(dir.getPath());
+		changeSet = new Ecco(createImportingOntology(OWLManager.createOWLOntologyManager(), Arrays.asList(ab)), 
+				createImportingOntology(OWLManager.createOWLOntologyManager(), Arrays.asList(abc)), settings).getCategorisedAxiomChanges();
+		assertTrue(changeSet.getStrengtheningsWithNewTerms().isEmpty());
+		assertEquals(Collections.singleton(abc), changeSet.getEffectualAdditionAxioms());
+	}
+
+	@Test
+	public void diffsSeriesOfVersionsWithOneCache() throws Exception {
+		EccoSettings settings = new EccoSettings();
+		settings.setEntailmentCacheDirectory(dir.getPath());
+		OWLOntology v1 = createImportingOntology(OWLManager.createOWLOntologyManager(), Arrays.asList(ab, bc)), 
+				v2 = createImportingOntology(OWLManager.createOWLOntologyManager(), Arrays.asList(ab, bc, ac)),
+				v3 = createImportingOntology(OWLManager.createOWLOntologyManager(), Arrays.asList(ab, ac));
+		long[] digest1 = EntailmentCache.getDigest(v1);
+		Ecco ecco1 = new Ecco(v1, v2, settings);
+		assertEquals(Collections.singleton(ac), ecco1.getLogicalAxiomChanges().getIneffectualAdditionAxioms());
+		Ecco ecco2 = new Ecco(ecco1, v3);
+		LogicalChangeSet changeSet = ecco2.getLogicalAxiomChanges();
+		assertEquals(Collections.singleton(bc), changeSet.getEffectualRemovalAxioms());
+		assertTrue(changeSet.getIneffectualAdditionAxioms().isEmpty());
+		// The second diff saves the results of the first, which were never saved on their own
+		assertFalse(ecco2.checkEquivalence());
+		assertEquals(Boolean.TRUE, new EntailmentCache(dir.getPath()).get(digest1, ac));
+	}
+
+	/**
+	 * Create an ontology with the given axioms that imports an ontology with an ABox axiom
+	 * @param man	OWL ontology manager
+	 * @param axioms	Axioms of the importing ontology
+	 * @return Importing ontology
+	 */
+	private OWLOntology createImportingOntology(OWLOntologyManager man, Iterable<OWLAxiom> axioms) throws Exception {
+		man.createOntology(new HashSet<OWLAxiom>(Arrays.asList(xy, importedAssertion)), IRI.create("urn:test:imported"));
+		OWLOntology ont = man.createOntology(IRI.create("urn:test:ont"));
+		for(OWLAxiom ax : axioms)
+			man.addAxiom(ont, ax);
+		man.applyChange(new AddImport(ont, df.getOWLImportsDeclaration(IRI.create("urn:test:imported"))));
+		return ont;
+	}
+
+	private OWLClass getNamedClass(String name) {
+		return df.getOWLClass(IRI.create("urn:test#" + name));
+	}
+
+	private static void delete(File f) {
+		File[] children = f.listFiles();
+		if(children != null)
+			for(File child : children) delete(child);
+		f.delete();
+	}
+}
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEquivalentClassesAxiom;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Seeded random ontologies for tests that compare diff results with and without an optimisation. Class expressions
+ * are built from named classes with intersection and existential restrictions, and weakened axioms may have a union as
+ * superclass. Without negation every generated ontology is consistent, and the ontologies are small enough to classify
+ * quickly</p>
+ */
+public class TestOntologies {
+	public static final String NS = "http://ecco.test/ont#";
+	private static final int NR_CLASSES = 12, NR_PROPERTIES = 2;
+	private final OWLOntologyManager man;
+	private final OWLDataFactory df;
+	private final Random rand;
+
+	/**
+	 * Constructor
+	 * @param man	OWL ontology manager
+	 * @param seed	Random seed
+	 */
+	public TestOntologies(OWLOntologyManager man, long seed) {
+		this.man = man;
+		this.df = man.getOWLDataFactory();
+		this.rand = new Random(seed);
+	}
+
+
+	/**
+	 * Create a pair of ontology versions: the second one drops about a quarter of the axioms of the first, and adds as
+	 * many random axioms plus weakenings of retained axioms, so that the diff has effectual and ineffectual changes
+	 * @param nrAxioms	Number of random axioms in the first version
+	 * @return Array with both ontology versions
+	 * @throws OWLOntologyCreationException	if an ontology cannot be created
+	 */
+	public OWLOntology[] getVersionPair(int nrAxioms) throws OWLOntologyCreationException {
+		List<OWLAxiom> ont1axioms = new ArrayList<OWLAxiom>();
+		for(int i = 0; i < nrAxioms; i++)
+			ont1axioms.add(getAxiom());
+		// Weakenings of the first version's axioms are redundant in it, so removing them may be ineffectual
+		for(int i = 0; i < nrAxioms/4; i++)
+			ont1axioms.add(getWeakening(ont1axioms.get(rand.nextInt(nrAxioms))));
+		Set<OWLAxiom> ont2axioms = new HashSet<OWLAxiom>();
+		for(OWLAxiom ax : ont1axioms)
+			if(rand.nextInt(4) > 0) ont2axioms.add(ax);
+		List<OWLAxiom> retained = new ArrayList<OWLAxiom>(ont2axioms);
+		for(int i = 0; i < nrAxioms/4; i++) {
+			ont2axioms.add(getAxiom());
+			ont2axioms.add(getWeakening(retained.get(rand.nextInt(retained.size()))));
+		}
+		return new OWLOntology[] { createOntology(IRI.create(NS + "v1"), ont1axioms), createOntology(IRI.create(NS + "v2"), ont2axioms) };
+	}
+
+
+	/**
+	 * Create an ontology with the given axioms
+	 * @param iri	Ontology IRI
+	 * @param axioms	Set of axioms
+	 * @return OWL ontology
+	 * @throws OWLOntologyCreationException	if the ontology cannot be created
+	 */
+	public OWLOntology createOntology(IRI iri, Collection<OWLAxiom> axioms) throws OWLOntologyCreationException {
+		return man.createOntology(new HashSet<OWLAxiom>(axioms), iri);
+	}
+
+
+	/**
+	 * Get a random SubClassOf or EquivalentClasses axiom. The superclass of a named class only uses classes that
+	 * precede it, so that the named classes form an acyclic taxonomy rather than collapsing into equivalent classes
+	 * @return OWL axiom
+	 */
+	public OWLAxiom getAxiom() {
+		OWLClassExpression sub, sup;
+		if(rand.nextInt(3) == 0) {
+			sub = getClassExpression(1, NR_CLASSES);
+			sup = getClassExpression(2, NR_CLASSES);
+		}
+		else {
+			int index = 1 + rand.nextInt(NR_CLASSES-1);
+			sub = getNamedClass(index);
+			sup = getClassExpression(2, index);
+		}
+		if(rand.nextInt(5) == 0) return df.getOWLEquivalentClassesAxiom(sub, sup);
+		return df.getOWLSubClassOfAxiom(sub, sup);
+	}
+
+
+	/**
+	 * Get a weakening of the given axiom, i.e., an axiom entailed by it, that either strengthens the subclass or weakens
+	 * the superclass of a SubClassOf axiom (or of the first direction of an EquivalentClasses axiom)
+	 * @param ax	OWL axiom
+	 * @return Weakened axiom
+	 */
+	public OWLAxiom getWeakening(OWLAxiom ax) {
+		OWLSubClassOfAxiom sc = (ax instanceof OWLSubClassOfAxiom ? (OWLSubClassOfAxiom)ax : ((OWLEquivalentClassesAxiom)ax).asOWLSubClassOfAxioms().iterator().next());
+		OWLClassExpression sub = sc.getSubClass(), sup = sc.getSuperClass();
+		if(rand.nextBoolean()) sub = df.getOWLObjectIntersectionOf(sub, getNamedClass(rand.nextInt(NR_CLASSES)));
+		else sup = df.getOWLObjectUnionOf(sup, getNamedClass(rand.nextInt(NR_CLASSES)));
+		return df.getOWLSubClassOfAxiom(sub, sup);
+	}
+
+
+	/**
+	 * Get a random class expression
+	 * @param depth	Maximum nesting depth of constructors
+	 * @return OWL class expression
+	 */
+	public OWLClassExpression getClassExpression(int depth) {
+		return getClassExpression(depth, NR_CLASSES);
+	}
+
+
+	/**
+	 * Get a random class expression over the named classes with index below the given bound
+	 * @param depth	Maximum nesting depth of constructors
+	 * @param bound	Upper bound (exclusive) of the named class indexes
+	 * @return OWL class expression
+	 */
+	private OWLClassExpression getClassExpression(int depth, int bound) {
+		if(depth == 0) return getNamedClass(rand.nextInt(bound));
+		switch(rand.nextInt(10)) {
+		case 0: case 1: case 2: return df.getOWLObjectSomeValuesFrom(getProperty(), getClassExpression(depth-1, bound));
+		case 3: case 4: return df.getOWLObjectIntersectionOf(getNamedClass(rand.nextInt(bound)), getClassExpression(depth-1, bound));
+		default: return getNamedClass(rand.nextInt(bound));
+		}
+	}
+
+
+	private OWLClassExpression getNamedClass(int index) {
+		return df.getOWLClass(IRI.create(NS + "C" + index));
+	}
+
+
+	private OWLObjectProperty getProperty() {
+		return df.getOWLObjectProperty(IRI.create(NS + "r" + rand.nextInt(NR_PROPERTIES)));
+	}
+}
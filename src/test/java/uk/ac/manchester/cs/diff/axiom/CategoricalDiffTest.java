@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.axiom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.semanticweb.owl.explanation.api.Explanation;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import uk.ac.manchester.cs.diff.TestOntologies;
+import uk.ac.manchester.cs.diff.axiom.change.CategorisedEffectualAddition;
+import uk.ac.manchester.cs.diff.axiom.change.CategorisedEffectualRemoval;
+import uk.ac.manchester.cs.diff.axiom.change.CategorisedIneffectualAddition;
+import uk.ac.manchester.cs.diff.axiom.change.CategorisedIneffectualRemoval;
+import uk.ac.manchester.cs.diff.axiom.changeset.CategorisedChangeSet;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests that the categorisation shortcuts do not change the categorisation, by comparing the categorised change
+ * sets computed with each shortcut against those computed with every entailment check made by a reasoner, and that
+ * versions with the same ontology IRI are not mistaken for one another</p>
+ */
+public class CategoricalDiffTest {
+	private static final long[] SEEDS = { 1, 2, 3 };
+	private static final int NR_AXIOMS = 30, NR_JUSTIFICATIONS = 3;
+	private static List<OWLOntology[]> pairs;
+	private static List<Map<OWLAxiom,Object>> expected;
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		pairs = new ArrayList<OWLOntology[]>();
+		expected = new ArrayList<Map<OWLAxiom,Object>>();
+		for(long seed : SEEDS) {
+			OWLOntology[] pair = new TestOntologies(OWLManager.createOWLOntologyManager(), seed).getVersionPair(NR_AXIOMS);
+			CategoricalDiff diff = new CategoricalDiff(pair[0], pair[1], NR_JUSTIFICATIONS, false);
+			diff.setStructuralChecking(false);
+			pairs.add(pair);
+			expected.add(getCategories(diff.getDiff()));
+		}
+	}
+
+	@Test
+	public void fixturesHaveEffectualAndIneffectualChanges() {
+		for(int i = 0; i < pairs.size(); i++) {
+			CategoricalDiff diff = new CategoricalDiff(pairs.get(i)[0], pairs.get(i)[1], NR_JUSTIFICATIONS, false);
+			diff.setStructuralChecking(false);
+			CategorisedChangeSet changeSet = diff.getDiff();
+			assertTrue(!changeSet.getEffectualAdditions().isEmpty() || !changeSet.getEffectualRemovals().isEmpty());
+			assertTrue(!changeSet.getIneffectualAdditions().isEmpty() || !changeSet.getIneffectualRemovals().isEmpty());
+		}
+	}
+
+	@Test
+	public void structuralCheckingMatchesReasonerChecks() {
+		for(int i = 0; i < pairs.size(); i++) {
+			CategoricalDiff diff = new CategoricalDiff(pairs.get(i)[0], pairs.get(i)[1], NR_JUSTIFICATIONS, false);
+			assertSameCategories(expected.get(i), getCategories(diff.getDiff()));
+		}
+	}
+
+	@Test
+	public void sameIriVersionsAreToldApart() throws Exception {
+		OWLDataFactory df = OWLManager.getOWLDataFactory();
+		IRI iri = IRI.create(TestOntologies.NS.substring(0, TestOntologies.NS.length() - 1));
+		OWLClass a = df.getOWLClass(IRI.create(TestOntologies.NS + "A")), b = df.getOWLClass(IRI.create(TestOntologies.NS + "B")),
+				c = df.getOWLClass(IRI.create(TestOntologies.NS + "C")), d = df.getOWLClass(IRI.create(TestOntologies.NS + "D"));
+		OWLAxiom ab = df.getOWLSubClassOfAxiom(a, b), bc = df.getOWLSubClassOfAxiom(b, c), ac = df.getOWLSubClassOfAxiom(a, c),
+				da = df.getOWLSubClassOfAxiom(d, a), dc = df.getOWLSubClassOfAxiom(d, c);
+		OWLOntology ont1 = OWLManager.createOWLOntologyManager().createOntology(new HashSet<OWLAxiom>(Arrays.asList(ab, bc, ac, da)), iri);
+		OWLOntology ont2 = OWLManager.createOWLOntologyManager().createOntology(new HashSet<OWLAxiom>(Arrays.asList(ab, bc, dc)), iri);
+		CategorisedChangeSet changeSet = new CategoricalDiff(ont1, ont2, NR_JUSTIFICATIONS, false).getDiff();
+		// A subClassOf C is only justified in the second version by A subClassOf B and B subClassOf C
+		boolean found = false;
+		for(CategorisedIneffectualRemoval change : changeSet.getCategorisedIneffectualRemovals()) {
+			if(change.getAxiom().equals(ac)) {
+				found = true;
+				assertFalse(change.getJustificationMap().isEmpty());
+				for(Explanation<OWLAxiom> just : change.getJustificationMap().keySet())
+					assertEquals(new HashSet<OWLAxiom>(Arrays.asList(ab, bc)), just.getAxioms());
+			}
+		}
+		assertTrue(found);
+	}
+
+	/**
+	 * Assert that both categorisations have the same changes, the same effectual change categories, and the same
+	 * categories for each justification found in both. Which of the justifications of an ineffectual change are
+	 * found varies between runs, so only those found in both runs are compared
+	 * @param reference	Categories found with every check made by a reasoner
+	 * @param actual	Actual categories
+	 */
+	private static void assertSameCategories(Map<OWLAxiom,Object> reference, Map<OWLAxiom,Object> actual) {
+		assertEquals(reference.keySet(), actual.keySet());
+		int compared = 0;
+		for(OWLAxiom axiom : reference.keySet()) {
+			if(reference.get(axiom) instanceof Map) {
+				Map<?,?> justs = (Map<?,?>)reference.get(axiom), actualJusts = (Map<?,?>)actual.get(axiom);
+				for(Object just : justs.keySet()) {
+					if(actualJusts.containsKey(just)) {
+						assertEquals(justs.get(just), actualJusts.get(just));
+						compared++;
+					}
+				}
+			}
+			else
+				assertEquals(reference.get(axiom), actual.get(axiom));
+		}
+		assertTrue(compared > 0);
+	}
+
+	/**
+	 * Get the categories of each change in the given change set: the category and alignment of effectual changes,
+	 * and the categories per justification of ineffectual changes
+	 * @param changeSet	Categorised change set
+	 * @return Map of changes to their categories
+	 */
+	private static Map<OWLAxiom,Object> getCategories(CategorisedChangeSet changeSet) {
+		Map<OWLAxiom,Object> categories = new HashMap<OWLAxiom,Object>();
+		for(CategorisedEffectualAddition c : changeSet.getCategorisedEffectualAdditions())
+			categories.put(c.getAxiom(), Arrays.asList(c.getCategory(), c.getAxiomAlignment()));
+		for(CategorisedEffectualRemoval c : changeSet.getCategorisedEffectualRemovals())
+			categories.put(c.getAxiom(), Arrays.asList(c.getCategory(), c.getAxiomAlignment()));
+		for(CategorisedIneffectualAddition c : changeSet.getCategorisedIneffectualAdditions())
+			categories.put(c.getAxiom(), c.getJustificationMap());
+		for(CategorisedIneffectualRemoval c : changeSet.getCategorisedIneffectualRemovals())
+			categories.put(c.getAxiom(), c.getJustificationMap());
+		return categories;
+	}
+}
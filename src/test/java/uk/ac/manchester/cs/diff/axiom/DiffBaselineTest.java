@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.axiom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.diff.utils.ReasonerLoader;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests of the entailments decided by the class hierarchy stored in a {@link DiffBaseline}</p>
+ */
+public class DiffBaselineTest {
+	private OWLDataFactory df;
+	private OWLClass a, b, c, d, thing, nothing;
+	private DiffBaseline baseline;
+
+	@Before
+	public void setUp() throws Exception {
+		OWLOntologyManager man = OWLManager.createOWLOntologyManager();
+		df = man.getOWLDataFactory();
+		a = getNamedClass("A"); b = getNamedClass("B"); c = getNamedClass("C"); d = getNamedClass("D");
+		thing = df.getOWLThing(); nothing = df.getOWLNothing();
+		OWLOntology ont = man.createOntology();
+		man.addAxiom(ont, df.getOWLSubClassOfAxiom(a, b));
+		man.addAxiom(ont, df.getOWLSubClassOfAxiom(c, nothing));
+		man.addAxiom(ont, df.getOWLEquivalentClassesAxiom(d, thing));
+		OWLReasoner reasoner = new ReasonerLoader(ont).createReasoner(false);
+		baseline = DiffBaseline.create(ont, reasoner);
+		reasoner.dispose();
+	}
+
+	@Test
+	public void decidesSubsumptionsBetweenNamedClasses() {
+		assertEquals(Boolean.TRUE, baseline.isEntailedByHierarchy(df.getOWLSubClassOfAxiom(a, b)));
+		assertEquals(Boolean.FALSE, baseline.isEntailedByHierarchy(df.getOWLSubClassOfAxiom(b, a)));
+		assertEquals(Boolean.TRUE, baseline.isEntailedByHierarchy(df.getOWLSubClassOfAxiom(c, a)));
+	}
+
+	@Test
+	public void decidesSubsumptionsInvolvingNothing() {
+		assertEquals(Boolean.TRUE, baseline.isEntailedByHierarchy(df.getOWLSubClassOfAxiom(c, nothing)));
+		assertEquals(Boolean.FALSE, baseline.isEntailedByHierarchy(df.getOWLSubClassOfAxiom(a, nothing)));
+		assertEquals(Boolean.TRUE, baseline.isEntailedByHierarchy(df.getOWLSubClassOfAxiom(nothing, a)));
+	}
+
+	@Test
+	public void decidesSubsumptionsInvolvingThing() {
+		assertEquals(Boolean.TRUE, baseline.isEntailedByHierarchy(df.getOWLSubClassOfAxiom(thing, d)));
+		assertEquals(Boolean.FALSE, baseline.isEntailedByHierarchy(df.getOWLSubClassOfAxiom(thing, a)));
+		assertEquals(Boolean.TRUE, baseline.isEntailedByHierarchy(df.getOWLEquivalentClassesAxiom(d, thing)));
+		assertEquals(Boolean.FALSE, baseline.isEntailedByHierarchy(df.getOWLEquivalentClassesAxiom(a, thing)));
+	}
+
+	@Test
+	public void newClassesAreNotEntailed() {
+		OWLClass fresh = getNamedClass("New");
+		assertEquals(Boolean.FALSE, baseline.isEntailedByHierarchy(df.getOWLSubClassOfAxiom(nothing, fresh)));
+		assertEquals(Boolean.FALSE, baseline.isEntailedByHierarchy(df.getOWLSubClassOfAxiom(c, fresh)));
+		assertEquals(Boolean.FALSE, baseline.isEntailedByHierarchy(df.getOWLSubClassOfAxiom(fresh, thing)));
+		assertEquals(Boolean.FALSE, baseline.isEntailedByHierarchy(df.getOWLEquivalentClassesAxiom(fresh, a)));
+	}
+
+	@Test
+	public void leavesComplexAxiomsUndecided() {
+		OWLClass r = df.getOWLClass(IRI.create("urn:test#R"));
+		assertNull(baseline.isEntailedByHierarchy(df.getOWLSubClassOfAxiom(a, df.getOWLObjectIntersectionOf(b, r))));
+	}
+
+	@Test
+	public void survivesSaveAndLoad() throws Exception {
+		File f = File.createTempFile("baseline", ".bin");
+		try {
+			baseline.save(f.getPath());
+			DiffBaseline loaded = DiffBaseline.load(f.getPath());
+			assertEquals(baseline.getLogicalAxiomCount(), loaded.getLogicalAxiomCount());
+			assertTrue(loaded.isEntailedByHierarchy(df.getOWLSubClassOfAxiom(nothing, b)));
+			assertFalse(loaded.isEntailedByHierarchy(df.getOWLSubClassOfAxiom(b, nothing)));
+		} finally {
+			f.delete();
+		}
+	}
+
+	private OWLClass getNamedClass(String name) {
+		return df.getOWLClass(IRI.create("urn:test#" + name));
+	}
+}
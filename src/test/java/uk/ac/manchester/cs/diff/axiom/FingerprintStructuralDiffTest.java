@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.axiom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import uk.ac.manchester.cs.diff.TestOntologies;
+import uk.ac.manchester.cs.diff.axiom.changeset.StructuralChangeSet;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests that {@link FingerprintStructuralDiff} finds the same additions, removals and shared axioms as
+ * {@link StructuralDiff}</p>
+ */
+public class FingerprintStructuralDiffTest {
+	private OWLDataFactory df;
+	private OWLOntology ont1, ont2;
+	private OWLAxiom ab, bcOld, bcNew, de, disjoint, domain, assertionA, assertionB, subProperty;
+
+	@Before
+	public void setUp() throws Exception {
+		OWLOntologyManager man = OWLManager.createOWLOntologyManager();
+		df = man.getOWLDataFactory();
+		OWLClass a = getNamedClass("A"), b = getNamedClass("B"), c = getNamedClass("C"), d = getNamedClass("D"), e = getNamedClass("E");
+		OWLObjectProperty r = df.getOWLObjectProperty(IRI.create("urn:test#r")), s = df.getOWLObjectProperty(IRI.create("urn:test#s"));
+		OWLNamedIndividual i = df.getOWLNamedIndividual(IRI.create("urn:test#i"));
+		ab = df.getOWLSubClassOfAxiom(a, b);
+		bcOld = df.getOWLSubClassOfAxiom(b, c, getComment("old"));
+		bcNew = df.getOWLSubClassOfAxiom(b, c, getComment("new"));
+		de = df.getOWLEquivalentClassesAxiom(d, e);
+		disjoint = df.getOWLDisjointClassesAxiom(a, d);
+		domain = df.getOWLObjectPropertyDomainAxiom(r, a);
+		assertionA = df.getOWLClassAssertionAxiom(a, i);
+		assertionB = df.getOWLClassAssertionAxiom(b, i);
+		subProperty = df.getOWLSubObjectPropertyOfAxiom(r, s);
+		// Subsumptions by owl:Thing are neither changes nor shared, and declarations are not logical axioms
+		ont1 = man.createOntology(IRI.create("urn:test:ont1"));
+		man.addAxioms(ont1, new HashSet<OWLAxiom>(Arrays.asList(ab, bcOld, de, disjoint, domain, assertionA,
+				df.getOWLSubClassOfAxiom(a, df.getOWLThing()), df.getOWLDeclarationAxiom(a))));
+		ont2 = man.createOntology(IRI.create("urn:test:ont2"));
+		man.addAxioms(ont2, new HashSet<OWLAxiom>(Arrays.asList(ab, bcNew, de, df.getOWLDisjointClassesAxiom(d, a), domain,
+				assertionB, subProperty, df.getOWLSubClassOfAxiom(d, df.getOWLThing()))));
+	}
+
+	@Test
+	public void findsChangesOfHandBuiltOntologies() {
+		StructuralChangeSet changeSet = new FingerprintStructuralDiff(ont1, ont2, false).getDiff();
+		assertEquals(new HashSet<OWLAxiom>(Arrays.asList(bcNew, assertionB, subProperty)), changeSet.getAddedAxioms());
+		assertEquals(new HashSet<OWLAxiom>(Arrays.asList(bcOld, assertionA)), changeSet.getRemovedAxioms());
+		assertEquals(new HashSet<OWLAxiom>(Arrays.asList(ab, de, disjoint, domain)), new HashSet<OWLAxiom>(changeSet.getShared()));
+		assertSameChanges(new StructuralDiff(ont1, ont2, false).getDiff(), changeSet);
+	}
+
+	@Test
+	public void sharedAxiomsAreMembersOfTheSharedSet() {
+		Set<OWLAxiom> shared = new FingerprintStructuralDiff(ont1, ont2, false).getDiff().getShared();
+		assertEquals(4, shared.size());
+		for(OWLAxiom ax : Arrays.asList(ab, de, disjoint, domain))
+			assertTrue(shared.contains(ax));
+		for(OWLAxiom ax : Arrays.asList(bcOld, bcNew, assertionA, subProperty))
+			assertFalse(shared.contains(ax));
+	}
+
+	@Test
+	public void matchesStructuralDiffOnGeneratedVersions() throws Exception {
+		for(long seed = 1; seed <= 3; seed++) {
+			OWLOntology[] pair = new TestOntologies(OWLManager.createOWLOntologyManager(), seed).getVersionPair(30);
+			assertSameChanges(new StructuralDiff(pair[0], pair[1], false).getDiff(),
+					new FingerprintStructuralDiff(pair[0], pair[1], false).getDiff());
+		}
+	}
+
+	private void assertSameChanges(StructuralChangeSet expected, StructuralChangeSet actual) {
+		assertEquals(expected.getAddedAxioms(), actual.getAddedAxioms());
+		assertEquals(expected.getRemovedAxioms(), actual.getRemovedAxioms());
+		assertEquals(new HashSet<OWLAxiom>(expected.getShared()), new HashSet<OWLAxiom>(actual.getShared()));
+	}
+
+	private OWLClass getNamedClass(String name) {
+		return df.getOWLClass(IRI.create("urn:test#" + name));
+	}
+
+	private Set<OWLAnnotation> getComment(String comment) {
+		return new HashSet<OWLAnnotation>(Arrays.asList(df.getOWLAnnotation(df.getRDFSComment(), df.getOWLLiteral(comment))));
+	}
+}
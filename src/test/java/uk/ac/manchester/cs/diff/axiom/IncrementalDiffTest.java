@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.axiom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.diff.axiom.changeset.LogicalChangeSet;
+import uk.ac.manchester.cs.diff.utils.ReasonerLoader;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests that an {@link IncrementalDiff} against a baseline finds the same changes as a {@link LogicalDiff}
+ * against the baseline ontology, in particular for additions decided by the stored class hierarchy</p>
+ */
+public class IncrementalDiffTest {
+	private OWLDataFactory df;
+	private OWLOntology ont1, ont2;
+	private DiffBaseline baseline;
+	private OWLAxiom ab, bc, ac, ba, nothingNew, unsatNew;
+
+	@Before
+	public void setUp() throws Exception {
+		OWLOntologyManager man = OWLManager.createOWLOntologyManager();
+		df = man.getOWLDataFactory();
+		OWLClass a = getNamedClass("A"), b = getNamedClass("B"), c = getNamedClass("C"), u = getNamedClass("U"),
+				fresh = getNamedClass("New");
+		ab = df.getOWLSubClassOfAxiom(a, b);
+		bc = df.getOWLSubClassOfAxiom(b, c);
+		ac = df.getOWLSubClassOfAxiom(a, c);
+		ba = df.getOWLSubClassOfAxiom(b, a);
+		// Subsumptions of owl:Nothing or of an unsatisfiable class by a new class hold trivially in the hierarchy,
+		// but are effectual since the new class is not in the signature of ontology 1
+		nothingNew = df.getOWLSubClassOfAxiom(df.getOWLNothing(), fresh);
+		unsatNew = df.getOWLSubClassOfAxiom(u, fresh);
+		OWLAxiom unsat = df.getOWLSubClassOfAxiom(u, df.getOWLNothing());
+		ont1 = man.createOntology(new HashSet<OWLAxiom>(Arrays.asList(ab, bc, unsat)), IRI.create("urn:test:ont1"));
+		ont2 = man.createOntology(new HashSet<OWLAxiom>(Arrays.asList(ab, ac, ba, unsat, nothingNew, unsatNew)), IRI.create("urn:test:ont2"));
+		OWLReasoner reasoner = new ReasonerLoader(ont1).createReasoner(false);
+		baseline = DiffBaseline.create(ont1, reasoner);
+		reasoner.dispose();
+	}
+
+	@Test
+	public void additionsWithNewTermsAreEffectual() {
+		assertEquals(Boolean.FALSE, baseline.isEntailedByHierarchy(nothingNew));
+		assertEquals(Boolean.FALSE, baseline.isEntailedByHierarchy(unsatNew));
+		LogicalChangeSet changeSet = new IncrementalDiff(baseline, ont2, false).getDiff();
+		assertTrue(changeSet.getEffectualAdditionAxioms().contains(nothingNew));
+		assertTrue(changeSet.getEffectualAdditionAxioms().contains(unsatNew));
+		assertTrue(changeSet.getIneffectualAdditionAxioms().contains(ac));
+		assertFalse(changeSet.getIneffectualAdditionAxioms().contains(ba));
+	}
+
+	@Test
+	public void matchesLogicalDiff() {
+		LogicalChangeSet expected = new LogicalDiff(ont1, ont2, false).getDiff();
+		LogicalChangeSet actual = new IncrementalDiff(baseline, ont2, false).getDiff();
+		assertEquals(expected.getEffectualAdditionAxioms(), actual.getEffectualAdditionAxioms());
+		assertEquals(expected.getIneffectualAdditionAxioms(), actual.getIneffectualAdditionAxioms());
+		assertEquals(expected.getEffectualRemovalAxioms(), actual.getEffectualRemovalAxioms());
+		assertEquals(expected.getIneffectualRemovalAxioms(), actual.getIneffectualRemovalAxioms());
+		assertEquals(new HashSet<OWLAxiom>(expected.getStructuralChangeSet().getShared()),
+				new HashSet<OWLAxiom>(actual.getStructuralChangeSet().getShared()));
+	}
+
+	private OWLClass getNamedClass(String name) {
+		return df.getOWLClass(IRI.create("urn:test#" + name));
+	}
+}
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.axiom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.diff.TestOntologies;
+import uk.ac.manchester.cs.diff.axiom.changeset.LogicalChangeSet;
+import uk.ac.manchester.cs.diff.utils.ReasonerLoader;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests that the logical diff optimisations do not change the diff, by comparing the change sets computed with
+ * each optimisation against those computed with a single reasoner per ontology checking one axiom at a time</p>
+ */
+public class LogicalDiffConcurrentTest {
+	private static final long[] SEEDS = { 1, 2, 3 };
+	private static final int NR_AXIOMS = 30;
+	private static List<OWLOntology[]> pairs;
+	private static List<OWLReasoner[]> reasoners;
+	private static List<LogicalChangeSet> expected;
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		pairs = new ArrayList<OWLOntology[]>();
+		reasoners = new ArrayList<OWLReasoner[]>();
+		expected = new ArrayList<LogicalChangeSet>();
+		for(long seed : SEEDS) {
+			OWLOntology[] pair = new TestOntologies(OWLManager.createOWLOntologyManager(), seed).getVersionPair(NR_AXIOMS);
+			OWLReasoner[] pairReasoners = { new ReasonerLoader(pair[0]).createReasoner(false), new ReasonerLoader(pair[1]).createReasoner(false) };
+			pairs.add(pair);
+			reasoners.add(pairReasoners);
+			expected.add(new LogicalDiffConcurrent(pair[0], pair[1], false).getDiff(pairReasoners[0], pairReasoners[1]));
+		}
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		for(OWLReasoner[] pairReasoners : reasoners) {
+			pairReasoners[0].dispose();
+			pairReasoners[1].dispose();
+		}
+	}
+
+	@Test
+	public void fixturesHaveEffectualAndIneffectualChanges() {
+		boolean effectual = false, ineffectual = false;
+		for(LogicalChangeSet changeSet : expected) {
+			effectual |= !changeSet.getEffectualAdditionAxioms().isEmpty() && !changeSet.getEffectualRemovalAxioms().isEmpty();
+			ineffectual |= !changeSet.getIneffectualAdditionAxioms().isEmpty() && !changeSet.getIneffectualRemovalAxioms().isEmpty();
+		}
+		assertTrue(effectual);
+		assertTrue(ineffectual);
+	}
+
+	@Test
+	public void reasonerReplicasMatchSingleReasoner() {
+		for(int i = 0; i < pairs.size(); i++) {
+			LogicalDiffConcurrent diff = getDiff(i);
+			diff.setReasonerReplicas(3);
+			assertSameChanges(expected.get(i), diff.getDiff(reasoners.get(i)[0], reasoners.get(i)[1]));
+		}
+	}
+
+	@Test
+	public void bulkEntailmentMatchesPerAxiomChecks() {
+		for(int i = 0; i < pairs.size(); i++) {
+			LogicalDiffConcurrent diff = getDiff(i);
+			diff.setBulkEntailmentChecking(true);
+			assertSameChanges(expected.get(i), diff.getDiff(reasoners.get(i)[0], reasoners.get(i)[1]));
+		}
+	}
+
+	@Test
+	public void modularEntailmentMatchesFullOntologyChecks() {
+		for(int i = 0; i < pairs.size(); i++) {
+			LogicalDiffConcurrent diff = getDiff(i);
+			diff.setModularEntailmentChecking(true);
+			assertSameChanges(expected.get(i), diff.getDiff(reasoners.get(i)[0], reasoners.get(i)[1]));
+		}
+	}
+
+	@Test
+	public void preReasoningMatchesReasonerChecks() {
+		for(int i = 0; i < pairs.size(); i++) {
+			LogicalDiffConcurrent diff = getDiff(i);
+			diff.setPreReasoning(true);
+			assertSameChanges(expected.get(i), diff.getDiff(reasoners.get(i)[0], reasoners.get(i)[1]));
+		}
+	}
+
+	@Test
+	public void effectualChangeFoundIsInFullDiff() {
+		for(int i = 0; i < pairs.size(); i++) {
+			LogicalDiffConcurrent diff = getDiff(i);
+			assertEquals(Boolean.FALSE, diff.checkEquivalence(reasoners.get(i)[0], reasoners.get(i)[1]));
+			assertTrue(diff.getUndeterminedChanges().isEmpty());
+			OWLAxiom effectual = diff.findEffectualChange();
+			assertTrue(expected.get(i).getEffectualAdditionAxioms().contains(effectual) || 
+					expected.get(i).getEffectualRemovalAxioms().contains(effectual));
+		}
+	}
+
+	@Test
+	public void ineffectualChangesAreEquivalent() throws Exception {
+		for(long seed : SEEDS) {
+			TestOntologies ontologies = new TestOntologies(OWLManager.createOWLOntologyManager(), seed);
+			OWLOntology ont1 = ontologies.getVersionPair(NR_AXIOMS)[0];
+			// Weakenings of the ontology axioms are ineffectual additions
+			Set<OWLAxiom> axioms = new HashSet<OWLAxiom>(ont1.getLogicalAxioms());
+			for(OWLAxiom ax : ont1.getLogicalAxioms())
+				axioms.add(ontologies.getWeakening(ax));
+			OWLOntology ont2 = ontologies.createOntology(IRI.create(TestOntologies.NS + "v1weakened"), axioms);
+			OWLReasoner ont1reasoner = new ReasonerLoader(ont1).createReasoner(false), ont2reasoner = new ReasonerLoader(ont2).createReasoner(false);
+			LogicalChangeSet changeSet = new LogicalDiffConcurrent(ont1, ont2, false).getDiff(ont1reasoner, ont2reasoner);
+			assertTrue(changeSet.getEffectualAdditionAxioms().isEmpty() && changeSet.getEffectualRemovalAxioms().isEmpty());
+			assertEquals(Boolean.TRUE, new LogicalDiffConcurrent(ont1, ont2, false).checkEquivalence(ont1reasoner, ont2reasoner));
+			ont1reasoner.dispose(); ont2reasoner.dispose();
+		}
+	}
+
+	private LogicalDiffConcurrent getDiff(int i) {
+		return new LogicalDiffConcurrent(pairs.get(i)[0], pairs.get(i)[1], false);
+	}
+
+	private void assertSameChanges(LogicalChangeSet expected, LogicalChangeSet actual) {
+		assertEquals(expected.getEffectualAdditionAxioms(), actual.getEffectualAdditionAxioms());
+		assertEquals(expected.getIneffectualAdditionAxioms(), actual.getIneffectualAdditionAxioms());
+		assertEquals(expected.getEffectualRemovalAxioms(), actual.getEffectualRemovalAxioms());
+		assertEquals(expected.getIneffectualRemovalAxioms(), actual.getIneffectualRemovalAxioms());
+		assertTrue(actual.getUndeterminedAdditionAxioms().isEmpty());
+		assertTrue(actual.getUndeterminedRemovalAxioms().isEmpty());
+	}
+}
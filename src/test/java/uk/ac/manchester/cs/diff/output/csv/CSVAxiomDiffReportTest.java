@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.output.csv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+
+import uk.ac.manchester.cs.diff.axiom.change.CategorisedEffectualAddition;
+import uk.ac.manchester.cs.diff.axiom.change.CategorisedEffectualRemoval;
+import uk.ac.manchester.cs.diff.axiom.change.CategorisedIneffectualAddition;
+import uk.ac.manchester.cs.diff.axiom.change.CategorisedIneffectualRemoval;
+import uk.ac.manchester.cs.diff.axiom.changeset.CategorisedChangeSet;
+import uk.ac.manchester.cs.diff.axiom.changeset.LogicalChangeSet;
+import uk.ac.manchester.cs.diff.axiom.changeset.StructuralChangeSet;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests that a {@link CSVAxiomDiffReport} reports the number of undetermined changes in its last columns, 
+ * leaving the other columns in place</p>
+ */
+public class CSVAxiomDiffReportTest {
+	private OWLDataFactory df;
+	private LogicalChangeSet logicalChangeSet;
+
+	@Before
+	public void setUp() {
+		df = OWLManager.getOWLDataFactory();
+		OWLAxiom ab = getSubClassOf("A", "B"), ac = getSubClassOf("A", "C"), ad = getSubClassOf("A", "D"), 
+				bc = getSubClassOf("B", "C"), cd = getSubClassOf("C", "D");
+		StructuralChangeSet structuralChangeSet = new StructuralChangeSet(asSet(ab, ac, ad), asSet(bc, cd), asSet());
+		logicalChangeSet = new LogicalChangeSet(asSet(ab), asSet(), asSet(bc), asSet(), asSet(ac, ad), asSet(cd), structuralChangeSet);
+	}
+
+	@Test
+	public void reportsUndeterminedChangesLast() {
+		List<String> header = getHeader(new CSVAxiomDiffReport().getReport(logicalChangeSet));
+		List<String> row = getRow(new CSVAxiomDiffReport().getReport(logicalChangeSet));
+		assertEquals(header.size(), row.size());
+		// The logical diff time follows the ineffectual removals, as in reports without undetermined changes
+		assertEquals(header.indexOf("Ineffectual Removals") + 1, header.indexOf("Logical Diff Time"));
+		assertEquals(Arrays.asList("Undetermined Additions", "Undetermined Removals"), header.subList(header.size()-2, header.size()));
+		assertEquals(Arrays.asList("2", "1"), row.subList(row.size()-2, row.size()));
+		assertEquals("1", row.get(header.indexOf("Effectual Additions")));
+		assertEquals("1", row.get(header.indexOf("Effectual Removals")));
+	}
+
+	@Test
+	public void reportsUndeterminedChangesAfterCategories() {
+		CategorisedChangeSet changeSet = new CategorisedChangeSet(new HashSet<CategorisedEffectualAddition>(), 
+				new HashSet<CategorisedIneffectualAddition>(), new HashSet<CategorisedEffectualRemoval>(), 
+				new HashSet<CategorisedIneffectualRemoval>(), asSet(), logicalChangeSet);
+		assertEquals(2, changeSet.getUndeterminedAdditionAxioms().size());
+		assertEquals(1, changeSet.getUndeterminedRemovalAxioms().size());
+		assertFalse(changeSet.isFreeOfEffectualChanges());
+		List<String> header = getHeader(new CSVAxiomDiffReport().getReport(changeSet));
+		List<String> row = getRow(new CSVAxiomDiffReport().getReport(changeSet));
+		assertEquals(header.size(), row.size());
+		assertEquals(header.indexOf("Ineffectual Removals") + 1, header.indexOf("Logical Diff Time"));
+		assertEquals(Arrays.asList("Total Time", "Undetermined Additions", "Undetermined Removals"), 
+				header.subList(header.size()-3, header.size()));
+		assertEquals(Arrays.asList("2", "1"), row.subList(row.size()-2, row.size()));
+	}
+
+	@Test
+	public void structuralReportHasNoUndeterminedChanges() {
+		List<String> header = getHeader(new CSVAxiomDiffReport().getReport(logicalChangeSet.getStructuralChangeSet()));
+		assertEquals("Structural Diff Time", header.get(header.size()-1));
+		assertFalse(header.contains("Undetermined Additions"));
+	}
+
+	private List<String> getHeader(String report) {
+		return Arrays.asList(report.trim().split("\n")[0].split(",", -1));
+	}
+
+	private List<String> getRow(String report) {
+		return Arrays.asList(report.trim().split("\n")[1].split(",", -1));
+	}
+
+	private OWLAxiom getSubClassOf(String sub, String sup) {
+		return df.getOWLSubClassOfAxiom(getNamedClass(sub), getNamedClass(sup));
+	}
+
+	private OWLClass getNamedClass(String name) {
+		return df.getOWLClass(IRI.create("urn:test#" + name));
+	}
+
+	private static Set<OWLAxiom> asSet(OWLAxiom... axioms) {
+		return new HashSet<OWLAxiom>(Arrays.asList(axioms));
+	}
+}
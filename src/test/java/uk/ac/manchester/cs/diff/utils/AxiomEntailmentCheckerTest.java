@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLLogicalAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.diff.TestOntologies;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests that the checks settled by {@link AxiomEntailmentChecker} agree with a reasoner over the premises</p>
+ */
+public class AxiomEntailmentCheckerTest {
+
+	@Test
+	public void settledChecksMatchReasoner() throws Exception {
+		int settled = 0;
+		for(long seed = 1; seed <= 3; seed++) {
+			TestOntologies ontologies = new TestOntologies(OWLManager.createOWLOntologyManager(), seed);
+			Set<OWLLogicalAxiom> axioms = ontologies.getVersionPair(30)[0].getLogicalAxioms();
+			int i = 0;
+			for(OWLAxiom premise : axioms) {
+				// Weakenings of the premise are entailed by it, and random axioms mostly are not
+				List<OWLAxiom> candidates = new ArrayList<OWLAxiom>();
+				candidates.add(ontologies.getWeakening(premise));
+				candidates.add(ontologies.getWeakening(candidates.get(0)));
+				for(int j = 0; j < 3; j++)
+					candidates.add(ontologies.getAxiom());
+				OWLOntology ont = ontologies.createOntology(IRI.create(TestOntologies.NS + "premise" + i++), Collections.singleton(premise));
+				OWLReasoner reasoner = new ReasonerLoader(ont).createReasoner(false);
+				AxiomEntailmentChecker checker = new AxiomEntailmentChecker(premise);
+				for(OWLAxiom ax : candidates) {
+					Boolean entailed = checker.isEntailed(ax);
+					if(entailed != null)
+						assertEquals(reasoner.isEntailed(ax), entailed);
+				}
+				settled += checker.getResolvedCount();
+				reasoner.dispose();
+				ont.getOWLOntologyManager().removeOntology(ont);
+			}
+		}
+		assertTrue(settled > 0);
+	}
+
+
+	@Test
+	public void noPremisesSettleTautologies() throws Exception {
+		TestOntologies ontologies = new TestOntologies(OWLManager.createOWLOntologyManager(), 1);
+		OWLOntology empty = ontologies.createOntology(IRI.create(TestOntologies.NS + "empty"), Collections.<OWLAxiom>emptySet());
+		OWLReasoner reasoner = new ReasonerLoader(empty).createReasoner(false);
+		AxiomEntailmentChecker checker = new AxiomEntailmentChecker(Collections.<OWLAxiom>emptySet());
+		for(int i = 0; i < 50; i++) {
+			OWLAxiom ax = ontologies.getAxiom();
+			// Random axioms are rarely tautologies, but their non-entailment is settled by EL saturation
+			for(OWLAxiom candidate : new OWLAxiom[] { ax, ontologies.getWeakening(ax) }) {
+				Boolean entailed = checker.isEntailed(candidate);
+				if(entailed != null)
+					assertEquals(reasoner.isEntailed(candidate), entailed);
+			}
+		}
+		assertTrue(checker.getResolvedCount() > 0);
+		reasoner.dispose();
+	}
+}
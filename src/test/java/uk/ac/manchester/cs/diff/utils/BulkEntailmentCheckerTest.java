@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.diff.TestOntologies;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests that {@link BulkEntailmentChecker} finds the same entailments as checking each axiom with a reasoner</p>
+ */
+public class BulkEntailmentCheckerTest {
+
+	@Test
+	public void bulkEntailmentsMatchPerAxiomChecks() throws Exception {
+		for(long seed = 1; seed <= 3; seed++) {
+			TestOntologies ontologies = new TestOntologies(OWLManager.createOWLOntologyManager(), seed);
+			OWLOntology ont = ontologies.getVersionPair(30)[0];
+			List<OWLAxiom> candidates = new ArrayList<OWLAxiom>();
+			for(OWLAxiom ax : ont.getLogicalAxioms())
+				candidates.add(ontologies.getWeakening(ax));
+			for(int i = 0; i < 20; i++)
+				candidates.add(ontologies.getAxiom());
+			OWLReasoner reasoner = new ReasonerLoader(ont).createReasoner(false);
+			Set<OWLAxiom> expected = new HashSet<OWLAxiom>();
+			for(OWLAxiom ax : candidates) {
+				assertTrue(BulkEntailmentChecker.isSupported(ax));
+				if(reasoner.isEntailed(ax)) expected.add(ax);
+			}
+			assertEquals(expected, new BulkEntailmentChecker(ont, reasoner).getEntailedAxioms(candidates));
+			reasoner.dispose();
+		}
+	}
+
+	@Test
+	public void freshNamesAreClassifiedWithImports() throws Exception {
+		OWLOntologyManager man = OWLManager.createOWLOntologyManager();
+		OWLDataFactory df = man.getOWLDataFactory();
+		OWLClass a = df.getOWLClass(IRI.create("urn:test#A")), b = df.getOWLClass(IRI.create("urn:test#B")),
+				c = df.getOWLClass(IRI.create("urn:test#C")), d = df.getOWLClass(IRI.create("urn:test#D"));
+		OWLObjectProperty r = df.getOWLObjectProperty(IRI.create("urn:test#r"));
+		OWLOntology imported = man.createOntology(IRI.create("urn:test:imported"));
+		man.addAxiom(imported, df.getOWLSubClassOfAxiom(b, c));
+		OWLOntology ont = man.createOntology(IRI.create("urn:test:ont"));
+		man.addAxiom(ont, df.getOWLSubClassOfAxiom(a, df.getOWLObjectSomeValuesFrom(r, b)));
+		man.applyChange(new AddImport(ont, df.getOWLImportsDeclaration(IRI.create("urn:test:imported"))));
+
+		// Entailed only with the imported axiom
+		OWLAxiom viaImport = df.getOWLSubClassOfAxiom(a, df.getOWLObjectSomeValuesFrom(r, c));
+		OWLAxiom notEntailed = df.getOWLSubClassOfAxiom(a, df.getOWLObjectSomeValuesFrom(r, d));
+		OWLReasoner reasoner = new ReasonerLoader(ont).createReasoner(false);
+		assertTrue(reasoner.isEntailed(viaImport));
+		assertFalse(reasoner.isEntailed(notEntailed));
+		BulkEntailmentChecker checker = new BulkEntailmentChecker(ont, reasoner);
+		Set<OWLAxiom> entailed = checker.getEntailedAxioms(Arrays.asList(viaImport, notEntailed));
+		assertEquals(2, checker.getFreshNameCount());
+		assertTrue(entailed.contains(viaImport));
+		assertFalse(entailed.contains(notEntailed));
+		reasoner.dispose();
+	}
+}
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests that an {@link EntailmentCache} keeps its results across runs, and that results are no longer found once
+ * the logical axioms of the ontology, or of its imports, change</p>
+ */
+public class EntailmentCacheTest {
+	private File dir;
+	private OWLDataFactory df;
+	private OWLOntologyManager man;
+	private OWLAxiom ab, bc, ac, cd;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = Files.createTempDirectory("entailments").toFile();
+		df = OWLManager.getOWLDataFactory();
+		man = OWLManager.createOWLOntologyManager();
+		OWLClass a = getNamedClass("A"), b = getNamedClass("B"), c = getNamedClass("C"), d = getNamedClass("D");
+		ab = df.getOWLSubClassOfAxiom(a, b);
+		bc = df.getOWLSubClassOfAxiom(b, c);
+		ac = df.getOWLSubClassOfAxiom(a, c);
+		cd = df.getOWLSubClassOfAxiom(c, d);
+	}
+
+	@After
+	public void tearDown() {
+		delete(dir);
+	}
+
+	@Test
+	public void keepsResultsAcrossRuns() throws Exception {
+		long[] digest = EntailmentCache.getDigest(createOntology("urn:test:ont", ab, bc));
+		EntailmentCache cache = new EntailmentCache(dir.getPath());
+		assertNull(cache.get(digest, ac));
+		cache.put(digest, ac, true);
+		cache.put(digest, cd, false);
+		cache.save();
+
+		EntailmentCache loaded = new EntailmentCache(dir.getPath());
+		assertEquals(2, loaded.size());
+		assertEquals(Boolean.TRUE, loaded.get(digest, ac));
+		assertEquals(Boolean.FALSE, loaded.get(digest, cd));
+		assertNull(loaded.get(digest, ab));
+		assertEquals(2, loaded.getHits());
+		assertEquals(1, loaded.getMisses());
+	}
+
+	@Test
+	public void missesResultsOfChangedOntology() throws Exception {
+		OWLOntology ont = createOntology("urn:test:ont", ab, bc);
+		EntailmentCache cache = new EntailmentCache(dir.getPath());
+		cache.put(EntailmentCache.getDigest(ont), ac, true);
+
+		// Declarations and annotations are not part of the digest, unlike logical axioms
+		man.addAxiom(ont, df.getOWLDeclarationAxiom(getNamedClass("E")));
+		man.addAxiom(ont, df.getOWLAnnotationAssertionAxiom(getNamedClass("A").getIRI(), 
+				df.getOWLAnnotation(df.getRDFSComment(), df.getOWLLiteral("a"))));
+		assertEquals(Boolean.TRUE, cache.get(EntailmentCache.getDigest(ont), ac));
+		man.removeAxiom(ont, bc);
+		assertNull(cache.get(EntailmentCache.getDigest(ont), ac));
+		man.addAxiom(ont, bc);
+		assertEquals(Boolean.TRUE, cache.get(EntailmentCache.getDigest(ont), ac));
+	}
+
+	@Test
+	public void missesResultsOfChangedImport() throws Exception {
+		OWLOntology imported = createOntology("urn:test:imported", bc), ont = createOntology("urn:test:ont", ab);
+		man.applyChange(new AddImport(ont, df.getOWLImportsDeclaration(IRI.create("urn:test:imported"))));
+		long[] digest = EntailmentCache.getDigest(ont);
+		assertFalse(Arrays.equals(EntailmentCache.getDigest(createOntology("urn:test:other", ab)), digest));
+		EntailmentCache cache = new EntailmentCache(dir.getPath());
+		cache.put(digest, ac, true);
+		man.addAxiom(imported, cd);
+		assertNull(cache.get(EntailmentCache.getDigest(ont), ac));
+	}
+
+	@Test
+	public void cachesReasonerResults() throws Exception {
+		OWLOntology ont = createOntology("urn:test:ont", ab, bc);
+		long[] digest = EntailmentCache.getDigest(ont);
+		OWLReasoner reasoner = new ReasonerLoader(ont).createReasoner(false);
+		EntailmentCache cache = new EntailmentCache(dir.getPath());
+		assertTrue(cache.isEntailed(reasoner, digest, ac));
+		assertFalse(cache.isEntailed(reasoner, digest, cd));
+		assertEquals(0, cache.getHits());
+		reasoner.dispose();
+		// Results are now answered without a reasoner
+		assertTrue(cache.isEntailed(null, digest, ac));
+		assertFalse(cache.isEntailed(null, digest, cd));
+		assertEquals(2, cache.getHits());
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedResults() throws Exception {
+		long[] digest = EntailmentCache.getDigest(createOntology("urn:test:ont", ab));
+		EntailmentCache cache = new EntailmentCache(dir.getPath(), 2);
+		cache.put(digest, ab, true);
+		cache.put(digest, bc, false);
+		cache.get(digest, ab);
+		cache.put(digest, cd, false);
+		assertEquals(2, cache.size());
+		assertNull(cache.get(digest, bc));
+		cache.save();
+		EntailmentCache loaded = new EntailmentCache(dir.getPath(), 2);
+		assertEquals(Boolean.TRUE, loaded.get(digest, ab));
+		assertEquals(Boolean.FALSE, loaded.get(digest, cd));
+	}
+
+	@Test
+	public void ignoresUnreadableCacheFile() throws Exception {
+		FileOutputStream out = new FileOutputStream(new File(dir, "entailments.cache"));
+		try {
+			out.write("not a cache".getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+		assertEquals(0, new EntailmentCache(dir.getPath()).size());
+	}
+
+	private OWLOntology createOntology(String iri, OWLAxiom... axioms) throws Exception {
+		OWLOntology ont = man.createOntology(IRI.create(iri));
+		for(OWLAxiom ax : axioms)
+			man.addAxiom(ont, ax);
+		return ont;
+	}
+
+	private OWLClass getNamedClass(String name) {
+		return df.getOWLClass(IRI.create("urn:test#" + name));
+	}
+
+	private static void delete(File f) {
+		File[] children = f.listFiles();
+		if(children != null)
+			for(File child : children) delete(child);
+		f.delete();
+	}
+}
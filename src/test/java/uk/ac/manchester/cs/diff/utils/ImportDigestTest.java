@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests that an {@link ImportDigest} finds the imports that are identical in two imports closures, both for
+ * imports loaded from local documents and for imports held in memory</p>
+ */
+public class ImportDigestTest {
+	private static final IRI IMPORTED = IRI.create("urn:test:imported"), OTHER = IRI.create("urn:test:other");
+	private File dir;
+	private OWLDataFactory df;
+	private OWLAxiom ab, bc, cd, comment;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = Files.createTempDirectory("imports").toFile();
+		df = OWLManager.getOWLDataFactory();
+		OWLClass a = getNamedClass("A"), b = getNamedClass("B"), c = getNamedClass("C"), d = getNamedClass("D");
+		ab = df.getOWLSubClassOfAxiom(a, b);
+		bc = df.getOWLSubClassOfAxiom(b, c);
+		cd = df.getOWLSubClassOfAxiom(c, d);
+		comment = df.getOWLAnnotationAssertionAxiom(a.getIRI(), df.getOWLAnnotation(df.getRDFSComment(), df.getOWLLiteral("a")));
+	}
+
+	@After
+	public void tearDown() {
+		delete(dir);
+	}
+
+	@Test
+	public void findsIdenticalImportsInMemory() throws Exception {
+		OWLOntologyManager man1 = OWLManager.createOWLOntologyManager(), man2 = OWLManager.createOWLOntologyManager();
+		OWLOntology imp1 = createOntology(man1, IMPORTED, bc), other1 = createOntology(man1, OTHER, cd);
+		createOntology(man2, IMPORTED, bc);
+		createOntology(man2, OTHER, df.getOWLSubClassOfAxiom(getNamedClass("D"), getNamedClass("C")));
+		OWLOntology root1 = createImportingOntology(man1, IMPORTED, OTHER), root2 = createImportingOntology(man2, IMPORTED, OTHER);
+		assertEquals(Collections.singleton(imp1), new ImportDigest(root1).getIdenticalImports(new ImportDigest(root2)));
+
+		// Changing the root ontology, or the non-logical axioms of an import, keeps the imports identical
+		man2.addAxiom(root2, cd);
+		man2.addAxiom(man2.getOntology(IMPORTED), comment);
+		assertEquals(Collections.singleton(imp1), new ImportDigest(root1).getIdenticalImports(new ImportDigest(root2)));
+
+		man2.addAxiom(man2.getOntology(OTHER), cd);
+		man2.removeAxiom(man2.getOntology(OTHER), df.getOWLSubClassOfAxiom(getNamedClass("D"), getNamedClass("C")));
+		Set<OWLOntology> identical = new ImportDigest(root1).getIdenticalImports(new ImportDigest(root2));
+		assertEquals(2, identical.size());
+		assertTrue(identical.contains(imp1) && identical.contains(other1));
+	}
+
+	@Test
+	public void leavesOutImportsMissingFromOtherClosure() throws Exception {
+		OWLOntologyManager man1 = OWLManager.createOWLOntologyManager(), man2 = OWLManager.createOWLOntologyManager();
+		createOntology(man1, IMPORTED, bc);
+		createOntology(man2, IMPORTED, bc);
+		OWLOntology other1 = createOntology(man1, OTHER, cd);
+		OWLOntology root1 = createImportingOntology(man1, IMPORTED, OTHER), root2 = createImportingOntology(man2, IMPORTED);
+		Set<OWLOntology> identical = new ImportDigest(root1).getIdenticalImports(new ImportDigest(root2));
+		assertEquals(1, identical.size());
+		assertFalse(identical.contains(other1));
+	}
+
+	@Test
+	public void digestsLocalDocumentsByContent() throws Exception {
+		File imported = new File(dir, "imported.owl"), importing = new File(dir, "importing.owl");
+		OWLOntologyManager man = OWLManager.createOWLOntologyManager();
+		OWLOntology imp = createOntology(man, IRI.create(imported), bc);
+		man.saveOntology(imp, IRI.create(imported));
+		man.saveOntology(createImportingOntology(man, IRI.create(imported)), IRI.create(importing));
+
+		OWLOntology root1 = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(importing);
+		OWLOntology root2 = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(importing);
+		ImportDigest digest1 = new ImportDigest(root1);
+		assertEquals(1, digest1.getIdenticalImports(new ImportDigest(root2)).size());
+
+		// Unlike an import held in memory, a change to the document content makes the import differ
+		man.addAxiom(imp, comment);
+		man.saveOntology(imp, IRI.create(imported));
+		OWLOntology root3 = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(importing);
+		assertTrue(digest1.getIdenticalImports(new ImportDigest(root3)).isEmpty());
+	}
+
+	private OWLOntology createOntology(OWLOntologyManager man, IRI iri, OWLAxiom... axioms) throws Exception {
+		OWLOntology ont = man.createOntology(iri);
+		for(OWLAxiom ax : axioms)
+			man.addAxiom(ont, ax);
+		return ont;
+	}
+
+	private OWLOntology createImportingOntology(OWLOntologyManager man, IRI... imports) throws Exception {
+		OWLOntology ont = createOntology(man, IRI.create("urn:test:ont"), ab);
+		for(IRI iri : imports)
+			man.applyChange(new AddImport(ont, df.getOWLImportsDeclaration(iri)));
+		return ont;
+	}
+
+	private OWLClass getNamedClass(String name) {
+		return df.getOWLClass(IRI.create("urn:test#" + name));
+	}
+
+	private static void delete(File f) {
+		File[] children = f.listFiles();
+		if(children != null)
+			for(File child : children) delete(child);
+		f.delete();
+	}
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests of the working ontologies built by an {@link InputPreprocessor}, in particular that ABox and unary
+ * disjointness axioms are only dropped from the root ontology</p>
+ */
+public class InputPreprocessorTest {
+	private OWLDataFactory df;
+	private OWLOntology root, imported;
+	private OWLAxiom ab, rootAssertion, rootDisjoint, xy, importedAssertion, importedDisjoint;
+
+	@Before
+	public void setUp() throws Exception {
+		OWLOntologyManager man = OWLManager.createOWLOntologyManager();
+		df = man.getOWLDataFactory();
+		OWLClass a = getNamedClass("A"), b = getNamedClass("B"), x = getNamedClass("X"), y = getNamedClass("Y");
+		ab = df.getOWLSubClassOfAxiom(a, b);
+		rootAssertion = df.getOWLClassAssertionAxiom(a, df.getOWLNamedIndividual(IRI.create("urn:test#i")));
+		rootDisjoint = df.getOWLDisjointClassesAxiom(Collections.<OWLClassExpression>singleton(a));
+		xy = df.getOWLSubClassOfAxiom(x, y);
+		importedAssertion = df.getOWLClassAssertionAxiom(x, df.getOWLNamedIndividual(IRI.create("urn:test#j")));
+		importedDisjoint = df.getOWLDisjointClassesAxiom(Collections.<OWLClassExpression>singleton(x));
+		imported = man.createOntology(new HashSet<OWLAxiom>(Arrays.asList(xy, importedAssertion, importedDisjoint)), IRI.create("urn:test:imported"));
+		root = man.createOntology(new HashSet<OWLAxiom>(Arrays.asList(ab, rootAssertion, rootDisjoint)), IRI.create("urn:test:root"));
+		man.applyChange(new AddImport(root, df.getOWLImportsDeclaration(IRI.create("urn:test:imported"))));
+	}
+
+	@Test
+	public void filtersRootAxiomsOnly() {
+		OWLOntology result = new InputPreprocessor(root, true, true, false).invoke();
+		assertEquals(new HashSet<OWLAxiom>(Arrays.asList(ab, xy, importedAssertion, importedDisjoint)), result.getAxioms());
+		assertTrue(result.getImports().isEmpty());
+		assertEquals(root.getOntologyID(), result.getOntologyID());
+		// The input is left unchanged
+		assertTrue(root.containsAxiom(rootAssertion));
+		assertTrue(root.containsAxiom(rootDisjoint));
+	}
+
+	@Test
+	public void keepsAboxUnlessIgnored() {
+		OWLOntology result = new InputPreprocessor(root, true, false, false).invoke();
+		assertTrue(result.containsAxiom(rootAssertion));
+		assertFalse(result.containsAxiom(rootDisjoint));
+	}
+
+	@Test
+	public void leavesOutImportsUnlessProcessed() {
+		OWLOntology result = new InputPreprocessor(root, false, true, false).invoke();
+		assertEquals(Collections.singleton(ab), result.getAxioms());
+	}
+
+	@Test
+	public void normalizesEntityIris() {
+		OWLOntology result = new InputPreprocessor(root, true, true, true).invoke();
+		IRI a = IRI.create(InputPreprocessor.normalizedNamespace + "A"), b = IRI.create(InputPreprocessor.normalizedNamespace + "B");
+		assertTrue(result.containsAxiom(df.getOWLSubClassOfAxiom(df.getOWLClass(a), df.getOWLClass(b))));
+		assertFalse(result.containsAxiom(ab));
+	}
+
+	@Test
+	public void collectsAxiomsOfSharedImports() {
+		InputPreprocessor prep = new InputPreprocessor(root, true, true, false);
+		prep.setSharedImports(Collections.singleton(imported));
+		OWLOntology result = prep.invoke();
+		assertEquals(new HashSet<OWLAxiom>(Arrays.asList(xy, importedAssertion, importedDisjoint)), prep.getSharedImportAxioms());
+		assertEquals(Collections.singleton(ab), prep.getChangedModules().getAxioms());
+		assertEquals(4, result.getAxiomCount());
+	}
+
+	private OWLClass getNamedClass(String name) {
+		return df.getOWLClass(IRI.create("urn:test#" + name));
+	}
+}
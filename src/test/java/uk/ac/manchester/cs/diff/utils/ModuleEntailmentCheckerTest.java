@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.diff.TestOntologies;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests that {@link ModuleEntailmentChecker} agrees with a reasoner over the whole ontology</p>
+ */
+public class ModuleEntailmentCheckerTest {
+
+	@Test
+	public void moduleEntailmentsMatchFullOntologyChecks() throws Exception {
+		for(long seed = 1; seed <= 3; seed++) {
+			TestOntologies ontologies = new TestOntologies(OWLManager.createOWLOntologyManager(), seed);
+			OWLOntology ont = ontologies.getVersionPair(30)[0];
+			List<OWLAxiom> candidates = new ArrayList<OWLAxiom>();
+			for(OWLAxiom ax : ont.getLogicalAxioms())
+				candidates.add(ontologies.getWeakening(ax));
+			for(int i = 0; i < 20; i++)
+				candidates.add(ontologies.getAxiom());
+			OWLReasoner reasoner = new ReasonerLoader(ont).createReasoner(false);
+			// A small cache makes later checks evict and recreate module reasoners
+			ModuleEntailmentChecker modules = new ModuleEntailmentChecker(ont, 4);
+			for(OWLAxiom ax : candidates) {
+				assertEquals(reasoner.isEntailed(ax), modules.isEntailed(ax));
+				assertTrue(modules.getModuleSize(ax) <= ont.getLogicalAxiomCount());
+			}
+			modules.dispose();
+			reasoner.dispose();
+		}
+	}
+}
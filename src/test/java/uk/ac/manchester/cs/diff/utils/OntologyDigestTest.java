@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests that an {@link OntologyDigest} is stable for structurally equivalent ontologies, and that it changes,
+ * and locates the change, whenever a logical axiom is added, removed or altered</p>
+ */
+public class OntologyDigestTest {
+	// Digest of the axioms below, which must not change across JVM runs or platforms
+	private static final String DIGEST = "907993fbd4b2fab232c3e7dee2f167e3";
+	private OWLDataFactory df;
+	private OWLClass a, b, c;
+	private OWLObjectProperty r;
+	private List<OWLAxiom> axioms;
+
+	@Before
+	public void setUp() {
+		df = OWLManager.getOWLDataFactory();
+		a = getNamedClass("A"); b = getNamedClass("B"); c = getNamedClass("C");
+		r = df.getOWLObjectProperty(IRI.create("urn:test#r"));
+		axioms = new ArrayList<OWLAxiom>(Arrays.asList(
+				df.getOWLSubClassOfAxiom(a, b),
+				df.getOWLSubClassOfAxiom(b, df.getOWLObjectSomeValuesFrom(r, c)),
+				df.getOWLEquivalentClassesAxiom(c, df.getOWLObjectIntersectionOf(a, b)),
+				df.getOWLObjectPropertyDomainAxiom(r, a)));
+	}
+
+	@Test
+	public void isStableAcrossManagersAndAxiomOrder() throws Exception {
+		OntologyDigest d1 = new OntologyDigest(createOntology(axioms), true);
+		Collections.reverse(axioms);
+		OntologyDigest d2 = new OntologyDigest(createOntology(axioms), true);
+		assertTrue(d1.isEquivalent(d2));
+		assertEquals(d1.toString(), d2.toString());
+		assertTrue(d1.getChangedAxiomTypes(d2).isEmpty());
+		assertTrue(d1.getChangedEntities(d2).isEmpty());
+	}
+
+	@Test
+	public void isStableAcrossRuns() throws Exception {
+		assertEquals(DIGEST, new OntologyDigest(createOntology(axioms), false).toString());
+	}
+
+	@Test
+	public void ignoresSubsumptionsOfThingAndNonLogicalAxioms() throws Exception {
+		OntologyDigest d1 = new OntologyDigest(createOntology(axioms), false);
+		axioms.add(df.getOWLSubClassOfAxiom(a, df.getOWLThing()));
+		axioms.add(df.getOWLDeclarationAxiom(a));
+		axioms.add(df.getOWLAnnotationAssertionAxiom(df.getRDFSLabel(), a.getIRI(), df.getOWLLiteral("A")));
+		assertTrue(d1.isEquivalent(new OntologyDigest(createOntology(axioms), false)));
+	}
+
+	@Test
+	public void locatesAddedAxiom() throws Exception {
+		OntologyDigest d1 = new OntologyDigest(createOntology(axioms), true);
+		OWLClass d = getNamedClass("D");
+		axioms.add(df.getOWLDisjointClassesAxiom(a, d));
+		OntologyDigest d2 = new OntologyDigest(createOntology(axioms), true);
+		assertFalse(d1.isEquivalent(d2));
+		assertEquals(Collections.singleton(AxiomType.DISJOINT_CLASSES), d1.getChangedAxiomTypes(d2));
+		assertEquals(new HashSet<OWLEntity>(Arrays.asList(a, d)), d1.getChangedEntities(d2));
+	}
+
+	@Test
+	public void locatesRemovedAxiom() throws Exception {
+		OntologyDigest d1 = new OntologyDigest(createOntology(axioms), true);
+		axioms.remove(df.getOWLObjectPropertyDomainAxiom(r, a));
+		OntologyDigest d2 = new OntologyDigest(createOntology(axioms), true);
+		assertFalse(d1.isEquivalent(d2));
+		assertEquals(Collections.singleton(AxiomType.OBJECT_PROPERTY_DOMAIN), d2.getChangedAxiomTypes(d1));
+		assertEquals(new HashSet<OWLEntity>(Arrays.asList(r, a)), d2.getChangedEntities(d1));
+	}
+
+	@Test
+	public void changesWithAxiomAnnotationsAndOperands() throws Exception {
+		OntologyDigest d1 = new OntologyDigest(createOntology(axioms), false);
+		List<OWLAxiom> annotated = new ArrayList<OWLAxiom>(axioms);
+		annotated.set(0, axioms.get(0).getAnnotatedAxiom(Collections.singleton(df.getOWLAnnotation(df.getRDFSComment(), df.getOWLLiteral("x")))));
+		assertFalse(d1.isEquivalent(new OntologyDigest(createOntology(annotated), false)));
+		// Swapping the operands of a subsumption keeps the signature of the axiom, but not the axiom
+		List<OWLAxiom> swapped = new ArrayList<OWLAxiom>(axioms);
+		swapped.set(0, df.getOWLSubClassOfAxiom(b, a));
+		OntologyDigest d2 = new OntologyDigest(createOntology(swapped), true);
+		assertFalse(d1.isEquivalent(d2));
+		assertEquals(Collections.singleton(AxiomType.SUBCLASS_OF), d1.getChangedAxiomTypes(d2));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void needsEntityDigestsToLocateEntities() throws Exception {
+		OntologyDigest d = new OntologyDigest(createOntology(axioms), false);
+		d.getChangedEntities(d);
+	}
+
+	private OWLOntology createOntology(List<OWLAxiom> axioms) throws Exception {
+		OWLOntologyManager man = OWLManager.createOWLOntologyManager();
+		OWLOntology ont = man.createOntology();
+		for(OWLAxiom ax : axioms)
+			man.addAxiom(ont, ax);
+		return ont;
+	}
+
+	private OWLClass getNamedClass(String name) {
+		return df.getOWLClass(IRI.create("urn:test#" + name));
+	}
+}
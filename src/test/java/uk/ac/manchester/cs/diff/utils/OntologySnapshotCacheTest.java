@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests of the snapshots kept by an {@link OntologySnapshotCache}: their keys, round trips, and invalidation
+ * when an imported document changes</p>
+ */
+public class OntologySnapshotCacheTest {
+	private File dir;
+	private OWLDataFactory df;
+	private OWLAxiom ab, bc, assertion;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = Files.createTempDirectory("snapshots").toFile();
+		df = OWLManager.getOWLDataFactory();
+		OWLClass a = getNamedClass("A"), b = getNamedClass("B"), c = getNamedClass("C");
+		ab = df.getOWLSubClassOfAxiom(a, b);
+		bc = df.getOWLSubClassOfAxiom(b, c);
+		assertion = df.getOWLClassAssertionAxiom(a, df.getOWLNamedIndividual(IRI.create("urn:test#i")));
+	}
+
+	@After
+	public void tearDown() {
+		delete(dir);
+	}
+
+	@Test
+	public void keysDependOnContentAndSettings() throws Exception {
+		File f1 = write("v1.owl", "one"), f2 = write("v2.owl", "two"), f3 = write("v3.owl", "one");
+		OntologySnapshotCache cache = new OntologySnapshotCache(dir.getPath(), true, false, true);
+		assertEquals(cache.getKey(f1), cache.getKey(f3));
+		assertFalse(cache.getKey(f1).equals(cache.getKey(f2)));
+		assertFalse(cache.getKey(f1).equals(new OntologySnapshotCache(dir.getPath(), false, false, true).getKey(f1)));
+		assertFalse(cache.getKey(f1).equals(new OntologySnapshotCache(dir.getPath(), true, true, true).getKey(f1)));
+		assertFalse(cache.getKey(f1).equals(new OntologySnapshotCache(dir.getPath(), true, false, false).getKey(f1)));
+		assertNull(cache.getKey(new File(dir, "missing.owl")));
+	}
+
+	@Test
+	public void rebuildsSavedOntology() throws Exception {
+		OWLOntologyManager man = OWLManager.createOWLOntologyManager();
+		OWLOntology ont = man.createOntology(new OWLOntologyID(IRI.create("urn:test:ont"), IRI.create("urn:test:ont/1")));
+		man.addAxiom(ont, ab);
+		man.addAxiom(ont, assertion);
+		OntologySnapshotCache cache = new OntologySnapshotCache(dir.getPath(), false, false, true);
+		assertNull(cache.load("key", OWLManager.createOWLOntologyManager()));
+		cache.save("key", ont);
+		OWLOntology loaded = cache.load("key", OWLManager.createOWLOntologyManager());
+		assertNotNull(loaded);
+		assertEquals(ont.getOntologyID(), loaded.getOntologyID());
+		assertEquals(ont.getAxioms(), loaded.getAxioms());
+	}
+
+	@Test
+	public void leavesOutAboxAxiomsWhenIgnored() throws Exception {
+		OWLOntologyManager man = OWLManager.createOWLOntologyManager();
+		OWLOntology ont = man.createOntology(IRI.create("urn:test:ont"));
+		man.addAxiom(ont, ab);
+		man.addAxiom(ont, assertion);
+		OntologySnapshotCache cache = new OntologySnapshotCache(dir.getPath(), false, true, true);
+		cache.save("key", ont);
+		OWLOntology loaded = cache.load("key", OWLManager.createOWLOntologyManager());
+		assertEquals(1, loaded.getAxiomCount());
+		assertEquals(0, loaded.getAxiomCount(AxiomType.CLASS_ASSERTION));
+	}
+
+	@Test
+	public void discardsSnapshotWhenImportChanges() throws Exception {
+		File imported = new File(dir, "imported.owl"), importing = new File(dir, "importing.owl");
+		OWLOntologyManager man = OWLManager.createOWLOntologyManager();
+		OWLOntology imp = man.createOntology(IRI.create(imported));
+		man.addAxiom(imp, bc);
+		man.saveOntology(imp, IRI.create(imported));
+		OWLOntology ont = man.createOntology(IRI.create("urn:test:importing"));
+		man.addAxiom(ont, ab);
+		man.applyChange(new AddImport(ont, df.getOWLImportsDeclaration(IRI.create(imported))));
+		man.saveOntology(ont, IRI.create(importing));
+
+		OWLOntology loadedOnt = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(importing);
+		OntologySnapshotCache cache = new OntologySnapshotCache(dir.getPath(), true, false, true);
+		cache.save("key", loadedOnt);
+		OWLOntology loaded = cache.load("key", OWLManager.createOWLOntologyManager());
+		assertNotNull(loaded);
+		assertTrue(loaded.containsAxiom(bc));
+
+		man.addAxiom(imp, df.getOWLSubClassOfAxiom(getNamedClass("C"), getNamedClass("D")));
+		man.saveOntology(imp, IRI.create(imported));
+		assertNull(cache.load("key", OWLManager.createOWLOntologyManager()));
+	}
+
+	@Test
+	public void ignoresUnreadableSnapshot() throws Exception {
+		write("key.snapshot", "not a snapshot");
+		assertNull(new OntologySnapshotCache(dir.getPath(), false, false, true).load("key", OWLManager.createOWLOntologyManager()));
+	}
+
+	private File write(String name, String content) throws IOException {
+		File f = new File(dir, name);
+		FileOutputStream out = new FileOutputStream(f);
+		try {
+			out.write(content.getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+		return f;
+	}
+
+	private OWLClass getNamedClass(String name) {
+		return df.getOWLClass(IRI.create("urn:test#" + name));
+	}
+
+	private static void delete(File f) {
+		File[] children = f.listFiles();
+		if(children != null)
+			for(File child : children) delete(child);
+		f.delete();
+	}
+}
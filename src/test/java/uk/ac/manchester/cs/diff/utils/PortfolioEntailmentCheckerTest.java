@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.HermiT.Configuration;
+import org.semanticweb.HermiT.Reasoner;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.reasoner.BufferingMode;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.ReasonerInterruptedException;
+import org.semanticweb.owlapi.reasoner.SimpleConfiguration;
+
+import uk.ac.manchester.cs.diff.utils.ReasonerLoader.ReasonerType;
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests of the races run by a {@link PortfolioEntailmentChecker}, with primary reasoners that only return once
+ * interrupted, so that the other engine always wins a race</p>
+ */
+public class PortfolioEntailmentCheckerTest {
+	private OWLOntology ont;
+	private OWLAxiom entailed, notEntailed;
+	private PortfolioEntailmentChecker portfolio;
+
+	@Before
+	public void setUp() throws Exception {
+		OWLOntologyManager man = OWLManager.createOWLOntologyManager();
+		OWLDataFactory df = man.getOWLDataFactory();
+		OWLClass a = getNamedClass(df, "A"), b = getNamedClass(df, "B"), c = getNamedClass(df, "C");
+		ont = man.createOntology(IRI.create("urn:test:ont"));
+		man.addAxiom(ont, df.getOWLSubClassOfAxiom(a, b));
+		man.addAxiom(ont, df.getOWLSubClassOfAxiom(b, c));
+		entailed = df.getOWLSubClassOfAxiom(a, c);
+		notEntailed = df.getOWLSubClassOfAxiom(c, a);
+	}
+
+	@After
+	public void tearDown() {
+		if(portfolio != null) portfolio.dispose();
+	}
+
+	@Test
+	public void answersWithoutRaceBelowThreshold() {
+		portfolio = new PortfolioEntailmentChecker(ont, 60000);
+		OWLReasoner primary = new ReasonerLoader(ont).createReasoner(false);
+		assertTrue(portfolio.isEntailed(primary, entailed));
+		assertFalse(portfolio.isEntailed(primary, notEntailed));
+		assertEquals(0, portfolio.getRaceCount());
+		assertEquals(2, portfolio.getAnswerCount(ReasonerType.HERMIT));
+		assertEquals(0, portfolio.getAnswerCount(ReasonerType.JFACT));
+		assertFalse(portfolio.mustDiscard(primary));
+		primary.dispose();
+	}
+
+	@Test
+	public void jfactWinsRaceAgainstStuckHermit() {
+		portfolio = new PortfolioEntailmentChecker(ont, 10);
+		OWLReasoner primary = new StuckHermit(ont);
+		assertTrue(portfolio.isEntailed(primary, entailed));
+		assertFalse(portfolio.isEntailed(new StuckHermit(ont), notEntailed));
+		assertEquals(2, portfolio.getRaceCount());
+		assertEquals(2, portfolio.getWinCount(ReasonerType.JFACT));
+		assertEquals(0, portfolio.getWinCount(ReasonerType.HERMIT));
+		// Interrupted HermiT reasoners remain usable
+		assertFalse(portfolio.mustDiscard(primary));
+	}
+
+	@Test
+	public void hermitWinsRaceAgainstStuckJFact() {
+		portfolio = new PortfolioEntailmentChecker(ont, 10);
+		OWLReasoner primary = new StuckJFact(ont);
+		assertTrue(portfolio.isEntailed(primary, entailed));
+		assertEquals(1, portfolio.getRaceCount());
+		assertEquals(1, portfolio.getWinCount(ReasonerType.HERMIT));
+		// An interrupted JFact reasoner must be discarded, which is reported once
+		assertTrue(portfolio.mustDiscard(primary));
+		assertFalse(portfolio.mustDiscard(primary));
+	}
+
+	@Test(expected=ReasonerInterruptedException.class)
+	public void rethrowsInterruptOutsideRace() throws Exception {
+		portfolio = new PortfolioEntailmentChecker(ont, 60000);
+		final OWLReasoner primary = new StuckHermit(ont);
+		Thread interrupter = new Thread() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(50);
+				} catch (InterruptedException e) {
+					return;
+				}
+				primary.interrupt();
+			}
+		};
+		interrupter.start();
+		portfolio.isEntailed(primary, entailed);
+	}
+
+	private static OWLClass getNamedClass(OWLDataFactory df, String name) {
+		return df.getOWLClass(IRI.create("urn:test#" + name));
+	}
+
+
+	/**
+	 * HermiT reasoner whose entailment checks only return, by throwing, once the reasoner is interrupted
+	 */
+	private static class StuckHermit extends Reasoner {
+		private final CountDownLatch interrupted = new CountDownLatch(1);
+
+		StuckHermit(OWLOntology ont) {
+			super(new Configuration(), ont);
+		}
+
+		@Override
+		public boolean isEntailed(OWLAxiom axiom) {
+			awaitInterrupt(interrupted);
+			throw new ReasonerInterruptedException();
+		}
+
+		@Override
+		public void interrupt() {
+			interrupted.countDown();
+		}
+	}
+
+
+	/**
+	 * JFact reasoner whose entailment checks only return, by throwing, once the reasoner is interrupted
+	 */
+	private static class StuckJFact extends JFactReasoner {
+		private final CountDownLatch interrupted = new CountDownLatch(1);
+
+		StuckJFact(OWLOntology ont) {
+			super(ont, new SimpleConfiguration(), BufferingMode.NON_BUFFERING);
+		}
+
+		@Override
+		public boolean isEntailed(OWLAxiom axiom) {
+			awaitInterrupt(interrupted);
+			throw new ReasonerInterruptedException();
+		}
+
+		@Override
+		public void interrupt() {
+			interrupted.countDown();
+		}
+	}
+
+
+	private static void awaitInterrupt(CountDownLatch interrupted) {
+		try {
+			interrupted.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.diff.TestOntologies;
+import uk.ac.manchester.cs.diff.utils.ReasonerLoader.ReasonerType;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests of the reasoners created by a {@link ReasonerLoader}</p>
+ */
+public class ReasonerLoaderTest {
+
+	@Test
+	public void createsReasonerOfGivenType() throws Exception {
+		OWLOntology ont = new TestOntologies(OWLManager.createOWLOntologyManager(), 1).getVersionPair(10)[0];
+		ReasonerLoader loader = new ReasonerLoader(ont);
+		OWLReasoner jfact = loader.createReasoner(ReasonerType.JFACT, false);
+		assertEquals(ReasonerType.JFACT, ReasonerLoader.getReasonerType(jfact));
+		assertEquals(ReasonerType.JFACT, loader.getReasonerType());
+		OWLReasoner hermit = loader.createReasoner(ReasonerType.HERMIT, false);
+		assertEquals(ReasonerType.HERMIT, ReasonerLoader.getReasonerType(hermit));
+		assertEquals(ReasonerType.HERMIT, loader.getReasonerType());
+		assertEquals(ReasonerType.HERMIT, ReasonerLoader.getConcreteType(null));
+		jfact.dispose(); hermit.dispose();
+	}
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.diff.TestOntologies;
+import uk.ac.manchester.cs.diff.utils.ReasonerLoader.ReasonerType;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests that {@link ReasonerPool} replicas answer entailment checks as the primary reasoner does</p>
+ */
+public class ReasonerPoolTest {
+	private TestOntologies ontologies;
+	private OWLOntology ont;
+	private OWLReasoner primary;
+	private ReasonerPool pool;
+
+	@Before
+	public void setUp() throws Exception {
+		ontologies = new TestOntologies(OWLManager.createOWLOntologyManager(), 1);
+		ont = ontologies.getVersionPair(30)[0];
+		primary = new ReasonerLoader(ont).createReasoner(false);
+		pool = new ReasonerPool(ont, primary, 2);
+	}
+
+	@After
+	public void tearDown() {
+		pool.dispose();
+		primary.dispose();
+	}
+
+	@Test
+	public void replicasMatchPrimaryReasoner() throws Exception {
+		OWLReasoner first = pool.acquire(), second = pool.acquire();
+		assertSame(primary, first);
+		assertNotSame(primary, second);
+		assertEquals(2, pool.getReplicaCount());
+		List<OWLAxiom> candidates = new ArrayList<OWLAxiom>(ont.getLogicalAxioms());
+		for(int i = 0; i < 40; i++)
+			candidates.add(ontologies.getAxiom());
+		for(OWLAxiom ax : candidates)
+			assertEquals(primary.isEntailed(ax), second.isEntailed(ax));
+		pool.release(first); pool.release(second);
+	}
+
+	@Test
+	public void discardReplacesReplicaButKeepsPrimary() throws Exception {
+		OWLReasoner first = pool.acquire();
+		pool.discard(first);
+		assertEquals(1, pool.getReplicaCount());
+		OWLReasoner replacement = pool.acquire();
+		assertNotSame(primary, replacement);
+		assertTrue(primary.isEntailed(ont.getLogicalAxioms().iterator().next()));
+		pool.release(replacement);
+	}
+
+	@Test
+	public void replicasAreOfPrimaryReasonerType() throws Exception {
+		OWLReasoner jfact = new ReasonerLoader(ont).createReasoner(ReasonerType.JFACT, false);
+		ReasonerPool jfactPool = new ReasonerPool(ont, jfact, 2);
+		OWLReasoner first = jfactPool.acquire(), second = jfactPool.acquire();
+		assertEquals(ReasonerType.JFACT, ReasonerLoader.getReasonerType(second));
+		jfactPool.release(first); jfactPool.release(second);
+		jfactPool.dispose();
+		jfact.dispose();
+	}
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.diff.TestOntologies;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests that the checks settled by {@link SaturationEntailmentChecker} agree with a reasoner</p>
+ */
+public class SaturationEntailmentCheckerTest {
+
+	@Test
+	public void settledChecksMatchReasoner() throws Exception {
+		for(long seed = 1; seed <= 3; seed++) {
+			TestOntologies ontologies = new TestOntologies(OWLManager.createOWLOntologyManager(), seed);
+			// Version 1 contains weakenings with unions, so only some checks are settled
+			OWLOntology ont = ontologies.getVersionPair(30)[0];
+			List<OWLAxiom> candidates = getCandidates(ontologies, ont);
+			OWLReasoner reasoner = new ReasonerLoader(ont).createReasoner(false);
+			SaturationEntailmentChecker saturation = new SaturationEntailmentChecker(ont);
+			for(OWLAxiom ax : candidates) {
+				Boolean entailed = saturation.isEntailed(ax);
+				if(entailed != null)
+					assertEquals(reasoner.isEntailed(ax), entailed);
+			}
+			assertTrue(saturation.getResolvedCount() > 0);
+			reasoner.dispose();
+		}
+	}
+
+
+	@Test
+	public void elOntologySettlesElChecks() throws Exception {
+		for(long seed = 1; seed <= 3; seed++) {
+			TestOntologies ontologies = new TestOntologies(OWLManager.createOWLOntologyManager(), seed);
+			List<OWLAxiom> axioms = new ArrayList<OWLAxiom>();
+			for(int i = 0; i < 30; i++)
+				axioms.add(ontologies.getAxiom());
+			OWLOntology ont = ontologies.createOntology(IRI.create(TestOntologies.NS + "el"), axioms);
+			OWLReasoner reasoner = new ReasonerLoader(ont).createReasoner(false);
+			SaturationEntailmentChecker saturation = new SaturationEntailmentChecker(ont);
+			assertTrue(saturation.isComplete());
+			for(int i = 0; i < 30; i++) {
+				// Random axioms are in the EL fragment, so entailments and non-entailments are both settled
+				OWLAxiom ax = ontologies.getAxiom();
+				Boolean entailed = saturation.isEntailed(ax);
+				assertNotNull(entailed);
+				assertEquals(reasoner.isEntailed(ax), entailed);
+			}
+			reasoner.dispose();
+		}
+	}
+
+
+	/**
+	 * Get weakenings of the ontology axioms, which are entailed, and random axioms, which mostly are not
+	 * @param ontologies	Test ontology generator
+	 * @param ont	Ontology
+	 * @return List of candidate axioms
+	 */
+	private List<OWLAxiom> getCandidates(TestOntologies ontologies, OWLOntology ont) {
+		List<OWLAxiom> candidates = new ArrayList<OWLAxiom>();
+		for(OWLAxiom ax : ont.getLogicalAxioms())
+			candidates.add(ontologies.getWeakening(ax));
+		for(int i = 0; i < 20; i++)
+			candidates.add(ontologies.getAxiom());
+		return candidates;
+	}
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * This file is part of ecco.
+ * 
+ * ecco is distributed under the terms of the GNU Lesser General Public License (LGPL), Version 3.0.
+ *  
+ * Copyright 2011-2014, The University of Manchester
+ *  
+ * ecco is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the 
+ * License, or (at your option) any later version.
+ *  
+ * ecco is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser 
+ * General Public License for more details.
+ *  
+ * You should have received a copy of the GNU Lesser General Public License along with ecco.
+ * If not, see http://www.gnu.org/licenses/.
+ ******************************************************************************/
+package uk.ac.manchester.cs.diff.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.diff.TestOntologies;
+
+/**
+ * @author Rafael S. Goncalves <br>
+ * Stanford Center for Biomedical Informatics Research (BMIR) <br>
+ * School of Medicine, Stanford University <br>
+ * <p>Tests that the tautology checks settled by a {@link TautologyChecker}, shared by several threads each with
+ * their own entailment checker, agree with a reasoner over the empty ontology</p>
+ */
+public class TautologyCheckerTest {
+	private static final int NR_THREADS = 4;
+
+	@Test
+	public void settledChecksMatchReasoner() throws Exception {
+		TestOntologies ontologies = new TestOntologies(OWLManager.createOWLOntologyManager(), 1);
+		OWLDataFactory df = OWLManager.getOWLDataFactory();
+		final List<OWLAxiom> axioms = new ArrayList<OWLAxiom>();
+		for(int i = 0; i < 50; i++) {
+			// Random axioms are rarely tautologies, unlike subsumptions of a conjunction by a conjunct
+			OWLClassExpression c = ontologies.getClassExpression(2), d = ontologies.getClassExpression(2);
+			axioms.add(ontologies.getAxiom());
+			axioms.add(df.getOWLSubClassOfAxiom(df.getOWLObjectIntersectionOf(c, d), c));
+			axioms.add(df.getOWLSubClassOfAxiom(c, df.getOWLObjectUnionOf(c, d)));
+		}
+		final TautologyChecker tautologies = new TautologyChecker();
+		ExecutorService executor = Executors.newFixedThreadPool(NR_THREADS);
+		List<Future<Set<OWLAxiom>>> futures = new ArrayList<Future<Set<OWLAxiom>>>();
+		for(int t = 0; t < NR_THREADS; t++) {
+			futures.add(executor.submit(new Callable<Set<OWLAxiom>>() {
+				@Override
+				public Set<OWLAxiom> call() {
+					AxiomEntailmentChecker checker = new AxiomEntailmentChecker(Collections.<OWLAxiom>emptySet());
+					Set<OWLAxiom> unsettled = new HashSet<OWLAxiom>();
+					for(OWLAxiom ax : axioms) {
+						if(tautologies.isTautology(ax, checker) == null)
+							unsettled.add(ax);
+					}
+					return unsettled;
+				}
+			}));
+		}
+		Set<OWLAxiom> unsettled = new HashSet<OWLAxiom>();
+		for(Future<Set<OWLAxiom>> future : futures)
+			unsettled.addAll(future.get());
+		executor.shutdown();
+		OWLOntology empty = ontologies.createOntology(IRI.create(TestOntologies.NS + "empty"), Collections.<OWLAxiom>emptySet());
+		OWLReasoner reasoner = new ReasonerLoader(empty).createReasoner(false);
+		for(OWLAxiom ax : unsettled)
+			tautologies.put(ax, reasoner.isEntailed(ax));
+		// Every axiom is now in the memo, which must agree with the reasoner
+		for(OWLAxiom ax : axioms) {
+			Boolean tautology = tautologies.isTautology(ax, null);
+			assertNotNull(tautology);
+			assertEquals(reasoner.isEntailed(ax), tautology);
+		}
+		assertEquals(NR_THREADS * axioms.size() + axioms.size(), tautologies.getCheckCount());
+		assertTrue(tautologies.getResolvedCount() > axioms.size());
+		reasoner.dispose();
+	}
+
+
+	@Test
+	public void memoOnlyWithoutChecker() throws Exception {
+		TestOntologies ontologies = new TestOntologies(OWLManager.createOWLOntologyManager(), 2);
+		TautologyChecker tautologies = new TautologyChecker();
+		OWLAxiom ax = ontologies.getAxiom();
+		assertNull(tautologies.isTautology(ax, null));
+		tautologies.put(ax, false);
+		assertEquals(Boolean.FALSE, tautologies.isTautology(ax, null));
+		assertEquals(1, tautologies.getResolvedCount());
+	}
+}